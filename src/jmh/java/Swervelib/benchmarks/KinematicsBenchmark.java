@@ -0,0 +1,127 @@
+package Swervelib.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import Swervelib.math.SwerveKinematics2;
+import Swervelib.math.SwerveModuleState2;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the {@link SwerveKinematics2} hot path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class KinematicsBenchmark
+{
+
+  /**
+   * Kinematics of a square four module drive.
+   */
+  private SwerveKinematics2    kinematics;
+  /**
+   * Chassis speeds translating and rotating.
+   */
+  private ChassisSpeeds        speeds;
+  /**
+   * Measured module states.
+   */
+  private SwerveModuleState2[] states;
+  /**
+   * Chassis speeds written by forward kinematics.
+   */
+  private ChassisSpeeds        result;
+  /**
+   * Centers of rotation alternated between.
+   */
+  private Translation2d[]      centers;
+  /**
+   * Calls to {@link #toSwerveModuleStatesCenterOfRotation()}.
+   */
+  private int                  calls = 0;
+
+  /**
+   * Create the kinematics and inputs.
+   */
+  @Setup
+  public void setup()
+  {
+    double half = 0.29;
+    kinematics = new SwerveKinematics2(new Translation2d(half, half), new Translation2d(half, -half),
+                                       new Translation2d(-half, half), new Translation2d(-half, -half));
+    speeds = new ChassisSpeeds(2.0, 1.0, 1.5);
+    states = kinematics.toSwerveModuleStates(speeds);
+    result = new ChassisSpeeds();
+    centers = new Translation2d[]{new Translation2d(), new Translation2d(half, 0)};
+  }
+
+  /**
+   * Inverse kinematics from chassis speeds to module states.
+   *
+   * @return Module states.
+   */
+  @Benchmark
+  public SwerveModuleState2[] toSwerveModuleStates()
+  {
+    return kinematics.toSwerveModuleStates(speeds);
+  }
+
+  /**
+   * Forward kinematics into a new {@link ChassisSpeeds}.
+   *
+   * @return Chassis speeds.
+   */
+  @Benchmark
+  public ChassisSpeeds toChassisSpeeds()
+  {
+    return kinematics.toChassisSpeeds(states);
+  }
+
+  /**
+   * Forward kinematics into a reused {@link ChassisSpeeds}.
+   *
+   * @return Chassis speeds.
+   */
+  @Benchmark
+  public ChassisSpeeds toChassisSpeedsInto()
+  {
+    kinematics.toChassisSpeeds(result, states);
+    return result;
+  }
+
+  /**
+   * Desaturate module speeds which exceed the maximum speed.
+   *
+   * @return Desaturated module states.
+   */
+  @Benchmark
+  public SwerveModuleState2[] desaturateWheelSpeeds()
+  {
+    for (SwerveModuleState2 state : states)
+    {
+      state.speedMetersPerSecond = 5.0;
+    }
+    SwerveKinematics2.desaturateWheelSpeeds(states, 4.5);
+    return states;
+  }
+
+  /**
+   * Inverse kinematics about a changing center of rotation, served by the kinematics matrix cache.
+   *
+   * @return Module states.
+   */
+  @Benchmark
+  public SwerveModuleState2[] toSwerveModuleStatesCenterOfRotation()
+  {
+    return kinematics.toSwerveModuleStates(speeds, centers[calls++ & 1]);
+  }
+}
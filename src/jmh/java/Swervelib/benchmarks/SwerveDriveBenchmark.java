@@ -0,0 +1,76 @@
+package Swervelib.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import Swervelib.SwerveDrive;
+import Swervelib.telemetry.SwerveDriveTelemetry;
+import Swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Translation2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark of a full drive cycle, {@link SwerveDrive#drive} followed by {@link SwerveDrive#updateOdometry()}, against
+ * the virtual motors, encoders and IMU used in simulation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SwerveDriveBenchmark
+{
+
+  /**
+   * Telemetry verbosity during the cycle.
+   */
+  @Param({"NONE", "HIGH"})
+  public  String        verbosity;
+  /**
+   * Swerve drive with virtual devices.
+   */
+  private SwerveDrive   swerveDrive;
+  /**
+   * Commanded translation.
+   */
+  private Translation2d translation;
+  /**
+   * Number of cycles run, used to vary the command.
+   */
+  private int           cycles = 0;
+
+  /**
+   * Create the swerve drive.
+   *
+   * @throws IOException if the swerve configuration can't be read.
+   */
+  @Setup(Level.Trial)
+  public void setup() throws IOException
+  {
+    HAL.initialize(500, 0);
+    SwerveDriveTelemetry.verbosity = TelemetryVerbosity.valueOf(verbosity);
+    swerveDrive = VirtualSwerve.create();
+    translation = new Translation2d(2.0, 1.0);
+  }
+
+  /**
+   * Command the drive and update odometry, as the main loop does every 20 ms.
+   *
+   * @return The swerve drive.
+   */
+  @Benchmark
+  public SwerveDrive driveCycle()
+  {
+    double rotation = (cycles++ & 64) == 0 ? 1.0 : -1.0;
+    swerveDrive.drive(translation, rotation, true, false);
+    swerveDrive.updateOdometry();
+    return swerveDrive;
+  }
+}
@@ -0,0 +1,121 @@
+package Swervelib.benchmarks;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import Swervelib.math.Matter;
+import Swervelib.math.SwerveMath;
+import Swervelib.math.SwerveModuleState2;
+import Swervelib.parser.SwerveDriveConfiguration;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks of the {@link SwerveMath} functions called every loop.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SwerveMathBenchmark
+{
+
+  /**
+   * Desired module state to optimize.
+   */
+  private SwerveModuleState2       desiredState;
+  /**
+   * Current module angle.
+   */
+  private Rotation2d               currentAngle;
+  /**
+   * Angle to place in the scope of {@link #scopeReference} in degrees, a field so it is not constant folded.
+   */
+  private double                   newAngle       = 200;
+  /**
+   * Reference angle of the scope in degrees, a field so it is not constant folded.
+   */
+  private double                   scopeReference = -710;
+  /**
+   * Swerve drive configuration with virtual devices, used to limit velocity.
+   */
+  private SwerveDriveConfiguration configuration;
+  /**
+   * Matter making up the robot.
+   */
+  private List<Matter>             matter;
+  /**
+   * Commanded field relative velocity.
+   */
+  private Translation2d            commandedVelocity;
+  /**
+   * Current field relative velocity.
+   */
+  private ChassisSpeeds            fieldVelocity;
+  /**
+   * Current robot pose.
+   */
+  private Pose2d                   pose;
+
+  /**
+   * Create the inputs.
+   *
+   * @throws IOException if the swerve configuration can't be read.
+   */
+  @Setup
+  public void setup() throws IOException
+  {
+    HAL.initialize(500, 0);
+    desiredState = new SwerveModuleState2(3.0, Rotation2d.fromDegrees(200), 1.0);
+    currentAngle = Rotation2d.fromDegrees(-710);
+    configuration = VirtualSwerve.create().swerveDriveConfiguration;
+    matter = List.of(new Matter(new Translation3d(0, 0, 0.2), 50), new Matter(new Translation3d(0.1, 0, 0.9), 5));
+    commandedVelocity = new Translation2d(4.0, 1.0);
+    fieldVelocity = new ChassisSpeeds(0.5, 0, 0);
+    pose = new Pose2d(1, 1, Rotation2d.fromDegrees(30));
+  }
+
+  /**
+   * Optimize a desired module state against the current angle.
+   *
+   * @return Optimized state.
+   */
+  @Benchmark
+  public SwerveModuleState2 optimize()
+  {
+    return SwerveMath.optimize(desiredState, currentAngle, 2.0);
+  }
+
+  /**
+   * Place an angle in the 0 to 360 scope of a reference angle.
+   *
+   * @return Angle in degrees.
+   */
+  @Benchmark
+  public double placeInAppropriate0To360Scope()
+  {
+    return SwerveMath.placeInAppropriate0To360Scope(scopeReference, newAngle);
+  }
+
+  /**
+   * Limit a commanded velocity by the tipping acceleration, including calcMaxAccel.
+   *
+   * @return Limited velocity.
+   */
+  @Benchmark
+  public Translation2d limitVelocity()
+  {
+    return SwerveMath.limitVelocity(commandedVelocity, fieldVelocity, pose, 0.13, 55, matter, configuration);
+  }
+}
@@ -0,0 +1,40 @@
+package Swervelib.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+
+import Swervelib.SwerveDrive;
+import Swervelib.parser.SwerveParser;
+
+/**
+ * Swerve drives of the robot's configuration built from the virtual devices used in simulation, the same drives the
+ * tests and {@link Swervelib.simulation.SwerveBatchRunner} run, so benchmarks measure the swerve code rather than a CAN
+ * bus.
+ */
+public class VirtualSwerve
+{
+
+  /**
+   * Swerve configuration of the robot, relative to the project directory the benchmarks run in.
+   */
+  public static final File DIRECTORY = new File("src/main/deploy/swerve");
+
+  /**
+   * Utility class.
+   */
+  private VirtualSwerve()
+  {
+  }
+
+  /**
+   * Create a swerve drive of the robot's configuration with every device replaced by a virtual one. The drive is not
+   * simulated, so it reads the virtual devices the same way it reads real ones.
+   *
+   * @return {@link SwerveDrive} from {@link SwerveParser#createVirtualSwerveDrive()}.
+   * @throws IOException if the configuration can't be read.
+   */
+  public static SwerveDrive create() throws IOException
+  {
+    return new SwerveParser(DIRECTORY).createVirtualSwerveDrive();
+  }
+}
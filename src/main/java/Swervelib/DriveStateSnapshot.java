@@ -0,0 +1,235 @@
+package Swervelib;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Immutable state of the swerve drive as of one odometry update: pose, field and robot relative velocities and module
+ * states. {@link SwerveDrive} publishes a new snapshot after every odometry update, so any thread, such as vision or
+ * logging, reads a consistent state without locks and without reading the motors again. Mutable WPILib types are
+ * copied on the way out.
+ */
+public final class DriveStateSnapshot
+{
+
+  /**
+   * Number of the update, increasing by one every odometry update, reset or vision correction.
+   */
+  private final long         version;
+  /**
+   * FPGA timestamp of the odometry update in seconds.
+   */
+  private final double       timestamp;
+  /**
+   * Estimated pose.
+   */
+  private final Pose2d       pose;
+  /**
+   * Robot relative X velocity in meters per second.
+   */
+  private final double       robotVx;
+  /**
+   * Robot relative Y velocity in meters per second.
+   */
+  private final double       robotVy;
+  /**
+   * Angular velocity in radians per second, counter-clockwise positive, from the IMU on a real robot.
+   */
+  private final double       omega;
+  /**
+   * Field relative X velocity in meters per second.
+   */
+  private final double       fieldVx;
+  /**
+   * Field relative Y velocity in meters per second.
+   */
+  private final double       fieldVy;
+  /**
+   * Speed of every module in meters per second, indexed by module number.
+   */
+  private final double[]     moduleSpeeds;
+  /**
+   * Azimuth of every module, indexed by module number.
+   */
+  private final Rotation2d[] moduleAngles;
+
+  /**
+   * Create a drive state snapshot. The module states are copied.
+   *
+   * @param version       Number of the odometry update.
+   * @param timestamp     FPGA timestamp of the odometry update in seconds.
+   * @param pose          Estimated pose.
+   * @param yaw           IMU yaw the field relative velocity is rotated by, the same as field relative driving.
+   * @param robotVelocity Robot relative velocity.
+   * @param moduleStates  Measured state of every module, indexed by module number.
+   */
+  public DriveStateSnapshot(long version, double timestamp, Pose2d pose, Rotation2d yaw, ChassisSpeeds robotVelocity,
+                            SwerveModuleState[] moduleStates)
+  {
+    this.version = version;
+    this.timestamp = timestamp;
+    this.pose = pose;
+    robotVx = robotVelocity.vxMetersPerSecond;
+    robotVy = robotVelocity.vyMetersPerSecond;
+    omega = robotVelocity.omegaRadiansPerSecond;
+    // Rotate the robot relative velocity by the yaw to get the field relative velocity.
+    double cos = yaw.getCos(), sin = yaw.getSin();
+    fieldVx = robotVx * cos - robotVy * sin;
+    fieldVy = robotVx * sin + robotVy * cos;
+    moduleSpeeds = new double[moduleStates.length];
+    moduleAngles = new Rotation2d[moduleStates.length];
+    for (int i = 0; i < moduleStates.length; i++)
+    {
+      moduleSpeeds[i] = moduleStates[i].speedMetersPerSecond;
+      moduleAngles[i] = moduleStates[i].angle;
+    }
+  }
+
+  /**
+   * Copy a snapshot with a new pose.
+   *
+   * @param version  Number of the update.
+   * @param pose     Estimated pose.
+   * @param snapshot Snapshot to copy the velocities, module states and timestamp of.
+   */
+  private DriveStateSnapshot(long version, Pose2d pose, DriveStateSnapshot snapshot)
+  {
+    this.version = version;
+    this.pose = pose;
+    timestamp = snapshot.timestamp;
+    robotVx = snapshot.robotVx;
+    robotVy = snapshot.robotVy;
+    omega = snapshot.omega;
+    fieldVx = snapshot.fieldVx;
+    fieldVy = snapshot.fieldVy;
+    moduleSpeeds = snapshot.moduleSpeeds;
+    moduleAngles = snapshot.moduleAngles;
+  }
+
+  /**
+   * Copy this snapshot with a new pose, such as when odometry is reset or corrected by vision between updates.
+   *
+   * @param version Number of the update.
+   * @param pose    Estimated pose.
+   * @return New {@link DriveStateSnapshot} sharing the velocities and module states of this one.
+   */
+  DriveStateSnapshot withPose(long version, Pose2d pose)
+  {
+    return new DriveStateSnapshot(version, pose, this);
+  }
+
+  /**
+   * Create the snapshot of a stationary drive at the origin, published before the first odometry update.
+   *
+   * @param moduleCount Number of modules.
+   * @return Version 0 {@link DriveStateSnapshot}.
+   */
+  public static DriveStateSnapshot initial(int moduleCount)
+  {
+    SwerveModuleState[] states = new SwerveModuleState[moduleCount];
+    for (int i = 0; i < moduleCount; i++)
+    {
+      states[i] = new SwerveModuleState();
+    }
+    return new DriveStateSnapshot(0, 0, new Pose2d(), new Rotation2d(), new ChassisSpeeds(), states);
+  }
+
+  /**
+   * Get the number of the odometry update, to tell whether a snapshot is newer than one read before.
+   *
+   * @return Version, increasing by one every odometry update, reset or vision correction.
+   */
+  public long getVersion()
+  {
+    return version;
+  }
+
+  /**
+   * Get the time of the odometry update.
+   *
+   * @return FPGA timestamp in seconds.
+   */
+  public double getTimestamp()
+  {
+    return timestamp;
+  }
+
+  /**
+   * Get the estimated pose.
+   *
+   * @return Field relative {@link Pose2d}.
+   */
+  public Pose2d getPose()
+  {
+    return pose;
+  }
+
+  /**
+   * Get the field relative velocity.
+   *
+   * @return New {@link ChassisSpeeds} of the field relative velocity.
+   */
+  public ChassisSpeeds getFieldVelocity()
+  {
+    return new ChassisSpeeds(fieldVx, fieldVy, omega);
+  }
+
+  /**
+   * Get the robot relative velocity.
+   *
+   * @return New {@link ChassisSpeeds} of the robot relative velocity.
+   */
+  public ChassisSpeeds getRobotVelocity()
+  {
+    return new ChassisSpeeds(robotVx, robotVy, omega);
+  }
+
+  /**
+   * Get the measured module states.
+   *
+   * @return New {@link SwerveModuleState} of every module, indexed by module number.
+   */
+  public SwerveModuleState[] getModuleStates()
+  {
+    SwerveModuleState[] states = new SwerveModuleState[moduleSpeeds.length];
+    for (int i = 0; i < states.length; i++)
+    {
+      states[i] = new SwerveModuleState(moduleSpeeds[i], moduleAngles[i]);
+    }
+    return states;
+  }
+
+  /**
+   * Get the measured speed of a module.
+   *
+   * @param moduleNumber Module number.
+   * @return Speed in meters per second.
+   */
+  public double getModuleSpeed(int moduleNumber)
+  {
+    return moduleSpeeds[moduleNumber];
+  }
+
+  /**
+   * Get the measured azimuth of a module.
+   *
+   * @param moduleNumber Module number.
+   * @return Azimuth as a {@link Rotation2d}.
+   */
+  public Rotation2d getModuleAngle(int moduleNumber)
+  {
+    return moduleAngles[moduleNumber];
+  }
+
+  /**
+   * Get the number of modules.
+   *
+   * @return Module count.
+   */
+  public int getModuleCount()
+  {
+    return moduleSpeeds.length;
+  }
+}
@@ -0,0 +1,376 @@
+package Swervelib;
+
+import Swervelib.math.SwerveKinematicsEngine;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Preallocated ring buffer of timestamped odometry samples, holding the IMU yaw, every module distance and angle and the
+ * estimated pose at each sample. Used to fuse latency delayed vision measurements by correcting the pose at the nearest
+ * sample and replaying odometry from there. Nothing is allocated after construction.
+ */
+public class OdometrySampleBuffer
+{
+
+  /**
+   * Maximum number of samples held.
+   */
+  private final int      capacity;
+  /**
+   * Number of swerve modules per sample.
+   */
+  private final int      moduleCount;
+  /**
+   * Sample timestamps in seconds.
+   */
+  private final double[] timestamps;
+  /**
+   * IMU yaw at each sample in radians, not wrapped.
+   */
+  private final double[] yaws;
+  /**
+   * Estimated pose X at each sample in meters.
+   */
+  private final double[] poseX;
+  /**
+   * Estimated pose Y at each sample in meters.
+   */
+  private final double[] poseY;
+  /**
+   * Estimated heading at each sample in radians.
+   */
+  private final double[] poseTheta;
+  /**
+   * Module distances in meters, capacity x moduleCount.
+   */
+  private final double[] distances;
+  /**
+   * Module angles in radians, capacity x moduleCount.
+   */
+  private final double[] angles;
+  /**
+   * Module distance deltas between two samples, scratch for replaying odometry.
+   */
+  private final double[] distanceDeltas;
+  /**
+   * Module angles of the sample being replayed, scratch for replaying odometry.
+   */
+  private final double[] replayAngles;
+  /**
+   * Twist between two samples as dx, dy and dtheta, scratch for replaying odometry.
+   */
+  private final double[] twist = new double[3];
+  /**
+   * Physical index the next sample is written to.
+   */
+  private       int      head  = 0;
+  /**
+   * Number of samples held.
+   */
+  private       int      size  = 0;
+
+  /**
+   * Create the odometry sample buffer.
+   *
+   * @param capacity    Maximum number of samples to hold.
+   * @param moduleCount Number of swerve modules.
+   */
+  public OdometrySampleBuffer(int capacity, int moduleCount)
+  {
+    if (capacity < 2)
+    {
+      throw new IllegalArgumentException("Odometry sample buffer must hold at least 2 samples");
+    }
+    this.capacity = capacity;
+    this.moduleCount = moduleCount;
+    timestamps = new double[capacity];
+    yaws = new double[capacity];
+    poseX = new double[capacity];
+    poseY = new double[capacity];
+    poseTheta = new double[capacity];
+    distances = new double[capacity * moduleCount];
+    angles = new double[capacity * moduleCount];
+    distanceDeltas = new double[moduleCount];
+    replayAngles = new double[moduleCount];
+  }
+
+  /**
+   * Get the number of samples needed to hold the given history.
+   *
+   * @param historySeconds History to hold in seconds.
+   * @param frequencyHz    Rate samples are added at in hertz.
+   * @return Capacity to create the buffer with.
+   */
+  public static int capacityFor(double historySeconds, double frequencyHz)
+  {
+    return Math.max(2, (int) Math.ceil(historySeconds * frequencyHz) + 1);
+  }
+
+  /**
+   * Add a sample, overwriting the oldest sample when full.
+   *
+   * @param timestamp  Time of the sample in seconds.
+   * @param yawRadians IMU yaw in radians.
+   * @param positions  Module positions in module order.
+   * @param x          Estimated pose X in meters.
+   * @param y          Estimated pose Y in meters.
+   * @param theta      Estimated heading in radians.
+   */
+  public void add(double timestamp, double yawRadians, SwerveModulePosition[] positions, double x, double y,
+                  double theta)
+  {
+    timestamps[head] = timestamp;
+    yaws[head] = yawRadians;
+    poseX[head] = x;
+    poseY[head] = y;
+    poseTheta[head] = theta;
+    int base = head * moduleCount;
+    for (int i = 0; i < moduleCount; i++)
+    {
+      distances[base + i] = positions[i].distanceMeters;
+      angles[base + i] = positions[i].angle.getRadians();
+    }
+    head = (head + 1) % capacity;
+    if (size < capacity)
+    {
+      size++;
+    }
+  }
+
+  /**
+   * Convert a logical index, 0 being the oldest sample, into a physical index.
+   *
+   * @param index Logical index.
+   * @return Physical index.
+   */
+  private int physical(int index)
+  {
+    return (head - size + index + capacity) % capacity;
+  }
+
+  /**
+   * Find the sample nearest in time to the given timestamp.
+   *
+   * @param timestamp Time in seconds.
+   * @return Logical index of the nearest sample, or -1 if the buffer is empty.
+   */
+  public int findNearest(double timestamp)
+  {
+    if (size == 0)
+    {
+      return -1;
+    }
+    int low = 0, high = size - 1;
+    while (low < high)
+    {
+      int mid = (low + high) >>> 1;
+      if (timestamps[physical(mid)] < timestamp)
+      {
+        low = mid + 1;
+      } else
+      {
+        high = mid;
+      }
+    }
+    if (low > 0 && timestamp - timestamps[physical(low - 1)] < timestamps[physical(low)] - timestamp)
+    {
+      return low - 1;
+    }
+    return low;
+  }
+
+  /**
+   * Replace the estimated pose of a sample and replay odometry over every newer sample. Translation comes from the
+   * module distance deltas through the forward kinematics and heading from the IMU yaw delta, the same as
+   * {@link edu.wpi.first.math.kinematics.SwerveDriveOdometry}.
+   *
+   * @param index      Logical index of the corrected sample.
+   * @param x          Corrected pose X in meters.
+   * @param y          Corrected pose Y in meters.
+   * @param theta      Corrected heading in radians.
+   * @param kinematics Kinematics of the swerve drive.
+   */
+  public void replayFrom(int index, double x, double y, double theta, SwerveKinematicsEngine kinematics)
+  {
+    int previous = physical(index);
+    poseX[previous] = x;
+    poseY[previous] = y;
+    poseTheta[previous] = theta;
+    for (int i = index + 1; i < size; i++)
+    {
+      int current = physical(i);
+      for (int m = 0; m < moduleCount; m++)
+      {
+        distanceDeltas[m] = distances[current * moduleCount + m] - distances[previous * moduleCount + m];
+        replayAngles[m] = angles[current * moduleCount + m];
+      }
+      kinematics.toTwist(distanceDeltas, replayAngles, twist);
+      double dtheta = yaws[current] - yaws[previous];
+
+      // Pose2d.exp with the heading taken from the IMU.
+      double s, c;
+      if (Math.abs(dtheta) < 1E-9)
+      {
+        s = 1.0 - 1.0 / 6.0 * dtheta * dtheta;
+        c = 0.5 * dtheta;
+      } else
+      {
+        s = Math.sin(dtheta) / dtheta;
+        c = (1 - Math.cos(dtheta)) / dtheta;
+      }
+      double dx  = twist[0] * s - twist[1] * c;
+      double dy  = twist[0] * c + twist[1] * s;
+      double cos = Math.cos(theta), sin = Math.sin(theta);
+      x += dx * cos - dy * sin;
+      y += dx * sin + dy * cos;
+      theta += dtheta;
+      poseX[current] = x;
+      poseY[current] = y;
+      poseTheta[current] = theta;
+      previous = current;
+    }
+  }
+
+  /**
+   * Move every sample pose by the rigid transform taking one pose onto another, keeping the history consistent after a
+   * hard odometry reset.
+   *
+   * @param fromX     X of the pose before the reset in meters.
+   * @param fromY     Y of the pose before the reset in meters.
+   * @param fromTheta Heading of the pose before the reset in radians.
+   * @param toX       X of the pose after the reset in meters.
+   * @param toY       Y of the pose after the reset in meters.
+   * @param toTheta   Heading of the pose after the reset in radians.
+   */
+  public void rebase(double fromX, double fromY, double fromTheta, double toX, double toY, double toTheta)
+  {
+    double rotation = toTheta - fromTheta;
+    double cos      = Math.cos(rotation), sin = Math.sin(rotation);
+    for (int i = 0; i < size; i++)
+    {
+      int    p  = physical(i);
+      double rx = poseX[p] - fromX;
+      double ry = poseY[p] - fromY;
+      poseX[p] = toX + rx * cos - ry * sin;
+      poseY[p] = toY + rx * sin + ry * cos;
+      poseTheta[p] += rotation;
+    }
+  }
+
+  /**
+   * Remove every sample.
+   */
+  public void clear()
+  {
+    head = 0;
+    size = 0;
+  }
+
+  /**
+   * Get the number of samples held.
+   *
+   * @return Number of samples.
+   */
+  public int size()
+  {
+    return size;
+  }
+
+  /**
+   * Get the maximum number of samples held.
+   *
+   * @return Buffer capacity.
+   */
+  public int getCapacity()
+  {
+    return capacity;
+  }
+
+  /**
+   * Get the memory used by the sample arrays.
+   *
+   * @return Size of the sample arrays in bytes.
+   */
+  public long getMemoryFootprint()
+  {
+    return (long) capacity * (5 + 2L * moduleCount) * Double.BYTES;
+  }
+
+  /**
+   * Get the timestamp of a sample.
+   *
+   * @param index Logical index, 0 being the oldest sample.
+   * @return Timestamp in seconds.
+   */
+  public double getTimestamp(int index)
+  {
+    return timestamps[physical(index)];
+  }
+
+  /**
+   * Get the IMU yaw of a sample.
+   *
+   * @param index Logical index, 0 being the oldest sample.
+   * @return Yaw in radians.
+   */
+  public double getYaw(int index)
+  {
+    return yaws[physical(index)];
+  }
+
+  /**
+   * Get the estimated pose X of a sample.
+   *
+   * @param index Logical index, 0 being the oldest sample.
+   * @return X in meters.
+   */
+  public double getPoseX(int index)
+  {
+    return poseX[physical(index)];
+  }
+
+  /**
+   * Get the estimated pose Y of a sample.
+   *
+   * @param index Logical index, 0 being the oldest sample.
+   * @return Y in meters.
+   */
+  public double getPoseY(int index)
+  {
+    return poseY[physical(index)];
+  }
+
+  /**
+   * Get the estimated heading of a sample.
+   *
+   * @param index Logical index, 0 being the oldest sample.
+   * @return Heading in radians.
+   */
+  public double getPoseTheta(int index)
+  {
+    return poseTheta[physical(index)];
+  }
+
+  /**
+   * Get the distance of a module at a sample.
+   *
+   * @param index  Logical index, 0 being the oldest sample.
+   * @param module Module number.
+   * @return Distance in meters.
+   */
+  public double getDistance(int index, int module)
+  {
+    return distances[physical(index) * moduleCount + module];
+  }
+
+  /**
+   * Get the angle of a module at a sample.
+   *
+   * @param index  Logical index, 0 being the oldest sample.
+   * @param module Module number.
+   * @return Angle in radians.
+   */
+  public double getAngle(int index, int module)
+  {
+    return angles[physical(index) * moduleCount + module];
+  }
+}
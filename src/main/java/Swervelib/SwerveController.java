@@ -1,6 +1,7 @@
 package Swervelib;
 
 import Swervelib.parser.SwerveControllerConfiguration;
+import Swervelib.telemetry.SwerveDriveTimings;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.filter.SlewRateLimiter;
 import edu.wpi.first.math.geometry.Translation2d;
@@ -105,10 +106,13 @@ public class SwerveController
   {
     // Convert joystick inputs to m/s by scaling by max linear speed.  Also uses a cubic function
     // to allow for precise control and fast movement.
-    double x = xInput * config.maxSpeed;
-    double y = yInput * config.maxSpeed;
+    long   start = SwerveDriveTimings.start();
+    double x     = xInput * config.maxSpeed;
+    double y     = yInput * config.maxSpeed;
 
-    return getRawTargetSpeeds(x, y, angle, currentHeadingAngleRadians);
+    ChassisSpeeds speeds = getRawTargetSpeeds(x, y, angle, currentHeadingAngleRadians);
+    SwerveDriveTimings.stop(SwerveDriveTimings.TARGET_SPEEDS, start);
+    return speeds;
   }
 
   /**
@@ -3,27 +3,37 @@ package Swervelib;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.DoubleSupplier;
 
 import Swervelib.imu.SwerveIMU;
+import Swervelib.imu.SwerveIMUSample;
+import Swervelib.imu.VirtualIMUSwerve;
 import Swervelib.math.SwerveKinematics2;
 import Swervelib.math.SwerveMath;
 import Swervelib.math.SwerveModuleState2;
+import Swervelib.motors.StatusFrameProfile;
+import Swervelib.motors.SwerveMotors;
 import Swervelib.parser.SwerveControllerConfiguration;
 import Swervelib.parser.SwerveDriveConfiguration;
 import Swervelib.simulation.SwerveIMUSimulation;
 import Swervelib.telemetry.SwerveDriveTelemetry;
 import Swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+import Swervelib.telemetry.SwerveDriveTimings;
+import Swervelib.telemetry.SwerveFlightRecorder;
 import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.filter.SlewRateLimiter;
 import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Quaternion;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
@@ -31,6 +41,9 @@ import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.trajectory.Trajectory;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.wpilibj.DataLogManager;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
@@ -44,57 +57,115 @@ public class SwerveDrive
   /**
    * Swerve Kinematics object utilizing second order kinematics.
    */
-  public final  SwerveKinematics2        kinematics;
+  public final  SwerveKinematics2                   kinematics;
   /**
    * Swerve drive configuration.
    */
-  public final  SwerveDriveConfiguration swerveDriveConfiguration;
+  public final  SwerveDriveConfiguration            swerveDriveConfiguration;
   /**
    * Swerve odometry.
    */
-  public final  SwerveDrivePoseEstimator swerveDrivePoseEstimator;
+  public final  SwerveDrivePoseEstimator            swerveDrivePoseEstimator;
   /**
    * Swerve modules.
    */
-  private final SwerveModule[]           swerveModules;
+  private final SwerveModule[]                      swerveModules;
   /**
    * Field object.
    */
-  public        Field2d                  field                        = new Field2d();
+  public        Field2d                             field                        = new Field2d();
   /**
    * Swerve controller for controlling heading of the robot.
    */
-  public        SwerveController         swerveController;
+  public        SwerveController                    swerveController;
   /**
    * Trustworthiness of the internal model of how motors should be moving Measured in expected standard deviation
    * (meters of position and degrees of rotation)
    */
-  public        Matrix<N3, N1>           stateStdDevs                 = VecBuilder.fill(0.1, 0.1, 0.1);
+  public        Matrix<N3, N1>                      stateStdDevs                 = VecBuilder.fill(0.1, 0.1, 0.1);
   /**
    * Trustworthiness of the vision system Measured in expected standard deviation (meters of position and degrees of
    * rotation)
    */
-  public        Matrix<N3, N1>           visionMeasurementStdDevs     = VecBuilder.fill(0.9, 0.9, 0.9);
+  public        Matrix<N3, N1>                      visionMeasurementStdDevs     = VecBuilder.fill(0.9, 0.9, 0.9);
   /**
    * Invert odometry readings of drive motor positions, used as a patch for debugging currently.
    */
-  public        boolean                  invertOdometry               = false;
+  public        boolean                             invertOdometry               = false;
   /**
    * Swerve IMU device for sensing the heading of the robot.
    */
-  private       SwerveIMU                imu;
+  private       SwerveIMU                           imu;
   /**
    * Simulation of the swerve drive.
    */
-  private       SwerveIMUSimulation      simIMU;
+  private       SwerveIMUSimulation                 simIMU;
   /**
    * Counter to synchronize the modules relative encoder with absolute encoder when not moving.
    */
-  private       int                      moduleSynchronizationCounter = 0;
+  private       int                                 moduleSynchronizationCounter = 0;
   /**
    * The last heading set in radians.
    */
-  private       double                   lastHeadingRadians           = 0;
+  private       double                              lastHeadingRadians           = 0;
+  /**
+   * Latest drive state, published after every change to {@link #swerveDrivePoseEstimator} so it can be read without
+   * locking.
+   */
+  private final AtomicReference<DriveStateSnapshot> stateSnapshot                = new AtomicReference<>();
+  /**
+   * Version of the latest drive state, only changed while holding the {@link #swerveDrivePoseEstimator} lock.
+   */
+  private       long                                snapshotVersion              = 0;
+  /**
+   * Notifier running odometry at a higher rate than the main loop, null when odometry runs in
+   * {@link #updateOdometry()}.
+   */
+  private       Notifier                            odometryThread;
+  /**
+   * History of odometry samples used to fuse latency delayed vision measurements.
+   */
+  private       OdometrySampleBuffer                odometryHistory;
+  /**
+   * Length of odometry history kept for vision measurements in seconds.
+   */
+  private       double                              odometryHistorySeconds       = 0.3;
+  /**
+   * Rate odometry is sampled at in hertz, used to size {@link #odometryHistory}.
+   */
+  private       double                              odometryFrequency            = 50;
+  /**
+   * Flight recorder writing the drive state to a {@link DataLog} every {@link #updateOdometry()}, null when stopped.
+   */
+  private       SwerveFlightRecorder                flightRecorder;
+  /**
+   * Scratch record filled for the {@link #flightRecorder}.
+   */
+  private       double[]                            flightRecord;
+  /**
+   * Scratch IMU orientation the {@link #flightRecorder} reads its yaw, pitch and roll from without allocating.
+   */
+  private final SwerveIMUSample                     flightGyro                   = new SwerveIMUSample();
+  /**
+   * Measured module states from the last {@link #updateOdometry()}.
+   */
+  private       SwerveModuleState[]                 measuredModuleStates;
+  /**
+   * Measured robot relative chassis speeds, computed for the {@link #flightRecorder}.
+   */
+  private final ChassisSpeeds                       measuredSpeeds               = new ChassisSpeeds();
+  /**
+   * Last commanded robot relative chassis speeds.
+   */
+  private       ChassisSpeeds                       lastDesiredSpeeds            = new ChassisSpeeds();
+  /**
+   * {@link #clock} time of the last flight record in seconds.
+   */
+  private       double                              lastFlightRecordTimestamp    = 0;
+  /**
+   * Time source in seconds, the FPGA time unless replaced with {@link #setClock(DoubleSupplier)}.
+   */
+  private       DoubleSupplier                      clock                        = Timer::getFPGATimestamp;
 
   /**
    * Creates a new swerve drivebase subsystem. Robot is controlled via the {@link SwerveDrive#drive} method, or via the
@@ -117,16 +188,25 @@ public class SwerveDrive
 
     // Create an integrator for angle if the robot is being simulated to emulate an IMU
     // If the robot is real, instantiate the IMU instead.
-    if (SwerveDriveTelemetry.isSimulation)
+    if (swerveDriveConfiguration.simulated)
     {
       simIMU = new SwerveIMUSimulation();
     } else
     {
       imu = config.imu;
       imu.factoryDefault();
+      if (imu instanceof VirtualIMUSwerve)
+      {
+        // Turn the virtual IMU with the measured module states, as the chassis would turn a real one.
+        ((VirtualIMUSwerve) imu).setYawRateSource(
+            () -> kinematics.toChassisSpeeds(getStates()).omegaRadiansPerSecond);
+      }
     }
 
     this.swerveModules = config.modules;
+    SwerveDriveTelemetry.allocate(swerveModules.length);
+    SwerveDriveTimings.allocate(swerveModules.length);
+    measuredModuleStates = new SwerveModuleState[swerveModules.length];
 
     //    odometry = new SwerveDriveOdometry(kinematics, getYaw(), getModulePositions());
     swerveDrivePoseEstimator =
@@ -137,6 +217,9 @@ public class SwerveDrive
             new Pose2d(new Translation2d(0, 0), Rotation2d.fromDegrees(0)),
             stateStdDevs,
             visionMeasurementStdDevs); // x,y,heading in radians; Vision measurement std dev, higher=less weight
+    stateSnapshot.set(DriveStateSnapshot.initial(swerveModules.length));
+    odometryHistory = new OdometrySampleBuffer(
+        OdometrySampleBuffer.capacityFor(odometryHistorySeconds, odometryFrequency), swerveModules.length);
 
     zeroGyro();
 
@@ -150,7 +233,6 @@ public class SwerveDrive
     {
       SwerveDriveTelemetry.maxSpeed = swerveDriveConfiguration.maxSpeed;
       SwerveDriveTelemetry.maxAngularVelocity = swerveController.config.maxAngularVelocity;
-      SwerveDriveTelemetry.moduleCount = swerveModules.length;
       SwerveDriveTelemetry.sizeFrontBack = Units.metersToInches(SwerveMath.getSwerveModule(swerveModules, true, false).moduleLocation.getX() +
                                                                 SwerveMath.getSwerveModule(swerveModules, false,
                                                                                            false).moduleLocation.getX());
@@ -159,7 +241,6 @@ public class SwerveDrive
                                                                 SwerveMath.getSwerveModule(swerveModules,
                                                                                            false,
                                                                                            false).moduleLocation.getY());
-      SwerveDriveTelemetry.wheelLocations = new double[SwerveDriveTelemetry.moduleCount * 2];
       for (SwerveModule module : swerveModules)
       {
         SwerveDriveTelemetry.wheelLocations[module.moduleNumber * 2] = Units.metersToInches(
@@ -167,8 +248,6 @@ public class SwerveDrive
         SwerveDriveTelemetry.wheelLocations[(module.moduleNumber * 2) + 1] = Units.metersToInches(
             module.configuration.moduleLocation.getY());
       }
-      SwerveDriveTelemetry.measuredStates = new double[SwerveDriveTelemetry.moduleCount * 2];
-      SwerveDriveTelemetry.desiredStates = new double[SwerveDriveTelemetry.moduleCount * 2];
     }
   }
 
@@ -236,10 +315,6 @@ public class SwerveDrive
     }
 
     // Display commanded speed for testing
-    if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH)
-    {
-      SmartDashboard.putString("RobotVelocity", velocity.toString());
-    }
     if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.HIGH.ordinal())
     {
       SwerveDriveTelemetry.desiredChassisSpeeds[1] = velocity.vyMetersPerSecond;
@@ -247,8 +322,12 @@ public class SwerveDrive
       SwerveDriveTelemetry.desiredChassisSpeeds[2] = Math.toDegrees(velocity.omegaRadiansPerSecond);
     }
 
+    lastDesiredSpeeds = velocity;
+
     // Calculate required module states via kinematics
+    long                 start              = SwerveDriveTimings.start();
     SwerveModuleState2[] swerveModuleStates = kinematics.toSwerveModuleStates(velocity);
+    SwerveDriveTimings.stop(SwerveDriveTimings.KINEMATICS, start);
 
     setRawModuleStates(swerveModuleStates, isOpenLoop);
   }
@@ -262,27 +341,22 @@ public class SwerveDrive
   private void setRawModuleStates(SwerveModuleState2[] desiredStates, boolean isOpenLoop)
   {
     // Desaturates wheel speeds
+    long start = SwerveDriveTimings.start();
     SwerveKinematics2.desaturateWheelSpeeds(desiredStates, swerveDriveConfiguration.maxSpeed);
+    SwerveDriveTimings.stop(SwerveDriveTimings.DESATURATE, start);
 
     // Sets states
     for (SwerveModule module : swerveModules)
     {
+      start = SwerveDriveTimings.start();
       module.setDesiredState(desiredStates[module.moduleNumber], isOpenLoop, false);
+      SwerveDriveTimings.stop(SwerveDriveTimings.MODULE + module.moduleNumber, start);
 
       if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.HIGH.ordinal())
       {
         SwerveDriveTelemetry.desiredStates[module.moduleNumber * 2] = module.lastState.angle.getDegrees();
         SwerveDriveTelemetry.desiredStates[(module.moduleNumber * 2) + 1] = module.lastState.speedMetersPerSecond;
       }
-      if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH)
-      {
-        SmartDashboard.putNumber(
-            "Module[" + module.moduleNumber + "] Speed Setpoint: ",
-            module.lastState.speedMetersPerSecond);
-        SmartDashboard.putNumber(
-            "Module[" + module.moduleNumber + "] Angle Setpoint: ",
-            module.lastState.angle.getDegrees());
-      }
     }
   }
 
@@ -307,8 +381,12 @@ public class SwerveDrive
     SwerveDriveTelemetry.desiredChassisSpeeds[1] = chassisSpeeds.vyMetersPerSecond;
     SwerveDriveTelemetry.desiredChassisSpeeds[0] = chassisSpeeds.vxMetersPerSecond;
     SwerveDriveTelemetry.desiredChassisSpeeds[2] = Math.toDegrees(chassisSpeeds.omegaRadiansPerSecond);
+    lastDesiredSpeeds = chassisSpeeds;
 
-    setRawModuleStates(kinematics.toSwerveModuleStates(chassisSpeeds), false);
+    long                 start  = SwerveDriveTimings.start();
+    SwerveModuleState2[] states = kinematics.toSwerveModuleStates(chassisSpeeds);
+    SwerveDriveTimings.stop(SwerveDriveTimings.KINEMATICS, start);
+    setRawModuleStates(states, false);
   }
 
   /**
@@ -318,32 +396,49 @@ public class SwerveDrive
    */
   public Pose2d getPose()
   {
-    return swerveDrivePoseEstimator.getEstimatedPosition();
+    return stateSnapshot.get().getPose();
   }
 
   /**
-   * Gets the current field-relative velocity (x, y and omega) of the robot
+   * Gets the current field-relative velocity (x, y and omega) of the robot, as of the last odometry update.
    *
    * @return A ChassisSpeeds object of the current field-relative velocity
    */
   public ChassisSpeeds getFieldVelocity()
   {
-    // ChassisSpeeds has a method to convert from field-relative to robot-relative speeds,
-    // but not the reverse.  However, because this transform is a simple rotation, negating the
-    // angle
-    // given as the robot angle reverses the direction of rotation, and the conversion is reversed.
-    return ChassisSpeeds.fromFieldRelativeSpeeds(
-        kinematics.toChassisSpeeds(getStates()), getYaw().unaryMinus());
+    return stateSnapshot.get().getFieldVelocity();
   }
 
   /**
-   * Gets the current robot-relative velocity (x, y and omega) of the robot
+   * Gets the current robot-relative velocity (x, y and omega) of the robot, as of the last odometry update.
    *
    * @return A ChassisSpeeds object of the current robot-relative velocity
    */
   public ChassisSpeeds getRobotVelocity()
   {
-    return kinematics.toChassisSpeeds(getStates());
+    return stateSnapshot.get().getRobotVelocity();
+  }
+
+  /**
+   * Get the drive state published by the last odometry update. Safe to call from any thread, such as vision or
+   * logging, without locking or reading the motors.
+   *
+   * @return Latest {@link DriveStateSnapshot}.
+   */
+  public DriveStateSnapshot getStateSnapshot()
+  {
+    return stateSnapshot.get();
+  }
+
+  /**
+   * Publish the estimated pose with the velocities and module states of the last odometry update. Called while holding
+   * the {@link #swerveDrivePoseEstimator} lock.
+   *
+   * @param pose Estimated pose.
+   */
+  private void publishPose(Pose2d pose)
+  {
+    stateSnapshot.set(stateSnapshot.get().withPose(++snapshotVersion, pose));
   }
 
   /**
@@ -355,7 +450,18 @@ public class SwerveDrive
    */
   public void resetOdometry(Pose2d pose)
   {
-    swerveDrivePoseEstimator.resetPosition(getYaw(), getModulePositions(), pose);
+    synchronized (swerveDrivePoseEstimator)
+    {
+      refreshModules();
+      Rotation2d             yaw       = getYaw();
+      SwerveModulePosition[] positions = getModulePositions();
+      Pose2d                 current   = swerveDrivePoseEstimator.update(yaw, positions);
+      recordOdometrySample(yaw, positions, current);
+      odometryHistory.rebase(current.getX(), current.getY(), current.getRotation().getRadians(),
+                             pose.getX(), pose.getY(), pose.getRotation().getRadians());
+      swerveDrivePoseEstimator.resetPosition(yaw, positions, pose);
+      publishPose(swerveDrivePoseEstimator.getEstimatedPosition());
+    }
   }
 
   /**
@@ -414,7 +520,7 @@ public class SwerveDrive
   {
     // Resets the real gyro or the angle accumulator, depending on whether the robot is being
     // simulated
-    if (!SwerveDriveTelemetry.isSimulation)
+    if (!swerveDriveConfiguration.simulated)
     {
       imu.setOffset(imu.getRawRotation3d());
     } else
@@ -434,7 +540,7 @@ public class SwerveDrive
   public Rotation2d getYaw()
   {
     // Read the imu if the robot is real or the accumulator if the robot is simulated.
-    if (!SwerveDriveTelemetry.isSimulation)
+    if (!swerveDriveConfiguration.simulated)
     {
       return swerveDriveConfiguration.invertedIMU
              ? Rotation2d.fromRadians(imu.getRotation3d().unaryMinus().getZ())
@@ -445,6 +551,56 @@ public class SwerveDrive
     }
   }
 
+  /**
+   * Gets the current yaw rate of the robot, as reported by the imu, or from the module states of the last odometry
+   * update if the robot is simulated.
+   *
+   * @return Yaw rate in radians per second, CCW positive.
+   */
+  public double getYawRate()
+  {
+    if (!swerveDriveConfiguration.simulated)
+    {
+      return swerveDriveConfiguration.invertedIMU ? -imu.getYawRate() : imu.getYawRate();
+    } else
+    {
+      return stateSnapshot.get().getRobotVelocity().omegaRadiansPerSecond;
+    }
+  }
+
+  /**
+   * Gets the yaw the robot will be at after a delay, extrapolated with the imu yaw rate. Used by heading control to
+   * act on the heading at the time its output takes effect rather than when the loop started.
+   *
+   * @param lookaheadSeconds Delay to extrapolate over in seconds, such as the time until new module states act.
+   * @return The extrapolated yaw angle.
+   */
+  public Rotation2d getPredictedYaw(double lookaheadSeconds)
+  {
+    return Rotation2d.fromRadians(getYaw().getRadians() + getYawRate() * lookaheadSeconds);
+  }
+
+  /**
+   * Gets the pose the robot will be at a delay after now, extrapolated from the last odometry update with its robot
+   * velocity, whose angular velocity comes from the imu.
+   *
+   * @param lookaheadSeconds Delay after now to extrapolate to in seconds, such as the time until new module states
+   *                         act.
+   * @return The extrapolated pose.
+   */
+  public Pose2d getPredictedPose(double lookaheadSeconds)
+  {
+    DriveStateSnapshot snapshot = stateSnapshot.get();
+    if (snapshot.getTimestamp() == 0)
+    {
+      return snapshot.getPose();
+    }
+    ChassisSpeeds velocity = snapshot.getRobotVelocity();
+    double        dt       = clock.getAsDouble() - snapshot.getTimestamp() + lookaheadSeconds;
+    return snapshot.getPose().exp(new Twist2d(velocity.vxMetersPerSecond * dt, velocity.vyMetersPerSecond * dt,
+                                              velocity.omegaRadiansPerSecond * dt));
+  }
+
   /**
    * Gets the current pitch angle of the robot, as reported by the imu.
    *
@@ -453,7 +609,7 @@ public class SwerveDrive
   public Rotation2d getPitch()
   {
     // Read the imu if the robot is real or the accumulator if the robot is simulated.
-    if (!SwerveDriveTelemetry.isSimulation)
+    if (!swerveDriveConfiguration.simulated)
     {
       return swerveDriveConfiguration.invertedIMU
              ? Rotation2d.fromRadians(imu.getRotation3d().unaryMinus().getY())
@@ -472,7 +628,7 @@ public class SwerveDrive
   public Rotation2d getRoll()
   {
     // Read the imu if the robot is real or the accumulator if the robot is simulated.
-    if (!SwerveDriveTelemetry.isSimulation)
+    if (!swerveDriveConfiguration.simulated)
     {
       return swerveDriveConfiguration.invertedIMU
              ? Rotation2d.fromRadians(imu.getRotation3d().unaryMinus().getX())
@@ -491,7 +647,7 @@ public class SwerveDrive
   public Rotation3d getGyroRotation3d()
   {
     // Read the imu if the robot is real or the accumulator if the robot is simulated.
-    if (!SwerveDriveTelemetry.isSimulation)
+    if (!swerveDriveConfiguration.simulated)
     {
       return swerveDriveConfiguration.invertedIMU
              ? imu.getRotation3d().unaryMinus()
@@ -502,6 +658,29 @@ public class SwerveDrive
     }
   }
 
+  /**
+   * Read the current gyro orientation of the robot into a caller owned {@link SwerveIMUSample}, the same angles as
+   * {@link #getGyroRotation3d()} without creating a {@link Rotation3d}. A sampling
+   * {@link Swervelib.imu.PigeonSwerve} returns the rotation it cached for its latest sample, so this allocates nothing
+   * once the odometry update has read the yaw.
+   *
+   * @param out Sample to write the orientation quaternion, yaw, pitch and roll into.
+   */
+  public void readGyroAngles(SwerveIMUSample out)
+  {
+    if (!swerveDriveConfiguration.simulated)
+    {
+      Quaternion q = imu.getRotation3d().getQuaternion();
+      // Negating the vector part of the unit quaternion inverts the rotation, the same as Rotation3d.unaryMinus().
+      double sign = swerveDriveConfiguration.invertedIMU ? -1 : 1;
+      out.setQuaternion(q.getW(), sign * q.getX(), sign * q.getY(), sign * q.getZ());
+    } else
+    {
+      double yaw = simIMU.getYawRadians();
+      out.setQuaternion(Math.cos(yaw / 2), 0, 0, Math.sin(yaw / 2));
+    }
+  }
+
   /**
    * Gets current acceleration of the robot in m/s/s. If gyro unsupported returns empty.
    *
@@ -509,7 +688,7 @@ public class SwerveDrive
    */
   public Optional<Translation3d> getAccel()
   {
-    if (!SwerveDriveTelemetry.isSimulation)
+    if (!swerveDriveConfiguration.simulated)
     {
       return imu.getAccel();
     } else
@@ -531,6 +710,19 @@ public class SwerveDrive
     }
   }
 
+  /**
+   * Switch the CAN status frame periods of every drive and angle motor, such as when changing robot mode.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  public void setStatusFrameProfile(StatusFrameProfile profile)
+  {
+    for (SwerveModule swerveModule : swerveModules)
+    {
+      swerveModule.setStatusFrameProfile(profile);
+    }
+  }
+
   /**
    * Set the maximum speed of the drive motors, modified {@link SwerveControllerConfiguration#maxSpeed} and
    * {@link SwerveDriveConfiguration#maxSpeed} which is used for the
@@ -630,21 +822,183 @@ public class SwerveDrive
     }
   }
 
+  /**
+   * Set the time source of the drive, its kinematics, modules, motors, absolute encoders and IMU, such as the
+   * {@link Swervelib.simulation.SimulatedClock} of a simulation which runs faster than real time. Timestamps of vision
+   * measurements, odometry history and state snapshots are all on this clock afterwards.
+   *
+   * @param clock Time source in seconds.
+   */
+  public void setClock(DoubleSupplier clock)
+  {
+    this.clock = clock;
+    kinematics.setClock(clock);
+    for (SwerveModule module : swerveModules)
+    {
+      module.setClock(clock);
+    }
+    if (imu != null)
+    {
+      imu.clock = clock;
+    }
+  }
+
+  /**
+   * Get the time on the clock of the drive.
+   *
+   * @return Time in seconds, the FPGA time unless replaced with {@link #setClock(DoubleSupplier)}.
+   */
+  public double getTimestamp()
+  {
+    return clock.getAsDouble();
+  }
+
+  /**
+   * Start updating the {@link SwerveDrivePoseEstimator} on a dedicated {@link Notifier} thread instead of in
+   * {@link #updateOdometry()}, which should still be run every loop for encoder synchronization and telemetry. The pose
+   * is read through {@link #getPose()} without waiting on the odometry thread.
+   *
+   * @param frequencyHz Rate to sample the module positions and IMU yaw at, in hertz.
+   */
+  public void startOdometryThread(double frequencyHz)
+  {
+    if (frequencyHz <= 0)
+    {
+      throw new IllegalArgumentException("Odometry frequency must be positive, got " + frequencyHz);
+    }
+    stopOdometryThread();
+    configureOdometryHistory(odometryHistorySeconds, frequencyHz);
+    odometryThread = new Notifier(this::sampleOdometry);
+    odometryThread.setName("SwerveOdometry");
+    odometryThread.startPeriodic(1.0 / frequencyHz);
+  }
+
+  /**
+   * Stop the odometry thread started by {@link #startOdometryThread(double)}, odometry is updated in
+   * {@link #updateOdometry()} afterwards.
+   */
+  public void stopOdometryThread()
+  {
+    if (odometryThread != null)
+    {
+      odometryThread.stop();
+      odometryThread.close();
+      odometryThread = null;
+      configureOdometryHistory(odometryHistorySeconds, 50);
+    }
+  }
+
+  /**
+   * Check if odometry is running on its own thread.
+   *
+   * @return True if {@link #startOdometryThread(double)} is in effect.
+   */
+  public boolean isOdometryThreadRunning()
+  {
+    return odometryThread != null;
+  }
+
+  /**
+   * Set how much odometry history is kept for fusing latency delayed vision measurements. The buffer is preallocated
+   * to hold the history at the given sample rate and the current history is discarded.
+   *
+   * @param historySeconds Oldest vision measurement latency to compensate for in seconds.
+   * @param frequencyHz    Rate odometry is sampled at in hertz, 50 unless the odometry thread is running.
+   */
+  public void configureOdometryHistory(double historySeconds, double frequencyHz)
+  {
+    synchronized (swerveDrivePoseEstimator)
+    {
+      odometryHistorySeconds = historySeconds;
+      odometryFrequency = frequencyHz;
+      odometryHistory = new OdometrySampleBuffer(OdometrySampleBuffer.capacityFor(historySeconds, frequencyHz),
+                                                 swerveModules.length);
+    }
+  }
+
+  /**
+   * Get the odometry history used for vision measurements.
+   *
+   * @return {@link OdometrySampleBuffer} of recent odometry samples.
+   */
+  public OdometrySampleBuffer getOdometryHistory()
+  {
+    return odometryHistory;
+  }
+
+  /**
+   * Record an odometry sample in {@link #odometryHistory}, must hold the {@link SwerveDrivePoseEstimator} lock.
+   *
+   * @param yaw       IMU yaw used for the sample.
+   * @param positions Module positions used for the sample.
+   * @param pose      Estimated pose after the sample.
+   */
+  private void recordOdometrySample(Rotation2d yaw, SwerveModulePosition[] positions, Pose2d pose)
+  {
+    odometryHistory.add(clock.getAsDouble(), yaw.getRadians(), positions,
+                        pose.getX(), pose.getY(), pose.getRotation().getRadians());
+  }
+
+  /**
+   * Read the drive and angle motors of every module into their sensor caches, see {@link SwerveModule#refresh()}. Done
+   * by every odometry update, so only needed by code which needs data fresher than the last update.
+   */
+  public void refreshModules()
+  {
+    for (SwerveModule module : swerveModules)
+    {
+      module.refresh();
+    }
+  }
+
+  /**
+   * Refresh the module sensor caches, sample the IMU yaw, module positions and module states, update the
+   * {@link SwerveDrivePoseEstimator} and publish the new {@link DriveStateSnapshot}.
+   */
+  private void sampleOdometry()
+  {
+    synchronized (swerveDrivePoseEstimator)
+    {
+      refreshModules();
+      Rotation2d             yaw       = getYaw();
+      SwerveModulePosition[] positions = getModulePositions();
+      SwerveModuleState[]    states    = getStates();
+      long                   start     = SwerveDriveTimings.start();
+      Pose2d                 pose      = swerveDrivePoseEstimator.update(yaw, positions);
+      SwerveDriveTimings.stop(SwerveDriveTimings.POSE_ESTIMATOR, start);
+      recordOdometrySample(yaw, positions, pose);
+      ChassisSpeeds robotVelocity = kinematics.toChassisSpeeds(states);
+      if (!swerveDriveConfiguration.simulated)
+      {
+        // The gyro measures the rotation even when the wheels slip.
+        robotVelocity.omegaRadiansPerSecond = getYawRate();
+      }
+      stateSnapshot.set(new DriveStateSnapshot(++snapshotVersion, clock.getAsDouble(), pose, yaw, robotVelocity,
+                                               states));
+    }
+  }
+
   /**
    * Update odometry should be run every loop. Synchronizes module absolute encoders with relative encoders
    * periodically. In simulation mode will also post the pose of each module. Updates SmartDashboard with module encoder
-   * readings and states.
+   * readings and states. The {@link SwerveDrivePoseEstimator} is only updated here when the odometry thread is not
+   * running.
    */
   public void updateOdometry()
   {
+    long start = System.nanoTime();
+
     // Update odometry
-    swerveDrivePoseEstimator.update(getYaw(), getModulePositions());
+    if (odometryThread == null)
+    {
+      sampleOdometry();
+    }
 
     // Update angle accumulator if the robot is simulated
     if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.HIGH.ordinal())
     {
-      Pose2d[] modulePoses = getSwerveModulePoses(swerveDrivePoseEstimator.getEstimatedPosition());
-      if (SwerveDriveTelemetry.isSimulation)
+      Pose2d[] modulePoses = getSwerveModulePoses(getPose());
+      if (swerveDriveConfiguration.simulated)
       {
         simIMU.updateOdometry(
             kinematics,
@@ -658,24 +1012,32 @@ public class SwerveDrive
       SwerveDriveTelemetry.measuredChassisSpeeds[0] = measuredChassisSpeeds.vxMetersPerSecond;
       SwerveDriveTelemetry.measuredChassisSpeeds[2] = Math.toDegrees(measuredChassisSpeeds.omegaRadiansPerSecond);
       SwerveDriveTelemetry.robotRotation = getYaw().getDegrees();
+      SwerveDriveTelemetry.kinematicsCacheHits = kinematics.getMatrixCacheHits();
+      SwerveDriveTelemetry.kinematicsCacheMisses = kinematics.getMatrixCacheMisses();
+      SwerveDriveTelemetry.controlFramesSent = getControlFramesSent();
+      SwerveDriveTelemetry.controlFramesSaved = getControlFramesSaved();
+      if (flightRecorder != null)
+      {
+        SwerveDriveTelemetry.flightRecordsWritten = flightRecorder.getWritten();
+        SwerveDriveTelemetry.flightRecordsDropped = flightRecorder.getDropped();
+      }
     }
 
     if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.LOW.ordinal())
     {
-      field.setRobotPose(swerveDrivePoseEstimator.getEstimatedPosition());
+      field.setRobotPose(getPose());
     }
 
     double sumOmega = 0;
     for (SwerveModule module : swerveModules)
     {
       SwerveModuleState2 moduleState = module.getState();
+      measuredModuleStates[module.moduleNumber] = moduleState;
       sumOmega += Math.abs(moduleState.omegaRadPerSecond);
       if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH)
       {
-        SmartDashboard.putNumber(
-            "Module" + module.moduleNumber + "Relative Encoder", module.getRelativePosition());
-        SmartDashboard.putNumber(
-            "Module" + module.moduleNumber + "Absolute Encoder", module.getAbsolutePosition());
+        SwerveDriveTelemetry.relativeEncoders[module.moduleNumber] = module.getRelativePosition();
+        SwerveDriveTelemetry.absoluteEncoders[module.moduleNumber] = module.getAbsolutePosition();
       }
       if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.HIGH.ordinal())
       {
@@ -695,10 +1057,123 @@ public class SwerveDrive
 
     if (SwerveDriveTelemetry.verbosity.ordinal() >= TelemetryVerbosity.HIGH.ordinal())
     {
+      long telemetryStart = SwerveDriveTimings.start();
       SwerveDriveTelemetry.updateData();
+      SwerveDriveTimings.stop(SwerveDriveTimings.TELEMETRY, telemetryStart);
+    }
+    SwerveDriveTimings.update();
+
+    if (flightRecorder != null)
+    {
+      recordFlight(start);
+    }
+  }
+
+  /**
+   * Enable or disable timing of each stage of the drive pipeline, see {@link SwerveDriveTimings}. The p50, p99 and max
+   * of every stage are published to "swerve/timing" while enabled.
+   *
+   * @param enable Whether to time stages.
+   */
+  public void setStageTimingEnabled(boolean enable)
+  {
+    SwerveDriveTimings.setEnabled(enable);
+  }
+
+  /**
+   * Clear the stage timing histograms, such as at the start of a match.
+   */
+  public void resetStageTimings()
+  {
+    SwerveDriveTimings.reset();
+  }
+
+  /**
+   * Start writing the drive state to a {@link DataLog} every {@link #updateOdometry()}: loop period, update time, pose,
+   * IMU rotation, measured and desired chassis speeds and the measured and desired state of every module. Records are
+   * queued without allocating and written by a background thread, see {@link SwerveFlightRecorder}.
+   *
+   * @param log      {@link DataLog} to write to.
+   * @param capacity Number of records which can be queued before records are dropped.
+   */
+  public void startFlightRecorder(DataLog log, int capacity)
+  {
+    stopFlightRecorder();
+    flightRecord = new double[SwerveFlightRecorder.getRecordLength(swerveModules.length)];
+    lastFlightRecordTimestamp = 0;
+    flightRecorder = new SwerveFlightRecorder(log, "swerve/flightRecord", swerveModules.length, capacity);
+  }
+
+  /**
+   * Start writing the drive state to the {@link DataLogManager} log, queueing up to 5 seconds of records.
+   */
+  public void startFlightRecorder()
+  {
+    startFlightRecorder(DataLogManager.getLog(), 256);
+  }
+
+  /**
+   * Stop the flight recorder once every queued record has been written.
+   */
+  public void stopFlightRecorder()
+  {
+    if (flightRecorder != null)
+    {
+      flightRecorder.stop();
+      flightRecorder = null;
     }
   }
 
+  /**
+   * Get the flight recorder.
+   *
+   * @return {@link SwerveFlightRecorder}, null when not started.
+   */
+  public SwerveFlightRecorder getFlightRecorder()
+  {
+    return flightRecorder;
+  }
+
+  /**
+   * Fill and queue a flight record. Angles are in radians, speeds in meters per second, the loop period in seconds and
+   * the update time in milliseconds.
+   *
+   * @param startNanos {@link System#nanoTime()} at the start of {@link #updateOdometry()}.
+   */
+  private void recordFlight(long startNanos)
+  {
+    double now  = clock.getAsDouble();
+    Pose2d pose = getPose();
+    readGyroAngles(flightGyro);
+    kinematics.toChassisSpeeds(measuredSpeeds, measuredModuleStates);
+
+    flightRecord[0] = lastFlightRecordTimestamp == 0 ? 0 : now - lastFlightRecordTimestamp;
+    flightRecord[2] = pose.getX();
+    flightRecord[3] = pose.getY();
+    flightRecord[4] = pose.getRotation().getRadians();
+    flightRecord[5] = flightGyro.yaw;
+    flightRecord[6] = flightGyro.pitch;
+    flightRecord[7] = flightGyro.roll;
+    flightRecord[8] = measuredSpeeds.vxMetersPerSecond;
+    flightRecord[9] = measuredSpeeds.vyMetersPerSecond;
+    flightRecord[10] = measuredSpeeds.omegaRadiansPerSecond;
+    flightRecord[11] = lastDesiredSpeeds.vxMetersPerSecond;
+    flightRecord[12] = lastDesiredSpeeds.vyMetersPerSecond;
+    flightRecord[13] = lastDesiredSpeeds.omegaRadiansPerSecond;
+    int base = SwerveFlightRecorder.HEADER_FIELDS.length;
+    for (SwerveModule module : swerveModules)
+    {
+      int i = base + module.moduleNumber * SwerveFlightRecorder.MODULE_FIELDS.length;
+      flightRecord[i] = measuredModuleStates[module.moduleNumber].angle.getRadians();
+      flightRecord[i + 1] = measuredModuleStates[module.moduleNumber].speedMetersPerSecond;
+      flightRecord[i + 2] = module.lastState.angle.getRadians();
+      flightRecord[i + 3] = module.lastState.speedMetersPerSecond;
+    }
+    flightRecord[1] = (System.nanoTime() - startNanos) / 1e6;
+    lastFlightRecordTimestamp = now;
+    flightRecorder.record((long) (now * 1e6), flightRecord);
+  }
+
   /**
    * Synchronize angle motor integrated encoders with data from absolute encoders.
    */
@@ -711,30 +1186,62 @@ public class SwerveDrive
   }
 
   /**
-   * Add a vision measurement to the {@link SwerveDrivePoseEstimator} and update the {@link SwerveIMU} gyro reading with
-   * the given timestamp of the vision measurement.
+   * Add a vision measurement, compensating for its latency by correcting the pose at the nearest sample in the odometry
+   * history and replaying odometry from there. Measurements older than the history set by
+   * {@link #configureOdometryHistory(double, double)} are ignored.
    *
    * @param robotPose       Robot {@link Pose2d} as measured by vision.
-   * @param timestamp       Timestamp the measurement was taken as time since startup, should be taken from
-   *                        {@link Timer#getFPGATimestamp()} or similar sources.
-   * @param soft            Add vision estimate using the
-   *                        {@link SwerveDrivePoseEstimator#addVisionMeasurement(Pose2d, double)} function, or hard
-   *                        reset odometry with the given position with
-   *                        {@link edu.wpi.first.math.kinematics.SwerveDriveOdometry#resetPosition(Rotation2d,
-   *                        SwerveModulePosition[], Pose2d)}.
+   * @param timestamp       Timestamp the measurement was taken as time since startup, on the clock of
+   *                        {@link #getTimestamp()}, the {@link Timer#getFPGATimestamp()} unless replaced.
+   * @param soft            Blend the vision estimate into odometry weighted by {@link #stateStdDevs} and
+   *                        {@link #visionMeasurementStdDevs}, or hard reset odometry to the given position. A hard reset
+   *                        moves the odometry history with it rather than discarding it.
    * @param trustWorthiness Trust level of vision reading when using a soft measurement, used to multiply the standard
    *                        deviation. Set to 1 for full trust.
    */
   public void addVisionMeasurement(Pose2d robotPose, double timestamp, boolean soft, double trustWorthiness)
   {
-    if (soft)
+    if (!soft)
     {
-      swerveDrivePoseEstimator.addVisionMeasurement(robotPose, timestamp,
-                                                    visionMeasurementStdDevs.times(1.0 / trustWorthiness));
-    } else
+      resetOdometry(robotPose);
+      return;
+    }
+    synchronized (swerveDrivePoseEstimator)
     {
+      // Sample now so the replay ends at the current module positions.
+      refreshModules();
+      Rotation2d             yaw       = getYaw();
+      SwerveModulePosition[] positions = getModulePositions();
+      recordOdometrySample(yaw, positions, swerveDrivePoseEstimator.update(yaw, positions));
+
+      int sample = odometryHistory.findNearest(timestamp);
+      if (sample < 0 || timestamp < odometryHistory.getTimestamp(0) - (1.0 / odometryFrequency))
+      {
+        return;
+      }
+
+      // Kalman gain per axis, as SwerveDrivePoseEstimator computes it.
+      double[] gain = new double[3];
+      for (int i = 0; i < 3; i++)
+      {
+        double q = stateStdDevs.get(i, 0) * stateStdDevs.get(i, 0);
+        double r = visionMeasurementStdDevs.get(i, 0) / trustWorthiness;
+        r *= r;
+        gain[i] = q == 0 ? 0 : q / (q + Math.sqrt(q * r));
+      }
+      Pose2d  samplePose = new Pose2d(odometryHistory.getPoseX(sample), odometryHistory.getPoseY(sample),
+                                      new Rotation2d(odometryHistory.getPoseTheta(sample)));
+      Twist2d error      = samplePose.log(robotPose);
+      Pose2d  corrected  = samplePose.exp(new Twist2d(gain[0] * error.dx, gain[1] * error.dy,
+                                                     gain[2] * error.dtheta));
+      odometryHistory.replayFrom(sample, corrected.getX(), corrected.getY(), corrected.getRotation().getRadians(),
+                                 kinematics.getEngine());
+
+      int newest = odometryHistory.size() - 1;
       swerveDrivePoseEstimator.resetPosition(
-          robotPose.getRotation(), getModulePositions(), robotPose);
+          yaw, positions, new Pose2d(odometryHistory.getPoseX(newest), odometryHistory.getPoseY(newest),
+                                     new Rotation2d(odometryHistory.getPoseTheta(newest))));
+      publishPose(swerveDrivePoseEstimator.getEstimatedPosition());
     }
   }
 
@@ -743,8 +1250,8 @@ public class SwerveDrive
    * the given timestamp of the vision measurement.
    *
    * @param robotPose                Robot {@link Pose2d} as measured by vision.
-   * @param timestamp                Timestamp the measurement was taken as time since startup, should be taken from
-   *                                 {@link Timer#getFPGATimestamp()} or similar sources.
+   * @param timestamp                Timestamp the measurement was taken as time since startup, on the clock of
+   *                                 {@link #getTimestamp()}, the {@link Timer#getFPGATimestamp()} unless replaced.
    * @param soft                     Add vision estimate using the
    *                                 {@link SwerveDrivePoseEstimator#addVisionMeasurement(Pose2d, double)} function, or
    *                                 hard reset odometry with the given position with
@@ -797,6 +1304,58 @@ public class SwerveDrive
     return swerveDriveConfiguration.modules;
   }
 
+  /**
+   * Configure control frame deduplication on every drive and angle motor. Frames within the epsilons of the last frame
+   * sent are skipped until the refresh period passes.
+   *
+   * @param setpointEpsilon    Setpoint change below which frames are skipped, in meters per second or degrees.
+   * @param feedforwardEpsilon Feedforward change below which frames are skipped.
+   * @param refreshPeriod      Seconds after which an unchanged frame is sent anyway, 0 to send every frame.
+   */
+  public void configureControlFrameDeduplication(double setpointEpsilon, double feedforwardEpsilon,
+                                                 double refreshPeriod)
+  {
+    for (SwerveModule module : swerveModules)
+    {
+      for (SwerveMotors motor : new SwerveMotors[]{module.getDriveMotor(), module.getAngleMotor()})
+      {
+        motor.setpointEpsilon = setpointEpsilon;
+        motor.feedforwardEpsilon = feedforwardEpsilon;
+        motor.refreshPeriod = refreshPeriod;
+      }
+    }
+  }
+
+  /**
+   * Get the number of control frames sent to the drive and angle motors.
+   *
+   * @return Control frames sent.
+   */
+  public long getControlFramesSent()
+  {
+    long sent = 0;
+    for (SwerveModule module : swerveModules)
+    {
+      sent += module.getDriveMotor().getFramesSent() + module.getAngleMotor().getFramesSent();
+    }
+    return sent;
+  }
+
+  /**
+   * Get the number of control frames skipped by deduplication on the drive and angle motors.
+   *
+   * @return Control frames saved.
+   */
+  public long getControlFramesSaved()
+  {
+    long saved = 0;
+    for (SwerveModule module : swerveModules)
+    {
+      saved += module.getDriveMotor().getFramesSaved() + module.getAngleMotor().getFramesSaved();
+    }
+    return saved;
+  }
+
   /**
    * Reset the drive encoders on the robot, useful when manually resetting the robot without a reboot, like in
    * autonomous.
@@ -1,9 +1,14 @@
 package Swervelib;
 
+import java.util.function.DoubleSupplier;
+
 import Swervelib.encoders.SwerveAbsoluteEncoder;
 import Swervelib.math.SwerveMath;
 import Swervelib.math.SwerveModuleState2;
+import Swervelib.motors.StatusFrameProfile;
 import Swervelib.motors.SwerveMotors;
+import Swervelib.parser.ConfigurationFingerprints;
+import Swervelib.parser.PIDFConfig;
 import Swervelib.parser.SwerveModuleConfiguration;
 import Swervelib.simulation.SwerveModuleSimulation;
 import Swervelib.telemetry.SwerveDriveTelemetry;
@@ -12,7 +17,7 @@ import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.util.Units;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
  * The Swerve Module class which represents and controls Swerve Modules for the swerve drive.
@@ -56,6 +61,15 @@ public class SwerveModule
    * Encoder synchronization queued.
    */
   private       boolean                synchronizeEncoderQueued = false;
+  /**
+   * Motor readings of the current cycle, replaced by {@link #refresh()}. Read by {@link #getState()},
+   * {@link #getPosition()} and {@link #getRelativePosition()} so the motors are read once per cycle.
+   */
+  private volatile SensorCache         sensorCache;
+  /**
+   * Time source in seconds the sensor cache is stamped with, the FPGA time unless replaced.
+   */
+  private          DoubleSupplier      clock                    = Timer::getFPGATimestamp;
 
   /**
    * Construct the swerve module and initialize the swerve module motors and absolute encoder.
@@ -64,6 +78,21 @@ public class SwerveModule
    * @param moduleConfiguration Module constants containing CAN ID's and offsets.
    */
   public SwerveModule(int moduleNumber, SwerveModuleConfiguration moduleConfiguration)
+  {
+    this(moduleNumber, moduleConfiguration, true);
+  }
+
+  /**
+   * Construct the swerve module, optionally leaving the device configuration to the caller. When the devices are not
+   * configured here {@link #configureAngleMotor()}, {@link #configureDriveMotor()} and
+   * {@link #configureAbsoluteEncoder()} must be run, in any order or concurrently, followed by
+   * {@link #seedAngleMotor()}.
+   *
+   * @param moduleNumber        Module number for kinematics.
+   * @param moduleConfiguration Module constants containing CAN ID's and offsets.
+   * @param configureDevices    Configure the motors and absolute encoder one after another in the constructor.
+   */
+  public SwerveModule(int moduleNumber, SwerveModuleConfiguration moduleConfiguration, boolean configureDevices)
   {
     //    angle = 0;
     //    speed = 0;
@@ -76,52 +105,186 @@ public class SwerveModule
     // Initialize Feedforward for drive motor.
     feedforward = configuration.createDriveFeedforward();
 
-    // Create motors from configuration and reset them to defaults.
     angleMotor = moduleConfiguration.angleMotor;
     driveMotor = moduleConfiguration.driveMotor;
-    angleMotor.factoryDefaults();
-    driveMotor.factoryDefaults();
+    absoluteEncoder = moduleConfiguration.absoluteEncoder;
 
-    // Configure voltage comp, current limit, and ramp rate.
-    angleMotor.setVoltageCompensation(configuration.physicalCharacteristics.optimalVoltage);
-    driveMotor.setVoltageCompensation(configuration.physicalCharacteristics.optimalVoltage);
-    angleMotor.setCurrentLimit(configuration.physicalCharacteristics.angleMotorCurrentLimit);
-    driveMotor.setCurrentLimit(configuration.physicalCharacteristics.driveMotorCurrentLimit);
-    angleMotor.setLoopRampRate(configuration.physicalCharacteristics.angleMotorRampRate);
-    driveMotor.setLoopRampRate(configuration.physicalCharacteristics.driveMotorRampRate);
+    if (configureDevices)
+    {
+      configureAbsoluteEncoder();
+      configureAngleMotor();
+      configureDriveMotor();
+      seedAngleMotor();
+    }
 
-    // Config angle encoders
-    absoluteEncoder = moduleConfiguration.absoluteEncoder;
-    if (absoluteEncoder != null)
+    if (configuration.simulated)
     {
-      absoluteEncoder.factoryDefault();
-      absoluteEncoder.configure(moduleConfiguration.absoluteEncoderInverted);
-      angleMotor.setPosition(getAbsolutePosition());
+      simModule = new SwerveModuleSimulation();
     }
 
-    // Config angle motor/controller
-    angleMotor.configureIntegratedEncoder(
-        moduleConfiguration.getPositionEncoderConversion(false));
-    angleMotor.configurePIDF(moduleConfiguration.anglePIDF);
+    refresh();
+    lastState = getState();
+  }
+
+  /**
+   * Configure voltage compensation, current limit, ramp rate, encoder, PIDF, inversion, idle mode and status frames of
+   * the angle motor.
+   * The motor is only reset to defaults and its flash written when {@link #isConfigured(SwerveMotors, String, String)}
+   * can't confirm it already holds the configuration, otherwise the configuration is still applied.
+   */
+  public void configureAngleMotor()
+  {
+    String  key         = configuration.angleFingerprintKey;
+    String  fingerprint = motorFingerprint(angleMotor, configuration.anglePIDF,
+                                           configuration.physicalCharacteristics.angleMotorCurrentLimit,
+                                           configuration.physicalCharacteristics.angleMotorRampRate,
+                                           configuration.angleMotorInverted,
+                                           configuration.getPositionEncoderConversion(false), false);
+    boolean unchanged   = isConfigured(angleMotor, key, fingerprint);
+    if (!unchanged)
+    {
+      angleMotor.factoryDefaults();
+    }
+    angleMotor.setVoltageCompensation(configuration.physicalCharacteristics.optimalVoltage);
+    angleMotor.setCurrentLimit(configuration.physicalCharacteristics.angleMotorCurrentLimit);
+    angleMotor.setLoopRampRate(configuration.physicalCharacteristics.angleMotorRampRate);
+    angleMotor.configureIntegratedEncoder(configuration.getPositionEncoderConversion(false));
+    angleMotor.configurePIDF(configuration.anglePIDF);
     angleMotor.configurePIDWrapping(-180, 180);
-    angleMotor.setInverted(moduleConfiguration.angleMotorInverted);
+    angleMotor.setInverted(configuration.angleMotorInverted);
     angleMotor.setMotorBrake(false);
+    angleMotor.configureStatusFrames(configuration.statusFrameProfile);
+    saveMotorConfiguration(angleMotor, key, fingerprint, unchanged);
+  }
 
-    // Config drive motor/controller
-    driveMotor.configureIntegratedEncoder(moduleConfiguration.getPositionEncoderConversion(true));
-    driveMotor.configurePIDF(moduleConfiguration.velocityPIDF);
-    driveMotor.setInverted(moduleConfiguration.driveMotorInverted);
+  /**
+   * Configure voltage compensation, current limit, ramp rate, encoder, PIDF, inversion, idle mode and status frames of
+   * the drive motor.
+   * The motor is only reset to defaults and its flash written when {@link #isConfigured(SwerveMotors, String, String)}
+   * can't confirm it already holds the configuration, otherwise the configuration is still applied.
+   */
+  public void configureDriveMotor()
+  {
+    String  key         = configuration.driveFingerprintKey;
+    String  fingerprint = motorFingerprint(driveMotor, configuration.velocityPIDF,
+                                           configuration.physicalCharacteristics.driveMotorCurrentLimit,
+                                           configuration.physicalCharacteristics.driveMotorRampRate,
+                                           configuration.driveMotorInverted,
+                                           configuration.getPositionEncoderConversion(true), true);
+    boolean unchanged   = isConfigured(driveMotor, key, fingerprint);
+    if (!unchanged)
+    {
+      driveMotor.factoryDefaults();
+    }
+    driveMotor.setVoltageCompensation(configuration.physicalCharacteristics.optimalVoltage);
+    driveMotor.setCurrentLimit(configuration.physicalCharacteristics.driveMotorCurrentLimit);
+    driveMotor.setLoopRampRate(configuration.physicalCharacteristics.driveMotorRampRate);
+    driveMotor.configureIntegratedEncoder(configuration.getPositionEncoderConversion(true));
+    driveMotor.configurePIDF(configuration.velocityPIDF);
+    driveMotor.setInverted(configuration.driveMotorInverted);
     driveMotor.setMotorBrake(true);
+    driveMotor.configureStatusFrames(configuration.statusFrameProfile);
+    saveMotorConfiguration(driveMotor, key, fingerprint, unchanged);
+  }
+
+  /**
+   * Fingerprint the configuration of a motor.
+   *
+   * @param motor        Motor being configured.
+   * @param pidf         PIDF values.
+   * @param currentLimit Current limit in amps.
+   * @param rampRate     Ramp rate in seconds.
+   * @param inverted     Motor inversion.
+   * @param conversion   Position conversion factor.
+   * @param brake        Brake idle mode.
+   * @return Fingerprint of the configuration.
+   */
+  private String motorFingerprint(SwerveMotors motor, PIDFConfig pidf, int currentLimit, double rampRate,
+                                  boolean inverted, double conversion, boolean brake)
+  {
+    return ConfigurationFingerprints.fingerprint(
+        motor.getClass().getName(), configuration.moduleLocation.getX(), configuration.moduleLocation.getY(),
+        pidf.p, pidf.i, pidf.d, pidf.f, pidf.iz, pidf.output.min, pidf.output.max, currentLimit, rampRate,
+        configuration.physicalCharacteristics.optimalVoltage, inverted, conversion, brake);
+  }
 
-    driveMotor.burnFlash();
-    angleMotor.burnFlash();
+  /**
+   * Check whether a motor controller already holds a configuration in flash. The
+   * {@link ConfigurationFingerprints} stored on the roboRIO for its CAN bus and ID must match, and the marker the
+   * controller itself stored with its last flash write must match too, since a replacement controller given the same ID
+   * does not hold the configuration. Called before any setting is applied, so the marker is the one loaded from flash.
+   *
+   * @param motor       Motor being configured.
+   * @param key         Fingerprint key of the motor, null if it has none.
+   * @param fingerprint Fingerprint of the configuration.
+   * @return True if the motor controller was confirmed to hold the configuration.
+   */
+  private boolean isConfigured(SwerveMotors motor, String key, String fingerprint)
+  {
+    return key != null && ConfigurationFingerprints.matches(key, fingerprint) &&
+           motor.getConfigurationMarker() == ConfigurationFingerprints.marker(fingerprint);
+  }
 
-    if (SwerveDriveTelemetry.isSimulation)
+  /**
+   * Write the motor configuration to flash along with its marker and store its fingerprint, unless the motor controller
+   * was confirmed to hold it already, in which case the configuration is only applied.
+   *
+   * @param motor       Motor being configured.
+   * @param key         Fingerprint key of the motor, null if it has none.
+   * @param fingerprint Fingerprint of the configuration.
+   * @param unchanged   Whether {@link #isConfigured(SwerveMotors, String, String)} confirmed the configuration.
+   */
+  private void saveMotorConfiguration(SwerveMotors motor, String key, String fingerprint, boolean unchanged)
+  {
+    if (unchanged)
     {
-      simModule = new SwerveModuleSimulation();
+      motor.applyConfiguration();
+    } else
+    {
+      motor.setConfigurationMarker(ConfigurationFingerprints.marker(fingerprint));
+      motor.burnFlash();
+      if (key != null)
+      {
+        ConfigurationFingerprints.store(key, fingerprint);
+      }
     }
+  }
 
-    lastState = getState();
+  /**
+   * Switch the status frame periods of both motors, such as when changing robot mode. Status frame periods are not
+   * written to flash so this can be called at any time.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  public void setStatusFrameProfile(StatusFrameProfile profile)
+  {
+    configuration.statusFrameProfile = profile;
+    angleMotor.configureStatusFrames(profile);
+    driveMotor.configureStatusFrames(profile);
+  }
+
+  /**
+   * Reset the absolute encoder to defaults and configure its direction, does nothing without an absolute encoder.
+   */
+  public void configureAbsoluteEncoder()
+  {
+    if (absoluteEncoder != null)
+    {
+      absoluteEncoder.factoryDefault();
+      absoluteEncoder.configure(configuration.absoluteEncoderInverted);
+    }
+  }
+
+  /**
+   * Set the angle motor integrated encoder to the absolute encoder position, once both are configured.
+   */
+  public void seedAngleMotor()
+  {
+    if (absoluteEncoder != null)
+    {
+      angleMotor.setPosition(getAbsolutePosition());
+      refresh();
+    }
   }
 
   /**
@@ -171,21 +334,25 @@ public class SwerveModule
 
     if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH)
     {
-      SmartDashboard.putNumber(
-          "Optimized " + moduleNumber + " Speed Setpoint: ", desiredState.speedMetersPerSecond);
-      SmartDashboard.putNumber(
-          "Optimized " + moduleNumber + " Angle Setpoint: ", desiredState.angle.getDegrees());
-      SmartDashboard.putNumber(
-          "Module " + moduleNumber + " Omega: ", Math.toDegrees(desiredState.omegaRadPerSecond));
+      SwerveDriveTelemetry.optimizedSpeedSetpoints[moduleNumber] = desiredState.speedMetersPerSecond;
+      SwerveDriveTelemetry.optimizedAngleSetpoints[moduleNumber] = desiredState.angle.getDegrees();
+      SwerveDriveTelemetry.moduleOmegas[moduleNumber] = Math.toDegrees(desiredState.omegaRadPerSecond);
     }
 
     // Prevent module rotation if angle is the same as the previous angle.
     if (desiredState.angle != lastState.angle || synchronizeEncoderQueued)
     {
       // Synchronize encoders if queued and send in the current position as the value from the absolute encoder.
-      if (absoluteEncoder != null && synchronizeEncoderQueued)
+      // A faulty absolute reading leaves the synchronization queued to retry on the next cycle.
+      double  absoluteEncoderPosition = 0;
+      boolean synchronize             = absoluteEncoder != null && synchronizeEncoderQueued;
+      if (synchronize)
+      {
+        absoluteEncoderPosition = getAbsolutePosition();
+        synchronize = !absoluteEncoder.readingError;
+      }
+      if (synchronize)
       {
-        double absoluteEncoderPosition = getAbsolutePosition();
         angleMotor.setPosition(absoluteEncoderPosition);
         angleMotor.setReference(desiredState.angle.getDegrees(),
                                 Math.toDegrees(desiredState.omegaRadPerSecond) * configuration.angleKV,
@@ -199,7 +366,7 @@ public class SwerveModule
     }
     lastState = desiredState;
 
-    if (SwerveDriveTelemetry.isSimulation)
+    if (configuration.simulated)
     {
       simModule.updateStateAndPosition(desiredState);
     }
@@ -217,49 +384,77 @@ public class SwerveModule
   }
 
   /**
-   * Get the Swerve Module state.
+   * Read the drive and angle motors into the sensor cache every consumer reads from. Run once at the start of every
+   * cycle, {@link SwerveDrive} does so for every odometry update, or by code which needs data fresher than the cycle.
+   */
+  public void refresh()
+  {
+    if (!configuration.simulated)
+    {
+      sensorCache = new SensorCache(driveMotor.getPosition(), driveMotor.getVelocity(), angleMotor.getPosition(),
+                                    Math.toRadians(angleMotor.getVelocity()), clock.getAsDouble());
+    }
+  }
+
+  /**
+   * Set the time source of the module and its motors and absolute encoder, such as a simulated clock.
+   *
+   * @param clock Time source in seconds.
+   */
+  public void setClock(DoubleSupplier clock)
+  {
+    this.clock = clock;
+    driveMotor.clock = clock;
+    angleMotor.clock = clock;
+    if (absoluteEncoder != null)
+    {
+      absoluteEncoder.clock = clock;
+    }
+  }
+
+  /**
+   * Get the time since the sensor cache was refreshed.
+   *
+   * @return Age of the cached motor readings in seconds, 0 in simulation.
+   */
+  public double getCacheAge()
+  {
+    SensorCache cache = sensorCache;
+    return cache == null ? 0 : clock.getAsDouble() - cache.timestamp;
+  }
+
+  /**
+   * Get the Swerve Module state, as of the last {@link #refresh()}.
    *
    * @return Current SwerveModule state.
    */
   public SwerveModuleState2 getState()
   {
-    double     velocity;
-    Rotation2d azimuth;
-    double     omega;
-    if (!SwerveDriveTelemetry.isSimulation)
-    {
-      velocity = driveMotor.getVelocity();
-      azimuth = Rotation2d.fromDegrees(angleMotor.getPosition());
-      omega = Math.toRadians(angleMotor.getVelocity());
-    } else
+    if (configuration.simulated)
     {
       return simModule.getState();
     }
-    return new SwerveModuleState2(velocity, azimuth, omega);
+    SensorCache cache = sensorCache;
+    return new SwerveModuleState2(cache.driveVelocity, cache.azimuth, cache.angleVelocity);
   }
 
   /**
-   * Get the position of the swerve module.
+   * Get the position of the swerve module, as of the last {@link #refresh()}.
    *
    * @return {@link SwerveModulePosition} of the swerve module.
    */
   public SwerveModulePosition getPosition()
   {
-    double     position;
-    Rotation2d azimuth;
-    if (!SwerveDriveTelemetry.isSimulation)
-    {
-      position = driveMotor.getPosition();
-      azimuth = Rotation2d.fromDegrees(angleMotor.getPosition());
-    } else
+    if (configuration.simulated)
     {
       return simModule.getPosition();
     }
+    SensorCache cache = sensorCache;
     if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH)
     {
-      SmartDashboard.putNumber("Module " + moduleNumber + "Angle", azimuth.getDegrees());
+      SwerveDriveTelemetry.moduleAngles[moduleNumber] = cache.anglePosition;
     }
-    return new SwerveModulePosition(position, azimuth);
+    return new SwerveModulePosition(cache.drivePosition, cache.azimuth);
   }
 
   /**
@@ -291,13 +486,14 @@ public class SwerveModule
   }
 
   /**
-   * Get the relative angle in degrees.
+   * Get the relative angle in degrees, as of the last {@link #refresh()}.
    *
    * @return Angle in degrees.
    */
   public double getRelativePosition()
   {
-    return angleMotor.getPosition();
+    SensorCache cache = sensorCache;
+    return cache == null ? angleMotor.getPosition() : cache.anglePosition;
   }
 
   /**
@@ -339,4 +535,57 @@ public class SwerveModule
   {
     return configuration;
   }
+
+  /**
+   * Drive and angle motor readings of one cycle. Immutable, so a reader on another thread always sees readings from
+   * the same refresh.
+   */
+  private static final class SensorCache
+  {
+
+    /**
+     * Drive motor position in meters.
+     */
+    private final double     drivePosition;
+    /**
+     * Drive motor velocity in meters per second.
+     */
+    private final double     driveVelocity;
+    /**
+     * Angle motor position in degrees.
+     */
+    private final double     anglePosition;
+    /**
+     * Angle motor position as a {@link Rotation2d}.
+     */
+    private final Rotation2d azimuth;
+    /**
+     * Angle motor velocity in radians per second.
+     */
+    private final double     angleVelocity;
+    /**
+     * FPGA timestamp of the readings in seconds.
+     */
+    private final double     timestamp;
+
+    /**
+     * Hold the motor readings of one cycle.
+     *
+     * @param drivePosition Drive motor position in meters.
+     * @param driveVelocity Drive motor velocity in meters per second.
+     * @param anglePosition Angle motor position in degrees.
+     * @param angleVelocity Angle motor velocity in radians per second.
+     * @param timestamp     FPGA timestamp of the readings in seconds.
+     */
+    private SensorCache(double drivePosition, double driveVelocity, double anglePosition, double angleVelocity,
+                        double timestamp)
+    {
+      this.drivePosition = drivePosition;
+      this.driveVelocity = driveVelocity;
+      this.anglePosition = anglePosition;
+      this.azimuth = Rotation2d.fromDegrees(anglePosition);
+      this.angleVelocity = angleVelocity;
+      this.timestamp = timestamp;
+    }
+  }
 }
@@ -19,7 +19,39 @@ public class CANCoderSwerve extends SwerveAbsoluteEncoder
   /**
    * CANCoder with WPILib sendable and support.
    */
-  public WPI_CANCoder encoder;
+  public  WPI_CANCoder        encoder;
+  /**
+   * Seconds between magnet field strength checks.
+   */
+  public  double              magnetCheckPeriod  = 1.0;
+  /**
+   * Minimum seconds between repeated warnings from this encoder.
+   */
+  public  double              warningPeriod      = 2.0;
+  /**
+   * Last good absolute position in degrees.
+   */
+  private double              lastGoodAngle      = 0;
+  /**
+   * FPGA timestamp of the last good absolute position, negative before the first good reading.
+   */
+  private double              lastGoodTimestamp  = -1;
+  /**
+   * Magnet field strength from the last check.
+   */
+  private MagnetFieldStrength magnetStrength     = MagnetFieldStrength.Good_GreenLED;
+  /**
+   * FPGA timestamp of the last magnet field strength check.
+   */
+  private double              lastMagnetCheck    = Double.NEGATIVE_INFINITY;
+  /**
+   * FPGA timestamp of the last warning.
+   */
+  private double              lastWarning        = Double.NEGATIVE_INFINITY;
+  /**
+   * Sensor direction last configured.
+   */
+  private boolean             inverted           = false;
 
   /**
    * Initialize the CANCoder on the standard CANBus.
@@ -68,6 +100,7 @@ public class CANCoderSwerve extends SwerveAbsoluteEncoder
   @Override
   public void configure(boolean inverted)
   {
+    this.inverted = inverted;
     CANCoderConfiguration canCoderConfiguration = new CANCoderConfiguration();
     canCoderConfiguration.absoluteSensorRange = AbsoluteSensorRange.Unsigned_0_to_360;
     canCoderConfiguration.sensorDirection = inverted;
@@ -78,57 +111,92 @@ public class CANCoderSwerve extends SwerveAbsoluteEncoder
   }
 
   /**
-   * Get the absolute position of the encoder. Sets {@link SwerveAbsoluteEncoder#readingError} on erroneous readings.
+   * Read the sensor direction and range back from the CANCoder and compare them with what was configured.
+   *
+   * @return True if the CANCoder holds the configured values.
+   */
+  @Override
+  public boolean verifyConfiguration()
+  {
+    return encoder.configGetSensorDirection(250) == inverted &&
+           encoder.configGetAbsoluteSensorRange(250) == AbsoluteSensorRange.Unsigned_0_to_360;
+  }
+
+  /**
+   * Get the absolute position of the encoder without blocking. Sets {@link SwerveAbsoluteEncoder#readingError} on
+   * erroneous readings and returns the last good reading instead, the read is retried on the next call. The magnet
+   * field strength is only checked every {@link #magnetCheckPeriod} seconds.
    *
    * @return Absolute position in degrees from [0, 360).
    */
   @Override
   public double getAbsolutePosition()
   {
-    readingError = false;
-    MagnetFieldStrength strength = encoder.getMagnetFieldStrength();
-
-    if (strength != MagnetFieldStrength.Good_GreenLED)
+    double now = clock.getAsDouble();
+    if (now - lastMagnetCheck >= magnetCheckPeriod)
     {
-      DriverStation.reportWarning(
-          "CANCoder " + encoder.getDeviceID() + " magnetic field is less than ideal.\n", false);
+      magnetStrength = encoder.getMagnetFieldStrength();
+      lastMagnetCheck = now;
+      if (magnetStrength != MagnetFieldStrength.Good_GreenLED)
+      {
+        warn(now, "magnetic field is less than ideal");
+      }
     }
-    if (strength == MagnetFieldStrength.Invalid_Unknown || strength == MagnetFieldStrength.BadRange_RedLED)
+    if (magnetStrength == MagnetFieldStrength.Invalid_Unknown || magnetStrength == MagnetFieldStrength.BadRange_RedLED)
     {
       readingError = true;
-      DriverStation.reportWarning("CANCoder " + encoder.getDeviceID() + " reading was faulty.\n", false);
-      return 0;
+      warn(now, "reading was faulty");
+      return lastGoodAngle;
     }
-    double angle = encoder.getAbsolutePosition();
 
-    // Taken from democat's library.
-    // Source: https://github.com/democat3457/swerve-lib/blob/7c03126b8c22f23a501b2c2742f9d173a5bcbc40/src/main/java/com/swervedrivespecialties/swervelib/ctre/CanCoderFactoryBuilder.java#L51-L74
-    ErrorCode code     = encoder.getLastError();
-    int       ATTEMPTS = 3;
-    for (int i = 0; i < ATTEMPTS; i++)
-    {
-      if (code == ErrorCode.OK)
-      {
-        break;
-      }
-      try
-      {
-        Thread.sleep(10);
-      } catch (InterruptedException e)
-      {
-      }
-      angle = encoder.getAbsolutePosition();
-      code = encoder.getLastError();
-    }
-    if (code != ErrorCode.OK)
+    double angle = encoder.getAbsolutePosition();
+    if (encoder.getLastError() != ErrorCode.OK)
     {
       readingError = true;
-      DriverStation.reportWarning("CANCoder " + encoder.getDeviceID() + " reading was faulty, ignoring.\n", false);
+      warn(now, "reading was faulty, using last good reading");
+      return lastGoodAngle;
     }
-
+    readingError = false;
+    lastGoodAngle = angle;
+    lastGoodTimestamp = now;
     return angle;
   }
 
+  /**
+   * Get the last good absolute position.
+   *
+   * @return Absolute position in degrees from [0, 360).
+   */
+  public double getLastGoodAngle()
+  {
+    return lastGoodAngle;
+  }
+
+  /**
+   * Get the age of the last good absolute position.
+   *
+   * @return Seconds since the last good reading, infinite if there has not been one.
+   */
+  public double getLastGoodAge()
+  {
+    return lastGoodTimestamp < 0 ? Double.POSITIVE_INFINITY : clock.getAsDouble() - lastGoodTimestamp;
+  }
+
+  /**
+   * Report a warning for this encoder, at most once every {@link #warningPeriod} seconds.
+   *
+   * @param now     Current FPGA timestamp.
+   * @param message Warning message.
+   */
+  private void warn(double now, String message)
+  {
+    if (now - lastWarning >= warningPeriod)
+    {
+      lastWarning = now;
+      DriverStation.reportWarning("CANCoder " + encoder.getDeviceID() + " " + message + ".\n", false);
+    }
+  }
+
   /**
    * Get the instantiated absolute encoder Object.
    *
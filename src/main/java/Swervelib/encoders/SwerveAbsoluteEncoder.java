@@ -1,12 +1,20 @@
 package Swervelib.encoders;
 
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Timer;
+
 public abstract class SwerveAbsoluteEncoder
 {
 
   /**
    * Last angle reading was faulty.
    */
-  public boolean readingError = false;
+  public boolean        readingError = false;
+  /**
+   * Time source in seconds, the FPGA time unless the encoder is read on a simulated clock.
+   */
+  public DoubleSupplier clock        = Timer::getFPGATimestamp;
 
   /**
    * Reset the encoder to factory defaults.
@@ -32,6 +40,17 @@ public abstract class SwerveAbsoluteEncoder
    */
   public abstract double getAbsolutePosition();
 
+  /**
+   * Read the configuration back from the encoder and compare it with what was configured. Encoders without readback
+   * support report success.
+   *
+   * @return True if the encoder holds the configured values.
+   */
+  public boolean verifyConfiguration()
+  {
+    return true;
+  }
+
   /**
    * Get the instantiated absolute encoder Object.
    *
@@ -0,0 +1,119 @@
+package Swervelib.encoders;
+
+import java.util.Random;
+
+import Swervelib.motors.VirtualMotorSwerve;
+
+/**
+ * In memory absolute encoder with configurable Gaussian noise, for running swerve code without hardware or HAL. Reads
+ * the mechanism angle of a {@link VirtualMotorSwerve} when following one, otherwise the {@link #angle} field.
+ */
+public class VirtualEncoderSwerve extends SwerveAbsoluteEncoder
+{
+
+  /**
+   * Angle in degrees read when not following a motor.
+   */
+  public        double             angle    = 0;
+  /**
+   * Standard deviation of the reading noise in degrees.
+   */
+  public        double             noise;
+  /**
+   * Random source of the noise, seeded for repeatable runs.
+   */
+  private final Random             random;
+  /**
+   * Angle motor followed, null if not following.
+   */
+  private       VirtualMotorSwerve motor;
+  /**
+   * Reading when the followed mechanism is at 0 degrees.
+   */
+  private       double             offset   = 0;
+  /**
+   * Inversion state of the encoder.
+   */
+  private       boolean            inverted = false;
+
+  /**
+   * Create a virtual absolute encoder.
+   *
+   * @param id    ID of the encoder, used as the noise seed.
+   * @param noise Standard deviation of the reading noise in degrees.
+   */
+  public VirtualEncoderSwerve(int id, double noise)
+  {
+    this.noise = noise;
+    random = new Random(id);
+  }
+
+  /**
+   * Read the mechanism angle of an angle motor, as if mounted on the same module.
+   *
+   * @param motor  Angle motor to follow.
+   * @param offset Reading when the mechanism is at 0 degrees, the module absolute encoder offset.
+   */
+  public void follow(VirtualMotorSwerve motor, double offset)
+  {
+    this.motor = motor;
+    this.offset = offset;
+  }
+
+  /**
+   * Reset the encoder to factory defaults.
+   */
+  @Override
+  public void factoryDefault()
+  {
+    // Do nothing
+  }
+
+  /**
+   * Clear sticky faults on the encoder.
+   */
+  @Override
+  public void clearStickyFaults()
+  {
+    // Do nothing
+  }
+
+  /**
+   * Configure the absolute encoder to read from [0, 360) per second.
+   *
+   * @param inverted Whether the encoder is inverted.
+   */
+  @Override
+  public void configure(boolean inverted)
+  {
+    this.inverted = inverted;
+  }
+
+  /**
+   * Get the absolute position of the encoder.
+   *
+   * @return Absolute position in degrees from [0, 360).
+   */
+  @Override
+  public double getAbsolutePosition()
+  {
+    double position = motor != null ? motor.getMechanismPosition() + offset : angle;
+    if (noise > 0)
+    {
+      position += random.nextGaussian() * noise;
+    }
+    position = (inverted ? -1.0 : 1.0) * position % 360;
+    return position < 0 ? position + 360 : position;
+  }
+
+  /**
+   * Get the instantiated absolute encoder Object.
+   *
+   * @return This virtual encoder.
+   */
+  @Override
+  public Object getAbsoluteEncoder()
+  {
+    return this;
+  }
+}
@@ -45,7 +45,7 @@ public class AnalogGyroSwerve extends SwerveIMU
   @Override
   public void factoryDefault()
   {
-    offset = new Rotation3d(0, 0, Math.toRadians(gyro.getAngle()));
+    offset = new Rotation3d(0, 0, Math.toRadians(-gyro.getAngle()));
   }
 
   /**
@@ -68,13 +68,14 @@ public class AnalogGyroSwerve extends SwerveIMU
   }
 
   /**
-   * Fetch the {@link Rotation3d} from the IMU without any zeroing. Robot relative.
+   * Fetch the {@link Rotation3d} from the IMU without any zeroing. Robot relative. The gyro reads clockwise positive,
+   * so the angle is negated to be counter-clockwise positive like every other IMU.
    *
    * @return {@link Rotation3d} from the IMU.
    */
   public Rotation3d getRawRotation3d()
   {
-    return new Rotation3d(0, 0, Math.toRadians(gyro.getAngle()));
+    return new Rotation3d(0, 0, Math.toRadians(-gyro.getAngle()));
   }
 
   /**
@@ -100,6 +101,17 @@ public class AnalogGyroSwerve extends SwerveIMU
     return Optional.empty();
   }
 
+  /**
+   * Fetch the yaw rate from the IMU, robot relative, negated like the yaw.
+   *
+   * @return Yaw rate in radians per second, counter-clockwise positive.
+   */
+  @Override
+  public double getYawRate()
+  {
+    return Math.toRadians(-gyro.getRate());
+  }
+
   /**
    * Get the instantiated IMU object.
    *
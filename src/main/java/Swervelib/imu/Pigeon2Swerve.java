@@ -0,0 +1,35 @@
+package Swervelib.imu;
+
+import com.ctre.phoenix.sensors.Pigeon2_StatusFrame;
+import com.ctre.phoenix.sensors.WPI_Pigeon2;
+
+/**
+ * SwerveIMU interface for the Pigeon 2. Shares the reads and background sampling of {@link PigeonSwerve}, so
+ * {@link #startSampling(double)} at 100 Hz or faster speeds up the Pigeon 2 status frames to match.
+ */
+public class Pigeon2Swerve extends PigeonSwerve
+{
+
+  /**
+   * Generate the SwerveIMU for the Pigeon 2.
+   *
+   * @param canid  CAN ID for the Pigeon 2.
+   * @param canbus CAN bus the Pigeon 2 is on, empty for the roboRIO bus.
+   */
+  public Pigeon2Swerve(int canid, String canbus)
+  {
+    super(new WPI_Pigeon2(canid, canbus));
+  }
+
+  /**
+   * Set the period of the Pigeon 2 status frames the sampler reads, the quaternion and the gyro rates.
+   *
+   * @param periodMs Status frame period in milliseconds.
+   */
+  @Override
+  protected void configureStatusFrames(int periodMs)
+  {
+    ((WPI_Pigeon2) imu).setStatusFramePeriod(Pigeon2_StatusFrame.CondStatus_10_SixDeg_Quat, periodMs);
+    ((WPI_Pigeon2) imu).setStatusFramePeriod(Pigeon2_StatusFrame.BiasedStatus_2_Gyro, periodMs);
+  }
+}
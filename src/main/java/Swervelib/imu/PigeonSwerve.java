@@ -2,27 +2,56 @@ package Swervelib.imu;
 
 import java.util.Optional;
 
+import com.ctre.phoenix.sensors.BasePigeon;
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
 import com.ctre.phoenix.sensors.WPI_PigeonIMU;
 
 import edu.wpi.first.math.geometry.Quaternion;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.util.sendable.Sendable;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
- * SwerveIMU interface for the Pigeon.
+ * SwerveIMU interface for the Pigeon. Reads the Pigeon on every call unless {@link #startSampling(double)} polls it on
+ * a background thread, after which every read comes from the latest {@link SwerveIMUSample}.
  */
 public class PigeonSwerve extends SwerveIMU
 {
 
   /**
-   * Pigeon v1 IMU device.
+   * Pigeon IMU device.
    */
-  WPI_PigeonIMU imu;
+  protected final BasePigeon      imu;
   /**
    * Offset for the Pigeon.
    */
-  private Rotation3d offset = new Rotation3d();
+  private         Rotation3d      offset         = new Rotation3d();
+  /**
+   * Latest sample written by the sampler, guarded by itself.
+   */
+  private final   SwerveIMUSample sample         = new SwerveIMUSample();
+  /**
+   * Quaternion read by the sampler thread.
+   */
+  private final   double[]        polledWxyz     = new double[4];
+  /**
+   * Angular rates in degrees per second read by the sampler thread.
+   */
+  private final   double[]        polledXyzDps   = new double[3];
+  /**
+   * Notifier polling the Pigeon, null when not sampling.
+   */
+  private         Notifier        sampler;
+  /**
+   * Rotation with the offset applied, calculated from the sample numbered {@link #cachedSequence}.
+   */
+  private         Rotation3d      cachedRotation;
+  /**
+   * Sequence of the sample {@link #cachedRotation} was calculated from, -1 when it needs recalculating.
+   */
+  private         long            cachedSequence = -1;
 
   /**
    * Generate the SwerveIMU for pigeon.
@@ -31,9 +60,21 @@ public class PigeonSwerve extends SwerveIMU
    */
   public PigeonSwerve(int canid)
   {
-    imu = new WPI_PigeonIMU(canid);
-    offset = new Rotation3d();
-    SmartDashboard.putData(imu);
+    this(new WPI_PigeonIMU(canid));
+  }
+
+  /**
+   * Generate the SwerveIMU for a Pigeon of any generation.
+   *
+   * @param imu Pigeon IMU device, published to the dashboard when {@link Sendable}.
+   */
+  protected PigeonSwerve(BasePigeon imu)
+  {
+    this.imu = imu;
+    if (imu instanceof Sendable)
+    {
+      SmartDashboard.putData((Sendable) imu);
+    }
   }
 
   /**
@@ -61,7 +102,97 @@ public class PigeonSwerve extends SwerveIMU
    */
   public void setOffset(Rotation3d offset)
   {
-    this.offset = offset;
+    synchronized (sample)
+    {
+      this.offset = offset;
+      cachedSequence = -1;
+    }
+  }
+
+  /**
+   * Poll the Pigeon on a background thread into a {@link SwerveIMUSample}, so reads in the main loop do not go over
+   * JNI and repeated reads of one sample do not allocate. Speeds up the Pigeon status frames to match.
+   *
+   * @param frequencyHz Rate to poll the Pigeon at, in hertz.
+   */
+  public void startSampling(double frequencyHz)
+  {
+    if (frequencyHz <= 0)
+    {
+      throw new IllegalArgumentException("IMU sampling frequency must be positive, got " + frequencyHz);
+    }
+    stopSampling();
+    configureStatusFrames(Math.max(1, (int) Math.round(1000 / frequencyHz)));
+    poll();
+    sampler = new Notifier(this::poll);
+    sampler.setName(getClass().getSimpleName() + "Sampler");
+    sampler.startPeriodic(1.0 / frequencyHz);
+  }
+
+  /**
+   * Set the period of the status frames the sampler reads, the quaternion and the gyro rates.
+   *
+   * @param periodMs Status frame period in milliseconds.
+   */
+  protected void configureStatusFrames(int periodMs)
+  {
+    ((WPI_PigeonIMU) imu).setStatusFramePeriod(PigeonIMU_StatusFrame.CondStatus_10_SixDeg_Quat, periodMs);
+    ((WPI_PigeonIMU) imu).setStatusFramePeriod(PigeonIMU_StatusFrame.BiasedStatus_2_Gyro, periodMs);
+  }
+
+  /**
+   * Stop the background sampler, the Pigeon is read on every call afterwards.
+   */
+  public void stopSampling()
+  {
+    if (sampler != null)
+    {
+      sampler.stop();
+      sampler.close();
+      sampler = null;
+    }
+  }
+
+  /**
+   * Whether the Pigeon is polled by the background sampler.
+   *
+   * @return True when sampling.
+   */
+  public boolean isSampling()
+  {
+    return sampler != null;
+  }
+
+  /**
+   * Read the Pigeon into the sample, run by the sampler thread.
+   */
+  private void poll()
+  {
+    imu.get6dQuaternion(polledWxyz);
+    imu.getRawGyro(polledXyzDps);
+    double timestamp = clock.getAsDouble();
+    synchronized (sample)
+    {
+      sample.setQuaternion(polledWxyz[0], polledWxyz[1], polledWxyz[2], polledWxyz[3]);
+      sample.rollRate = Math.toRadians(polledXyzDps[0]);
+      sample.pitchRate = Math.toRadians(polledXyzDps[1]);
+      sample.yawRate = Math.toRadians(polledXyzDps[2]);
+      sample.timestamp = timestamp;
+      sample.sequence++;
+    }
+  }
+
+  /**
+   * Copy the latest sample without allocating. Only updated while sampling.
+   *
+   * @param out Sample to copy into.
+   */
+  public void getSample(SwerveIMUSample out)
+  {
+    synchronized (sample)
+    {
+      out.copyFrom(sample);
+    }
   }
 
   /**
@@ -72,19 +203,38 @@ public class PigeonSwerve extends SwerveIMU
   @Override
   public Rotation3d getRawRotation3d()
   {
+    if (sampler != null)
+    {
+      synchronized (sample)
+      {
+        return new Rotation3d(new Quaternion(sample.qw, sample.qx, sample.qy, sample.qz));
+      }
+    }
     double[] wxyz = new double[4];
     imu.get6dQuaternion(wxyz);
     return new Rotation3d(new Quaternion(wxyz[0], wxyz[1], wxyz[2], wxyz[3]));
   }
 
   /**
-   * Fetch the {@link Rotation3d} from the IMU. Robot relative.
+   * Fetch the {@link Rotation3d} from the IMU. Robot relative. While sampling, calculated once per sample.
    *
    * @return {@link Rotation3d} from the IMU.
    */
   @Override
   public Rotation3d getRotation3d()
   {
+    if (sampler != null)
+    {
+      synchronized (sample)
+      {
+        if (cachedSequence != sample.sequence)
+        {
+          cachedRotation = new Rotation3d(new Quaternion(sample.qw, sample.qx, sample.qy, sample.qz)).minus(offset);
+          cachedSequence = sample.sequence;
+        }
+        return cachedRotation;
+      }
+    }
     return getRawRotation3d().minus(offset);
   }
 
@@ -102,6 +252,26 @@ public class PigeonSwerve extends SwerveIMU
     return Optional.of(new Translation3d(initial[0], initial[1], initial[2]).times(9.81 / 16384.0));
   }
 
+  /**
+   * Fetch the yaw rate from the IMU, robot relative. While sampling, read from the latest sample.
+   *
+   * @return Yaw rate in radians per second, counter-clockwise positive.
+   */
+  @Override
+  public double getYawRate()
+  {
+    if (sampler != null)
+    {
+      synchronized (sample)
+      {
+        return sample.yawRate;
+      }
+    }
+    double[] xyzDps = new double[3];
+    imu.getRawGyro(xyzDps);
+    return Math.toRadians(xyzDps[2]);
+  }
+
   /**
    * Get the instantiated IMU object.
    *
@@ -1,9 +1,11 @@
 package Swervelib.imu;
 
 import java.util.Optional;
+import java.util.function.DoubleSupplier;
 
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
  * Swerve IMU abstraction to define a standard interface with a swerve drive.
@@ -11,6 +13,11 @@ import edu.wpi.first.math.geometry.Translation3d;
 public abstract class SwerveIMU
 {
 
+  /**
+   * Time source in seconds samples are stamped with, the FPGA time unless the IMU is read on a simulated clock.
+   */
+  public DoubleSupplier clock = Timer::getFPGATimestamp;
+
   /**
    * Reset IMU to factory default.
    */
@@ -50,6 +57,13 @@ public abstract class SwerveIMU
    */
   public abstract Optional<Translation3d> getAccel();
 
+  /**
+   * Fetch the yaw rate from the IMU, robot relative.
+   *
+   * @return Yaw rate in radians per second, counter-clockwise positive.
+   */
+  public abstract double getYawRate();
+
   /**
    * Get the instantiated IMU object.
    *
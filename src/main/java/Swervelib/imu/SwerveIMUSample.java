@@ -0,0 +1,106 @@
+package Swervelib.imu;
+
+/**
+ * One reading of an IMU held in primitive fields, filled by a background sampler such as
+ * {@link PigeonSwerve#startSampling(double)} and copied out with {@link PigeonSwerve#getSample(SwerveIMUSample)}, so a
+ * loop can reuse one instance and read a consistent sample without allocating.
+ */
+public class SwerveIMUSample
+{
+
+  /**
+   * Raw orientation quaternion W component, without the offset applied.
+   */
+  public double qw = 1;
+  /**
+   * Raw orientation quaternion X component, without the offset applied.
+   */
+  public double qx;
+  /**
+   * Raw orientation quaternion Y component, without the offset applied.
+   */
+  public double qy;
+  /**
+   * Raw orientation quaternion Z component, without the offset applied.
+   */
+  public double qz;
+  /**
+   * Raw yaw in radians, counter-clockwise positive.
+   */
+  public double yaw;
+  /**
+   * Raw pitch in radians.
+   */
+  public double pitch;
+  /**
+   * Raw roll in radians.
+   */
+  public double roll;
+  /**
+   * Yaw rate in radians per second, counter-clockwise positive.
+   */
+  public double yawRate;
+  /**
+   * Pitch rate in radians per second.
+   */
+  public double pitchRate;
+  /**
+   * Roll rate in radians per second.
+   */
+  public double rollRate;
+  /**
+   * FPGA timestamp of the reading in seconds.
+   */
+  public double timestamp;
+  /**
+   * Number of the reading, increasing by one every sample, 0 before the first.
+   */
+  public long   sequence;
+
+  /**
+   * Set the orientation from a quaternion, normalizing it and calculating the yaw, pitch and roll the same way as
+   * {@link edu.wpi.first.math.geometry.Rotation3d}.
+   *
+   * @param w Quaternion W component.
+   * @param x Quaternion X component.
+   * @param y Quaternion Y component.
+   * @param z Quaternion Z component.
+   */
+  public void setQuaternion(double w, double x, double y, double z)
+  {
+    double norm = Math.sqrt(w * w + x * x + y * y + z * z);
+    if (norm == 0)
+    {
+      w = 1;
+      norm = 1;
+    }
+    qw = w / norm;
+    qx = x / norm;
+    qy = y / norm;
+    qz = z / norm;
+    roll = Math.atan2(2 * (qw * qx + qy * qz), 1 - 2 * (qx * qx + qy * qy));
+    pitch = Math.asin(Math.max(-1, Math.min(1, 2 * (qw * qy - qz * qx))));
+    yaw = Math.atan2(2 * (qw * qz + qx * qy), 1 - 2 * (qy * qy + qz * qz));
+  }
+
+  /**
+   * Copy every field of another sample into this one.
+   *
+   * @param other Sample to copy.
+   */
+  public void copyFrom(SwerveIMUSample other)
+  {
+    qw = other.qw;
+    qx = other.qx;
+    qy = other.qy;
+    qz = other.qz;
+    yaw = other.yaw;
+    pitch = other.pitch;
+    roll = other.roll;
+    yawRate = other.yawRate;
+    pitchRate = other.pitchRate;
+    rollRate = other.rollRate;
+    timestamp = other.timestamp;
+    sequence = other.sequence;
+  }
+}
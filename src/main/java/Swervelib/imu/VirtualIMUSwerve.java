@@ -0,0 +1,161 @@
+package Swervelib.imu;
+
+import java.util.Optional;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.geometry.Translation3d;
+
+/**
+ * In memory IMU which integrates a yaw rate, for running swerve code without hardware or HAL. The yaw rate is set
+ * directly or read from a source such as the kinematics of the measured module states, and integrated over the time
+ * passed on {@link #clock} whenever the IMU is read. Pitch and roll stay level.
+ */
+public class VirtualIMUSwerve extends SwerveIMU
+{
+
+  /**
+   * Source of the yaw rate in radians per second, counter-clockwise positive.
+   */
+  private DoubleSupplier yawRate  = () -> 0;
+  /**
+   * Integrated yaw in radians.
+   */
+  private double         yaw      = 0;
+  /**
+   * Clock time the yaw was last integrated to, NaN before the first read.
+   */
+  private double         lastTime = Double.NaN;
+  /**
+   * Offset for the IMU.
+   */
+  private Rotation3d     offset   = new Rotation3d();
+
+  /**
+   * Create a virtual IMU which integrates over the system time, there being no HAL to read the FPGA time from.
+   */
+  public VirtualIMUSwerve()
+  {
+    clock = () -> System.nanoTime() / 1e9;
+  }
+
+  /**
+   * Set a constant yaw rate.
+   *
+   * @param radiansPerSecond Yaw rate in radians per second, counter-clockwise positive.
+   */
+  public void setYawRate(double radiansPerSecond)
+  {
+    integrate();
+    yawRate = () -> radiansPerSecond;
+  }
+
+  /**
+   * Read the yaw rate from a source every time the yaw is integrated.
+   *
+   * @param radiansPerSecond Source of the yaw rate in radians per second, counter-clockwise positive.
+   */
+  public void setYawRateSource(DoubleSupplier radiansPerSecond)
+  {
+    integrate();
+    yawRate = radiansPerSecond;
+  }
+
+  /**
+   * Integrate the yaw rate up to the current {@link #clock} time.
+   */
+  private void integrate()
+  {
+    double now = clock.getAsDouble();
+    if (!Double.isNaN(lastTime) && now > lastTime)
+    {
+      yaw += yawRate.getAsDouble() * (now - lastTime);
+    }
+    lastTime = now;
+  }
+
+  /**
+   * Reset IMU to factory default.
+   */
+  @Override
+  public void factoryDefault()
+  {
+    // Nothing stored to reset.
+  }
+
+  /**
+   * Clear sticky faults on IMU.
+   */
+  @Override
+  public void clearStickyFaults()
+  {
+    // Virtual IMUs do not fault.
+  }
+
+  /**
+   * Set the gyro offset.
+   *
+   * @param offset gyro offset as a {@link Rotation3d}.
+   */
+  @Override
+  public void setOffset(Rotation3d offset)
+  {
+    this.offset = offset;
+  }
+
+  /**
+   * Fetch the {@link Rotation3d} from the IMU without any zeroing. Robot relative.
+   *
+   * @return {@link Rotation3d} from the IMU.
+   */
+  @Override
+  public Rotation3d getRawRotation3d()
+  {
+    integrate();
+    return new Rotation3d(0, 0, yaw);
+  }
+
+  /**
+   * Fetch the {@link Rotation3d} from the IMU. Robot relative.
+   *
+   * @return {@link Rotation3d} from the IMU.
+   */
+  @Override
+  public Rotation3d getRotation3d()
+  {
+    return getRawRotation3d().minus(offset);
+  }
+
+  /**
+   * Fetch the acceleration [x, y, z] from the IMU in meters per second squared. Not modelled, so always empty.
+   *
+   * @return Empty {@link Optional}.
+   */
+  @Override
+  public Optional<Translation3d> getAccel()
+  {
+    return Optional.empty();
+  }
+
+  /**
+   * Fetch the yaw rate being integrated.
+   *
+   * @return Yaw rate in radians per second, counter-clockwise positive.
+   */
+  @Override
+  public double getYawRate()
+  {
+    return yawRate.getAsDouble();
+  }
+
+  /**
+   * Get the instantiated IMU object.
+   *
+   * @return This virtual IMU.
+   */
+  @Override
+  public Object getIMU()
+  {
+    return this;
+  }
+}
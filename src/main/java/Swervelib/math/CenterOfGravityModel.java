@@ -0,0 +1,199 @@
+package Swervelib.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.geometry.Translation3d;
+
+/**
+ * Live center of gravity of a robot whose mechanisms move, such as an elevator or wrist. Mechanisms register their
+ * mass and a supplier of their current position, and {@link #update()} is called at loop rate to read the positions
+ * and move the mass moment by the change of each mechanism that moved, instead of summing every {@link Matter} again.
+ * Feed the result to a {@link TipOverLimiter} with {@link TipOverLimiter#setCenterOfGravity(Translation3d)} when
+ * {@link #update()} reports it moved.
+ */
+public class CenterOfGravityModel
+{
+
+  /**
+   * Distance in meters the center of gravity has to move before {@link #update()} reports it moved.
+   */
+  public        double          tolerance  = 0.001;
+  /**
+   * Registered mechanisms.
+   */
+  private final List<Mechanism> mechanisms = new ArrayList<>();
+  /**
+   * Mass moment of every mechanism, X, Y and Z in kg meters.
+   */
+  private       double          momentX, momentY, momentZ;
+  /**
+   * Total mass of every mechanism in kg.
+   */
+  private       double          mass       = 0;
+  /**
+   * Center of gravity last reported moved, in meters.
+   */
+  private       Translation3d   centerOfGravity;
+  /**
+   * Whether a mechanism was registered since the center of gravity last reported moving.
+   */
+  private       boolean         registered = false;
+
+  /**
+   * Register fixed matter, such as the chassis.
+   *
+   * @param name   Name of the matter.
+   * @param matter Matter whose position and mass are read once.
+   */
+  public void register(String name, Matter matter)
+  {
+    Translation3d position = matter.position;
+    register(name, matter.mass, () -> position);
+  }
+
+  /**
+   * Register a mechanism which moves.
+   *
+   * @param name     Name of the mechanism.
+   * @param mass     Mass of the mechanism in kg.
+   * @param position Supplier of the position of the mechanism center of mass in meters from robot center, using the
+   *                 floor as the vertical datum. Read at loop rate, so should not block.
+   */
+  public void register(String name, double mass, Supplier<Translation3d> position)
+  {
+    for (Mechanism mechanism : mechanisms)
+    {
+      if (mechanism.name.equals(name))
+      {
+        throw new IllegalArgumentException("Mechanism " + name + " is already registered");
+      }
+    }
+    if (mass <= 0)
+    {
+      throw new IllegalArgumentException("Mechanism " + name + " needs a positive mass");
+    }
+    Mechanism mechanism = new Mechanism(name, mass, position);
+    mechanisms.add(mechanism);
+    this.mass += mass;
+    momentX += mass * mechanism.x;
+    momentY += mass * mechanism.y;
+    momentZ += mass * mechanism.z;
+    if (centerOfGravity == null)
+    {
+      centerOfGravity = calculate();
+    } else
+    {
+      registered = true;
+    }
+  }
+
+  /**
+   * Read the position of every mechanism and move the mass moment by the mechanisms which moved.
+   *
+   * @return Whether the center of gravity moved more than {@link #tolerance}, or a mechanism was registered, since it
+   *     last reported moving.
+   */
+  public boolean update()
+  {
+    for (Mechanism mechanism : mechanisms)
+    {
+      Translation3d position = mechanism.position.get();
+      double        x        = position.getX(), y = position.getY(), z = position.getZ();
+      if (x != mechanism.x || y != mechanism.y || z != mechanism.z)
+      {
+        momentX += mechanism.mass * (x - mechanism.x);
+        momentY += mechanism.mass * (y - mechanism.y);
+        momentZ += mechanism.mass * (z - mechanism.z);
+        mechanism.x = x;
+        mechanism.y = y;
+        mechanism.z = z;
+      }
+    }
+    if (mass == 0)
+    {
+      return false;
+    }
+    Translation3d current = calculate();
+    if (!registered && current.getDistance(centerOfGravity) <= tolerance)
+    {
+      return false;
+    }
+    centerOfGravity = current;
+    registered = false;
+    return true;
+  }
+
+  /**
+   * Calculate the center of gravity from the mass moment.
+   *
+   * @return Center of gravity in meters.
+   */
+  private Translation3d calculate()
+  {
+    return new Translation3d(momentX / mass, momentY / mass, momentZ / mass);
+  }
+
+  /**
+   * Get the center of gravity as of the last time it was reported moved.
+   *
+   * @return Center of gravity in meters, using the floor as the vertical datum, null if nothing is registered.
+   */
+  public Translation3d getCenterOfGravity()
+  {
+    return centerOfGravity;
+  }
+
+  /**
+   * Get the total mass of every registered mechanism.
+   *
+   * @return Mass in kg.
+   */
+  public double getMass()
+  {
+    return mass;
+  }
+
+  /**
+   * Registered mechanism and the position its moment was last added at.
+   */
+  private static class Mechanism
+  {
+
+    /**
+     * Name of the mechanism.
+     */
+    private final String                  name;
+    /**
+     * Mass in kg.
+     */
+    private final double                  mass;
+    /**
+     * Supplier of the position in meters.
+     */
+    private final Supplier<Translation3d> position;
+    /**
+     * Position the moment was last added at, in meters.
+     */
+    private       double                  x, y, z;
+
+    /**
+     * Register a mechanism at its current position.
+     *
+     * @param name     Name of the mechanism.
+     * @param mass     Mass in kg.
+     * @param position Supplier of the position in meters.
+     */
+    private Mechanism(String name, double mass, Supplier<Translation3d> position)
+    {
+      this.name = name;
+      this.mass = mass;
+      this.position = position;
+      Translation3d current = position.get();
+      x = current.getX();
+      y = current.getY();
+      z = current.getZ();
+    }
+  }
+}
@@ -0,0 +1,212 @@
+package Swervelib.math;
+
+/**
+ * Bounded least-recently-used cache of inverse and forward kinematics matrices keyed by a quantized center of
+ * rotation. Slots are preallocated so neither hits nor misses allocate; a miss rebuilds the matrices of the least
+ * recently used slot in place.
+ */
+public class KinematicsMatrixCache
+{
+
+  /**
+   * X location of each swerve module in meters.
+   */
+  private final double[]   moduleX;
+  /**
+   * Y location of each swerve module in meters.
+   */
+  private final double[]   moduleY;
+  /**
+   * Size of a quantization step for the center of rotation in meters.
+   */
+  private final double     resolution;
+  /**
+   * Quantized center of rotation X held by each slot.
+   */
+  private final long[]     keyX;
+  /**
+   * Quantized center of rotation Y held by each slot.
+   */
+  private final long[]     keyY;
+  /**
+   * Use counter value of the last lookup of each slot, 0 for an empty slot.
+   */
+  private final long[]     lastUsed;
+  /**
+   * Inverse kinematics matrix per slot, row-major 2N x 3.
+   */
+  private final double[][] inverseKinematics;
+  /**
+   * Second order inverse kinematics matrix per slot, row-major 2N x 4.
+   */
+  private final double[][] bigInverseKinematics;
+  /**
+   * Forward kinematics matrix about the center of rotation per slot, row-major 3 x 2N.
+   */
+  private final double[][] forwardKinematics;
+  /**
+   * Monotonic counter used to order slots by use.
+   */
+  private       long       useCounter = 0;
+  /**
+   * Lookups that found their matrices in the cache.
+   */
+  private       long       hits       = 0;
+  /**
+   * Lookups that had to build their matrices.
+   */
+  private       long       misses     = 0;
+  /**
+   * Misses that replaced a previously filled slot.
+   */
+  private       long       evictions  = 0;
+
+  /**
+   * Create the kinematics matrix cache.
+   *
+   * @param moduleX    X location of each module relative to the robot center in meters.
+   * @param moduleY    Y location of each module relative to the robot center in meters.
+   * @param capacity   Number of centers of rotation to hold.
+   * @param resolution Quantization step of the center of rotation in meters, centers of rotation closer than this
+   *                   share matrices.
+   */
+  public KinematicsMatrixCache(double[] moduleX, double[] moduleY, int capacity, double resolution)
+  {
+    if (capacity < 1)
+    {
+      throw new IllegalArgumentException("Kinematics matrix cache capacity must be at least 1");
+    }
+    if (resolution <= 0)
+    {
+      throw new IllegalArgumentException("Kinematics matrix cache resolution must be positive");
+    }
+    this.moduleX = moduleX.clone();
+    this.moduleY = moduleY.clone();
+    this.resolution = resolution;
+    keyX = new long[capacity];
+    keyY = new long[capacity];
+    lastUsed = new long[capacity];
+    inverseKinematics = new double[capacity][moduleX.length * 6];
+    bigInverseKinematics = new double[capacity][moduleX.length * 8];
+    forwardKinematics = new double[capacity][moduleX.length * 6];
+  }
+
+  /**
+   * Find the slot holding the matrices for the given center of rotation, building them in the least recently used
+   * slot on a miss.
+   *
+   * @param x Center of rotation X in meters.
+   * @param y Center of rotation Y in meters.
+   * @return Slot index to pass to the matrix getters.
+   */
+  public int lookup(double x, double y)
+  {
+    long qx = Math.round(x / resolution);
+    long qy = Math.round(y / resolution);
+    useCounter++;
+
+    int leastRecent = 0;
+    for (int slot = 0; slot < lastUsed.length; slot++)
+    {
+      if (lastUsed[slot] != 0 && keyX[slot] == qx && keyY[slot] == qy)
+      {
+        lastUsed[slot] = useCounter;
+        hits++;
+        return slot;
+      }
+      if (lastUsed[slot] < lastUsed[leastRecent])
+      {
+        leastRecent = slot;
+      }
+    }
+
+    misses++;
+    if (lastUsed[leastRecent] != 0)
+    {
+      evictions++;
+    }
+    double corX = qx * resolution;
+    double corY = qy * resolution;
+    SwerveKinematicsEngine.buildInverseKinematics(moduleX, moduleY, corX, corY,
+                                                  inverseKinematics[leastRecent],
+                                                  bigInverseKinematics[leastRecent]);
+    SwerveKinematicsEngine.buildForwardKinematics(moduleX, moduleY, corX, corY, forwardKinematics[leastRecent]);
+    keyX[leastRecent] = qx;
+    keyY[leastRecent] = qy;
+    lastUsed[leastRecent] = useCounter;
+    return leastRecent;
+  }
+
+  /**
+   * Get the inverse kinematics matrix of a slot.
+   *
+   * @param slot Slot from {@link #lookup(double, double)}.
+   * @return Row-major 2N x 3 inverse kinematics matrix. Only valid until the slot is evicted.
+   */
+  public double[] getInverseKinematics(int slot)
+  {
+    return inverseKinematics[slot];
+  }
+
+  /**
+   * Get the second order inverse kinematics matrix of a slot.
+   *
+   * @param slot Slot from {@link #lookup(double, double)}.
+   * @return Row-major 2N x 4 second order inverse kinematics matrix. Only valid until the slot is evicted.
+   */
+  public double[] getBigInverseKinematics(int slot)
+  {
+    return bigInverseKinematics[slot];
+  }
+
+  /**
+   * Get the forward kinematics matrix about the center of rotation of a slot.
+   *
+   * @param slot Slot from {@link #lookup(double, double)}.
+   * @return Row-major 3 x 2N forward kinematics matrix. Only valid until the slot is evicted.
+   */
+  public double[] getForwardKinematics(int slot)
+  {
+    return forwardKinematics[slot];
+  }
+
+  /**
+   * Get the number of lookups served from the cache.
+   *
+   * @return Cache hits.
+   */
+  public long getHits()
+  {
+    return hits;
+  }
+
+  /**
+   * Get the number of lookups which had to build matrices.
+   *
+   * @return Cache misses.
+   */
+  public long getMisses()
+  {
+    return misses;
+  }
+
+  /**
+   * Get the number of misses which replaced a filled slot.
+   *
+   * @return Cache evictions.
+   */
+  public long getEvictions()
+  {
+    return evictions;
+  }
+
+  /**
+   * Reset the hit, miss and eviction counters.
+   */
+  public void resetCounters()
+  {
+    hits = 0;
+    misses = 0;
+    evictions = 0;
+  }
+}
@@ -1,13 +1,10 @@
 package Swervelib.math;
 
 import java.util.Arrays;
-import java.util.Collections;
-
-import org.ejml.simple.SimpleMatrix;
+import java.util.function.DoubleSupplier;
 
 import edu.wpi.first.math.MathSharedStore;
 import edu.wpi.first.math.MathUsageId;
-import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
@@ -19,42 +16,52 @@ import edu.wpi.first.wpilibj.Timer;
 /**
  * Clone of WPI SwerveKinematics, which implements second order kinematics when calculating modules states from chassis
  * speed. Makes use of {@link SwerveModuleState2} to add the angular velocity that is required of the module as an
- * output.
+ * output. The math is done by an allocation-free {@link SwerveKinematicsEngine}, this class adapts it to the WPILib
+ * kinematics API.
  */
 public class SwerveKinematics2 extends SwerveDriveKinematics
 {
 
   /**
-   * Inverse kinematics matrix.
+   * Robot center, the default center of rotation.
+   */
+  private static final Translation2d          ROBOT_CENTER          = new Translation2d();
+  /**
+   * Number of centers of rotation whose matrices are cached.
    */
-  private final SimpleMatrix         m_inverseKinematics;
+  public static final  int                    COR_CACHE_CAPACITY    = 8;
   /**
-   * Forward kinematics matrix.
+   * Quantization of the center of rotation for the matrix cache in meters.
    */
-  private final SimpleMatrix         m_forwardKinematics;
+  public static final  double                 COR_CACHE_RESOLUTION  = 0.001;
   /**
-   * Second order kinematics inverse matrix.
+   * Primitive kinematics engine doing the math.
    */
-  private final SimpleMatrix         bigInverseKinematics;
+  private final        SwerveKinematicsEngine engine;
   /**
    * Number of swerve modules.
    */
-  private final int                  m_numModules;
+  private final        int                    m_numModules;
   /**
    * Location of each swerve module in meters.
    */
-  private final Translation2d[]      m_modules;
+  private final        Translation2d[]        m_modules;
   /**
    * Swerve module states.
    */
-  private final SwerveModuleState2[] m_moduleStates;
+  private final        SwerveModuleState2[]   m_moduleStates;
+  /**
+   * Twist buffer used for forward kinematics on module deltas.
+   */
+  private final        double[]               m_twist               = new double[3];
+  /**
+   * Time source in seconds the chassis acceleration is derived over, the FPGA time unless replaced.
+   */
+  private              DoubleSupplier         m_clock               = Timer::getFPGATimestamp;
   /**
-   * Previous CoR
+   * Time of the previous inverse kinematics call in seconds, NaN before the first call.
    */
-  private       Translation2d        m_prevCoR             = new Translation2d();
-  private       ChassisSpeeds m_prevChassisSpeeds   = new ChassisSpeeds();
-  private final Timer         m_moduleAccelTimer    = new Timer();
-  private       double        m_prevModuleAccelTime = 0.0;
+  private              double                 m_prevModuleAccelTime = Double.NaN;
 
   /**
    * Constructs a swerve drive kinematics object. This takes in a variable number of wheel locations as
@@ -75,25 +82,36 @@ public class SwerveKinematics2 extends SwerveDriveKinematics
     m_numModules = wheelsMeters.length;
     m_modules = Arrays.copyOf(wheelsMeters, m_numModules);
     m_moduleStates = new SwerveModuleState2[m_numModules];
-    Arrays.fill(m_moduleStates, new SwerveModuleState());
-    m_inverseKinematics = new SimpleMatrix(m_numModules * 2, 3);
-    bigInverseKinematics = new SimpleMatrix(m_numModules * 2, 4);
-
+    double[] moduleX = new double[m_numModules];
+    double[] moduleY = new double[m_numModules];
     for (int i = 0; i < m_numModules; i++)
     {
-      m_inverseKinematics.setRow(i * 2, 0, /* Start Data */ 1, 0, -m_modules[i].getY());
-      m_inverseKinematics.setRow(i * 2 + 1, 0, /* Start Data */ 0, 1, +m_modules[i].getX());
-      bigInverseKinematics.setRow(
-          i * 2, 0, /* Start Data */ 1, 0, -m_modules[i].getX(), -m_modules[i].getY());
-      bigInverseKinematics.setRow(
-          i * 2 + 1, 0, /* Start Data */ 0, 1, -m_modules[i].getY(), +m_modules[i].getX());
+      m_moduleStates[i] = new SwerveModuleState2();
+      moduleX[i] = m_modules[i].getX();
+      moduleY[i] = m_modules[i].getY();
     }
-    m_forwardKinematics = m_inverseKinematics.pseudoInverse();
-    m_moduleAccelTimer.start();
+    engine = new SwerveKinematicsEngine(moduleX, moduleY);
+    engine.enableCenterOfRotationCache(COR_CACHE_CAPACITY, COR_CACHE_RESOLUTION);
 
     MathSharedStore.reportUsage(MathUsageId.kKinematics_SwerveDrive, 1);
   }
 
+  /**
+   * Get the largest absolute module speed without allocating.
+   *
+   * @param moduleStates Module states to search.
+   * @return Largest absolute speed in meters per second.
+   */
+  private static double getMaxSpeed(SwerveModuleState[] moduleStates)
+  {
+    double realMaxSpeed = 0;
+    for (SwerveModuleState moduleState : moduleStates)
+    {
+      realMaxSpeed = Math.max(realMaxSpeed, Math.abs(moduleState.speedMetersPerSecond));
+    }
+    return realMaxSpeed;
+  }
+
   /**
    * Renormalizes the wheel speeds if any individual speed is above the specified maximum.
    *
@@ -109,7 +127,7 @@ public class SwerveKinematics2 extends SwerveDriveKinematics
   public static void desaturateWheelSpeeds(
       SwerveModuleState2[] moduleStates, double attainableMaxSpeedMetersPerSecond)
   {
-    double realMaxSpeed = Collections.max(Arrays.asList(moduleStates)).speedMetersPerSecond;
+    double realMaxSpeed = getMaxSpeed(moduleStates);
     if (realMaxSpeed > attainableMaxSpeedMetersPerSecond)
     {
       for (SwerveModuleState moduleState : moduleStates)
@@ -144,7 +162,7 @@ public class SwerveKinematics2 extends SwerveDriveKinematics
       double attainableMaxTranslationalSpeedMetersPerSecond,
       double attainableMaxRotationalVelocityRadiansPerSecond)
   {
-    double realMaxSpeed = Collections.max(Arrays.asList(moduleStates)).speedMetersPerSecond;
+    double realMaxSpeed = getMaxSpeed(moduleStates);
 
     if (attainableMaxTranslationalSpeedMetersPerSecond == 0
         || attainableMaxRotationalVelocityRadiansPerSecond == 0
@@ -189,106 +207,23 @@ public class SwerveKinematics2 extends SwerveDriveKinematics
    * @return An array containing the module states. Use caution because these module states are not normalized.
    * Sometimes, a user input may cause one of the module speeds to go above the attainable max velocity. Use the
    * {@link #desaturateWheelSpeeds(SwerveModuleState2[], double) DesaturateWheelSpeeds} function to rectify this issue.
+   * Unlike {@link SwerveDriveKinematics}, the same array and states are returned by every call and overwritten by the
+   * next one, so copy any state which has to outlive it.
    */
   @SuppressWarnings("PMD.MethodReturnsInternalArray")
   public SwerveModuleState2[] toSwerveModuleStates(
       ChassisSpeeds chassisSpeeds, Translation2d centerOfRotationMeters)
   {
-    var time = m_moduleAccelTimer.get();
+    var time = m_clock.getAsDouble();
     var dt   = time - m_prevModuleAccelTime;
     m_prevModuleAccelTime = time;
 
-    var accelChassisSpeeds = new ChassisSpeeds(
-        (chassisSpeeds.vxMetersPerSecond - m_prevChassisSpeeds.vxMetersPerSecond) / dt,
-        (chassisSpeeds.vyMetersPerSecond - m_prevChassisSpeeds.vyMetersPerSecond) / dt,
-        (chassisSpeeds.omegaRadiansPerSecond - m_prevChassisSpeeds.omegaRadiansPerSecond) / dt
-    );
-    m_prevChassisSpeeds = chassisSpeeds;
-
-    if (chassisSpeeds.vxMetersPerSecond == 0.0
-        && chassisSpeeds.vyMetersPerSecond == 0.0
-        && chassisSpeeds.omegaRadiansPerSecond == 0.0)
-    {
-      for (int i = 0; i < m_numModules; i++)
-      {
-        m_moduleStates[i].speedMetersPerSecond = 0.0;
-      }
-
-      return m_moduleStates;
-    }
-
-    if (!centerOfRotationMeters.equals(m_prevCoR))
-    {
-      for (int i = 0; i < m_numModules; i++)
-      {
-        m_inverseKinematics.setRow(
-            i * 2, 0, /* Start Data */ 1, 0, -m_modules[i].getY() + centerOfRotationMeters.getY());
-        m_inverseKinematics.setRow(
-            i * 2 + 1,
-            0, /* Start Data */
-            0,
-            1,
-            +m_modules[i].getX() - centerOfRotationMeters.getX());
-        bigInverseKinematics.setRow(
-            i * 2,
-            0, /* Start Data */
-            1,
-            0,
-            -m_modules[i].getX() + centerOfRotationMeters.getX(),
-            -m_modules[i].getY() + centerOfRotationMeters.getY());
-        bigInverseKinematics.setRow(
-            i * 2 + 1,
-            0, /* Start Data */
-            0,
-            1,
-            -m_modules[i].getY() + centerOfRotationMeters.getY(),
-            +m_modules[i].getX() - centerOfRotationMeters.getX());
-      }
-      m_prevCoR = centerOfRotationMeters;
-    }
-
-    var chassisSpeedsVector = new SimpleMatrix(3, 1);
-    chassisSpeedsVector.setColumn(
-        0,
-        0,
-        chassisSpeeds.vxMetersPerSecond,
-        chassisSpeeds.vyMetersPerSecond,
-        chassisSpeeds.omegaRadiansPerSecond);
-
-    var moduleVelocityStatesMatrix = m_inverseKinematics.mult(chassisSpeedsVector);
-
-    var accelerationVector = new SimpleMatrix(4, 1);
-    accelerationVector.setColumn(0, 0,
-                                 accelChassisSpeeds.vxMetersPerSecond,
-                                 accelChassisSpeeds.vyMetersPerSecond,
-                                 chassisSpeeds.omegaRadiansPerSecond * chassisSpeeds.omegaRadiansPerSecond,
-                                 accelChassisSpeeds.omegaRadiansPerSecond);
-
-    var moduleAccelerationStatesMatrix = bigInverseKinematics.mult(accelerationVector);
-
-    for (int i = 0; i < m_numModules; i++)
-    {
-      double x = moduleVelocityStatesMatrix.get(i * 2, 0);
-      double y = moduleVelocityStatesMatrix.get(i * 2 + 1, 0);
-
-      double ax = moduleAccelerationStatesMatrix.get(i * 2, 0);
-      double ay = moduleAccelerationStatesMatrix.get(i * 2 + 1, 0);
-
-      double     speed = Math.hypot(x, y);
-      Rotation2d angle = new Rotation2d(x, y);
-
-      var trigThetaAngle = new SimpleMatrix(2, 2);
-      trigThetaAngle.setColumn(0, 0, angle.getCos(), -angle.getSin());
-      trigThetaAngle.setColumn(1, 0, angle.getSin(), angle.getCos());
-
-      var accelVector = new SimpleMatrix(2, 1);
-      accelVector.setColumn(0, 0, ax, ay);
-
-      var omegaVector = trigThetaAngle.mult(accelVector);
-
-      double omega = (omegaVector.get(1, 0) / speed) - chassisSpeeds.omegaRadiansPerSecond;
-      m_moduleStates[i] = new SwerveModuleState2();
-    }
+    engine.setCenterOfRotation(centerOfRotationMeters.getX(), centerOfRotationMeters.getY());
+    engine.calculate(chassisSpeeds.vxMetersPerSecond,
+                     chassisSpeeds.vyMetersPerSecond,
+                     chassisSpeeds.omegaRadiansPerSecond,
+                     dt);
+    engine.writeStates(m_moduleStates);
 
     return m_moduleStates;
   }
@@ -298,11 +233,11 @@ public class SwerveKinematics2 extends SwerveDriveKinematics
    * for more information.
    *
    * @param chassisSpeeds The desired chassis speed.
-   * @return An array containing the module states.
+   * @return An array containing the module states, overwritten by the next call.
    */
   public SwerveModuleState2[] toSwerveModuleStates(ChassisSpeeds chassisSpeeds)
   {
-    return toSwerveModuleStates(chassisSpeeds, new Translation2d());
+    return toSwerveModuleStates(chassisSpeeds, ROBOT_CENTER);
   }
 
   /**
@@ -315,28 +250,80 @@ public class SwerveKinematics2 extends SwerveDriveKinematics
    *                    this class.
    * @return The resulting chassis speed.
    */
-  public ChassisSpeeds toChassisSpeeds(Swervelib.math.SwerveModuleState2... states)
+  @Override
+  public ChassisSpeeds toChassisSpeeds(SwerveModuleState... states)
   {
-    if (states.length != m_numModules)
-    {
-      throw new IllegalArgumentException(
-          "Number of modules is not consistent with number of wheel locations provided in "
-          + "constructor");
-    }
-    var moduleStatesMatrix = new SimpleMatrix(m_numModules * 2, 1);
+    ChassisSpeeds chassisSpeeds = new ChassisSpeeds();
+    engine.toChassisSpeeds(states, chassisSpeeds);
+    return chassisSpeeds;
+  }
 
-    for (int i = 0; i < m_numModules; i++)
-    {
-      var module = states[i];
-      moduleStatesMatrix.set(i * 2, 0, module.speedMetersPerSecond * module.angle.getCos());
-      moduleStatesMatrix.set(i * 2 + 1, module.speedMetersPerSecond * module.angle.getSin());
-    }
+  /**
+   * Performs forward kinematics into a caller owned {@link ChassisSpeeds}. See
+   * {@link #toChassisSpeeds(SwerveModuleState...)} for more information.
+   *
+   * @param chassisSpeeds The chassis speeds to write the result into.
+   * @param states        The state of the modules as measured from respective encoders and gyros.
+   */
+  public void toChassisSpeeds(ChassisSpeeds chassisSpeeds, SwerveModuleState... states)
+  {
+    engine.toChassisSpeeds(states, chassisSpeeds);
+  }
 
-    var chassisSpeedsVector = m_forwardKinematics.mult(moduleStatesMatrix);
-    return new ChassisSpeeds(
-        chassisSpeedsVector.get(0, 0),
-        chassisSpeedsVector.get(1, 0),
-        chassisSpeedsVector.get(2, 0));
+  /**
+   * Performs forward kinematics about the last center of rotation given to
+   * {@link #toSwerveModuleStates(ChassisSpeeds, Translation2d)}, returning the velocity of that point rather than the
+   * robot center.
+   *
+   * @param chassisSpeeds Chassis speeds to write into.
+   * @param states        The state of the modules as measured from respective encoders, in module order.
+   */
+  public void toCenterOfRotationSpeeds(ChassisSpeeds chassisSpeeds, SwerveModuleState... states)
+  {
+    engine.toCenterOfRotationSpeeds(states, chassisSpeeds);
+  }
+
+  /**
+   * Set the time source the chassis acceleration, and so the module angular velocities, are derived over, such as a
+   * simulated clock. The next call to {@link #toSwerveModuleStates(ChassisSpeeds, Translation2d)} derives no
+   * acceleration.
+   *
+   * @param clock Time source in seconds.
+   */
+  public void setClock(DoubleSupplier clock)
+  {
+    m_clock = clock;
+    m_prevModuleAccelTime = Double.NaN;
+  }
+
+  /**
+   * Get the number of center of rotation changes served from the matrix cache.
+   *
+   * @return Matrix cache hits.
+   */
+  public long getMatrixCacheHits()
+  {
+    return engine.getCenterOfRotationCache().getHits();
+  }
+
+  /**
+   * Get the number of center of rotation changes which had to build new matrices.
+   *
+   * @return Matrix cache misses.
+   */
+  public long getMatrixCacheMisses()
+  {
+    return engine.getCenterOfRotationCache().getMisses();
+  }
+
+  /**
+   * Get the allocation-free kinematics engine behind this object.
+   *
+   * @return {@link SwerveKinematicsEngine} used for the kinematics math.
+   */
+  public SwerveKinematicsEngine getEngine()
+  {
+    return engine;
   }
 
   /**
@@ -349,25 +336,10 @@ public class SwerveKinematics2 extends SwerveDriveKinematics
    *                    into the constructor of this class.
    * @return The resulting Twist2d.
    */
+  @Override
   public Twist2d toTwist2d(SwerveModulePosition... wheelDeltas)
   {
-    if (wheelDeltas.length != m_numModules)
-    {
-      throw new IllegalArgumentException(
-          "Number of modules is not consistent with number of wheel locations provided in "
-          + "constructor");
-    }
-    var moduleDeltaMatrix = new SimpleMatrix(m_numModules * 2, 1);
-
-    for (int i = 0; i < m_numModules; i++)
-    {
-      var module = wheelDeltas[i];
-      moduleDeltaMatrix.set(i * 2, 0, module.distanceMeters * module.angle.getCos());
-      moduleDeltaMatrix.set(i * 2 + 1, module.distanceMeters * module.angle.getSin());
-    }
-
-    var chassisDeltaVector = m_forwardKinematics.mult(moduleDeltaMatrix);
-    return new Twist2d(
-        chassisDeltaVector.get(0, 0), chassisDeltaVector.get(1, 0), chassisDeltaVector.get(2, 0));
+    engine.toTwist(wheelDeltas, m_twist);
+    return new Twist2d(m_twist[0], m_twist[1], m_twist[2]);
   }
 }
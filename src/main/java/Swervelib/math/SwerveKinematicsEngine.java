@@ -0,0 +1,525 @@
+package Swervelib.math;
+
+import java.util.Arrays;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Allocation-free second order swerve kinematics. All matrices and per-module results live in preallocated
+ * {@code double[]} buffers and the 2xN products are unrolled by hand, so a control loop which only calls
+ * {@link #calculate(double, double, double, double)}, {@link #desaturate(double)} and
+ * {@link #writeStates(SwerveModuleState2[])} does not allocate. {@link SwerveKinematics2} is a facade over this class.
+ */
+public class SwerveKinematicsEngine
+{
+
+  /**
+   * Speeds below this are treated as a stationary module, the previous heading is kept.
+   */
+  private static final double   STATIONARY_EPSILON = 1e-9;
+  /**
+   * Number of swerve modules.
+   */
+  private final        int      numModules;
+  /**
+   * X location of each swerve module in meters.
+   */
+  private final        double[] moduleX;
+  /**
+   * Y location of each swerve module in meters.
+   */
+  private final        double[] moduleY;
+  /**
+   * Forward kinematics matrix about the robot center, row-major 3 x 2N.
+   */
+  private final        double[] forwardKinematics;
+  /**
+   * Inverse kinematics matrix about the current center of rotation, row-major 2N x 3. Points into
+   * {@link #matrixCache} when the cache is enabled.
+   */
+  private              double[] inverseKinematics;
+  /**
+   * Second order inverse kinematics matrix about the current center of rotation, row-major 2N x 4. Points into
+   * {@link #matrixCache} when the cache is enabled.
+   */
+  private              double[] bigInverseKinematics;
+  /**
+   * Forward kinematics matrix about the current center of rotation, row-major 3 x 2N. Points into
+   * {@link #matrixCache} when the cache is enabled.
+   */
+  private              double[] corForwardKinematics;
+  /**
+   * Module speeds in meters per second from the last calculation.
+   */
+  private final        double[] moduleSpeeds;
+  /**
+   * Cosine of the module headings from the last calculation.
+   */
+  private final        double[] moduleCos;
+  /**
+   * Sine of the module headings from the last calculation.
+   */
+  private final        double[] moduleSin;
+  /**
+   * Module angular velocities in radians per second from the last calculation.
+   */
+  private final        double[] moduleOmegas;
+  /**
+   * Current center of rotation in meters.
+   */
+  private              double   centerOfRotationX, centerOfRotationY;
+  /**
+   * Previous chassis speeds, used to derive the chassis acceleration.
+   */
+  private              double   prevVx, prevVy, prevOmega;
+  /**
+   * Cache of matrices for recently used centers of rotation, null when disabled.
+   */
+  private              KinematicsMatrixCache matrixCache;
+
+  /**
+   * Construct the kinematics engine.
+   *
+   * @param moduleX X location of each module relative to the robot center in meters.
+   * @param moduleY Y location of each module relative to the robot center in meters.
+   */
+  public SwerveKinematicsEngine(double[] moduleX, double[] moduleY)
+  {
+    if (moduleX.length != moduleY.length)
+    {
+      throw new IllegalArgumentException("Module X and Y locations must be the same length");
+    }
+    if (moduleX.length < 2)
+    {
+      throw new IllegalArgumentException("A swerve drive requires at least two modules");
+    }
+    numModules = moduleX.length;
+    this.moduleX = moduleX.clone();
+    this.moduleY = moduleY.clone();
+    inverseKinematics = new double[numModules * 6];
+    bigInverseKinematics = new double[numModules * 8];
+    forwardKinematics = new double[numModules * 6];
+    corForwardKinematics = new double[numModules * 6];
+    moduleSpeeds = new double[numModules];
+    moduleCos = new double[numModules];
+    moduleSin = new double[numModules];
+    moduleOmegas = new double[numModules];
+    Arrays.fill(moduleCos, 1);
+
+    buildInverseKinematics(this.moduleX, this.moduleY, 0, 0, inverseKinematics, bigInverseKinematics);
+    buildForwardKinematics(this.moduleX, this.moduleY, 0, 0, forwardKinematics);
+    System.arraycopy(forwardKinematics, 0, corForwardKinematics, 0, forwardKinematics.length);
+  }
+
+  /**
+   * Fill the first and second order inverse kinematics matrices for the given center of rotation.
+   *
+   * @param moduleX              X location of each module in meters.
+   * @param moduleY              Y location of each module in meters.
+   * @param corX                 Center of rotation X in meters.
+   * @param corY                 Center of rotation Y in meters.
+   * @param inverseKinematics    Output, row-major 2N x 3.
+   * @param bigInverseKinematics Output, row-major 2N x 4.
+   */
+  static void buildInverseKinematics(double[] moduleX, double[] moduleY, double corX, double corY,
+                                     double[] inverseKinematics, double[] bigInverseKinematics)
+  {
+    for (int i = 0; i < moduleX.length; i++)
+    {
+      double rx = moduleX[i] - corX;
+      double ry = moduleY[i] - corY;
+      int    r  = i * 6;
+      inverseKinematics[r] = 1;
+      inverseKinematics[r + 1] = 0;
+      inverseKinematics[r + 2] = -ry;
+      inverseKinematics[r + 3] = 0;
+      inverseKinematics[r + 4] = 1;
+      inverseKinematics[r + 5] = rx;
+      int b = i * 8;
+      bigInverseKinematics[b] = 1;
+      bigInverseKinematics[b + 1] = 0;
+      bigInverseKinematics[b + 2] = -rx;
+      bigInverseKinematics[b + 3] = -ry;
+      bigInverseKinematics[b + 4] = 0;
+      bigInverseKinematics[b + 5] = 1;
+      bigInverseKinematics[b + 6] = -ry;
+      bigInverseKinematics[b + 7] = rx;
+    }
+  }
+
+  /**
+   * Fill the forward kinematics matrix, the pseudo-inverse (A<sup>T</sup>A)<sup>-1</sup>A<sup>T</sup> of the inverse
+   * kinematics matrix A, for the given center of rotation. A<sup>T</sup>A is only 3x3 so it is inverted in closed
+   * form.
+   *
+   * @param moduleX           X location of each module in meters.
+   * @param moduleY           Y location of each module in meters.
+   * @param corX              Center of rotation X in meters.
+   * @param corY              Center of rotation Y in meters.
+   * @param forwardKinematics Output, row-major 3 x 2N.
+   */
+  static void buildForwardKinematics(double[] moduleX, double[] moduleY, double corX, double corY,
+                                     double[] forwardKinematics)
+  {
+    int    n     = moduleX.length;
+    double sumX  = 0, sumY = 0, sumSq = 0;
+    for (int i = 0; i < n; i++)
+    {
+      double rx = moduleX[i] - corX;
+      double ry = moduleY[i] - corY;
+      sumX += rx;
+      sumY += ry;
+      sumSq += rx * rx + ry * ry;
+    }
+    // A^T A = [[n, 0, -sumY], [0, n, sumX], [-sumY, sumX, sumSq]], symmetric so the inverse is too.
+    double det = n * (n * sumSq - sumX * sumX) - sumY * sumY * n;
+    if (Math.abs(det) < 1e-12)
+    {
+      throw new IllegalArgumentException("Swerve module locations do not give a solvable forward kinematics");
+    }
+    double m00 = (n * sumSq - sumX * sumX) / det;
+    double m01 = (-sumY * sumX) / det;
+    double m02 = (n * sumY) / det;
+    double m11 = (n * sumSq - sumY * sumY) / det;
+    double m12 = (-n * sumX) / det;
+    double m22 = (n * n) / det;
+
+    int cols = 2 * n;
+    for (int i = 0; i < n; i++)
+    {
+      double rx = moduleX[i] - corX;
+      double ry = moduleY[i] - corY;
+      // Column 2i of A^T is [1, 0, -ry], column 2i + 1 is [0, 1, rx].
+      int c = i * 2;
+      forwardKinematics[c] = m00 - m02 * ry;
+      forwardKinematics[c + 1] = m01 + m02 * rx;
+      forwardKinematics[cols + c] = m01 - m12 * ry;
+      forwardKinematics[cols + c + 1] = m11 + m12 * rx;
+      forwardKinematics[2 * cols + c] = m02 - m22 * ry;
+      forwardKinematics[2 * cols + c + 1] = m12 + m22 * rx;
+    }
+  }
+
+  /**
+   * Cache the matrices of the most recently used centers of rotation, so switching between a few pivot points does not
+   * rebuild the matrices each time. Centers of rotation are quantized to the given resolution.
+   *
+   * @param capacity   Number of centers of rotation to hold.
+   * @param resolution Quantization step of the center of rotation in meters.
+   */
+  public void enableCenterOfRotationCache(int capacity, double resolution)
+  {
+    matrixCache = new KinematicsMatrixCache(moduleX, moduleY, capacity, resolution);
+  }
+
+  /**
+   * Get the center of rotation matrix cache.
+   *
+   * @return {@link KinematicsMatrixCache} in use, null when the cache is disabled.
+   */
+  public KinematicsMatrixCache getCenterOfRotationCache()
+  {
+    return matrixCache;
+  }
+
+  /**
+   * Set the center of rotation used by {@link #calculate(double, double, double, double)}. The matrices are only
+   * swapped when the center of rotation changes, from {@link #getCenterOfRotationCache()} when enabled or by
+   * rebuilding them otherwise.
+   *
+   * @param x Center of rotation X in meters.
+   * @param y Center of rotation Y in meters.
+   */
+  public void setCenterOfRotation(double x, double y)
+  {
+    if (x == centerOfRotationX && y == centerOfRotationY)
+    {
+      return;
+    }
+    centerOfRotationX = x;
+    centerOfRotationY = y;
+    if (matrixCache != null)
+    {
+      int slot = matrixCache.lookup(x, y);
+      inverseKinematics = matrixCache.getInverseKinematics(slot);
+      bigInverseKinematics = matrixCache.getBigInverseKinematics(slot);
+      corForwardKinematics = matrixCache.getForwardKinematics(slot);
+    } else
+    {
+      buildInverseKinematics(moduleX, moduleY, x, y, inverseKinematics, bigInverseKinematics);
+      buildForwardKinematics(moduleX, moduleY, x, y, corForwardKinematics);
+    }
+  }
+
+  /**
+   * Perform second order inverse kinematics into the internal module buffers. When the chassis speeds are zero the
+   * module speeds are zeroed and the previous headings are maintained.
+   *
+   * @param vx        Chassis X velocity in meters per second.
+   * @param vy        Chassis Y velocity in meters per second.
+   * @param omega     Chassis angular velocity in radians per second.
+   * @param dtSeconds Time since the previous call in seconds, used to derive the chassis acceleration. Accelerations
+   *                  are taken as zero when this is not positive.
+   */
+  public void calculate(double vx, double vy, double omega, double dtSeconds)
+  {
+    double ax = 0, ay = 0, alpha = 0;
+    if (dtSeconds > 0)
+    {
+      ax = (vx - prevVx) / dtSeconds;
+      ay = (vy - prevVy) / dtSeconds;
+      alpha = (omega - prevOmega) / dtSeconds;
+    }
+    prevVx = vx;
+    prevVy = vy;
+    prevOmega = omega;
+
+    if (vx == 0.0 && vy == 0.0 && omega == 0.0)
+    {
+      for (int i = 0; i < numModules; i++)
+      {
+        moduleSpeeds[i] = 0.0;
+        moduleOmegas[i] = 0.0;
+      }
+      return;
+    }
+
+    double omegaSq = omega * omega;
+    for (int i = 0; i < numModules; i++)
+    {
+      int    r = i * 6;
+      double x = inverseKinematics[r] * vx + inverseKinematics[r + 1] * vy + inverseKinematics[r + 2] * omega;
+      double y = inverseKinematics[r + 3] * vx + inverseKinematics[r + 4] * vy + inverseKinematics[r + 5] * omega;
+
+      int b = i * 8;
+      double moduleAx = bigInverseKinematics[b] * ax + bigInverseKinematics[b + 1] * ay
+                        + bigInverseKinematics[b + 2] * omegaSq + bigInverseKinematics[b + 3] * alpha;
+      double moduleAy = bigInverseKinematics[b + 4] * ax + bigInverseKinematics[b + 5] * ay
+                        + bigInverseKinematics[b + 6] * omegaSq + bigInverseKinematics[b + 7] * alpha;
+
+      double speed = Math.sqrt(x * x + y * y);
+      moduleSpeeds[i] = speed;
+      if (speed > STATIONARY_EPSILON)
+      {
+        double cos = x / speed;
+        double sin = y / speed;
+        moduleCos[i] = cos;
+        moduleSin[i] = sin;
+        // Rotate the module acceleration into the module frame, the tangential part turns the module.
+        moduleOmegas[i] = ((-sin * moduleAx + cos * moduleAy) / speed) - omega;
+      } else
+      {
+        moduleOmegas[i] = 0.0;
+      }
+    }
+  }
+
+  /**
+   * Scale the module speeds from the last calculation so none exceed the given maximum, maintaining the ratio of
+   * speeds between modules.
+   *
+   * @param attainableMaxSpeedMetersPerSecond The absolute max speed that a module can reach.
+   */
+  public void desaturate(double attainableMaxSpeedMetersPerSecond)
+  {
+    double realMaxSpeed = 0;
+    for (int i = 0; i < numModules; i++)
+    {
+      realMaxSpeed = Math.max(realMaxSpeed, Math.abs(moduleSpeeds[i]));
+    }
+    if (realMaxSpeed > attainableMaxSpeedMetersPerSecond)
+    {
+      double scale = attainableMaxSpeedMetersPerSecond / realMaxSpeed;
+      for (int i = 0; i < numModules; i++)
+      {
+        moduleSpeeds[i] *= scale;
+      }
+    }
+  }
+
+  /**
+   * Write the results of the last calculation into caller owned states. {@link Rotation2d} is immutable, so a new
+   * angle is only created for a module whose heading actually changed.
+   *
+   * @param states Module states to write into, in module order.
+   */
+  public void writeStates(SwerveModuleState2[] states)
+  {
+    checkModuleCount(states.length);
+    for (int i = 0; i < numModules; i++)
+    {
+      SwerveModuleState2 state = states[i];
+      state.speedMetersPerSecond = moduleSpeeds[i];
+      state.omegaRadPerSecond = moduleOmegas[i];
+      if (state.angle == null
+          || Math.abs(state.angle.getCos() - moduleCos[i]) > STATIONARY_EPSILON
+          || Math.abs(state.angle.getSin() - moduleSin[i]) > STATIONARY_EPSILON)
+      {
+        state.angle = new Rotation2d(moduleCos[i], moduleSin[i]);
+      }
+    }
+  }
+
+  /**
+   * Perform forward kinematics about the robot center into a caller owned {@link ChassisSpeeds}.
+   *
+   * @param states Measured module states in module order.
+   * @param out    Chassis speeds to write into.
+   */
+  public void toChassisSpeeds(SwerveModuleState[] states, ChassisSpeeds out)
+  {
+    multiplyForward(forwardKinematics, states, out);
+  }
+
+  /**
+   * Multiply module velocities by a forward kinematics matrix.
+   *
+   * @param forward Row-major 3 x 2N forward kinematics matrix.
+   * @param states  Measured module states in module order.
+   * @param out     Chassis speeds to write into.
+   */
+  private void multiplyForward(double[] forward, SwerveModuleState[] states, ChassisSpeeds out)
+  {
+    checkModuleCount(states.length);
+    int    cols  = 2 * numModules;
+    double vx    = 0, vy = 0, omega = 0;
+    for (int i = 0; i < numModules; i++)
+    {
+      SwerveModuleState state = states[i];
+      double            mx    = state.speedMetersPerSecond * state.angle.getCos();
+      double            my    = state.speedMetersPerSecond * state.angle.getSin();
+      int               c     = i * 2;
+      vx += forward[c] * mx + forward[c + 1] * my;
+      vy += forward[cols + c] * mx + forward[cols + c + 1] * my;
+      omega += forward[2 * cols + c] * mx + forward[2 * cols + c + 1] * my;
+    }
+    out.vxMetersPerSecond = vx;
+    out.vyMetersPerSecond = vy;
+    out.omegaRadiansPerSecond = omega;
+  }
+
+  /**
+   * Perform forward kinematics about the current center of rotation into a caller owned {@link ChassisSpeeds}, giving
+   * the velocity of the pivot point rather than the robot center.
+   *
+   * @param states Measured module states in module order.
+   * @param out    Chassis speeds to write into.
+   */
+  public void toCenterOfRotationSpeeds(SwerveModuleState[] states, ChassisSpeeds out)
+  {
+    multiplyForward(corForwardKinematics, states, out);
+  }
+
+  /**
+   * Perform forward kinematics on module position deltas into a caller owned array.
+   *
+   * @param wheelDeltas Change in module positions in module order.
+   * @param out         Array of at least 3 to hold dx, dy and dtheta.
+   */
+  public void toTwist(SwerveModulePosition[] wheelDeltas, double[] out)
+  {
+    checkModuleCount(wheelDeltas.length);
+    int    cols   = 2 * numModules;
+    double dx     = 0, dy = 0, dtheta = 0;
+    for (int i = 0; i < numModules; i++)
+    {
+      SwerveModulePosition delta = wheelDeltas[i];
+      double               mx    = delta.distanceMeters * delta.angle.getCos();
+      double               my    = delta.distanceMeters * delta.angle.getSin();
+      int                  c     = i * 2;
+      dx += forwardKinematics[c] * mx + forwardKinematics[c + 1] * my;
+      dy += forwardKinematics[cols + c] * mx + forwardKinematics[cols + c + 1] * my;
+      dtheta += forwardKinematics[2 * cols + c] * mx + forwardKinematics[2 * cols + c + 1] * my;
+    }
+    out[0] = dx;
+    out[1] = dy;
+    out[2] = dtheta;
+  }
+
+  /**
+   * Perform forward kinematics on primitive module distance deltas into a caller owned array.
+   *
+   * @param distanceDeltas Change in module distance in meters, in module order.
+   * @param angles         Module angles in radians, in module order.
+   * @param out            Array of at least 3 to hold dx, dy and dtheta.
+   */
+  public void toTwist(double[] distanceDeltas, double[] angles, double[] out)
+  {
+    checkModuleCount(distanceDeltas.length);
+    int    cols   = 2 * numModules;
+    double dx     = 0, dy = 0, dtheta = 0;
+    for (int i = 0; i < numModules; i++)
+    {
+      double mx = distanceDeltas[i] * Math.cos(angles[i]);
+      double my = distanceDeltas[i] * Math.sin(angles[i]);
+      int    c  = i * 2;
+      dx += forwardKinematics[c] * mx + forwardKinematics[c + 1] * my;
+      dy += forwardKinematics[cols + c] * mx + forwardKinematics[cols + c + 1] * my;
+      dtheta += forwardKinematics[2 * cols + c] * mx + forwardKinematics[2 * cols + c + 1] * my;
+    }
+    out[0] = dx;
+    out[1] = dy;
+    out[2] = dtheta;
+  }
+
+  /**
+   * Get the number of modules.
+   *
+   * @return Number of swerve modules.
+   */
+  public int getModuleCount()
+  {
+    return numModules;
+  }
+
+  /**
+   * Get a module speed from the last calculation.
+   *
+   * @param module Module number.
+   * @return Module speed in meters per second.
+   */
+  public double getModuleSpeed(int module)
+  {
+    return moduleSpeeds[module];
+  }
+
+  /**
+   * Get a module heading from the last calculation.
+   *
+   * @param module Module number.
+   * @return Module heading in radians.
+   */
+  public double getModuleAngleRadians(int module)
+  {
+    return Math.atan2(moduleSin[module], moduleCos[module]);
+  }
+
+  /**
+   * Get a module angular velocity from the last calculation.
+   *
+   * @param module Module number.
+   * @return Module angular velocity in radians per second.
+   */
+  public double getModuleOmega(int module)
+  {
+    return moduleOmegas[module];
+  }
+
+  /**
+   * Check the given number of modules matches the number of module locations.
+   *
+   * @param length Number of modules given.
+   */
+  private void checkModuleCount(int length)
+  {
+    if (length != numModules)
+    {
+      throw new IllegalArgumentException(
+          "Number of modules is not consistent with number of wheel locations provided in "
+          + "constructor");
+    }
+  }
+}
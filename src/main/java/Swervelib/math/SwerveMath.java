@@ -155,6 +155,23 @@ public class SwerveMath
       List<Matter> matter,
       double robotMass,
       SwerveDriveConfiguration config)
+  {
+    double maxAccel = calcMaxAccel(angle, calculateCenterOfGravity(matter, robotMass), config);
+    if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH)
+    {
+      SmartDashboard.putNumber("calcMaxAccel", maxAccel);
+    }
+    return maxAccel;
+  }
+
+  /**
+   * Calculate the center of gravity of the robot.
+   *
+   * @param matter    Matter that the robot is composed of in kg. (Includes chassis)
+   * @param robotMass The weight of the robot in kg. (Including manipulators, etc).
+   * @return Center of gravity in meters, using the floor as the vertical datum.
+   */
+  public static Translation3d calculateCenterOfGravity(List<Matter> matter, double robotMass)
   {
     // Calculate the vertical mass moment using the floor as the datum.  This will be used later to
     // calculate max acceleration
@@ -163,7 +180,21 @@ public class SwerveMath
     {
       centerMass = centerMass.plus(object.massMoment());
     }
-    Translation3d robotCG      = centerMass.div(robotMass);
+    return centerMass.div(robotMass);
+  }
+
+  /**
+   * Calculates the maximum acceleration allowed in a direction without tipping the robot, for a known center of
+   * gravity.
+   *
+   * @param angle   The direction in which to calculate max acceleration, as a Rotation2d. Note that this is
+   *                robot-relative.
+   * @param robotCG Center of gravity of the robot in meters, from {@link #calculateCenterOfGravity(List, double)}.
+   * @param config  The swerve drive configuration.
+   * @return Maximum acceleration allowed in the robot direction.
+   */
+  static double calcMaxAccel(Rotation2d angle, Translation3d robotCG, SwerveDriveConfiguration config)
+  {
     Translation2d horizontalCG = robotCG.toTranslation2d();
 
     Translation2d projectedHorizontalCg =
@@ -173,6 +204,21 @@ public class SwerveMath
             (angle.getSin() * angle.getCos() * horizontalCG.getX())
             + (Math.pow(angle.getSin(), 2) * horizontalCG.getY()));
 
+    Translation2d projectedWheelbaseEdge = calcWheelbaseEdge(angle, config);
+
+    double horizontalDistance = projectedHorizontalCg.plus(projectedWheelbaseEdge).getNorm();
+    return 9.81 * horizontalDistance / robotCG.getZ();
+  }
+
+  /**
+   * Projects the edge of the wheelbase onto a direction line, for the tip-over calculation.
+   *
+   * @param angle  The robot-relative direction.
+   * @param config The swerve drive configuration.
+   * @return Projected edge of the wheelbase in meters.
+   */
+  static Translation2d calcWheelbaseEdge(Rotation2d angle, SwerveDriveConfiguration config)
+  {
     // Projects the edge of the wheelbase onto the direction line.  Assumes the wheelbase is
     // rectangular.
     // Because a line is being projected, rather than a point, one of the coordinates of the
@@ -205,14 +251,7 @@ public class SwerveMath
           new Translation2d(
               conf.moduleLocation.getX(), conf.moduleLocation.getX() * angle.getTan());
     }
-
-    double horizontalDistance = projectedHorizontalCg.plus(projectedWheelbaseEdge).getNorm();
-    double maxAccel           = 9.81 * horizontalDistance / robotCG.getZ();
-    if (SwerveDriveTelemetry.verbosity == TelemetryVerbosity.HIGH)
-    {
-      SmartDashboard.putNumber("calcMaxAccel", maxAccel);
-    }
-    return maxAccel;
+    return projectedWheelbaseEdge;
   }
 
   /**
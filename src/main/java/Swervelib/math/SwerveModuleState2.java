@@ -4,23 +4,17 @@ import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 
 /**
- * Second order kinematics swerve module state.
+ * Second order kinematics swerve module state. Speed and angle are the inherited
+ * {@link SwerveModuleState#speedMetersPerSecond} and {@link SwerveModuleState#angle} so WPILib consumers see the same
+ * values.
  */
 public class SwerveModuleState2 extends SwerveModuleState
 {
 
-  /**
-   * Swerve module speed in meters per second.
-   */
-  public double     speedMetersPerSecond;
   /**
    * Rad per sec
    */
-  public double     omegaRadPerSecond = 0;
-  /**
-   * Swerve module angle as a {@link Rotation2d}.
-   */
-  public Rotation2d angle             = Rotation2d.fromDegrees(0);
+  public double omegaRadPerSecond = 0;
 
   /**
    * Constructs a SwerveModuleState with zeros for speed and angle.
@@ -39,8 +33,7 @@ public class SwerveModuleState2 extends SwerveModuleState
   public SwerveModuleState2(
       double speedMetersPerSecond, Rotation2d angle, double omegaRadPerSecond)
   {
-    this.speedMetersPerSecond = speedMetersPerSecond;
-    this.angle = angle;
+    super(speedMetersPerSecond, angle);
     this.omegaRadPerSecond = omegaRadPerSecond;
   }
-}
\ No newline at end of file
+}
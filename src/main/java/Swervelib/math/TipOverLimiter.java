@@ -0,0 +1,262 @@
+package Swervelib.math;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import Swervelib.parser.SwerveDriveConfiguration;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Anti tip-over velocity limiter with the maximum acceleration precomputed for every direction. The center of gravity
+ * is calculated once from the {@link Matter} of the robot, and the maximum acceleration used by
+ * {@link SwerveMath#limitVelocity} is tabulated in 1 degree robot relative bins which are linearly interpolated. The
+ * table is only rebuilt when the matter changes, such as when an elevator extends, so limiting the velocity every loop
+ * costs a table lookup. The direction terms and wheelbase edges of every bin do not depend on the center of gravity and
+ * are calculated once, so a rebuild is cheap enough to follow a {@link CenterOfGravityModel} at loop rate.
+ */
+public class TipOverLimiter
+{
+
+  /**
+   * Number of table bins per revolution.
+   */
+  private static final int           BINS     = 360;
+  /**
+   * Gravity in meters per second squared.
+   */
+  private static final double        GRAVITY  = 9.81;
+  /**
+   * Sine times cosine of the direction of every bin.
+   */
+  private final        double[]      sinCos   = new double[BINS];
+  /**
+   * Cosine squared of the direction of every bin.
+   */
+  private final        double[]      cos2     = new double[BINS];
+  /**
+   * Sine squared of the direction of every bin.
+   */
+  private final        double[]      sin2     = new double[BINS];
+  /**
+   * Wheelbase edge projected onto the direction of every bin, X in meters.
+   */
+  private final        double[]      edgeX    = new double[BINS];
+  /**
+   * Wheelbase edge projected onto the direction of every bin, Y in meters.
+   */
+  private final        double[]      edgeY    = new double[BINS];
+  /**
+   * Maximum acceleration in meters per second squared, indexed by robot relative direction in degrees from -180. The
+   * last entry repeats the first to interpolate across 180 degrees.
+   */
+  private final        double[]      maxAccel = new double[BINS + 1];
+  /**
+   * Matter the robot is composed of.
+   */
+  private              List<Matter>  matter   = List.of();
+  /**
+   * Position and mass of every matter the table was built from, as x, y, z, mass.
+   */
+  private              double[]      built    = new double[0];
+  /**
+   * Center of gravity the table was built from, in meters.
+   */
+  private              Translation3d centerOfGravity;
+
+  /**
+   * Create a tip-over limiter and build the acceleration table.
+   *
+   * @param matter Matter the robot is composed of in kg, including the chassis. The robot mass is their sum.
+   * @param config The swerve drive configuration.
+   */
+  public TipOverLimiter(List<Matter> matter, SwerveDriveConfiguration config)
+  {
+    this(config);
+    setMatter(matter);
+  }
+
+  /**
+   * Create a tip-over limiter for a center of gravity, such as from a {@link CenterOfGravityModel}, and build the
+   * acceleration table.
+   *
+   * @param centerOfGravity Center of gravity in meters, using the floor as the vertical datum.
+   * @param config          The swerve drive configuration.
+   */
+  public TipOverLimiter(Translation3d centerOfGravity, SwerveDriveConfiguration config)
+  {
+    this(config);
+    setCenterOfGravity(centerOfGravity);
+  }
+
+  /**
+   * Calculate the direction terms and wheelbase edges of every bin.
+   *
+   * @param config The swerve drive configuration.
+   */
+  private TipOverLimiter(SwerveDriveConfiguration config)
+  {
+    for (int i = 0; i < BINS; i++)
+    {
+      Rotation2d    angle = Rotation2d.fromDegrees(i - 180);
+      Translation2d edge  = SwerveMath.calcWheelbaseEdge(angle, config);
+      sinCos[i] = angle.getSin() * angle.getCos();
+      cos2[i] = angle.getCos() * angle.getCos();
+      sin2[i] = angle.getSin() * angle.getSin();
+      edgeX[i] = edge.getX();
+      edgeY[i] = edge.getY();
+    }
+  }
+
+  /**
+   * Replace the matter the robot is composed of, and rebuild the acceleration table.
+   *
+   * @param matter Matter the robot is composed of in kg, including the chassis. The robot mass is their sum.
+   */
+  public void setMatter(List<Matter> matter)
+  {
+    if (matter.isEmpty())
+    {
+      throw new IllegalArgumentException("Tip-over limiter needs the matter of at least the chassis");
+    }
+    this.matter = new ArrayList<>(matter);
+    rebuild();
+  }
+
+  /**
+   * Set the center of gravity directly, replacing any matter, and rebuild the acceleration table if it moved.
+   *
+   * @param centerOfGravity Center of gravity in meters, using the floor as the vertical datum.
+   */
+  public void setCenterOfGravity(Translation3d centerOfGravity)
+  {
+    matter = List.of();
+    if (!centerOfGravity.equals(this.centerOfGravity))
+    {
+      build(centerOfGravity);
+    }
+  }
+
+  /**
+   * Rebuild the acceleration table if the position or mass of any matter changed since it was built. Cheap enough to
+   * call every loop, it is called by {@link #limitVelocity(Translation2d, ChassisSpeeds, Rotation2d, double)}.
+   *
+   * @return Whether the table was rebuilt.
+   */
+  public boolean update()
+  {
+    for (int i = 0; i < matter.size(); i++)
+    {
+      Matter object = matter.get(i);
+      if (object.position.getX() != built[i * 4] || object.position.getY() != built[i * 4 + 1] ||
+          object.position.getZ() != built[i * 4 + 2] || object.mass != built[i * 4 + 3])
+      {
+        rebuild();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Calculate the center of gravity from the matter and rebuild the acceleration table.
+   */
+  private void rebuild()
+  {
+    double[] snapshot  = new double[matter.size() * 4];
+    double   robotMass = 0;
+    for (int i = 0; i < matter.size(); i++)
+    {
+      Matter object = matter.get(i);
+      snapshot[i * 4] = object.position.getX();
+      snapshot[i * 4 + 1] = object.position.getY();
+      snapshot[i * 4 + 2] = object.position.getZ();
+      snapshot[i * 4 + 3] = object.mass;
+      robotMass += object.mass;
+    }
+    built = snapshot;
+    build(SwerveMath.calculateCenterOfGravity(matter, robotMass));
+  }
+
+  /**
+   * Calculate the maximum acceleration of every direction, the same as {@link SwerveMath#calcMaxAccel}.
+   *
+   * @param centerOfGravity Center of gravity in meters, using the floor as the vertical datum.
+   */
+  private void build(Translation3d centerOfGravity)
+  {
+    double x = centerOfGravity.getX(), y = centerOfGravity.getY(), z = centerOfGravity.getZ();
+    for (int i = 0; i < BINS; i++)
+    {
+      double projectedX = sinCos[i] * y + cos2[i] * x + edgeX[i];
+      double projectedY = sinCos[i] * x + sin2[i] * y + edgeY[i];
+      maxAccel[i] = GRAVITY * Math.hypot(projectedX, projectedY) / z;
+    }
+    maxAccel[BINS] = maxAccel[0];
+    this.centerOfGravity = centerOfGravity;
+  }
+
+  /**
+   * Get the center of gravity the acceleration table was built from.
+   *
+   * @return Center of gravity in meters, using the floor as the vertical datum.
+   */
+  public Translation3d getCenterOfGravity()
+  {
+    return centerOfGravity;
+  }
+
+  /**
+   * Get the maximum acceleration allowed in a direction without tipping the robot.
+   *
+   * @param robotRelativeRadians Robot relative direction in radians.
+   * @return Maximum acceleration in meters per second squared.
+   */
+  public double getMaxAcceleration(double robotRelativeRadians)
+  {
+    double degrees = Math.toDegrees(robotRelativeRadians) + 180;
+    degrees -= BINS * Math.floor(degrees / BINS);
+    int    bin      = Math.min((int) degrees, BINS - 1);
+    double fraction = degrees - bin;
+    return maxAccel[bin] + (maxAccel[bin + 1] - maxAccel[bin]) * fraction;
+  }
+
+  /**
+   * Limits a commanded velocity to prevent exceeding the maximum acceleration given by the acceleration table. Does
+   * not take into account the acceleration limits of the motors, only tipping.
+   *
+   * @param commandedVelocity The desired velocity, field relative.
+   * @param fieldVelocity     The velocity of the robot in a field relative frame.
+   * @param robotHeading      The heading of the robot, field relative.
+   * @param loopTime          The time it takes to update the velocity in seconds. <b>Note: this should include the
+   *                          100ms that it takes for a SparkMax velocity to update.</b>
+   * @return The limited velocity. This is either the commanded velocity, if attainable, or the closest attainable
+   *     velocity.
+   */
+  public Translation2d limitVelocity(
+      Translation2d commandedVelocity,
+      ChassisSpeeds fieldVelocity,
+      Rotation2d robotHeading,
+      double loopTime)
+  {
+    update();
+    double deltaX = commandedVelocity.getX() - fieldVelocity.vxMetersPerSecond;
+    double deltaY = commandedVelocity.getY() - fieldVelocity.vyMetersPerSecond;
+    double deltaV = Math.hypot(deltaX, deltaY);
+    if (deltaV == 0)
+    {
+      return commandedVelocity;
+    }
+
+    // delta V = Vf - Vi = at, in the direction of delta V rotated to robot relative.
+    double maxDeltaV = getMaxAcceleration(Math.atan2(deltaY, deltaX) - robotHeading.getRadians()) * loopTime;
+    if (deltaV > maxDeltaV)
+    {
+      return new Translation2d(fieldVelocity.vxMetersPerSecond + deltaX / deltaV * maxDeltaV,
+                               fieldVelocity.vyMetersPerSecond + deltaY / deltaV * maxDeltaV);
+    }
+    return commandedVelocity;
+  }
+}
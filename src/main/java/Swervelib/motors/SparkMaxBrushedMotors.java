@@ -237,10 +237,6 @@ public class SparkMaxBrushedMotors extends SwerveMotors
     {
       encoder.setPositionConversionFactor(positionConversionFactor);
       encoder.setVelocityConversionFactor(positionConversionFactor / 60);
-
-      // Taken from
-      // https://github.com/frc3512/SwerveBot-2022/blob/9d31afd05df6c630d5acb4ec2cf5d734c9093bf8/src/main/java/frc/lib/util/CANSparkMaxUtil.java#L67
-      configureCANStatusFrames(10, 20, 20, 500, 500);
     } else
     {
       absoluteEncoder.setPositionConversionFactor(positionConversionFactor);
@@ -280,6 +276,24 @@ public class SparkMaxBrushedMotors extends SwerveMotors
     pid.setPositionPIDWrappingMaxInput(maxInput);
   }
 
+  /**
+   * Set the CAN status frame periods from a profile. The duty cycle absolute encoder frames are set as well when one is
+   * attached.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  @Override
+  public void configureStatusFrames(StatusFrameProfile profile)
+  {
+    configureCANStatusFrames(profile.generalPeriod, profile.velocityPeriod, profile.positionPeriod,
+                             profile.auxiliaryPeriod, profile.auxiliaryPeriod);
+    if (absoluteEncoder != null)
+    {
+      motor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, profile.positionPeriod);
+      motor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, profile.velocityPeriod);
+    }
+  }
+
   /**
    * Set the CAN status frames.
    *
@@ -340,7 +354,10 @@ public class SparkMaxBrushedMotors extends SwerveMotors
   @Override
   public void set(double percentOutput)
   {
-    motor.set(percentOutput);
+    if (shouldSend(PERCENT_FRAME, percentOutput, 0))
+    {
+      motor.set(percentOutput);
+    }
   }
 
   /**
@@ -354,6 +371,10 @@ public class SparkMaxBrushedMotors extends SwerveMotors
   {
     int pidSlot =
         isDriveMotor ? SparkMAX_slotIdx.Velocity.ordinal() : SparkMAX_slotIdx.Position.ordinal();
+    if (!shouldSend(REFERENCE_FRAME, setpoint, feedforward))
+    {
+      return;
+    }
     pid.setReference(
         setpoint,
         isDriveMotor ? ControlType.kVelocity : ControlType.kPosition,
@@ -408,5 +429,6 @@ public class SparkMaxBrushedMotors extends SwerveMotors
     {
       encoder.setPosition(position);
     }
+    invalidateLastFrame();
   }
 }
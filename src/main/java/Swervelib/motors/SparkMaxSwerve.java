@@ -19,6 +19,11 @@ import Swervelib.parser.PIDFConfig;
 public class SparkMaxSwerve extends SwerveMotors
 {
 
+  /**
+   * PID slot whose P gain holds the configuration marker, unused by the swerve closed loop which runs in slot 0.
+   */
+  private static final int MARKER_SLOT = 3;
+
   /**
    * SparkMAX Instance.
    */
@@ -39,6 +44,26 @@ public class SparkMaxSwerve extends SwerveMotors
    * Factory default already occurred.
    */
   private boolean               factoryDefaultOccurred = false;
+  /**
+   * PIDF values last configured, null before {@link #configurePIDF(PIDFConfig)}.
+   */
+  private PIDFConfig            pidfConfig;
+  /**
+   * Inversion last configured.
+   */
+  private boolean               inverted               = false;
+  /**
+   * Nominal voltage last configured, NaN before {@link #setVoltageCompensation(double)}.
+   */
+  private double                nominalVoltage         = Double.NaN;
+  /**
+   * Ramp rate last configured, NaN before {@link #setLoopRampRate(double)}.
+   */
+  private double                rampRate               = Double.NaN;
+  /**
+   * Position conversion factor last configured, NaN before {@link #configureIntegratedEncoder(double)}.
+   */
+  private double                conversionFactor       = Double.NaN;
 
   /**
    * Initialize the swerve motor.
@@ -50,7 +75,7 @@ public class SparkMaxSwerve extends SwerveMotors
   {
     this.motor = motor;
     this.isDriveMotor = isDriveMotor;
-    factoryDefaults();
+    // Factory defaults are restored by SwerveModule when the configuration changed.
     clearStickyFaults();
 
     encoder = motor.getEncoder();
@@ -80,6 +105,7 @@ public class SparkMaxSwerve extends SwerveMotors
   @Override
   public void setVoltageCompensation(double nominalVoltage)
   {
+    this.nominalVoltage = nominalVoltage;
     motor.enableVoltageCompensation(nominalVoltage);
   }
 
@@ -103,6 +129,7 @@ public class SparkMaxSwerve extends SwerveMotors
   @Override
   public void setLoopRampRate(double rampRate)
   {
+    this.rampRate = rampRate;
     motor.setOpenLoopRampRate(rampRate);
     motor.setClosedLoopRampRate(rampRate);
   }
@@ -139,6 +166,14 @@ public class SparkMaxSwerve extends SwerveMotors
     {
       motor.restoreFactoryDefaults();
       factoryDefaultOccurred = true;
+      // Restore the feedback device chosen at construction.
+      if (absoluteEncoder == null)
+      {
+        pid.setFeedbackDevice(encoder);
+      } else
+      {
+        pid.setFeedbackDevice(absoluteEncoder);
+      }
     }
   }
 
@@ -176,14 +211,11 @@ public class SparkMaxSwerve extends SwerveMotors
   @Override
   public void configureIntegratedEncoder(double positionConversionFactor)
   {
+    conversionFactor = positionConversionFactor;
     if (absoluteEncoder == null)
     {
       encoder.setPositionConversionFactor(positionConversionFactor);
       encoder.setVelocityConversionFactor(positionConversionFactor / 60);
-
-      // Taken from
-      // https://github.com/frc3512/SwerveBot-2022/blob/9d31afd05df6c630d5acb4ec2cf5d734c9093bf8/src/main/java/frc/lib/util/CANSparkMaxUtil.java#L67
-      configureCANStatusFrames(10, 20, 20, 500, 500);
     } else
     {
       absoluteEncoder.setPositionConversionFactor(positionConversionFactor);
@@ -202,6 +234,7 @@ public class SparkMaxSwerve extends SwerveMotors
     int pidSlot =
         isDriveMotor ? SparkMAX_slotIdx.Velocity.ordinal() : SparkMAX_slotIdx.Position.ordinal();
     pidSlot = 0;
+    pidfConfig = config;
     pid.setP(config.p, pidSlot);
     pid.setI(config.i, pidSlot);
     pid.setD(config.d, pidSlot);
@@ -224,6 +257,24 @@ public class SparkMaxSwerve extends SwerveMotors
     pid.setPositionPIDWrappingMaxInput(maxInput);
   }
 
+  /**
+   * Set the CAN status frame periods from a profile. The duty cycle absolute encoder frames are set as well when one is
+   * attached.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  @Override
+  public void configureStatusFrames(StatusFrameProfile profile)
+  {
+    configureCANStatusFrames(profile.generalPeriod, profile.velocityPeriod, profile.positionPeriod,
+                             profile.auxiliaryPeriod, profile.auxiliaryPeriod);
+    if (absoluteEncoder != null)
+    {
+      motor.setPeriodicFramePeriod(PeriodicFrame.kStatus5, profile.positionPeriod);
+      motor.setPeriodicFramePeriod(PeriodicFrame.kStatus6, profile.velocityPeriod);
+    }
+  }
+
   /**
    * Set the CAN status frames.
    *
@@ -264,9 +315,87 @@ public class SparkMaxSwerve extends SwerveMotors
   @Override
   public void setInverted(boolean inverted)
   {
+    this.inverted = inverted;
     motor.setInverted(inverted);
   }
 
+  /**
+   * Read the PIDF values, inversion, voltage compensation, ramp rates and conversion factors back from the SparkMax and
+   * compare them with what was configured. REVLib has no readback of the smart current limit, which is only confirmed
+   * through the configuration marker written to flash with it.
+   *
+   * @return True if the SparkMax holds the configured values.
+   */
+  @Override
+  public boolean verifyConfiguration()
+  {
+    // Configuration runs with no CAN timeout, reads need to wait for the response.
+    motor.setCANTimeout(50);
+    boolean matches = motor.getInverted() == inverted &&
+                      readbackMatchesIfSet(nominalVoltage, motor.getVoltageCompensationNominalVoltage()) &&
+                      readbackMatchesIfSet(rampRate, motor.getOpenLoopRampRate()) &&
+                      readbackMatchesIfSet(rampRate, motor.getClosedLoopRampRate());
+    if (absoluteEncoder == null)
+    {
+      matches &= readbackMatchesIfSet(conversionFactor, encoder.getPositionConversionFactor()) &&
+                 readbackMatchesIfSet(conversionFactor / 60, encoder.getVelocityConversionFactor());
+    } else
+    {
+      matches &= readbackMatchesIfSet(conversionFactor, absoluteEncoder.getPositionConversionFactor()) &&
+                 readbackMatchesIfSet(conversionFactor / 60, absoluteEncoder.getVelocityConversionFactor());
+    }
+    if (pidfConfig != null)
+    {
+      matches &= readbackMatches(pidfConfig.p, pid.getP(0)) &&
+                 readbackMatches(pidfConfig.i, pid.getI(0)) &&
+                 readbackMatches(pidfConfig.d, pid.getD(0)) &&
+                 readbackMatches(pidfConfig.f, pid.getFF(0)) &&
+                 readbackMatches(pidfConfig.iz, pid.getIZone(0)) &&
+                 readbackMatches(pidfConfig.output.min, pid.getOutputMin(0)) &&
+                 readbackMatches(pidfConfig.output.max, pid.getOutputMax(0));
+    }
+    motor.setCANTimeout(0);
+    return matches;
+  }
+
+  /**
+   * Compare a configured value with the value read back, when the value has been configured.
+   *
+   * @param configured Value configured, NaN if it never was.
+   * @param readback   Value read back.
+   * @return True if the value was never configured or the values match.
+   */
+  private static boolean readbackMatchesIfSet(double configured, double readback)
+  {
+    return Double.isNaN(configured) || readbackMatches(configured, readback);
+  }
+
+  /**
+   * Store the configuration marker in the P gain of an unused PID slot, which a factory reset clears.
+   *
+   * @param marker Marker from {@link Swervelib.parser.ConfigurationFingerprints#marker(String)}.
+   */
+  @Override
+  public void setConfigurationMarker(int marker)
+  {
+    pid.setP(marker, MARKER_SLOT);
+  }
+
+  /**
+   * Read the configuration marker from the P gain of the unused PID slot.
+   *
+   * @return Marker stored by {@link #setConfigurationMarker(int)}, 0 if there is none.
+   */
+  @Override
+  public int getConfigurationMarker()
+  {
+    // Configuration runs with no CAN timeout, reads need to wait for the response.
+    motor.setCANTimeout(50);
+    double marker = pid.getP(MARKER_SLOT);
+    motor.setCANTimeout(0);
+    return (int) marker == marker ? (int) marker : 0;
+  }
+
   /**
    * Save the configurations from flash to EEPROM.
    */
@@ -284,7 +413,10 @@ public class SparkMaxSwerve extends SwerveMotors
   @Override
   public void set(double percentOutput)
   {
-    motor.set(percentOutput);
+    if (shouldSend(PERCENT_FRAME, percentOutput, 0))
+    {
+      motor.set(percentOutput);
+    }
   }
 
   /**
@@ -301,6 +433,10 @@ public class SparkMaxSwerve extends SwerveMotors
         isDriveMotor ? SparkMAX_slotIdx.Velocity.ordinal() : SparkMAX_slotIdx.Position.ordinal();
     pidSlot = 0;
 
+    if (!shouldSend(REFERENCE_FRAME, setpoint, feedforward))
+    {
+      return;
+    }
     if (isDriveMotor)
     {
       pid.setReference(
@@ -364,6 +500,7 @@ public class SparkMaxSwerve extends SwerveMotors
     {
       encoder.setPosition(position);
     }
+    invalidateLastFrame();
   }
 
   /**
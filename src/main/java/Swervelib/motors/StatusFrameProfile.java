@@ -0,0 +1,84 @@
+package Swervelib.motors;
+
+/**
+ * Named CAN status frame periods for swerve motors, trading CAN bus bandwidth for sensor freshness. Periods are in
+ * milliseconds and mapped by each {@link SwerveMotors} onto its own status frames.
+ */
+public enum StatusFrameProfile
+{
+  /**
+   * Default for driving, sensor feedback at the 50 Hz main loop rate. Taken from
+   * https://github.com/frc3512/SwerveBot-2022/blob/9d31afd05df6c630d5acb4ec2cf5d734c9093bf8/src/main/java/frc/lib/util/CANSparkMaxUtil.java#L67
+   */
+  MATCH("match", 10, 20, 20, 500),
+  /**
+   * Fast velocity and position feedback for the high rate odometry thread.
+   */
+  ODOMETRY_HI_RATE("odometry-hi-rate", 20, 5, 5, 500),
+  /**
+   * Slow frames while disabled, keeping enough feedback for odometry while the robot is pushed.
+   */
+  DISABLED_LOW_BUS("disabled-low-bus", 250, 100, 100, 1000),
+  /**
+   * Fast feedback including voltage and current for system identification.
+   */
+  CHARACTERIZATION("characterization", 10, 10, 10, 20);
+
+  /**
+   * Name used in the module JSON.
+   */
+  public final String name;
+  /**
+   * Period of applied output and fault frames.
+   */
+  public final int    generalPeriod;
+  /**
+   * Period of velocity feedback frames.
+   */
+  public final int    velocityPeriod;
+  /**
+   * Period of position feedback frames.
+   */
+  public final int    positionPeriod;
+  /**
+   * Period of auxiliary frames, such as analog inputs, temperature, bus voltage and current.
+   */
+  public final int    auxiliaryPeriod;
+
+  /**
+   * Create a status frame profile.
+   *
+   * @param name            Name used in the module JSON.
+   * @param generalPeriod   Period of applied output and fault frames in milliseconds.
+   * @param velocityPeriod  Period of velocity feedback frames in milliseconds.
+   * @param positionPeriod  Period of position feedback frames in milliseconds.
+   * @param auxiliaryPeriod Period of auxiliary frames in milliseconds.
+   */
+  StatusFrameProfile(String name, int generalPeriod, int velocityPeriod, int positionPeriod, int auxiliaryPeriod)
+  {
+    this.name = name;
+    this.generalPeriod = generalPeriod;
+    this.velocityPeriod = velocityPeriod;
+    this.positionPeriod = positionPeriod;
+    this.auxiliaryPeriod = auxiliaryPeriod;
+  }
+
+  /**
+   * Get a status frame profile by the name used in the module JSON.
+   *
+   * @param name Profile name, such as "match".
+   * @return {@link StatusFrameProfile} with the given name.
+   * @throws IllegalArgumentException if there is no profile with the given name.
+   */
+  public static StatusFrameProfile fromName(String name)
+  {
+    for (StatusFrameProfile profile : values())
+    {
+      if (profile.name.equals(name))
+      {
+        return profile;
+      }
+    }
+    throw new IllegalArgumentException("Unknown status frame profile " + name);
+  }
+}
@@ -1,7 +1,10 @@
 package Swervelib.motors;
 
+import java.util.function.DoubleSupplier;
+
 import Swervelib.encoders.SwerveAbsoluteEncoder;
 import Swervelib.parser.PIDFConfig;
+import edu.wpi.first.wpilibj.Timer;
 
 /**
  * Swerve motor abstraction which defines a standard interface for motors within a swerve module.
@@ -9,10 +12,50 @@ import Swervelib.parser.PIDFConfig;
 public abstract class SwerveMotors
 {
 
+  /**
+   * Percent output control frame, used with {@link #shouldSend(int, double, double)}.
+   */
+  protected static final int            PERCENT_FRAME      = 0;
+  /**
+   * Closed loop reference control frame, used with {@link #shouldSend(int, double, double)}.
+   */
+  protected static final int            REFERENCE_FRAME    = 1;
+  /**
+   * Time source in seconds, the FPGA time unless the motor is driven by a simulated clock.
+   */
+  public                 DoubleSupplier clock              = Timer::getFPGATimestamp;
   /**
    * Whether the swerve motor is a drive motor.
    */
-  protected boolean isDriveMotor;
+  protected              boolean        isDriveMotor;
+  /**
+   * Setpoints closer than this to the last sent setpoint are not sent, in the units of the setpoint.
+   */
+  public                 double         setpointEpsilon    = 1e-4;
+  /**
+   * Feedforwards closer than this to the last sent feedforward are not sent.
+   */
+  public                 double         feedforwardEpsilon = 1e-4;
+  /**
+   * Seconds after which an unchanged control frame is sent anyway, 0 to send every frame.
+   */
+  public                 double         refreshPeriod      = 0.1;
+  /**
+   * Last control frame sent, -1 before the first frame.
+   */
+  private                int            lastFrame          = -1;
+  /**
+   * Setpoint and feedforward of the last control frame sent.
+   */
+  private                double         lastSetpoint, lastFeedforward;
+  /**
+   * {@link #clock} time of the last control frame sent.
+   */
+  private                double         lastSendTime;
+  /**
+   * Number of control frames sent and skipped.
+   */
+  private                long           framesSent, framesSaved;
 
   /**
    * Configure the factory defaults.
@@ -39,6 +82,13 @@ public abstract class SwerveMotors
    */
   public abstract void configureIntegratedEncoder(double positionConversionFactor);
 
+  /**
+   * Set the CAN status frame periods from a profile.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  public abstract void configureStatusFrames(StatusFrameProfile profile);
+
   /**
    * Configure the PIDF values for the closed loop controller. 0 is disabled or off.
    *
@@ -73,6 +123,35 @@ public abstract class SwerveMotors
    */
   public abstract void burnFlash();
 
+  /**
+   * Apply the pending configuration without {@link #burnFlash()}, for when the flash already holds it. Motor
+   * controllers which apply configuration as it is set, like the SparkMax, have nothing left to apply.
+   */
+  public void applyConfiguration()
+  {
+  }
+
+  /**
+   * Store a configuration marker on the motor controller, to be written to flash by the following {@link #burnFlash()}
+   * along with the rest of the configuration. Motor controllers without a spare parameter to hold it ignore it.
+   *
+   * @param marker Marker from {@link Swervelib.parser.ConfigurationFingerprints#marker(String)}.
+   */
+  public void setConfigurationMarker(int marker)
+  {
+  }
+
+  /**
+   * Read the configuration marker from the motor controller, before any setting has been applied, so it reflects what
+   * the controller loaded from its flash. A factory reset or a replacement controller has no marker.
+   *
+   * @return Marker stored by {@link #setConfigurationMarker(int)}, 0 if there is none or it can't be read.
+   */
+  public int getConfigurationMarker()
+  {
+    return 0;
+  }
+
   /**
    * Set the percentage output.
    *
@@ -153,4 +232,86 @@ public abstract class SwerveMotors
    * @return connected absolute encoder state.
    */
   public abstract boolean isAttachedAbsoluteEncoder();
-}
\ No newline at end of file
+
+  /**
+   * Read the configuration back from the motor controller and compare it with what was configured. Motor controllers
+   * without readback support report success.
+   *
+   * @return True if the motor controller holds the configured values.
+   */
+  public boolean verifyConfiguration()
+  {
+    return true;
+  }
+
+  /**
+   * Compare a configured value with the value read back from a motor controller, allowing for fixed point storage on the
+   * controller.
+   *
+   * @param configured Value configured.
+   * @param readback   Value read back.
+   * @return True if the values match.
+   */
+  protected static boolean readbackMatches(double configured, double readback)
+  {
+    return Math.abs(configured - readback) <= 1e-3 * Math.max(1, Math.abs(configured));
+  }
+
+  /**
+   * Check whether a control frame differs enough from the last one sent to be worth sending, recording it as sent if it
+   * is. Frames within {@link #setpointEpsilon} and {@link #feedforwardEpsilon} of the last frame of the same type are
+   * skipped until {@link #refreshPeriod} has passed.
+   *
+   * @param frame       Control frame type, {@link #PERCENT_FRAME} or {@link #REFERENCE_FRAME}.
+   * @param setpoint    Setpoint or percent output of the frame.
+   * @param feedforward Feedforward of the frame.
+   * @return True if the frame should be sent.
+   */
+  protected boolean shouldSend(int frame, double setpoint, double feedforward)
+  {
+    double now = clock.getAsDouble();
+    if (frame == lastFrame &&
+        Math.abs(setpoint - lastSetpoint) <= setpointEpsilon &&
+        Math.abs(feedforward - lastFeedforward) <= feedforwardEpsilon &&
+        now - lastSendTime < refreshPeriod)
+    {
+      framesSaved++;
+      return false;
+    }
+    lastFrame = frame;
+    lastSetpoint = setpoint;
+    lastFeedforward = feedforward;
+    lastSendTime = now;
+    framesSent++;
+    return true;
+  }
+
+  /**
+   * Forget the last control frame sent so the next one is always sent, for use after the motor controller state has
+   * changed underneath it.
+   */
+  public void invalidateLastFrame()
+  {
+    lastFrame = -1;
+  }
+
+  /**
+   * Get the number of control frames sent.
+   *
+   * @return Control frames sent.
+   */
+  public long getFramesSent()
+  {
+    return framesSent;
+  }
+
+  /**
+   * Get the number of control frames skipped because they matched the last frame sent.
+   *
+   * @return Control frames saved.
+   */
+  public long getFramesSaved()
+  {
+    return framesSaved;
+  }
+}
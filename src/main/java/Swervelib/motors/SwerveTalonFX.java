@@ -1,5 +1,6 @@
 package Swervelib.motors;
 
+import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
@@ -12,7 +13,6 @@ import Swervelib.math.SwerveMath;
 import Swervelib.parser.PIDFConfig;
 import Swervelib.simulation.ctre.PhysicsSim;
 import Swervelib.telemetry.SwerveDriveTelemetry;
-import edu.wpi.first.wpilibj.Timer;
 
 /**
  * {@link com.ctre.phoenix.motorcontrol.can.TalonFX} Swerve Motor. Made by Team 1466 WebbRobotics.
@@ -48,6 +48,10 @@ public class SwerveTalonFX extends SwerveMotors
    * Nominal voltage default to use with feedforward.
    */
   private double  nominalVoltage           = 12.0;
+  /**
+   * Inversion last configured.
+   */
+  private boolean inverted                 = false;
 
   /**
    * Constructor for TalonFX swerve motor.
@@ -60,7 +64,8 @@ public class SwerveTalonFX extends SwerveMotors
     this.isDriveMotor = isDriveMotor;
     this.motor = motor;
 
-    factoryDefaults();
+    // Factory defaults are restored by SwerveModule when the configuration changed.
+    motor.setSensorPhase(true);
     clearStickyFaults();
 
     if (SwerveDriveTelemetry.isSimulation)
@@ -145,9 +150,23 @@ public class SwerveTalonFX extends SwerveMotors
   public void configureIntegratedEncoder(double positionConversionFactor)
   {
     this.positionConversionFactor = positionConversionFactor;
-    // Taken from democat's library.
-    // https://github.com/democat3457/swerve-lib/blob/7c03126b8c22f23a501b2c2742f9d173a5bcbc40/src/main/java/com/swervedrivespecialties/swervelib/ctre/Falcon500DriveControllerFactoryBuilder.java#L16
-    configureCANStatusFrames(250);
+  }
+
+  /**
+   * Set the CAN status frame periods from a profile. Position and velocity are both read from the selected sensor
+   * feedback frame, which runs at the faster of the two periods.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  @Override
+  public void configureStatusFrames(StatusFrameProfile profile)
+  {
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, profile.generalPeriod);
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0,
+                               Math.min(profile.velocityPeriod, profile.positionPeriod));
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, profile.auxiliaryPeriod);
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_21_FeedbackIntegrated, profile.auxiliaryPeriod);
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_Brushless_Current, profile.auxiliaryPeriod);
   }
 
   /**
@@ -244,10 +263,64 @@ public class SwerveTalonFX extends SwerveMotors
   @Override
   public void setInverted(boolean inverted)
   {
-    Timer.delay(1);
+    this.inverted = inverted;
     motor.setInverted(inverted);
   }
 
+  /**
+   * Read the slot 0 PIDF values, inversion, supply current limit, ramp rates and voltage compensation back from the
+   * TalonFX and compare them with what was configured. The position conversion factor is applied on the roboRIO, so
+   * there is nothing on the TalonFX to read it back from.
+   *
+   * @return True if the TalonFX holds the configured values.
+   */
+  @Override
+  public boolean verifyConfiguration()
+  {
+    TalonFXConfiguration readback = new TalonFXConfiguration();
+    if (motor.getAllConfigs(readback, 250) != ErrorCode.OK)
+    {
+      return false;
+    }
+    return motor.getInverted() == inverted &&
+           readbackMatches(configuration.slot0.kP, readback.slot0.kP) &&
+           readbackMatches(configuration.slot0.kI, readback.slot0.kI) &&
+           readbackMatches(configuration.slot0.kD, readback.slot0.kD) &&
+           readbackMatches(configuration.slot0.kF, readback.slot0.kF) &&
+           readbackMatches(configuration.slot0.integralZone, readback.slot0.integralZone) &&
+           readbackMatches(configuration.slot0.closedLoopPeakOutput, readback.slot0.closedLoopPeakOutput) &&
+           configuration.supplyCurrLimit.enable == readback.supplyCurrLimit.enable &&
+           readbackMatches(configuration.supplyCurrLimit.currentLimit, readback.supplyCurrLimit.currentLimit) &&
+           readbackMatches(configuration.openloopRamp, readback.openloopRamp) &&
+           readbackMatches(configuration.closedloopRamp, readback.closedloopRamp) &&
+           readbackMatches(configuration.voltageCompSaturation, readback.voltageCompSaturation);
+  }
+
+  /**
+   * Store the configuration marker in custom parameter 0, which configAllSettings writes with the rest of the
+   * configuration and a factory reset clears.
+   *
+   * @param marker Marker from {@link Swervelib.parser.ConfigurationFingerprints#marker(String)}.
+   */
+  @Override
+  public void setConfigurationMarker(int marker)
+  {
+    configuration.customParam0 = marker;
+    configChanged = true;
+  }
+
+  /**
+   * Read the configuration marker from custom parameter 0.
+   *
+   * @return Marker stored by {@link #setConfigurationMarker(int)}, 0 if there is none or it can't be read.
+   */
+  @Override
+  public int getConfigurationMarker()
+  {
+    int marker = motor.configGetCustomParam(0, 250);
+    return motor.getLastError() == ErrorCode.OK ? marker : 0;
+  }
+
   /**
    * Save the configurations from flash to EEPROM.
    */
@@ -261,6 +334,17 @@ public class SwerveTalonFX extends SwerveMotors
     }
   }
 
+  /**
+   * Apply the pending configuration. Every setting is only sent by configAllSettings, so this is the same as
+   * {@link #burnFlash()}, otherwise a replaced or reset Talon would run without its current limit, ramp and voltage
+   * compensation.
+   */
+  @Override
+  public void applyConfiguration()
+  {
+    burnFlash();
+  }
+
   /**
    * Set the percentage output.
    *
@@ -269,7 +353,10 @@ public class SwerveTalonFX extends SwerveMotors
   @Override
   public void set(double percentOutput)
   {
-    motor.set(percentOutput);
+    if (shouldSend(PERCENT_FRAME, percentOutput, 0))
+    {
+      motor.set(percentOutput);
+    }
   }
 
   /**
@@ -315,11 +402,14 @@ public class SwerveTalonFX extends SwerveMotors
 
     burnFlash();
 
-    motor.set(
-        isDriveMotor ? ControlMode.Velocity : ControlMode.Position,
-        convertToNativeSensorUnits(setpoint, position),
-        DemandType.ArbitraryFeedForward,
-        feedforward / nominalVoltage);
+    if (shouldSend(REFERENCE_FRAME, setpoint, feedforward))
+    {
+      motor.set(
+          isDriveMotor ? ControlMode.Velocity : ControlMode.Position,
+          convertToNativeSensorUnits(setpoint, position),
+          DemandType.ArbitraryFeedForward,
+          feedforward / nominalVoltage);
+    }
   }
 
   /**
@@ -357,6 +447,7 @@ public class SwerveTalonFX extends SwerveMotors
       position = position < 0 ? (position % 360) + 360 : position;
       motor.setSelectedSensorPosition(position / positionConversionFactor, 0, 250);
     }
+    invalidateLastFrame();
   }
 
   /**
@@ -1,5 +1,6 @@
 package Swervelib.motors;
 
+import com.ctre.phoenix.ErrorCode;
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.DemandType;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
@@ -62,7 +63,8 @@ public class SwerveTalonSRX extends SwerveMotors
     this.motor = motor;
     motor.configSelectedFeedbackSensor(FeedbackDevice.QuadEncoder);
 
-    factoryDefaults();
+    // Factory defaults are restored by SwerveModule when the configuration changed.
+    motor.setSensorPhase(true);
     clearStickyFaults();
 
     if (SwerveDriveTelemetry.isSimulation)
@@ -135,9 +137,21 @@ public class SwerveTalonSRX extends SwerveMotors
   public void configureIntegratedEncoder(double positionConversionFactor)
   {
     this.positionConversionFactor = positionConversionFactor;
-    // Taken from democat's library.
-    // https://github.com/democat3457/swerve-lib/blob/7c03126b8c22f23a501b2c2742f9d173a5bcbc40/src/main/java/com/swervedrivespecialties/swervelib/ctre/Falcon500DriveControllerFactoryBuilder.java#L16
-    configureCANStatusFrames(250);
+  }
+
+  /**
+   * Set the CAN status frame periods from a profile. Position and velocity are both read from the selected sensor
+   * feedback frame, which runs at the faster of the two periods.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  @Override
+  public void configureStatusFrames(StatusFrameProfile profile)
+  {
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_1_General, profile.generalPeriod);
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_2_Feedback0,
+                               Math.min(profile.velocityPeriod, profile.positionPeriod));
+    motor.setStatusFramePeriod(StatusFrameEnhanced.Status_4_AinTempVbat, profile.auxiliaryPeriod);
   }
 
   /**
@@ -251,6 +265,42 @@ public class SwerveTalonSRX extends SwerveMotors
     }
   }
 
+  /**
+   * Apply the pending configuration. Every setting is only sent by configAllSettings, so this is the same as
+   * {@link #burnFlash()}, otherwise a replaced or reset Talon would run without its current limit, ramp and voltage
+   * compensation.
+   */
+  @Override
+  public void applyConfiguration()
+  {
+    burnFlash();
+  }
+
+  /**
+   * Store the configuration marker in custom parameter 0, which configAllSettings writes with the rest of the
+   * configuration and a factory reset clears.
+   *
+   * @param marker Marker from {@link Swervelib.parser.ConfigurationFingerprints#marker(String)}.
+   */
+  @Override
+  public void setConfigurationMarker(int marker)
+  {
+    configuration.customParam0 = marker;
+    configChanged = true;
+  }
+
+  /**
+   * Read the configuration marker from custom parameter 0.
+   *
+   * @return Marker stored by {@link #setConfigurationMarker(int)}, 0 if there is none or it can't be read.
+   */
+  @Override
+  public int getConfigurationMarker()
+  {
+    int marker = motor.configGetCustomParam(0, 250);
+    return motor.getLastError() == ErrorCode.OK ? marker : 0;
+  }
+
   /**
    * Set the percentage output.
    *
@@ -259,7 +309,10 @@ public class SwerveTalonSRX extends SwerveMotors
   @Override
   public void set(double percentOutput)
   {
-    motor.set(percentOutput);
+    if (shouldSend(PERCENT_FRAME, percentOutput, 0))
+    {
+      motor.set(percentOutput);
+    }
   }
 
 
@@ -306,11 +359,14 @@ public class SwerveTalonSRX extends SwerveMotors
 
     burnFlash();
 
-    motor.set(
-        isDriveMotor ? ControlMode.Velocity : ControlMode.Position,
-        convertToNativeSensorUnits(setpoint, position),
-        DemandType.ArbitraryFeedForward,
-        feedforward / nominalVoltage);
+    if (shouldSend(REFERENCE_FRAME, setpoint, feedforward))
+    {
+      motor.set(
+          isDriveMotor ? ControlMode.Velocity : ControlMode.Position,
+          convertToNativeSensorUnits(setpoint, position),
+          DemandType.ArbitraryFeedForward,
+          feedforward / nominalVoltage);
+    }
   }
 
   /**
@@ -359,6 +415,7 @@ public class SwerveTalonSRX extends SwerveMotors
     {
       motor.setSelectedSensorPosition(position / positionConversionFactor, 0, 250);
     }
+    invalidateLastFrame();
   }
 
   /**
@@ -0,0 +1,484 @@
+package Swervelib.motors;
+
+import Swervelib.encoders.SwerveAbsoluteEncoder;
+import Swervelib.parser.PIDFConfig;
+
+/**
+ * In memory swerve motor with first order dynamics, for running swerve code without hardware or HAL. A closed loop
+ * controller with Spark MAX semantics, gains per unit of error in meters per second or degrees evaluated every
+ * {@link #pidPeriod}, drives a DC motor model whose velocity follows the applied duty cycle with a time constant. The
+ * ramp rate, current limit and voltage compensation shape the applied duty cycle, and the current is estimated from the
+ * difference between the applied duty cycle and the back EMF. The dynamics advance by the time passed on
+ * {@link #clock} whenever the motor is commanded or read.
+ */
+public class VirtualMotorSwerve extends SwerveMotors
+{
+
+  /**
+   * Time constant of the drive motor velocity response in seconds.
+   */
+  public  double                driveTimeConstant = 0.05;
+  /**
+   * Time constant of the angle motor position response in seconds.
+   */
+  public  double                angleTimeConstant = 0.02;
+  /**
+   * Velocity at 100% output, in meters per second for drive motors or degrees per second for angle motors.
+   */
+  public  double                freeSpeed;
+  /**
+   * Free speed of the motor in RPM, used with the position conversion factor to calculate {@link #freeSpeed}.
+   */
+  public  double                freeSpeedRPM      = 5676;
+  /**
+   * Stall current of the motor in amps.
+   */
+  public  double                stallCurrent      = 105;
+  /**
+   * Period of the closed loop controller in seconds, the longest step the dynamics are advanced by at once.
+   */
+  public  double                pidPeriod         = 0.001;
+  /**
+   * Position of the mechanism in meters or degrees, unaffected by {@link #setPosition(double)}.
+   */
+  private double                mechanismPosition = 0;
+  /**
+   * Offset from the mechanism position to the integrated encoder position.
+   */
+  private double                encoderOffset     = 0;
+  /**
+   * Velocity of the mechanism in meters per second or degrees per second.
+   */
+  private double                velocity          = 0;
+  /**
+   * Commanded velocity for drive motors or position for angle motors.
+   */
+  private double                target            = 0;
+  /**
+   * Feedforward of the closed loop setpoint in volts.
+   */
+  private double                arbFeedforward    = 0;
+  /**
+   * Whether the target is a percent output rather than a closed loop setpoint.
+   */
+  private boolean               percentOutput     = true;
+  /**
+   * Closed loop gains.
+   */
+  private PIDFConfig            pidf              = new PIDFConfig();
+  /**
+   * Accumulated closed loop error.
+   */
+  private double                integral          = 0;
+  /**
+   * Closed loop error of the last step, NaN when there was none.
+   */
+  private double                lastError         = Double.NaN;
+  /**
+   * Duty cycle applied to the motor.
+   */
+  private double                appliedOutput     = 0;
+  /**
+   * Estimated current in amps.
+   */
+  private double                current           = 0;
+  /**
+   * Voltage the output is compensated to.
+   */
+  private double                nominalVoltage    = 12;
+  /**
+   * Current limit in amps, 0 for none.
+   */
+  private double                currentLimit      = 0;
+  /**
+   * Time in seconds to ramp from 0 to full output, 0 for no ramp.
+   */
+  private double                rampRate          = 0;
+  /**
+   * Minimum and maximum input of the position closed loop wrapping, equal when not wrapping.
+   */
+  private double                minInput, maxInput;
+  /**
+   * Clock time the dynamics were last advanced to, NaN before the first advance.
+   */
+  private double                lastTime          = Double.NaN;
+  /**
+   * Whether the motor is in brake mode.
+   */
+  private boolean               brake             = false;
+  /**
+   * Attached absolute encoder.
+   */
+  private SwerveAbsoluteEncoder absoluteEncoder;
+
+  /**
+   * Create a virtual swerve motor.
+   *
+   * @param isDriveMotor Whether the motor is a drive motor.
+   */
+  public VirtualMotorSwerve(boolean isDriveMotor)
+  {
+    this.isDriveMotor = isDriveMotor;
+    freeSpeed = isDriveMotor ? 4.5 : 1000;
+    // No HAL to read the FPGA time from, the dynamics advance by the time passed on the clock.
+    clock = () -> System.nanoTime() / 1e9;
+  }
+
+  /**
+   * Advance the dynamics to the current {@link #clock} time, in steps of at most {@link #pidPeriod}.
+   */
+  private void advance()
+  {
+    double now = clock.getAsDouble();
+    if (Double.isNaN(lastTime))
+    {
+      lastTime = now;
+      return;
+    }
+    double remaining = now - lastTime;
+    lastTime = now;
+    while (remaining > 1e-12)
+    {
+      double dt = Math.min(pidPeriod, remaining);
+      step(dt);
+      remaining -= dt;
+    }
+  }
+
+  /**
+   * Step the controller and dynamics forward.
+   *
+   * @param dt Time step in seconds.
+   */
+  public void step(double dt)
+  {
+    double output = percentOutput ? target : closedLoop(dt);
+
+    // Ramp rate, then current limit, as the motor controller applies them.
+    if (rampRate > 0)
+    {
+      double maxChange = dt / rampRate;
+      output = Math.max(appliedOutput - maxChange, Math.min(appliedOutput + maxChange, output));
+    }
+    double backEmf = velocity / freeSpeed;
+    if (currentLimit > 0 && Math.abs(output - backEmf) * stallCurrent > currentLimit)
+    {
+      output = backEmf + Math.copySign(currentLimit / stallCurrent, output - backEmf);
+    }
+    appliedOutput = output;
+
+    double tau = isDriveMotor ? driveTimeConstant : angleTimeConstant;
+    if (output == 0 && !brake)
+    {
+      // Coasting, only friction slows the motor.
+      tau *= 10;
+      current = 0;
+    } else
+    {
+      current = (output - backEmf) * stallCurrent;
+    }
+    double alpha        = 1 - Math.exp(-dt / tau);
+    double lastVelocity = velocity;
+    velocity += (output * freeSpeed - velocity) * alpha;
+    mechanismPosition += (lastVelocity + velocity) / 2 * dt;
+  }
+
+  /**
+   * Calculate the closed loop output.
+   *
+   * @param dt Time step in seconds.
+   * @return Duty cycle requested by the controller.
+   */
+  private double closedLoop(double dt)
+  {
+    double error = target - (isDriveMotor ? velocity : mechanismPosition + encoderOffset);
+    if (!isDriveMotor && maxInput > minInput)
+    {
+      double range = maxInput - minInput;
+      error -= range * Math.round(error / range);
+    }
+    double loops = dt / pidPeriod;
+    if (pidf.iz <= 0 || Math.abs(error) <= pidf.iz)
+    {
+      integral += error * loops;
+    } else
+    {
+      integral = 0;
+    }
+    double derivative = Double.isNaN(lastError) ? 0 : (error - lastError) / loops;
+    lastError = error;
+    double output = pidf.f * target + pidf.p * error + pidf.i * integral + pidf.d * derivative +
+                    arbFeedforward / nominalVoltage;
+    return Math.max(pidf.output.min, Math.min(pidf.output.max, output));
+  }
+
+  /**
+   * Get the estimated current drawn by the motor.
+   *
+   * @return Current in amps, negative when braking.
+   */
+  public double getCurrent()
+  {
+    advance();
+    return current;
+  }
+
+  /**
+   * Get the position of the mechanism, which {@link #setPosition(double)} does not change.
+   *
+   * @return Mechanism position in meters or degrees.
+   */
+  public double getMechanismPosition()
+  {
+    advance();
+    return mechanismPosition;
+  }
+
+  /**
+   * Configure the factory defaults.
+   */
+  @Override
+  public void factoryDefaults()
+  {
+    // Nothing stored to reset.
+  }
+
+  /**
+   * Clear the sticky faults on the motor controller.
+   */
+  @Override
+  public void clearStickyFaults()
+  {
+    // Virtual motors do not fault.
+  }
+
+  /**
+   * Set the absolute encoder to be a compatible absolute encoder.
+   *
+   * @param encoder The encoder to use.
+   * @return The {@link SwerveMotors} for single line configuration.
+   */
+  @Override
+  public SwerveMotors setAbsoluteEncoder(SwerveAbsoluteEncoder encoder)
+  {
+    absoluteEncoder = encoder;
+    return this;
+  }
+
+  /**
+   * Configure the integrated encoder for the swerve module. Sets the conversion factors for position and velocity.
+   *
+   * @param positionConversionFactor The conversion factor to apply for position.
+   */
+  @Override
+  public void configureIntegratedEncoder(double positionConversionFactor)
+  {
+    if (positionConversionFactor > 0)
+    {
+      freeSpeed = freeSpeedRPM / 60 * positionConversionFactor;
+    }
+  }
+
+  /**
+   * Set the CAN status frame periods from a profile.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  @Override
+  public void configureStatusFrames(StatusFrameProfile profile)
+  {
+    // No CAN bus.
+  }
+
+  /**
+   * Configure the PIDF values for the closed loop controller.
+   *
+   * @param config Configuration class holding the PIDF values.
+   */
+  @Override
+  public void configurePIDF(PIDFConfig config)
+  {
+    pidf = config;
+  }
+
+  /**
+   * Configure the PID wrapping for the position closed loop controller.
+   *
+   * @param minInput Minimum PID input.
+   * @param maxInput Maximum PID input.
+   */
+  @Override
+  public void configurePIDWrapping(double minInput, double maxInput)
+  {
+    this.minInput = minInput;
+    this.maxInput = maxInput;
+  }
+
+  /**
+   * Set the idle mode.
+   *
+   * @param isBrakeMode Set the brake mode.
+   */
+  @Override
+  public void setMotorBrake(boolean isBrakeMode)
+  {
+    brake = isBrakeMode;
+  }
+
+  /**
+   * Set the motor to be inverted. Commands and readings are both inverted, so inversion has no visible effect.
+   *
+   * @param inverted State of inversion.
+   */
+  @Override
+  public void setInverted(boolean inverted)
+  {
+    // Inverting both commands and readings cancels out.
+  }
+
+  /**
+   * Save the configurations from flash to EEPROM.
+   */
+  @Override
+  public void burnFlash()
+  {
+    // No flash.
+  }
+
+  /**
+   * Set the percentage output.
+   *
+   * @param percentOutput percent out for the motor controller.
+   */
+  @Override
+  public void set(double percentOutput)
+  {
+    advance();
+    target = Math.max(-1, Math.min(1, percentOutput));
+    this.percentOutput = true;
+  }
+
+  /**
+   * Set the closed loop PID controller reference point.
+   *
+   * @param setpoint    Setpoint in meters per second or angle in degrees.
+   * @param feedforward Feedforward in volt-meter-per-second or kV.
+   */
+  @Override
+  public void setReference(double setpoint, double feedforward)
+  {
+    advance();
+    if (percentOutput)
+    {
+      integral = 0;
+      lastError = Double.NaN;
+    }
+    target = setpoint;
+    arbFeedforward = feedforward;
+    percentOutput = false;
+  }
+
+  /**
+   * Set the closed loop PID controller reference point.
+   *
+   * @param setpoint    Setpoint in meters per second or angle in degrees.
+   * @param feedforward Feedforward in volt-meter-per-second or kV.
+   * @param position    Only used on the angle motor, the position of the motor in degrees.
+   */
+  @Override
+  public void setReference(double setpoint, double feedforward, double position)
+  {
+    setReference(setpoint, feedforward);
+  }
+
+  /**
+   * Get the velocity of the integrated encoder.
+   *
+   * @return velocity in meters per second or degrees per second.
+   */
+  @Override
+  public double getVelocity()
+  {
+    advance();
+    return velocity;
+  }
+
+  /**
+   * Get the position of the integrated encoder.
+   *
+   * @return Position in meters or degrees.
+   */
+  @Override
+  public double getPosition()
+  {
+    advance();
+    return mechanismPosition + encoderOffset;
+  }
+
+  /**
+   * Set the integrated encoder position.
+   *
+   * @param position Integrated encoder position. Should be angle in degrees or meters per second.
+   */
+  @Override
+  public void setPosition(double position)
+  {
+    advance();
+    encoderOffset = position - mechanismPosition;
+  }
+
+  /**
+   * Set the voltage compensation for the swerve module motor.
+   *
+   * @param nominalVoltage Nominal voltage for operation to output to.
+   */
+  @Override
+  public void setVoltageCompensation(double nominalVoltage)
+  {
+    this.nominalVoltage = nominalVoltage;
+  }
+
+  /**
+   * Set the current limit for the swerve drive motor.
+   *
+   * @param currentLimit Current limit in AMPS at free speed.
+   */
+  @Override
+  public void setCurrentLimit(int currentLimit)
+  {
+    this.currentLimit = currentLimit;
+  }
+
+  /**
+   * Set the maximum rate the open/closed loop output can change by.
+   *
+   * @param rampRate Time in seconds to go from 0 to full throttle.
+   */
+  @Override
+  public void setLoopRampRate(double rampRate)
+  {
+    this.rampRate = rampRate;
+  }
+
+  /**
+   * Get the motor object from the module.
+   *
+   * @return This virtual motor.
+   */
+  @Override
+  public Object getMotor()
+  {
+    return this;
+  }
+
+  /**
+   * Queries whether the absolute encoder is directly attached to the motor controller.
+   *
+   * @return connected absolute encoder state.
+   */
+  @Override
+  public boolean isAttachedAbsoluteEncoder()
+  {
+    return absoluteEncoder != null;
+  }
+}
@@ -0,0 +1,237 @@
+package Swervelib.parser;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import Swervelib.math.SwerveMath;
+import Swervelib.motors.StatusFrameProfile;
+import Swervelib.parser.json.ControllerPropertiesJson;
+import Swervelib.parser.json.DeviceJson;
+import Swervelib.parser.json.ModuleJson;
+import Swervelib.parser.json.PIDFPropertiesJson;
+import Swervelib.parser.json.PhysicalPropertiesJson;
+import Swervelib.parser.json.SwerveDriveJson;
+import edu.wpi.first.math.util.Units;
+
+/**
+ * Every file of a swerve JSON configuration directory, validated, with the values derived from it resolved, and
+ * serialized by
+ * {@link SwerveParser#compile(java.io.File, java.io.File)} so the robot loads it with Java serialization at boot instead
+ * of starting Jackson. The parsed classes declare no serialVersionUID on purpose, so a file compiled against different
+ * classes fails to load and the JSON is parsed instead, the same as when the JSON no longer matches
+ * {@link #fingerprint}.
+ */
+public class CompiledSwerveConfiguration implements Serializable
+{
+
+  /**
+   * Fingerprint of the JSON files this was compiled from.
+   */
+  public final String                        fingerprint;
+  /**
+   * Parsed swervedrive.json
+   */
+  public final SwerveDriveJson               swerveDriveJson;
+  /**
+   * Parsed controllerproperties.json
+   */
+  public final ControllerPropertiesJson      controllerPropertiesJson;
+  /**
+   * Parsed modules/pidfproperties.json
+   */
+  public final PIDFPropertiesJson            pidfPropertiesJson;
+  /**
+   * Parsed modules/physicalproperties.json
+   */
+  public final PhysicalPropertiesJson        physicalPropertiesJson;
+  /**
+   * Parsed module JSONs in the order given in {@link SwerveDriveJson#modules}.
+   */
+  public final ModuleJson[]                  moduleJsons;
+  /**
+   * Physical characteristics shared by every module.
+   */
+  public final SwerveModulePhysicalCharacter physicalCharacteristics;
+  /**
+   * Maximum robot speed in meters per second.
+   */
+  public final double                        maxSpeed;
+  /**
+   * Maximum angular velocity in rad/s.
+   */
+  public final double                        maxAngularVelocity;
+  /**
+   * Derived values of every module in the order given in {@link SwerveDriveJson#modules}.
+   */
+  public final ResolvedSwerveModule[]        modules;
+
+  /**
+   * Validate a parsed swerve configuration and resolve the values derived from it.
+   *
+   * @param fingerprint              Fingerprint of the JSON files it was parsed from.
+   * @param swerveDriveJson          Parsed swervedrive.json
+   * @param controllerPropertiesJson Parsed controllerproperties.json
+   * @param pidfPropertiesJson       Parsed modules/pidfproperties.json
+   * @param physicalPropertiesJson   Parsed modules/physicalproperties.json
+   * @param moduleJsons              Parsed module JSONs in the order given in {@link SwerveDriveJson#modules}.
+   * @throws IllegalArgumentException listing every problem found if the configuration is invalid.
+   */
+  public CompiledSwerveConfiguration(String fingerprint, SwerveDriveJson swerveDriveJson,
+                                     ControllerPropertiesJson controllerPropertiesJson,
+                                     PIDFPropertiesJson pidfPropertiesJson,
+                                     PhysicalPropertiesJson physicalPropertiesJson, ModuleJson[] moduleJsons)
+  {
+    this.fingerprint = fingerprint;
+    this.swerveDriveJson = swerveDriveJson;
+    this.controllerPropertiesJson = controllerPropertiesJson;
+    this.pidfPropertiesJson = pidfPropertiesJson;
+    this.physicalPropertiesJson = physicalPropertiesJson;
+    this.moduleJsons = moduleJsons;
+
+    List<String> errors = validate();
+    if (!errors.isEmpty())
+    {
+      throw new IllegalArgumentException("Invalid swerve configuration:\n  " + String.join("\n  ", errors));
+    }
+    physicalCharacteristics = physicalPropertiesJson.createPhysicalProperties(swerveDriveJson.optimalVoltage);
+    maxSpeed = Units.feetToMeters(swerveDriveJson.maxSpeed);
+    modules = new ResolvedSwerveModule[moduleJsons.length];
+    for (int i = 0; i < modules.length; i++)
+    {
+      modules[i] = moduleJsons[i].resolve(physicalCharacteristics);
+      String name = "modules/" + swerveDriveJson.modules[i];
+      check(errors, name + " angle kV", modules[i].angleKV, true);
+      check(errors, name + " drive conversion factor", modules[i].drivePositionConversion, false);
+      check(errors, name + " angle conversion factor", modules[i].anglePositionConversion, false);
+      check(errors, name + " drive kA", modules[i].driveKA, false);
+    }
+    maxAngularVelocity = SwerveMath.calculateMaxAngularVelocity(maxSpeed,
+                                                                Math.abs(modules[0].xMeters),
+                                                                Math.abs(modules[0].yMeters));
+    check(errors, "maximum angular velocity", maxAngularVelocity, false);
+    if (!errors.isEmpty())
+    {
+      throw new IllegalArgumentException("Invalid swerve configuration:\n  " + String.join("\n  ", errors));
+    }
+  }
+
+  /**
+   * Check a derived value is a positive finite number.
+   *
+   * @param errors    List to add the problem to.
+   * @param name      Name of the value.
+   * @param value     Derived value.
+   * @param allowZero Whether 0 is allowed.
+   */
+  private static void check(List<String> errors, String name, double value, boolean allowZero)
+  {
+    if (!(value > 0 || (allowZero && value == 0)) || Double.isInfinite(value))
+    {
+      errors.add(name + " resolved to " + value + ", check the gear ratios, pulses per rotation and free speeds");
+    }
+  }
+
+  /**
+   * Check the parsed files for missing sections, unknown device types and values which can't be used.
+   *
+   * @return Every problem found, empty if the configuration is valid.
+   */
+  private List<String> validate()
+  {
+    List<String>         errors   = new ArrayList<>();
+    SwerveDeviceRegistry registry = SwerveDeviceRegistry.getInstance();
+    if (!(swerveDriveJson.maxSpeed > 0))
+    {
+      errors.add("swervedrive.json maxSpeed must be positive");
+    }
+    if (!(swerveDriveJson.optimalVoltage > 0))
+    {
+      errors.add("swervedrive.json optimalVoltage must be positive");
+    }
+    if (swerveDriveJson.imu == null || !registry.hasIMU(swerveDriveJson.imu.type))
+    {
+      errors.add("swervedrive.json imu type " + (swerveDriveJson.imu == null ? null : swerveDriveJson.imu.type) +
+                 " is not a recognized IMU type");
+    }
+    if (swerveDriveJson.modules == null || swerveDriveJson.modules.length < 2)
+    {
+      errors.add("swervedrive.json must list at least two modules");
+    }
+    if (controllerPropertiesJson.heading == null)
+    {
+      errors.add("controllerproperties.json is missing heading");
+    }
+    if (pidfPropertiesJson.drive == null || pidfPropertiesJson.angle == null)
+    {
+      errors.add("modules/pidfproperties.json must have drive and angle");
+    }
+    if (!(physicalPropertiesJson.wheelDiameter > 0))
+    {
+      errors.add("modules/physicalproperties.json wheelDiameter must be positive");
+    }
+    if (physicalPropertiesJson.gearRatio == null)
+    {
+      errors.add("modules/physicalproperties.json is missing gearRatio");
+    }
+    if (physicalPropertiesJson.angleMotorsKV < 0)
+    {
+      errors.add("modules/physicalproperties.json angleMotorsKV must not be negative");
+    }
+    if (!errors.isEmpty())
+    {
+      return errors;
+    }
+
+    Set<String> locations = new HashSet<>();
+    for (int i = 0; i < moduleJsons.length; i++)
+    {
+      String     name   = "modules/" + swerveDriveJson.modules[i];
+      ModuleJson module = moduleJsons[i];
+      checkDevice(errors, name + " drive", module.drive, registry::hasMotor);
+      checkDevice(errors, name + " angle", module.angle, registry::hasMotor);
+      checkDevice(errors, name + " encoder", module.encoder, registry::hasAbsoluteEncoder);
+      if (module.inverted == null)
+      {
+        errors.add(name + " is missing inverted");
+      }
+      if (module.location == null)
+      {
+        errors.add(name + " is missing location");
+      } else if (!locations.add(module.getLocationMeters().toString()))
+      {
+        errors.add(name + " has the same location as another module");
+      }
+      try
+      {
+        StatusFrameProfile.fromName(module.statusFrames);
+      } catch (IllegalArgumentException e)
+      {
+        errors.add(name + " " + e.getMessage());
+      }
+    }
+    return errors;
+  }
+
+  /**
+   * Check a device section of a module.
+   *
+   * @param errors     List to add problems to.
+   * @param name       Name of the device.
+   * @param device     Device configuration.
+   * @param registered Whether a factory creates a device type.
+   */
+  private static void checkDevice(List<String> errors, String name, DeviceJson device, Predicate<String> registered)
+  {
+    if (device == null)
+    {
+      errors.add(name + " is missing");
+    } else if (!registered.test(device.type))
+    {
+      errors.add(name + " type " + device.type + " is not registered");
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package Swervelib.parser;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+
+/**
+ * Persisted fingerprints of the configuration written to each swerve motor controller, used to skip factory resets and
+ * flash writes when a device already holds the configuration it is about to receive.
+ */
+public class ConfigurationFingerprints
+{
+
+  /**
+   * Use stored fingerprints to skip factory resets and flash writes.
+   */
+  public static  boolean    enabled      = true;
+  /**
+   * File the fingerprints are stored in.
+   */
+  public static  File       file         = new File(Filesystem.getOperatingDirectory(),
+                                                    "swerve-fingerprints.properties");
+  /**
+   * Fingerprints loaded from {@link #file}, null until first used.
+   */
+  private static Properties fingerprints = null;
+
+  /**
+   * Hash a description of a device configuration into a fingerprint.
+   *
+   * @param values Every value which makes up the device configuration.
+   * @return Fingerprint of the configuration.
+   */
+  public static String fingerprint(Object... values)
+  {
+    StringBuilder description = new StringBuilder();
+    for (Object value : values)
+    {
+      description.append(value).append(';');
+    }
+    CRC32 crc = new CRC32();
+    crc.update(description.toString().getBytes(StandardCharsets.UTF_8));
+    return Long.toHexString(crc.getValue());
+  }
+
+  /**
+   * Reduce a fingerprint to the marker written to a motor controller together with the configuration, so the controller
+   * itself records which configuration its flash holds. The marker is exact in the 24 bit mantissa of a float parameter
+   * and never 0, the factory default of the parameters it is stored in.
+   *
+   * @param fingerprint Fingerprint from {@link #fingerprint(Object...)}.
+   * @return Marker between 1 and 2^23.
+   */
+  public static int marker(String fingerprint)
+  {
+    return (int) (Long.parseLong(fingerprint, 16) & 0x7FFFFF) + 1;
+  }
+
+  /**
+   * Check if the stored fingerprint of a device matches.
+   *
+   * @param device      Device key, unique per device.
+   * @param fingerprint Fingerprint from {@link #fingerprint(Object...)}.
+   * @return True if fingerprints are enabled and the stored fingerprint matches.
+   */
+  public static synchronized boolean matches(String device, String fingerprint)
+  {
+    return enabled && fingerprint.equals(load().getProperty(device));
+  }
+
+  /**
+   * Store the fingerprint of a device once its configuration has been written to flash.
+   *
+   * @param device      Device key, unique per device.
+   * @param fingerprint Fingerprint from {@link #fingerprint(Object...)}.
+   */
+  public static synchronized void store(String device, String fingerprint)
+  {
+    if (!enabled || fingerprint.equals(load().getProperty(device)))
+    {
+      return;
+    }
+    fingerprints.setProperty(device, fingerprint);
+    try (OutputStream out = new FileOutputStream(file))
+    {
+      fingerprints.store(out, "Swerve motor controller configuration fingerprints");
+    } catch (IOException e)
+    {
+      DriverStation.reportWarning("Could not store configuration fingerprints to " + file + ": " + e.getMessage(),
+                                  false);
+    }
+  }
+
+  /**
+   * Load the stored fingerprints, once.
+   *
+   * @return Stored fingerprints, empty if the file does not exist or cannot be read.
+   */
+  private static Properties load()
+  {
+    if (fingerprints == null)
+    {
+      fingerprints = new Properties();
+      if (file.exists())
+      {
+        try (InputStream in = new FileInputStream(file))
+        {
+          fingerprints.load(in);
+        } catch (IOException e)
+        {
+          DriverStation.reportWarning("Could not read configuration fingerprints from " + file + ": " + e.getMessage(),
+                                      false);
+        }
+      }
+    }
+    return fingerprints;
+  }
+}
@@ -1,12 +1,14 @@
 package Swervelib.parser;
 
+import java.io.Serializable;
+
 import Swervelib.parser.deserializer.PIDFRange;
 import edu.wpi.first.math.controller.PIDController;
 
 /**
  * Hold the PIDF and Integral Zone values for a PID.
  */
-public class PIDFConfig
+public class PIDFConfig implements Serializable
 {
 
   /**
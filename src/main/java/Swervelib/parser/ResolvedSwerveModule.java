@@ -0,0 +1,107 @@
+package Swervelib.parser;
+
+import static Swervelib.math.SwerveMath.calculateAngleKV;
+import static Swervelib.math.SwerveMath.calculateDegreesPerSteeringRotation;
+import static Swervelib.math.SwerveMath.calculateMaxAcceleration;
+import static Swervelib.math.SwerveMath.calculateMetersPerRotation;
+
+import java.io.Serializable;
+
+/**
+ * Values of a swerve module derived from its configuration, resolved once so a {@link CompiledSwerveConfiguration}
+ * built ahead of time leaves nothing to calculate when the robot boots.
+ */
+public class ResolvedSwerveModule implements Serializable
+{
+
+  /**
+   * Module location in meters from the center horizontally.
+   */
+  public final double xMeters;
+  /**
+   * Module location in meters from the center vertically.
+   */
+  public final double yMeters;
+  /**
+   * The encoder pulse per revolution of the angle motor encoder.
+   */
+  public final double angleMotorEncoderPulsePerRevolution;
+  /**
+   * Angle motor kV in volt seconds per degree, 0 when neither the kV nor the angle motor free speed is configured.
+   */
+  public final double angleKV;
+  /**
+   * Drive motor position conversion factor in meters per rotation.
+   */
+  public final double drivePositionConversion;
+  /**
+   * Angle motor position conversion factor in degrees per rotation.
+   */
+  public final double anglePositionConversion;
+  /**
+   * Drive motor feedforward kA in volt seconds squared per meter.
+   */
+  public final double driveKA;
+
+  /**
+   * Hold the resolved values of a swerve module.
+   *
+   * @param xMeters                             Module location in meters from the center horizontally.
+   * @param yMeters                             Module location in meters from the center vertically.
+   * @param angleMotorEncoderPulsePerRevolution The encoder pulse per revolution of the angle motor encoder.
+   * @param angleKV                             Angle motor kV in volt seconds per degree.
+   * @param drivePositionConversion             Drive motor position conversion factor in meters per rotation.
+   * @param anglePositionConversion             Angle motor position conversion factor in degrees per rotation.
+   * @param driveKA                             Drive motor feedforward kA in volt seconds squared per meter.
+   */
+  private ResolvedSwerveModule(double xMeters, double yMeters, double angleMotorEncoderPulsePerRevolution,
+                               double angleKV, double drivePositionConversion, double anglePositionConversion,
+                               double driveKA)
+  {
+    this.xMeters = xMeters;
+    this.yMeters = yMeters;
+    this.angleMotorEncoderPulsePerRevolution = angleMotorEncoderPulsePerRevolution;
+    this.angleKV = angleKV;
+    this.drivePositionConversion = drivePositionConversion;
+    this.anglePositionConversion = anglePositionConversion;
+    this.driveKA = driveKA;
+  }
+
+  /**
+   * Derive the values of a swerve module from its configuration.
+   *
+   * @param xMeters                             Module location in meters from the center horizontally.
+   * @param yMeters                             Module location in meters from the center vertically.
+   * @param physicalCharacteristics             Physical characteristics of the swerve module.
+   * @param angleMotorEncoderPulsePerRevolution The encoder pulse per revolution of the angle motor encoder.
+   * @param angleMotorFreeSpeedRPM              The free speed RPM of the angle motor.
+   * @return {@link ResolvedSwerveModule} of the derived values.
+   */
+  public static ResolvedSwerveModule resolve(double xMeters, double yMeters,
+                                             SwerveModulePhysicalCharacter physicalCharacteristics,
+                                             double angleMotorEncoderPulsePerRevolution,
+                                             double angleMotorFreeSpeedRPM)
+  {
+    double angleKV = physicalCharacteristics.angleMotorKV;
+    // Without a free speed there is nothing to calculate the kV from, so the angle motor gets no feedforward.
+    if (angleKV == 0 && angleMotorFreeSpeedRPM > 0)
+    {
+      angleKV = calculateAngleKV(physicalCharacteristics.optimalVoltage,
+                                 angleMotorFreeSpeedRPM,
+                                 physicalCharacteristics.angleGearRatio);
+    }
+    return new ResolvedSwerveModule(
+        xMeters,
+        yMeters,
+        angleMotorEncoderPulsePerRevolution,
+        angleKV,
+        calculateMetersPerRotation(physicalCharacteristics.wheelDiameter,
+                                   physicalCharacteristics.driveGearRatio,
+                                   angleMotorEncoderPulsePerRevolution),
+        calculateDegreesPerSteeringRotation(physicalCharacteristics.angleGearRatio,
+                                            angleMotorEncoderPulsePerRevolution),
+        // Volt-seconds^2 per meter (max voltage divided by max accel)
+        physicalCharacteristics.optimalVoltage
+        / calculateMaxAcceleration(physicalCharacteristics.wheelGripCoefficientOfFriction));
+  }
+}
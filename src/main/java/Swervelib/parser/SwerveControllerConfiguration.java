@@ -37,13 +37,32 @@ public class SwerveControllerConfiguration
       SwerveDriveConfiguration driveCfg,
       PIDFConfig headingPIDF,
       double angleJoyStickRadiusDeadband)
+  {
+    this(driveCfg,
+         headingPIDF,
+         angleJoyStickRadiusDeadband,
+         calculateMaxAngularVelocity(
+             driveCfg.maxSpeed,
+             Math.abs(driveCfg.moduleLocationsMeters[0].getX()),
+             Math.abs(driveCfg.moduleLocationsMeters[0].getY())));
+  }
+
+  /**
+   * Construct the swerve controller configuration with a maximum angular velocity resolved ahead of time.
+   *
+   * @param driveCfg                    Drive configuration.
+   * @param headingPIDF                 Heading PIDF configuration.
+   * @param angleJoyStickRadiusDeadband Deadband on radius of angle joystick.
+   * @param maxAngularVelocity          Maximum angular velocity in rad/s.
+   */
+  public SwerveControllerConfiguration(
+      SwerveDriveConfiguration driveCfg,
+      PIDFConfig headingPIDF,
+      double angleJoyStickRadiusDeadband,
+      double maxAngularVelocity)
   {
     this.maxSpeed = driveCfg.maxSpeed;
-    this.maxAngularVelocity =
-        calculateMaxAngularVelocity(
-            driveCfg.maxSpeed,
-            Math.abs(driveCfg.moduleLocationsMeters[0].getX()),
-            Math.abs(driveCfg.moduleLocationsMeters[0].getY()));
+    this.maxAngularVelocity = maxAngularVelocity;
     this.headingPIDF = headingPIDF;
     this.angleJoyStickRadiusDeadband = angleJoyStickRadiusDeadband;
   }
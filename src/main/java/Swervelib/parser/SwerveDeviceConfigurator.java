@@ -0,0 +1,167 @@
+package Swervelib.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import Swervelib.SwerveModule;
+import edu.wpi.first.wpilibj.DataLogManager;
+
+/**
+ * Configures the motors and absolute encoders of every swerve module concurrently on a bounded thread pool. Each device
+ * is read back after configuration and configured once more if the readback does not match, startup fails if it still
+ * does not match or a device does not finish within the timeout. The configuration latency of every device is logged
+ * to the {@link DataLogManager} messages.
+ */
+public class SwerveDeviceConfigurator
+{
+
+  /**
+   * Configure the swerve module devices concurrently when creating a {@link SwerveDriveConfiguration}.
+   */
+  public static boolean parallel       = false;
+  /**
+   * Maximum number of devices configured at once.
+   */
+  public static int     threads        = 4;
+  /**
+   * Seconds all devices have to finish configuring before startup fails.
+   */
+  public static double  timeoutSeconds = 10;
+
+  /**
+   * Configuration task for a single device.
+   */
+  private static class DeviceTask
+  {
+
+    /**
+     * Device name used in logs and errors.
+     */
+    final String          name;
+    /**
+     * Configures the device.
+     */
+    final Runnable        configure;
+    /**
+     * Verifies the device configuration by readback.
+     */
+    final BooleanSupplier verify;
+
+    /**
+     * Create a device configuration task.
+     *
+     * @param name      Device name used in logs and errors.
+     * @param configure Configures the device.
+     * @param verify    Verifies the device configuration by readback.
+     */
+    DeviceTask(String name, Runnable configure, BooleanSupplier verify)
+    {
+      this.name = name;
+      this.configure = configure;
+      this.verify = verify;
+    }
+
+    /**
+     * Configure and verify the device, configuring once more if the readback does not match.
+     *
+     * @return Configuration latency in milliseconds.
+     */
+    double run()
+    {
+      long start = System.nanoTime();
+      configure.run();
+      if (!verify.getAsBoolean())
+      {
+        configure.run();
+        if (!verify.getAsBoolean())
+        {
+          throw new RuntimeException(name + " configuration readback does not match");
+        }
+      }
+      return (System.nanoTime() - start) / 1e6;
+    }
+  }
+
+  /**
+   * Configure the drive motor, angle motor and absolute encoder of every module concurrently, then seed the angle motors
+   * from the absolute encoders. The modules must have been created without configuring their devices.
+   *
+   * @param modules Swerve modules to configure.
+   * @throws RuntimeException if a device fails, fails readback or times out.
+   */
+  public static void configure(SwerveModule[] modules)
+  {
+    List<DeviceTask> tasks = new ArrayList<>();
+    for (SwerveModule module : modules)
+    {
+      String prefix = "Module " + module.moduleNumber + " ";
+      tasks.add(new DeviceTask(prefix + "drive motor", module::configureDriveMotor,
+                               module.getDriveMotor()::verifyConfiguration));
+      tasks.add(new DeviceTask(prefix + "angle motor", module::configureAngleMotor,
+                               module.getAngleMotor()::verifyConfiguration));
+      if (module.configuration.absoluteEncoder != null)
+      {
+        tasks.add(new DeviceTask(prefix + "absolute encoder", module::configureAbsoluteEncoder,
+                                 module.configuration.absoluteEncoder::verifyConfiguration));
+      }
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())), runnable -> {
+      Thread thread = new Thread(runnable, "SwerveDeviceConfigurator");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try
+    {
+      ExecutorCompletionService<Double> completion = new ExecutorCompletionService<>(executor);
+      List<Future<Double>>              futures    = new ArrayList<>();
+      for (DeviceTask task : tasks)
+      {
+        futures.add(completion.submit(task::run));
+      }
+
+      long deadline = System.nanoTime() + (long) (timeoutSeconds * 1e9);
+      for (int done = 0; done < tasks.size(); done++)
+      {
+        Future<Double> future = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (future == null)
+        {
+          StringBuilder pending = new StringBuilder();
+          for (int i = 0; i < futures.size(); i++)
+          {
+            if (!futures.get(i).isDone())
+            {
+              pending.append(pending.length() == 0 ? "" : ", ").append(tasks.get(i).name);
+            }
+          }
+          throw new RuntimeException(
+              "Swerve device configuration timed out after " + timeoutSeconds + "s waiting on " + pending);
+        }
+        int index = futures.indexOf(future);
+        DataLogManager.log(String.format("%s configured in %.1f ms", tasks.get(index).name, future.get()));
+      }
+    } catch (ExecutionException e)
+    {
+      throw new RuntimeException("Swerve device configuration failed", e.getCause());
+    } catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Swerve device configuration interrupted", e);
+    } finally
+    {
+      executor.shutdownNow();
+    }
+
+    for (SwerveModule module : modules)
+    {
+      module.seedAngleMotor();
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package Swervelib.parser;
+
+/**
+ * Service provider of swerve device factories, for devices which live outside of this library. Implementations are
+ * found with {@link java.util.ServiceLoader} when {@link SwerveDeviceRegistry} is first used, by listing the fully
+ * qualified class name in {@code META-INF/services/Swervelib.parser.SwerveDeviceProvider}, and need a public no
+ * argument constructor.
+ */
+public interface SwerveDeviceProvider
+{
+
+  /**
+   * Register device factories. Factories registered for a type which already exists, including the built in types,
+   * replace it.
+   *
+   * @param registry Registry to register the factories with.
+   */
+  void register(SwerveDeviceRegistry registry);
+}
@@ -0,0 +1,387 @@
+package Swervelib.parser;
+
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.revrobotics.SparkMaxRelativeEncoder.Type;
+
+import Swervelib.encoders.AnalogAbsoluteEncoderSwerve;
+import Swervelib.encoders.CANCoderSwerve;
+import Swervelib.encoders.SparkMaxEncoderSwerve;
+import Swervelib.encoders.SwerveAbsoluteEncoder;
+import Swervelib.encoders.VirtualEncoderSwerve;
+import Swervelib.imu.ADIS16448Swerve;
+import Swervelib.imu.ADIS16470Swerve;
+import Swervelib.imu.ADXRS450Swerve;
+import Swervelib.imu.AnalogGyroSwerve;
+import Swervelib.imu.Pigeon2Swerve;
+import Swervelib.imu.PigeonSwerve;
+import Swervelib.imu.SwerveIMU;
+import Swervelib.imu.VirtualIMUSwerve;
+import Swervelib.motors.SparkMaxBrushedMotors;
+import Swervelib.motors.SparkMaxSwerve;
+import Swervelib.motors.SwerveMotors;
+import Swervelib.motors.SwerveTalonFX;
+import Swervelib.motors.SwerveTalonSRX;
+import Swervelib.motors.VirtualMotorSwerve;
+import Swervelib.parser.json.DeviceJson;
+
+/**
+ * Registry of the factories which create swerve devices from the "type" of a {@link DeviceJson}. The devices of this
+ * library are registered first, then every {@link SwerveDeviceProvider} found by {@link ServiceLoader}, so a device
+ * such as a navX, whose vendor library this project does not depend on, can be added without changing the parser.
+ * Factories can also be registered directly before the swerve drive is parsed.
+ */
+public class SwerveDeviceRegistry
+{
+
+  /**
+   * The registry every {@link DeviceJson} creates devices from.
+   */
+  private static final SwerveDeviceRegistry INSTANCE = new SwerveDeviceRegistry();
+
+  /**
+   * Factories of motors by type.
+   */
+  private final Map<String, MotorFactory>             motors             = new ConcurrentHashMap<>();
+  /**
+   * Factories of absolute encoders by type.
+   */
+  private final Map<String, AbsoluteEncoderFactory>   absoluteEncoders   = new ConcurrentHashMap<>();
+  /**
+   * Factories of absolute encoders attached to a motor controller by motor type.
+   */
+  private final Map<String, IntegratedEncoderFactory> integratedEncoders = new ConcurrentHashMap<>();
+  /**
+   * Factories of IMUs by type.
+   */
+  private final Map<String, IMUFactory>               imus               = new ConcurrentHashMap<>();
+
+  /**
+   * Register the devices of this library and of every {@link SwerveDeviceProvider} on the class path.
+   */
+  private SwerveDeviceRegistry()
+  {
+    registerBuiltInDevices();
+    try
+    {
+      for (SwerveDeviceProvider provider : ServiceLoader.load(SwerveDeviceProvider.class))
+      {
+        provider.register(this);
+      }
+    } catch (ServiceConfigurationError e)
+    {
+      throw new RuntimeException("Could not load swerve device providers", e);
+    }
+  }
+
+  /**
+   * Get the registry every {@link DeviceJson} creates devices from.
+   *
+   * @return {@link SwerveDeviceRegistry} singleton.
+   */
+  public static SwerveDeviceRegistry getInstance()
+  {
+    return INSTANCE;
+  }
+
+  /**
+   * Register the motors, encoders and IMUs of this library.
+   */
+  private void registerBuiltInDevices()
+  {
+    registerMotor(SwerveDeviceRegistry::createSparkMaxBrushed, "sparkmax_brushed");
+    registerMotor((device, isDriveMotor) -> new SparkMaxSwerve(device.id, isDriveMotor), "neo", "sparkmax");
+    registerMotor((device, isDriveMotor) -> new SwerveTalonFX(device.id, canbus(device), isDriveMotor),
+                  "falcon", "talonfx");
+    registerMotor((device, isDriveMotor) -> new SwerveTalonSRX(device.id, isDriveMotor), "talonsrx");
+    registerMotor((device, isDriveMotor) -> new VirtualMotorSwerve(isDriveMotor), "virtual");
+
+    registerAbsoluteEncoder(device -> null, "none", "integrated", "attached");
+    registerAbsoluteEncoder(device -> new AnalogAbsoluteEncoderSwerve(device.id),
+                            "thrifty", "throughbore", "dutycycle", "analog");
+    registerAbsoluteEncoder(device -> new CANCoderSwerve(device.id, canbus(device)), "cancoder");
+    registerAbsoluteEncoder(device -> new VirtualEncoderSwerve(device.id, device.noise), "virtual");
+
+    registerIntegratedEncoder((device, motor) -> new SparkMaxEncoderSwerve(motor), "sparkmax");
+    registerIntegratedEncoder((device, motor) -> new VirtualEncoderSwerve(device.id, device.noise), "virtual");
+    registerIntegratedEncoder((device, motor) -> null, "falcon", "talonfx");
+
+    registerIMU(device -> new ADIS16448Swerve(), "adis16448");
+    registerIMU(device -> new ADIS16470Swerve(), "adis16470");
+    registerIMU(device -> new ADXRS450Swerve(), "adxrs450");
+    registerIMU(device -> new AnalogGyroSwerve(device.id), "analog");
+    registerIMU(device -> new PigeonSwerve(device.id), "pigeon");
+    registerIMU(device -> new Pigeon2Swerve(device.id, canbus(device)), "pigeon2");
+    registerIMU(device -> new VirtualIMUSwerve(), "virtual");
+  }
+
+  /**
+   * Get the CAN bus of a device.
+   *
+   * @param device Device configuration.
+   * @return CAN bus name, empty for the default bus.
+   */
+  private static String canbus(DeviceJson device)
+  {
+    return device.canbus != null ? device.canbus : "";
+  }
+
+  /**
+   * Create a brushed Spark MAX, whose attached encoder is given by the "canbus" field.
+   *
+   * @param device       Device configuration.
+   * @param isDriveMotor If the motor being generated is a drive motor.
+   * @return {@link SparkMaxBrushedMotors} created.
+   */
+  private static SwerveMotors createSparkMaxBrushed(DeviceJson device, boolean isDriveMotor)
+  {
+    switch (canbus(device))
+    {
+      case "greyhill_63r256":
+        return new SparkMaxBrushedMotors(device.id, isDriveMotor, Type.kQuadrature, 1024, false);
+      case "srx_mag_encoder":
+        return new SparkMaxBrushedMotors(device.id, isDriveMotor, Type.kQuadrature, 4096, false);
+      case "throughbore":
+        return new SparkMaxBrushedMotors(device.id, isDriveMotor, Type.kQuadrature, 8192, false);
+      case "throughbore_dataport":
+        return new SparkMaxBrushedMotors(device.id, isDriveMotor, Type.kNoSensor, 8192, true);
+      case "greyhill_63r256_dataport":
+        return new SparkMaxBrushedMotors(device.id, isDriveMotor, Type.kQuadrature, 1024, true);
+      case "srx_mag_encoder_dataport":
+        return new SparkMaxBrushedMotors(device.id, isDriveMotor, Type.kQuadrature, 4096, true);
+      default:
+        if (isDriveMotor)
+        {
+          throw new RuntimeException(
+              "Spark MAX " + device.id + " MUST have a encoder attached to the motor controller.");
+        }
+        // We are creating a motor for an angle motor which will use the absolute encoder attached to the data port.
+        return new SparkMaxBrushedMotors(device.id, isDriveMotor, Type.kNoSensor, 0, false);
+    }
+  }
+
+  /**
+   * Register a motor factory.
+   *
+   * @param factory Factory creating the motor.
+   * @param types   Device types the factory creates.
+   */
+  public void registerMotor(MotorFactory factory, String... types)
+  {
+    for (String type : types)
+    {
+      motors.put(type, factory);
+    }
+  }
+
+  /**
+   * Register an absolute encoder factory.
+   *
+   * @param factory Factory creating the absolute encoder, which may return null for types which have none.
+   * @param types   Device types the factory creates.
+   */
+  public void registerAbsoluteEncoder(AbsoluteEncoderFactory factory, String... types)
+  {
+    for (String type : types)
+    {
+      absoluteEncoders.put(type, factory);
+    }
+  }
+
+  /**
+   * Register a factory of absolute encoders attached to a motor controller.
+   *
+   * @param factory Factory creating the absolute encoder, which may return null for motors read by another encoder.
+   * @param types   Motor types the factory creates the encoder of.
+   */
+  public void registerIntegratedEncoder(IntegratedEncoderFactory factory, String... types)
+  {
+    for (String type : types)
+    {
+      integratedEncoders.put(type, factory);
+    }
+  }
+
+  /**
+   * Register an IMU factory.
+   *
+   * @param factory Factory creating the IMU.
+   * @param types   Device types the factory creates.
+   */
+  public void registerIMU(IMUFactory factory, String... types)
+  {
+    for (String type : types)
+    {
+      imus.put(type, factory);
+    }
+  }
+
+  /**
+   * Check if a motor type is registered.
+   *
+   * @param type Device type.
+   * @return True if a factory creates the type.
+   */
+  public boolean hasMotor(String type)
+  {
+    return type != null && motors.containsKey(type);
+  }
+
+  /**
+   * Check if an absolute encoder type is registered.
+   *
+   * @param type Device type.
+   * @return True if a factory creates the type.
+   */
+  public boolean hasAbsoluteEncoder(String type)
+  {
+    return type != null && absoluteEncoders.containsKey(type);
+  }
+
+  /**
+   * Check if an IMU type is registered.
+   *
+   * @param type Device type.
+   * @return True if a factory creates the type.
+   */
+  public boolean hasIMU(String type)
+  {
+    return type != null && imus.containsKey(type);
+  }
+
+  /**
+   * Create a {@link SwerveMotors} from a device configuration.
+   *
+   * @param device       Device configuration.
+   * @param isDriveMotor If the motor being generated is a drive motor.
+   * @return {@link SwerveMotors} created.
+   */
+  public SwerveMotors createMotor(DeviceJson device, boolean isDriveMotor)
+  {
+    MotorFactory factory = motors.get(device.type);
+    if (factory == null)
+    {
+      throw new RuntimeException(device.type + " is not a recognized motor type.");
+    }
+    return factory.create(device, isDriveMotor);
+  }
+
+  /**
+   * Create a {@link SwerveAbsoluteEncoder} from a device configuration.
+   *
+   * @param device Device configuration.
+   * @return {@link SwerveAbsoluteEncoder} created, null when the type has none.
+   */
+  public SwerveAbsoluteEncoder createAbsoluteEncoder(DeviceJson device)
+  {
+    AbsoluteEncoderFactory factory = absoluteEncoders.get(device.type);
+    if (factory == null)
+    {
+      throw new RuntimeException(device.type + " is not a recognized absolute encoder type.");
+    }
+    return factory.create(device);
+  }
+
+  /**
+   * Create a {@link SwerveAbsoluteEncoder} from the data port of a motor controller.
+   *
+   * @param device Device configuration of the motor.
+   * @param motor  Motor to create the absolute encoder from.
+   * @return {@link SwerveAbsoluteEncoder} created, null when the motor is read by another encoder.
+   */
+  public SwerveAbsoluteEncoder createIntegratedEncoder(DeviceJson device, SwerveMotors motor)
+  {
+    IntegratedEncoderFactory factory = integratedEncoders.get(device.type);
+    if (factory == null)
+    {
+      throw new RuntimeException(
+          "Could not create absolute encoder from data port of " + device.type + " id " + device.id);
+    }
+    return factory.create(device, motor);
+  }
+
+  /**
+   * Create a {@link SwerveIMU} from a device configuration.
+   *
+   * @param device Device configuration.
+   * @return {@link SwerveIMU} created.
+   */
+  public SwerveIMU createIMU(DeviceJson device)
+  {
+    IMUFactory factory = imus.get(device.type);
+    if (factory == null)
+    {
+      throw new RuntimeException(device.type + " is not a recognized IMU type.");
+    }
+    return factory.create(device);
+  }
+
+  /**
+   * Creates a motor from a device configuration.
+   */
+  @FunctionalInterface
+  public interface MotorFactory
+  {
+
+    /**
+     * Create the motor.
+     *
+     * @param device       Device configuration.
+     * @param isDriveMotor If the motor being generated is a drive motor.
+     * @return {@link SwerveMotors} created.
+     */
+    SwerveMotors create(DeviceJson device, boolean isDriveMotor);
+  }
+
+  /**
+   * Creates an absolute encoder from a device configuration.
+   */
+  @FunctionalInterface
+  public interface AbsoluteEncoderFactory
+  {
+
+    /**
+     * Create the absolute encoder.
+     *
+     * @param device Device configuration.
+     * @return {@link SwerveAbsoluteEncoder} created, or null.
+     */
+    SwerveAbsoluteEncoder create(DeviceJson device);
+  }
+
+  /**
+   * Creates an absolute encoder attached to a motor controller.
+   */
+  @FunctionalInterface
+  public interface IntegratedEncoderFactory
+  {
+
+    /**
+     * Create the absolute encoder.
+     *
+     * @param device Device configuration of the motor.
+     * @param motor  Motor the encoder is attached to.
+     * @return {@link SwerveAbsoluteEncoder} created, or null.
+     */
+    SwerveAbsoluteEncoder create(DeviceJson device, SwerveMotors motor);
+  }
+
+  /**
+   * Creates an IMU from a device configuration.
+   */
+  @FunctionalInterface
+  public interface IMUFactory
+  {
+
+    /**
+     * Create the IMU.
+     *
+     * @param device Device configuration.
+     * @return {@link SwerveIMU} created.
+     */
+    SwerveIMU create(DeviceJson device);
+  }
+}
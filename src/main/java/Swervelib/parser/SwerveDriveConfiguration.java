@@ -2,6 +2,7 @@ package Swervelib.parser;
 
 import Swervelib.SwerveModule;
 import Swervelib.imu.SwerveIMU;
+import Swervelib.telemetry.SwerveDriveTelemetry;
 import edu.wpi.first.math.geometry.Translation2d;
 
 /**
@@ -34,6 +35,11 @@ public class SwerveDriveConfiguration
    * Swerve Modules.
    */
   public SwerveModule[]  modules;
+  /**
+   * Whether the drive is simulated, integrating the commanded module states and heading instead of reading its
+   * devices.
+   */
+  public boolean         simulated;
 
   /**
    * Create swerve drive configuration.
@@ -48,11 +54,36 @@ public class SwerveDriveConfiguration
       SwerveIMU swerveIMU,
       double maxSpeed,
       boolean invertedIMU)
+  {
+    this(moduleConfigs, swerveIMU, maxSpeed, invertedIMU, SwerveDriveTelemetry.isSimulation);
+  }
+
+  /**
+   * Create swerve drive configuration, choosing whether it is simulated rather than following
+   * {@link SwerveDriveTelemetry#isSimulation}, such as for a drive of virtual devices in a simulated robot.
+   *
+   * @param moduleConfigs Module configuration.
+   * @param swerveIMU     Swerve IMU, unused when simulated.
+   * @param maxSpeed      Max speed of the robot in meters per second.
+   * @param invertedIMU   Invert the IMU.
+   * @param simulated     Integrate the commanded module states and heading instead of reading the devices.
+   */
+  public SwerveDriveConfiguration(
+      SwerveModuleConfiguration[] moduleConfigs,
+      SwerveIMU swerveIMU,
+      double maxSpeed,
+      boolean invertedIMU,
+      boolean simulated)
   {
     this.moduleCount = moduleConfigs.length;
     this.imu = swerveIMU;
     this.maxSpeed = maxSpeed;
     this.invertedIMU = invertedIMU;
+    this.simulated = simulated;
+    for (SwerveModuleConfiguration moduleConfig : moduleConfigs)
+    {
+      moduleConfig.simulated = simulated;
+    }
     this.modules = createModules(moduleConfigs);
     this.moduleLocationsMeters = new Translation2d[moduleConfigs.length];
     for (SwerveModule module : modules)
@@ -62,7 +93,8 @@ public class SwerveDriveConfiguration
   }
 
   /**
-   * Create modules based off of the SwerveModuleConfiguration.
+   * Create modules based off of the SwerveModuleConfiguration. Devices are configured concurrently by
+   * {@link SwerveDeviceConfigurator} when {@link SwerveDeviceConfigurator#parallel} is set.
    *
    * @param swerves Swerve constants.
    * @return Swerve Modules.
@@ -72,7 +104,11 @@ public class SwerveDriveConfiguration
     SwerveModule[] modArr = new SwerveModule[swerves.length];
     for (int i = 0; i < swerves.length; i++)
     {
-      modArr[i] = new SwerveModule(i, swerves[i]);
+      modArr[i] = new SwerveModule(i, swerves[i], !SwerveDeviceConfigurator.parallel);
+    }
+    if (SwerveDeviceConfigurator.parallel)
+    {
+      SwerveDeviceConfigurator.configure(modArr);
     }
     return modArr;
   }
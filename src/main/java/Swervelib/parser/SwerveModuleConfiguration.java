@@ -1,7 +1,9 @@
 package Swervelib.parser;
 
 import Swervelib.encoders.SwerveAbsoluteEncoder;
+import Swervelib.motors.StatusFrameProfile;
 import Swervelib.motors.SwerveMotors;
+import Swervelib.telemetry.SwerveDriveTelemetry;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Translation2d;
 
@@ -43,6 +45,18 @@ public class SwerveModuleConfiguration
    * Angle volt-meter-per-second.
    */
   public       double                              angleKV;
+  /**
+   * Drive motor position conversion factor in meters per rotation.
+   */
+  public final double                              drivePositionConversion;
+  /**
+   * Angle motor position conversion factor in degrees per rotation.
+   */
+  public final double                              anglePositionConversion;
+  /**
+   * Drive motor feedforward kA in volt seconds squared per meter.
+   */
+  public final double                              driveKA;
   /**
    * The integrated encoder pulse per revolution.
    */
@@ -59,6 +73,25 @@ public class SwerveModuleConfiguration
    * The drive motor and angle motor of this swerve module.
    */
   public       SwerveMotors                         driveMotor, angleMotor;
+  /**
+   * CAN status frame periods of the drive and angle motors.
+   */
+  public       StatusFrameProfile                  statusFrameProfile                  = StatusFrameProfile.MATCH;
+  /**
+   * Whether the module is simulated by {@link Swervelib.simulation.SwerveModuleSimulation} instead of read from its
+   * motors, set by the {@link SwerveDriveConfiguration} the module is part of.
+   */
+  public       boolean                             simulated                           = SwerveDriveTelemetry.isSimulation;
+  /**
+   * Key the drive motor {@link ConfigurationFingerprints} are stored under, identifying the motor controller by CAN bus
+   * and ID, null to always reset and write the configuration, such as for virtual devices which have no flash.
+   */
+  public       String                              driveFingerprintKey                 = null;
+  /**
+   * Key the angle motor {@link ConfigurationFingerprints} are stored under, identifying the motor controller by CAN bus
+   * and ID, null to always reset and write the configuration.
+   */
+  public       String                              angleFingerprintKey                 = null;
   /**
    * The Absolute Encoder for the swerve module.
    */
@@ -99,6 +132,55 @@ public class SwerveModuleConfiguration
       boolean angleMotorInverted,
       double angleMotorEncoderPulsePerRevolution,
       double angleMotorFreeSpeedRPM)
+  {
+    this(
+        driveMotor,
+        angleMotor,
+        absoluteEncoder,
+        angleOffset,
+        anglePIDF,
+        velocityPIDF,
+        maxSpeed,
+        physicalCharacteristics,
+        absoluteEncoderInverted,
+        driveMotorInverted,
+        angleMotorInverted,
+        ResolvedSwerveModule.resolve(xMeters,
+                                     yMeters,
+                                     physicalCharacteristics,
+                                     angleMotorEncoderPulsePerRevolution,
+                                     angleMotorFreeSpeedRPM));
+  }
+
+  /**
+   * Construct a configuration object for swerve modules from values resolved ahead of time, deriving nothing.
+   *
+   * @param driveMotor              Drive {@link SwerveMotor}.
+   * @param angleMotor              Angle {@link SwerveMotor}
+   * @param absoluteEncoder         Absolute encoder {@link SwerveAbsoluteEncoder}.
+   * @param angleOffset             Absolute angle offset to 0.
+   * @param anglePIDF               Angle PIDF configuration.
+   * @param velocityPIDF            Velocity PIDF configuration.
+   * @param maxSpeed                Maximum speed in meters per second.
+   * @param physicalCharacteristics Physical characteristics of the swerve module.
+   * @param absoluteEncoderInverted Absolute encoder inverted.
+   * @param driveMotorInverted      Drive motor inverted.
+   * @param angleMotorInverted      State of inversion of the angle motor.
+   * @param resolved                Location, kV and conversion factors of the module.
+   */
+  public SwerveModuleConfiguration(
+      SwerveMotors driveMotor,
+      SwerveMotors angleMotor,
+      SwerveAbsoluteEncoder absoluteEncoder,
+      double angleOffset,
+      PIDFConfig anglePIDF,
+      PIDFConfig velocityPIDF,
+      double maxSpeed,
+      SwerveModulePhysicalCharacter physicalCharacteristics,
+      boolean absoluteEncoderInverted,
+      boolean driveMotorInverted,
+      boolean angleMotorInverted,
+      ResolvedSwerveModule resolved)
   {
     this.driveMotor = driveMotor;
     this.angleMotor = angleMotor;
@@ -107,21 +189,16 @@ public class SwerveModuleConfiguration
     this.absoluteEncoderInverted = absoluteEncoderInverted;
     this.driveMotorInverted = driveMotorInverted;
     this.angleMotorInverted = angleMotorInverted;
-    this.moduleLocation = new Translation2d(xMeters, yMeters);
+    this.moduleLocation = new Translation2d(resolved.xMeters, resolved.yMeters);
     this.anglePIDF = anglePIDF;
     this.velocityPIDF = velocityPIDF;
     this.maxSpeed = maxSpeed;
-    this.angleKV = physicalCharacteristics.angleMotorKV == 0 ?
-                   calculateAngleKV(
-                       physicalCharacteristics.optimalVoltage,
-                       angleMotorFreeSpeedRPM,
-                       physicalCharacteristics.angleGearRatio) : physicalCharacteristics.angleMotorKV;
+    this.angleKV = resolved.angleKV;
     this.physicalCharacteristics = physicalCharacteristics;
-    this.angleMotorEncoderPulsePerRevolution = angleMotorEncoderPulsePerRevolution;
-  }
-
-  private double calculateAngleKV(double optimalVoltage, double angleMotorFreeSpeedRPM, double angleGearRatio) {
-    return 0;
+    this.angleMotorEncoderPulsePerRevolution = resolved.angleMotorEncoderPulsePerRevolution;
+    this.drivePositionConversion = resolved.drivePositionConversion;
+    this.anglePositionConversion = resolved.anglePositionConversion;
+    this.driveKA = resolved.driveKA;
   }
 
   /**
@@ -178,15 +255,7 @@ public class SwerveModuleConfiguration
   {
     double kv = physicalCharacteristics.optimalVoltage / maxSpeed;
     /// ^ Volt-seconds per meter (max voltage divided by max speed)
-    double ka =
-        physicalCharacteristics.optimalVoltage
-        / calculateMaxAcceleration(physicalCharacteristics.wheelGripCoefficientOfFriction);
-    /// ^ Volt-seconds^2 per meter (max voltage divided by max accel)
-    return new SimpleMotorFeedforward(0, kv, ka);
-  }
-
-  private double calculateMaxAcceleration(double wheelGripCoefficientOfFriction) {
-    return 0;
+    return new SimpleMotorFeedforward(0, kv, driveKA);
   }
 
   /**
@@ -197,23 +266,6 @@ public class SwerveModuleConfiguration
    */
   public double getPositionEncoderConversion(boolean isDriveMotor)
   {
-    return isDriveMotor
-           ? calculateMetersPerRotation(
-        physicalCharacteristics.wheelDiameter,
-        physicalCharacteristics.driveGearRatio,
-        angleMotorEncoderPulsePerRevolution)
-           : calculateDegreesPerSteeringRotation(
-               physicalCharacteristics.angleGearRatio,
-               angleMotorEncoderPulsePerRevolution);
-  }
-
-  private double calculateDegreesPerSteeringRotation(double angleGearRatio,
-      double angleMotorEncoderPulsePerRevolution2) {
-    return 0;
-  }
-
-  private double calculateMetersPerRotation(double wheelDiameter, double driveGearRatio,
-      double angleMotorEncoderPulsePerRevolution2) {
-    return 0;
+    return isDriveMotor ? drivePositionConversion : anglePositionConversion;
   }
 }
@@ -1,6 +1,8 @@
 package Swervelib.parser;
 
-public class SwerveModulePhysicalCharacter
+import java.io.Serializable;
+
+public class SwerveModulePhysicalCharacter implements Serializable
 {
 
   /**
@@ -1,20 +1,41 @@
 package Swervelib.parser;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import Swervelib.SwerveDrive;
 import Swervelib.SwerveModule;
+import Swervelib.imu.VirtualIMUSwerve;
 import Swervelib.parser.json.ControllerPropertiesJson;
 import Swervelib.parser.json.ModuleJson;
 import Swervelib.parser.json.PIDFPropertiesJson;
 import Swervelib.parser.json.PhysicalPropertiesJson;
 import Swervelib.parser.json.SwerveDriveJson;
-import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.DriverStation;
 
 /**
  * Helper class used to parse the JSON directory with specified configuration options.
@@ -22,66 +43,297 @@ import edu.wpi.first.math.util.Units;
 public class SwerveParser
 {
 
+  /**
+   * Name of the compiled configuration file, loaded from the configuration directory instead of the JSON.
+   */
+  public static final  String                      COMPILED_FILE = "swerve.compiled";
+  /**
+   * Mapper shared by every JSON file read.
+   */
+  private static final ObjectMapper                mapper        = new ObjectMapper();
+  /**
+   * Readers of each JSON file type, holding their deserializers.
+   */
+  private static final Map<Class<?>, ObjectReader> readers       = new ConcurrentHashMap<>();
+  /**
+   * Maximum number of JSON files read at once.
+   */
+  public static        int                         threads       = 4;
   /**
    * Module number mapped to the JSON name.
    */
-  private static final HashMap<String, Integer> moduleConfigs = new HashMap<>();
+  private static final HashMap<String, Integer>    moduleConfigs = new HashMap<>();
   /**
    * Parsed swervedrive.json
    */
-  public static        SwerveDriveJson          swerveDriveJson;
+  public static        SwerveDriveJson             swerveDriveJson;
   /**
    * Parsed controllerproperties.json
    */
-  public static        ControllerPropertiesJson controllerPropertiesJson;
+  public static        ControllerPropertiesJson    controllerPropertiesJson;
   /**
    * Parsed modules/pidfproperties.json
    */
-  public static        PIDFPropertiesJson       pidfPropertiesJson;
+  public static        PIDFPropertiesJson          pidfPropertiesJson;
   /**
    * Parsed modules/physicalproperties.json
    */
-  public static        PhysicalPropertiesJson   physicalPropertiesJson;
+  public static        PhysicalPropertiesJson      physicalPropertiesJson;
   /**
    * Array holding the module jsons given in {@link SwerveDriveJson}.
    */
-  public static        ModuleJson[]             moduleJsons;
+  public static        ModuleJson[]                moduleJsons;
+  /**
+   * Parsed configuration with the values derived from it.
+   */
+  private final        CompiledSwerveConfiguration configuration;
 
   /**
-   * Construct a swerve parser. Will throw an error if there is a missing file.
+   * Construct a swerve parser. Loads the compiled configuration from {@link #COMPILED_FILE} when it exists and was
+   * compiled from the current JSON, otherwise parses the JSON. Will throw an error if there is a missing file.
    *
    * @param directory Directory with swerve configurations.
-   * @throws IOException if a file doesn't exist.
+   * @throws IOException              if a file doesn't exist.
+   * @throws IllegalArgumentException if the configuration is invalid.
    */
   public SwerveParser(File directory) throws IOException
   {
     checkDirectory(directory);
-    swerveDriveJson =
-        new ObjectMapper()
-            .readValue(new File(directory, "swervedrive.json"), SwerveDriveJson.class);
-    controllerPropertiesJson =
-        new ObjectMapper()
-            .readValue(
-                new File(directory, "controllerproperties.json"), ControllerPropertiesJson.class);
-    pidfPropertiesJson =
-        new ObjectMapper()
-            .readValue(
-                new File(directory, "modules/pidfproperties.json"), PIDFPropertiesJson.class);
-    physicalPropertiesJson =
-        new ObjectMapper()
-            .readValue(
-                new File(directory, "modules/physicalproperties.json"),
-                PhysicalPropertiesJson.class);
-    moduleJsons = new ModuleJson[swerveDriveJson.modules.length];
+    CompiledSwerveConfiguration compiled = load(directory, new File(directory, COMPILED_FILE));
+    configuration = compiled == null ? parse(directory) : compiled;
+    swerveDriveJson = configuration.swerveDriveJson;
+    controllerPropertiesJson = configuration.controllerPropertiesJson;
+    pidfPropertiesJson = configuration.pidfPropertiesJson;
+    physicalPropertiesJson = configuration.physicalPropertiesJson;
+    moduleJsons = configuration.moduleJsons;
+    moduleConfigs.clear();
     for (int i = 0; i < moduleJsons.length; i++)
     {
       moduleConfigs.put(swerveDriveJson.modules[i], i);
-      File moduleFile = new File(directory, "modules/" + swerveDriveJson.modules[i]);
-      assert moduleFile.exists();
-      moduleJsons[i] = new ObjectMapper().readValue(moduleFile, ModuleJson.class);
     }
   }
 
+  /**
+   * Build the deserializer of every JSON file type on the shared mapper, so the class introspection Jackson does on
+   * first use is done once. Called by the parser, and can be called early on another thread to overlap it with the
+   * rest of robot startup.
+   */
+  public static void warmUp()
+  {
+    reader(SwerveDriveJson.class);
+    reader(ControllerPropertiesJson.class);
+    reader(PIDFPropertiesJson.class);
+    reader(PhysicalPropertiesJson.class);
+    reader(ModuleJson.class);
+  }
+
+  /**
+   * Get the reader of a JSON file type from the shared mapper, building its deserializer the first time.
+   *
+   * @param type JSON file type.
+   * @return {@link ObjectReader} for the type.
+   */
+  private static ObjectReader reader(Class<?> type)
+  {
+    return readers.computeIfAbsent(type, mapper::readerFor);
+  }
+
+  /**
+   * Parse every JSON file of a configuration directory, reading the files concurrently on up to {@link #threads}
+   * threads.
+   *
+   * @param directory Directory with swerve configurations.
+   * @return {@link CompiledSwerveConfiguration} of the parsed files, validated and resolved.
+   * @throws IOException              if a file doesn't exist or can't be parsed.
+   * @throws IllegalArgumentException if the configuration is invalid.
+   */
+  private static CompiledSwerveConfiguration parse(File directory) throws IOException
+  {
+    checkDirectory(directory);
+    warmUp();
+    ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+      Thread thread = new Thread(runnable, "SwerveParser");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try
+    {
+      Future<SwerveDriveJson> swerveDrive =
+          read(executor, new File(directory, "swervedrive.json"), SwerveDriveJson.class);
+      Future<ControllerPropertiesJson> controllerProperties =
+          read(executor, new File(directory, "controllerproperties.json"), ControllerPropertiesJson.class);
+      Future<PIDFPropertiesJson> pidfProperties =
+          read(executor, new File(directory, "modules/pidfproperties.json"), PIDFPropertiesJson.class);
+      Future<PhysicalPropertiesJson> physicalProperties =
+          read(executor, new File(directory, "modules/physicalproperties.json"), PhysicalPropertiesJson.class);
+
+      SwerveDriveJson          swerveDriveJson = get(swerveDrive);
+      List<Future<ModuleJson>> modules         = new ArrayList<>();
+      if (swerveDriveJson.modules == null)
+      {
+        throw new IllegalArgumentException("swervedrive.json is missing modules");
+      }
+      for (String module : swerveDriveJson.modules)
+      {
+        File moduleFile = new File(directory, "modules/" + module);
+        if (!moduleFile.isFile())
+        {
+          throw new FileNotFoundException("Swerve module file " + moduleFile + " is missing");
+        }
+        modules.add(read(executor, moduleFile, ModuleJson.class));
+      }
+      ModuleJson[] moduleJsons = new ModuleJson[modules.size()];
+      for (int i = 0; i < moduleJsons.length; i++)
+      {
+        moduleJsons[i] = get(modules.get(i));
+      }
+      return new CompiledSwerveConfiguration(fingerprint(directory, swerveDriveJson.modules),
+                                             swerveDriveJson,
+                                             get(controllerProperties),
+                                             get(pidfProperties),
+                                             get(physicalProperties),
+                                             moduleJsons);
+    } finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Read a JSON file on the executor.
+   *
+   * @param executor Executor to read the file on.
+   * @param file     JSON file.
+   * @param type     Type the file is parsed into.
+   * @param <T>      Type the file is parsed into.
+   * @return {@link Future} of the parsed file.
+   */
+  private static <T> Future<T> read(ExecutorService executor, File file, Class<T> type)
+  {
+    ObjectReader reader = reader(type);
+    return executor.submit(() -> reader.readValue(file));
+  }
+
+  /**
+   * Wait for a file read on the executor.
+   *
+   * @param future Future of the parsed file.
+   * @param <T>    Type the file is parsed into.
+   * @return The parsed file.
+   * @throws IOException if the file doesn't exist or can't be parsed.
+   */
+  private static <T> T get(Future<T> future) throws IOException
+  {
+    try
+    {
+      return future.get();
+    } catch (ExecutionException e)
+    {
+      if (e.getCause() instanceof IOException)
+      {
+        throw (IOException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    } catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new IOException("Swerve configuration parsing interrupted", e);
+    }
+  }
+
+  /**
+   * Fingerprint the contents of every JSON file of a configuration directory.
+   *
+   * @param directory Directory with swerve configurations.
+   * @param modules   Module JSON file names given in swervedrive.json.
+   * @return Fingerprint of the files.
+   * @throws IOException if a file can't be read.
+   */
+  private static String fingerprint(File directory, String[] modules) throws IOException
+  {
+    List<String> files = new ArrayList<>(List.of("swervedrive.json",
+                                                 "controllerproperties.json",
+                                                 "modules/pidfproperties.json",
+                                                 "modules/physicalproperties.json"));
+    for (String module : modules)
+    {
+      files.add("modules/" + module);
+    }
+    CRC32 crc = new CRC32();
+    for (String file : files)
+    {
+      crc.update(file.getBytes(StandardCharsets.UTF_8));
+      crc.update(Files.readAllBytes(new File(directory, file).toPath()));
+    }
+    return Long.toHexString(crc.getValue());
+  }
+
+  /**
+   * Load a compiled configuration if it was compiled from the current JSON.
+   *
+   * @param directory Directory with swerve configurations.
+   * @param compiled  Compiled configuration file.
+   * @return {@link CompiledSwerveConfiguration} loaded, null if the file does not exist, can't be loaded or is stale.
+   */
+  static CompiledSwerveConfiguration load(File directory, File compiled)
+  {
+    if (!compiled.exists())
+    {
+      return null;
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(compiled))))
+    {
+      in.setObjectInputFilter(ObjectInputFilter.Config.createFilter("Swervelib.parser.**;java.lang.String;!*"));
+      CompiledSwerveConfiguration configuration = (CompiledSwerveConfiguration) in.readObject();
+      if (!configuration.fingerprint.equals(fingerprint(directory, configuration.swerveDriveJson.modules)))
+      {
+        DriverStation.reportWarning(compiled + " is stale, parsing the swerve JSON instead", false);
+        return null;
+      }
+      return configuration;
+    } catch (IOException | ClassNotFoundException | ClassCastException e)
+    {
+      DriverStation.reportWarning(compiled + " could not be loaded, parsing the swerve JSON instead: " + e,
+                                  e.getStackTrace());
+      return null;
+    }
+  }
+
+  /**
+   * Parse and validate a configuration directory, resolve the values derived from it and write it to a file the
+   * parser loads instead of the JSON, run at build time by the compileSwerveConfig Gradle task so the robot neither
+   * starts Jackson nor derives anything at boot. The file is only loaded while the JSON is unchanged.
+   *
+   * @param directory Directory with swerve configurations.
+   * @param output    File to write, {@link #COMPILED_FILE} in the configuration directory as deployed.
+   * @throws IOException              if a file can't be read, parsed or written.
+   * @throws IllegalArgumentException if the configuration is invalid.
+   */
+  public static void compile(File directory, File output) throws IOException
+  {
+    CompiledSwerveConfiguration configuration = parse(directory);
+    output.getAbsoluteFile().getParentFile().mkdirs();
+    try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(output))))
+    {
+      out.writeObject(configuration);
+    }
+  }
+
+  /**
+   * Compile a swerve configuration directory, see {@link #compile(File, File)}.
+   *
+   * @param args Configuration directory and output file.
+   * @throws IOException if a file can't be read, parsed or written.
+   */
+  public static void main(String[] args) throws IOException
+  {
+    if (args.length != 2)
+    {
+      throw new IllegalArgumentException("Usage: SwerveParser <swerve directory> <output file>");
+    }
+    compile(new File(args[0]), new File(args[1]));
+  }
+
   /**
    * Get the swerve module by the json name.
    *
@@ -105,7 +357,7 @@ public class SwerveParser
   {
     try
     {
-      return new ObjectMapper().readTree(file);
+      return mapper.readTree(file);
     } catch (IOException e)
     {
       throw new RuntimeException(e);
@@ -116,24 +368,28 @@ public class SwerveParser
    * Check directory structure.
    *
    * @param directory JSON Configuration Directory
+   * @throws FileNotFoundException if a file is missing.
    */
-  private void checkDirectory(File directory)
+  private static void checkDirectory(File directory) throws FileNotFoundException
   {
-    assert new File(directory, "swervedrive.json").exists();
-    assert new File(directory, "controllerproperties.json").exists();
-    assert new File(directory, "modules").exists() && new File(directory, "modules").isDirectory();
-    assert new File(directory, "modules/pidfproperties.json").exists();
-    assert new File(directory, "modules/physicalproperties.json").exists();
+    for (String file : new String[]{"swervedrive.json", "controllerproperties.json", "modules/pidfproperties.json",
+                                    "modules/physicalproperties.json"})
+    {
+      if (!new File(directory, file).isFile())
+      {
+        throw new FileNotFoundException("Swerve configuration file " + new File(directory, file) + " is missing");
+      }
+    }
   }
 
   /**
-   * Create {@link SwerveDrive} from JSON configuration directory.
+   * Create {@link SwerveDrive} from JSON configuration directory, using the values resolved when it was parsed or
+   * compiled.
    *
    * @return {@link SwerveDrive} instance.
    */
   public SwerveDrive createSwerveDrive()
   {
-    double maxSpeedMPS = Units.feetToMeters(swerveDriveJson.maxSpeed);
     SwerveModuleConfiguration[] moduleConfigurations =
         new SwerveModuleConfiguration[moduleJsons.length];
     for (int i = 0; i < moduleConfigurations.length; i++)
@@ -143,18 +399,56 @@ public class SwerveParser
           module.createModuleConfiguration(
               pidfPropertiesJson.angle,
               pidfPropertiesJson.drive,
-              maxSpeedMPS,
-              physicalPropertiesJson.createPhysicalProperties(swerveDriveJson.optimalVoltage));
+              configuration.maxSpeed,
+              configuration.physicalCharacteristics,
+              configuration.modules[i]);
     }
     SwerveDriveConfiguration swerveDriveConfiguration =
         new SwerveDriveConfiguration(
             moduleConfigurations,
             swerveDriveJson.imu.createIMU(),
-            maxSpeedMPS,
+            configuration.maxSpeed,
             swerveDriveJson.invertedIMU);
 
     return new SwerveDrive(
         swerveDriveConfiguration,
-        controllerPropertiesJson.createControllerConfiguration(swerveDriveConfiguration));
+        controllerPropertiesJson.createControllerConfiguration(swerveDriveConfiguration,
+                                                               configuration.maxAngularVelocity));
+  }
+
+  /**
+   * Create a {@link SwerveDrive} with the geometry, gearing and gains this parser read, but every device replaced by a
+   * virtual one and not simulated, for running in a {@link Swervelib.simulation.SwerveSimulationEngine}. Reads only
+   * what this parser read and changes nothing static, so virtual drives can be created on many threads at once,
+   * alongside drives of real devices.
+   *
+   * @return {@link SwerveDrive} of {@link Swervelib.motors.VirtualMotorSwerve} motors and a {@link VirtualIMUSwerve}.
+   */
+  public SwerveDrive createVirtualSwerveDrive()
+  {
+    SwerveModuleConfiguration[] moduleConfigurations =
+        new SwerveModuleConfiguration[configuration.moduleJsons.length];
+    for (int i = 0; i < moduleConfigurations.length; i++)
+    {
+      moduleConfigurations[i] =
+          configuration.moduleJsons[i].createVirtualModuleConfiguration(
+              configuration.pidfPropertiesJson.angle,
+              configuration.pidfPropertiesJson.drive,
+              configuration.maxSpeed,
+              configuration.physicalCharacteristics,
+              configuration.modules[i]);
+    }
+    SwerveDriveConfiguration swerveDriveConfiguration =
+        new SwerveDriveConfiguration(
+            moduleConfigurations,
+            new VirtualIMUSwerve(),
+            configuration.maxSpeed,
+            configuration.swerveDriveJson.invertedIMU,
+            false);
+
+    return new SwerveDrive(
+        swerveDriveConfiguration,
+        configuration.controllerPropertiesJson.createControllerConfiguration(swerveDriveConfiguration,
+                                                                             configuration.maxAngularVelocity));
   }
 }
\ No newline at end of file
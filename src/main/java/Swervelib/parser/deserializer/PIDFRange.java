@@ -1,6 +1,8 @@
 package Swervelib.parser.deserializer;
 
-public class PIDFRange
+import java.io.Serializable;
+
+public class PIDFRange implements Serializable
 {
 
   /**
@@ -1,5 +1,6 @@
 package Swervelib.parser.json;
 
+import java.io.Serializable;
 
 import Swervelib.parser.PIDFConfig;
 import Swervelib.parser.SwerveControllerConfiguration;
@@ -8,7 +9,7 @@ import Swervelib.parser.SwerveDriveConfiguration;
 /**
  * {@link swervelib.SwerveController} parsed class. Used to access the JSON data.
  */
-public class ControllerPropertiesJson
+public class ControllerPropertiesJson implements Serializable
 {
 
   /**
@@ -32,4 +33,18 @@ public class ControllerPropertiesJson
     return new SwerveControllerConfiguration(
         driveConfiguration, heading, angleJoystickRadiusDeadband);
   }
+
+  /**
+   * Create the {@link SwerveControllerConfiguration} with a maximum angular velocity resolved ahead of time.
+   *
+   * @param driveConfiguration {@link SwerveDriveConfiguration} parsed configuration.
+   * @param maxAngularVelocity Maximum angular velocity in rad/s.
+   * @return {@link SwerveControllerConfiguration} object based on parsed data.
+   */
+  public SwerveControllerConfiguration createControllerConfiguration(
+      SwerveDriveConfiguration driveConfiguration, double maxAngularVelocity)
+  {
+    return new SwerveControllerConfiguration(
+        driveConfiguration, heading, angleJoystickRadiusDeadband, maxAngularVelocity);
+  }
 }
@@ -1,18 +1,25 @@
 package Swervelib.parser.json;
 
+import java.io.Serializable;
+
 import Swervelib.encoders.SwerveAbsoluteEncoder;
+import Swervelib.encoders.VirtualEncoderSwerve;
+import Swervelib.motors.StatusFrameProfile;
 import Swervelib.motors.SwerveMotors;
+import Swervelib.motors.VirtualMotorSwerve;
 import Swervelib.parser.PIDFConfig;
+import Swervelib.parser.ResolvedSwerveModule;
 import Swervelib.parser.SwerveModuleConfiguration;
 import Swervelib.parser.SwerveModulePhysicalCharacter;
 import Swervelib.parser.json.modules.BoolMotorJson;
 import Swervelib.parser.json.modules.LocationJson;
+import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.util.Units;
 
 /**
  * {@link swervelib.SwerveModule} JSON parsed class. Used to access the JSON data.
  */
-public class ModuleJson
+public class ModuleJson implements Serializable
 {
 
   /**
@@ -51,6 +58,40 @@ public class ModuleJson
    * The location of the swerve module from the center of the robot in inches.
    */
   public LocationJson  location;
+  /**
+   * CAN status frame profile of the drive and angle motors, one of "match", "odometry-hi-rate", "disabled-low-bus" or
+   * "characterization".
+   */
+  public String        statusFrames                   = "match";
+
+  /**
+   * Get the location of the module from the center of the robot.
+   *
+   * @return Location in meters, front and left positive.
+   */
+  public Translation2d getLocationMeters()
+  {
+    return new Translation2d(Units.inchesToMeters(Math.round(location.x) == 0 ? location.front : location.x),
+                             Units.inchesToMeters(Math.round(location.y) == 0 ? location.left : location.y));
+  }
+
+  /**
+   * Derive the location, angle kV and conversion factors of the module.
+   *
+   * @param physicalCharacteristics Physical characteristics of the swerve module.
+   * @return {@link ResolvedSwerveModule} of the derived values.
+   */
+  public ResolvedSwerveModule resolve(SwerveModulePhysicalCharacter physicalCharacteristics)
+  {
+    Translation2d locationMeters = getLocationMeters();
+    return ResolvedSwerveModule.resolve(
+        locationMeters.getX(),
+        locationMeters.getY(),
+        physicalCharacteristics,
+        angleEncoderPulsePerRevolution == 0 ? physicalCharacteristics.angleEncoderPulsePerRotation
+                                            : angleEncoderPulsePerRevolution,
+        angleMotorFreeSpeedRPM == 0 ? physicalCharacteristics.angleMotorFreeSpeedRPM : angleMotorFreeSpeedRPM);
+  }
 
   /**
    * Create the swerve module configuration based off of parsed data.
@@ -66,6 +107,30 @@ public class ModuleJson
       PIDFConfig velocityPIDF,
       double maxSpeed,
       SwerveModulePhysicalCharacter physicalCharacteristics)
+  {
+    return createModuleConfiguration(anglePIDF,
+                                     velocityPIDF,
+                                     maxSpeed,
+                                     physicalCharacteristics,
+                                     resolve(physicalCharacteristics));
+  }
+
+  /**
+   * Create the swerve module configuration based off of parsed data and values resolved ahead of time.
+   *
+   * @param anglePIDF               The PIDF values for the angle motor.
+   * @param velocityPIDF            The velocity PIDF values for the drive motor.
+   * @param maxSpeed                The maximum speed of the robot in meters per second.
+   * @param physicalCharacteristics Physical characteristics of the swerve module.
+   * @param resolved                Location, kV and conversion factors from {@link #resolve}.
+   * @return {@link SwerveModuleConfiguration} based on the provided data and parsed data.
+   */
+  public SwerveModuleConfiguration createModuleConfiguration(
+      PIDFConfig anglePIDF,
+      PIDFConfig velocityPIDF,
+      double maxSpeed,
+      SwerveModulePhysicalCharacter physicalCharacteristics,
+      ResolvedSwerveModule resolved)
   {
     SwerveMotors           angleMotor = angle.createMotor(false);
     SwerveAbsoluteEncoder absEncoder = encoder.createEncoder();
@@ -76,14 +141,17 @@ public class ModuleJson
       absEncoder = angle.createIntegratedEncoder(angleMotor);
       angleMotor.setAbsoluteEncoder(absEncoder);
     }
+    // A virtual absolute encoder reads the virtual angle motor it is mounted with.
+    if (absEncoder instanceof VirtualEncoderSwerve && angleMotor instanceof VirtualMotorSwerve)
+    {
+      ((VirtualEncoderSwerve) absEncoder).follow((VirtualMotorSwerve) angleMotor, absoluteEncoderOffset);
+    }
 
-    return new SwerveModuleConfiguration(
+    SwerveModuleConfiguration configuration = new SwerveModuleConfiguration(
         drive.createMotor(true),
         angleMotor,
         absEncoder,
         absoluteEncoderOffset,
-        Units.inchesToMeters(Math.round(location.x) == 0 ? location.front : location.x),
-        Units.inchesToMeters(Math.round(location.y) == 0 ? location.left : location.y),
         anglePIDF,
         velocityPIDF,
         maxSpeed,
@@ -91,8 +159,51 @@ public class ModuleJson
         absoluteEncoderInverted,
         inverted.drive,
         inverted.angle,
-        angleEncoderPulsePerRevolution == 0 ? physicalCharacteristics.angleEncoderPulsePerRotation
-                                            : angleEncoderPulsePerRevolution,
-        angleMotorFreeSpeedRPM == 0 ? physicalCharacteristics.angleMotorFreeSpeedRPM : angleMotorFreeSpeedRPM);
+        resolved);
+    configuration.statusFrameProfile = StatusFrameProfile.fromName(statusFrames);
+    configuration.driveFingerprintKey = drive.getFingerprintKey();
+    configuration.angleFingerprintKey = angle.getFingerprintKey();
+    return configuration;
+  }
+
+  /**
+   * Create the configuration of a virtual copy of the module, with the parsed gearing, gains, inversion and offset but
+   * {@link VirtualMotorSwerve} motors and a {@link VirtualEncoderSwerve} absolute encoder in place of the configured
+   * devices. The parsed device types are left as they are, and the virtual devices use no
+   * {@link Swervelib.parser.ConfigurationFingerprints}.
+   *
+   * @param anglePIDF               The PIDF values for the angle motor.
+   * @param velocityPIDF            The velocity PIDF values for the drive motor.
+   * @param maxSpeed                The maximum speed of the robot in meters per second.
+   * @param physicalCharacteristics Physical characteristics of the swerve module.
+   * @param resolved                Location, kV and conversion factors from {@link #resolve}.
+   * @return {@link SwerveModuleConfiguration} of virtual devices.
+   */
+  public SwerveModuleConfiguration createVirtualModuleConfiguration(
+      PIDFConfig anglePIDF,
+      PIDFConfig velocityPIDF,
+      double maxSpeed,
+      SwerveModulePhysicalCharacter physicalCharacteristics,
+      ResolvedSwerveModule resolved)
+  {
+    VirtualMotorSwerve   angleMotor = new VirtualMotorSwerve(false);
+    VirtualEncoderSwerve absEncoder = new VirtualEncoderSwerve(encoder.id, encoder.noise);
+    absEncoder.follow(angleMotor, absoluteEncoderOffset);
+
+    SwerveModuleConfiguration configuration = new SwerveModuleConfiguration(
+        new VirtualMotorSwerve(true),
+        angleMotor,
+        absEncoder,
+        absoluteEncoderOffset,
+        anglePIDF,
+        velocityPIDF,
+        maxSpeed,
+        physicalCharacteristics,
+        absoluteEncoderInverted,
+        inverted.drive,
+        inverted.angle,
+        resolved);
+    configuration.statusFrameProfile = StatusFrameProfile.fromName(statusFrames);
+    return configuration;
   }
 }
@@ -1,11 +1,13 @@
 package Swervelib.parser.json;
 
+import java.io.Serializable;
+
 import Swervelib.parser.PIDFConfig;
 
 /**
  * {@link swervelib.SwerveModule} PID with Feedforward for the drive motor and angle motor.
  */
-public class PIDFPropertiesJson
+public class PIDFPropertiesJson implements Serializable
 {
 
   /**
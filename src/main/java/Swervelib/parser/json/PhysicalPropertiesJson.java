@@ -1,12 +1,14 @@
 package Swervelib.parser.json;
 
+import java.io.Serializable;
+
 import Swervelib.parser.SwerveModulePhysicalCharacter;
 import edu.wpi.first.math.util.Units;
 
 /**
  * {@link swervelib.parser.SwerveModulePhysicalCharacteristics} parsed data. Used to configure the SwerveModule.
  */
-public class PhysicalPropertiesJson
+public class PhysicalPropertiesJson implements Serializable
 {
 
   /**
@@ -72,7 +74,7 @@ public class PhysicalPropertiesJson
 /**
  * Used to store doubles for motor configuration.
  */
-class MotorConfigDouble
+class MotorConfigDouble implements Serializable
 {
 
   /**
@@ -107,7 +109,7 @@ class MotorConfigDouble
 /**
  * Used to store ints for motor configuration.
  */
-class MotorConfigInt
+class MotorConfigInt implements Serializable
 {
 
   /**
@@ -1,6 +1,8 @@
 package Swervelib.parser.json;
 
-public class SwerveDriveJson
+import java.io.Serializable;
+
+public class SwerveDriveJson implements Serializable
 {
 
   /**
@@ -1,6 +1,8 @@
 package Swervelib.parser.json.modules;
 
-public class BoolMotorJson
+import java.io.Serializable;
+
+public class BoolMotorJson implements Serializable
 {
 
   /**
@@ -1,6 +1,8 @@
 package Swervelib.parser.json.modules;
 
-public class LocationJson
+import java.io.Serializable;
+
+public class LocationJson implements Serializable
 {
 
   /**
@@ -0,0 +1,91 @@
+package Swervelib.simulation;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Fixed step clock for deterministic simulation. Time only moves when {@link #advance()} is called and is counted in
+ * whole steps, so it does not drift with floating point error however long the simulation runs.
+ */
+public class SimulatedClock implements DoubleSupplier
+{
+
+  /**
+   * Length of a step in seconds.
+   */
+  private final double step;
+  /**
+   * Number of steps taken.
+   */
+  private       long   ticks = 0;
+
+  /**
+   * Create a simulated clock at time 0.
+   *
+   * @param step Length of a step in seconds.
+   */
+  public SimulatedClock(double step)
+  {
+    if (!(step > 0))
+    {
+      throw new IllegalArgumentException("Simulation step must be positive, got " + step);
+    }
+    this.step = step;
+  }
+
+  /**
+   * Advance the clock by one step.
+   */
+  public void advance()
+  {
+    ticks++;
+  }
+
+  /**
+   * Get the current time.
+   *
+   * @return Time since the clock was created or reset in seconds.
+   */
+  public double getTime()
+  {
+    return ticks * step;
+  }
+
+  /**
+   * Get the current time, so the clock can be given to devices as their time source.
+   *
+   * @return Time in seconds.
+   */
+  @Override
+  public double getAsDouble()
+  {
+    return getTime();
+  }
+
+  /**
+   * Get the length of a step.
+   *
+   * @return Step in seconds.
+   */
+  public double getStep()
+  {
+    return step;
+  }
+
+  /**
+   * Get the number of steps taken.
+   *
+   * @return Steps since the clock was created or reset.
+   */
+  public long getTicks()
+  {
+    return ticks;
+  }
+
+  /**
+   * Reset the clock to time 0.
+   */
+  public void reset()
+  {
+    ticks = 0;
+  }
+}
@@ -0,0 +1,415 @@
+package Swervelib.simulation;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import Swervelib.SwerveDrive;
+import Swervelib.SwerveModule;
+import Swervelib.motors.SwerveMotors;
+import Swervelib.motors.VirtualMotorSwerve;
+import Swervelib.parser.PIDFConfig;
+import Swervelib.parser.SwerveParser;
+import Swervelib.telemetry.SwerveDriveTelemetry;
+import Swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+
+/**
+ * Headless runner simulating many swerve drive configurations against one {@link SwerveInputTrace} across every core.
+ * Each case builds its own {@link SwerveDrive} with {@link SwerveParser#createVirtualSwerveDrive()}, applies its changes
+ * and runs in a {@link SwerveSimulationEngine} on its own simulated clock, scored by tracking error, settling time and
+ * peak current. Nothing static is changed per case, so cases don't share state while they run and the same case scores
+ * the same on every run. Set {@link SwerveDriveTelemetry#verbosity} to {@link TelemetryVerbosity#NONE} before running,
+ * as {@link #main(String[])} does, since the published telemetry is shared by every drive.
+ */
+public class SwerveBatchRunner
+{
+
+  /**
+   * Parser holding the JSON configuration.
+   */
+  private final SwerveParser     parser;
+  /**
+   * Input every case follows.
+   */
+  private final SwerveInputTrace trace;
+  /**
+   * Simulation step in seconds.
+   */
+  public        double           step              = 0.005;
+  /**
+   * Control loop period in seconds.
+   */
+  public        double           controlPeriod     = 0.02;
+  /**
+   * Velocity error in meters per second within which the drive counts as settled.
+   */
+  public        double           velocityTolerance = 0.1;
+  /**
+   * Heading error in degrees within which the drive counts as settled.
+   */
+  public        double           headingTolerance  = 2;
+  /**
+   * Number of cases simulated at once.
+   */
+  public        int              parallelism       = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Create a batch runner.
+   *
+   * @param directory Swerve JSON configuration directory.
+   * @param trace     Input every case follows.
+   * @throws IOException if a configuration file can't be read.
+   */
+  public SwerveBatchRunner(File directory, SwerveInputTrace trace) throws IOException
+  {
+    this.trace = trace;
+    parser = new SwerveParser(directory);
+  }
+
+  /**
+   * Simulate every case, spread across {@link #parallelism} threads.
+   *
+   * @param cases Cases to simulate.
+   * @return {@link Result} of every case, in the order given.
+   */
+  public List<Result> run(List<Case> cases)
+  {
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try
+    {
+      return pool.submit(() -> cases.parallelStream().map(this::simulate).collect(Collectors.toList())).get();
+    } catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e)
+    {
+      throw new RuntimeException(e.getCause());
+    } finally
+    {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Simulate one case.
+   *
+   * @param testCase Case to simulate.
+   * @return {@link Result} of the case.
+   */
+  public Result simulate(Case testCase)
+  {
+    SwerveDrive swerveDrive = parser.createVirtualSwerveDrive();
+    testCase.configure.accept(swerveDrive);
+    SwerveSimulationEngine engine = new SwerveSimulationEngine(swerveDrive, step);
+
+    List<VirtualMotorSwerve> motors = new ArrayList<>();
+    for (SwerveModule module : swerveDrive.getModules())
+    {
+      motors.add((VirtualMotorSwerve) module.getDriveMotor());
+      motors.add((VirtualMotorSwerve) module.getAngleMotor());
+    }
+
+    long   steps           = Math.round(trace.getDuration() / step);
+    long   controlSteps    = Math.max(1, Math.round(controlPeriod / step));
+    double velocitySquares = 0, headingSquares = 0, peakCurrent = 0, settlingTime = 0;
+    double segmentStart    = 0, settledAt = Double.NaN;
+    int    sample          = trace.getSampleIndex(0);
+    for (long i = 0; i < steps; i++)
+    {
+      double time  = engine.getTime();
+      int    index = trace.getSampleIndex(time);
+      if (index != sample)
+      {
+        settlingTime = Math.max(settlingTime, (Double.isNaN(settledAt) ? time : settledAt) - segmentStart);
+        sample = index;
+        segmentStart = time;
+        settledAt = Double.NaN;
+      }
+      if (i % controlSteps == 0)
+      {
+        double omega = swerveDrive.swerveController.headingCalculate(swerveDrive.getYaw().getRadians(),
+                                                                     Math.toRadians(trace.getHeading(sample)));
+        swerveDrive.drive(new Translation2d(trace.getVx(sample), trace.getVy(sample)), omega, true, false);
+        swerveDrive.updateOdometry();
+      }
+      engine.step();
+
+      Pose2d        pose          = engine.getPose();
+      ChassisSpeeds robotVelocity = engine.getRobotVelocity();
+      Translation2d velocity      = new Translation2d(robotVelocity.vxMetersPerSecond,
+                                                      robotVelocity.vyMetersPerSecond).rotateBy(pose.getRotation());
+      double        velocityError = Math.hypot(trace.getVx(sample) - velocity.getX(),
+                                               trace.getVy(sample) - velocity.getY());
+      double        headingError  = Math.abs(Math.IEEEremainder(trace.getHeading(sample) -
+                                                                pose.getRotation().getDegrees(), 360));
+      velocitySquares += velocityError * velocityError;
+      headingSquares += headingError * headingError;
+      if (velocityError <= velocityTolerance && headingError <= headingTolerance)
+      {
+        if (Double.isNaN(settledAt))
+        {
+          settledAt = engine.getTime();
+        }
+      } else
+      {
+        settledAt = Double.NaN;
+      }
+      for (VirtualMotorSwerve motor : motors)
+      {
+        peakCurrent = Math.max(peakCurrent, Math.abs(motor.getCurrent()));
+      }
+    }
+    settlingTime = Math.max(settlingTime,
+                            (Double.isNaN(settledAt) ? engine.getTime() : settledAt) - segmentStart);
+
+    return new Result(testCase.name,
+                      Math.sqrt(velocitySquares / Math.max(1, steps)),
+                      Math.sqrt(headingSquares / Math.max(1, steps)),
+                      settlingTime,
+                      peakCurrent,
+                      engine.getSlipTime(),
+                      swerveDrive.getPose().getTranslation().getDistance(engine.getPose().getTranslation()));
+  }
+
+  /**
+   * Create the change to a swerve drive for one value of a parameter. Gains are copied, as the parsed
+   * {@link PIDFConfig} is shared by every drive built from the parser.
+   *
+   * @param name  Parameter name, one of drive.p/i/d/f, angle.p/i/d/f, heading.p/i/d, driveRamp, angleRamp,
+   *              driveCurrentLimit or angleCurrentLimit.
+   * @param value Value of the parameter.
+   * @return Change applying the value to a {@link SwerveDrive}.
+   */
+  public static Consumer<SwerveDrive> parameter(String name, double value)
+  {
+    switch (name)
+    {
+      case "heading.p":
+        return drive -> drive.swerveController.thetaController.setP(value);
+      case "heading.i":
+        return drive -> drive.swerveController.thetaController.setI(value);
+      case "heading.d":
+        return drive -> drive.swerveController.thetaController.setD(value);
+      case "driveRamp":
+        return drive -> forEachMotor(drive, true, motor -> motor.setLoopRampRate(value));
+      case "angleRamp":
+        return drive -> forEachMotor(drive, false, motor -> motor.setLoopRampRate(value));
+      case "driveCurrentLimit":
+        return drive -> forEachMotor(drive, true, motor -> motor.setCurrentLimit((int) value));
+      case "angleCurrentLimit":
+        return drive -> forEachMotor(drive, false, motor -> motor.setCurrentLimit((int) value));
+    }
+    String[] parts = name.split("\\.");
+    if (parts.length == 2 && (parts[0].equals("drive") || parts[0].equals("angle")) &&
+        parts[1].length() == 1 && "pidf".contains(parts[1]))
+    {
+      boolean isDriveMotor = parts[0].equals("drive");
+      char    gain         = parts[1].charAt(0);
+      return drive ->
+      {
+        SwerveModule module = drive.getModules()[0];
+        PIDFConfig   pidf   = copy(isDriveMotor ? module.configuration.velocityPIDF : module.configuration.anglePIDF);
+        switch (gain)
+        {
+          case 'p':
+            pidf.p = value;
+            break;
+          case 'i':
+            pidf.i = value;
+            break;
+          case 'd':
+            pidf.d = value;
+            break;
+          default:
+            pidf.f = value;
+            break;
+        }
+        forEachMotor(drive, isDriveMotor, motor -> motor.configurePIDF(pidf));
+      };
+    }
+    throw new IllegalArgumentException("Unknown sweep parameter " + name);
+  }
+
+  /**
+   * Apply a change to the drive or angle motor of every module.
+   *
+   * @param drive        {@link SwerveDrive} to change.
+   * @param isDriveMotor Change the drive motors rather than the angle motors.
+   * @param change       Change to apply.
+   */
+  private static void forEachMotor(SwerveDrive drive, boolean isDriveMotor, Consumer<SwerveMotors> change)
+  {
+    for (SwerveModule module : drive.getModules())
+    {
+      change.accept(isDriveMotor ? module.getDriveMotor() : module.getAngleMotor());
+    }
+  }
+
+  /**
+   * Copy a PIDF configuration.
+   *
+   * @param config Configuration to copy.
+   * @return Copy of the configuration.
+   */
+  private static PIDFConfig copy(PIDFConfig config)
+  {
+    PIDFConfig copy = new PIDFConfig(config.p, config.i, config.d, config.f, config.iz);
+    copy.output.min = config.output.min;
+    copy.output.max = config.output.max;
+    return copy;
+  }
+
+  /**
+   * Sweep every combination of parameter values and print the results as CSV, best tracking first.
+   * <p>
+   * Usage: {@code <swerve directory> <trace csv> [name=value,value,...]...}, for example {@code drive.p=0.05,0.1,0.2
+   * heading.p=0.2,0.4}.
+   *
+   * @param args Command line arguments.
+   * @throws IOException if the configuration or trace can't be read.
+   */
+  public static void main(String[] args) throws IOException
+  {
+    if (args.length < 2)
+    {
+      System.err.println("Usage: SwerveBatchRunner <swerve directory> <trace csv> [name=value,value,...]...");
+      System.exit(1);
+    }
+    HAL.initialize(500, 0);
+    SwerveDriveTelemetry.verbosity = TelemetryVerbosity.NONE;
+
+    List<Case> cases = new ArrayList<>();
+    cases.add(new Case("", drive -> {}));
+    for (int a = 2; a < args.length; a++)
+    {
+      String[] parameter = args[a].split("=", 2);
+      if (parameter.length != 2)
+      {
+        throw new IllegalArgumentException("Sweep parameter should be name=value,value,... got " + args[a]);
+      }
+      List<Case> swept = new ArrayList<>();
+      for (Case base : cases)
+      {
+        for (String value : parameter[1].split(","))
+        {
+          Consumer<SwerveDrive> change = parameter(parameter[0], Double.parseDouble(value));
+          swept.add(new Case((base.name.isEmpty() ? "" : base.name + " ") + parameter[0] + "=" + value,
+                             base.configure.andThen(change)));
+        }
+      }
+      cases = swept;
+    }
+
+    SwerveBatchRunner runner  = new SwerveBatchRunner(new File(args[0]), SwerveInputTrace.fromCsv(new File(args[1])));
+    long              start   = System.nanoTime();
+    List<Result>      results = new ArrayList<>(runner.run(cases));
+    results.sort(Comparator.comparingDouble(result -> result.rmsVelocityError));
+    System.out.println("case,rmsVelocityError,rmsHeadingError,settlingTime,peakCurrent,slipTime,odometryError");
+    for (Result result : results)
+    {
+      System.out.printf("\"%s\",%.4f,%.3f,%.3f,%.1f,%.3f,%.4f%n", result.name, result.rmsVelocityError,
+                        result.rmsHeadingError, result.settlingTime, result.peakCurrent, result.slipTime,
+                        result.odometryError);
+    }
+    System.err.printf("%d cases in %.1f s%n", cases.size(), (System.nanoTime() - start) / 1e9);
+    System.exit(0);
+  }
+
+  /**
+   * Configuration to simulate, the parsed configuration with changes applied.
+   */
+  public static class Case
+  {
+
+    /**
+     * Name reported with the result.
+     */
+    public final String                name;
+    /**
+     * Changes applied to the {@link SwerveDrive} before simulating.
+     */
+    public final Consumer<SwerveDrive> configure;
+
+    /**
+     * Create a case.
+     *
+     * @param name      Name reported with the result.
+     * @param configure Changes applied to the {@link SwerveDrive} before simulating.
+     */
+    public Case(String name, Consumer<SwerveDrive> configure)
+    {
+      this.name = name;
+      this.configure = configure;
+    }
+  }
+
+  /**
+   * Score of a simulated case.
+   */
+  public static class Result
+  {
+
+    /**
+     * Name of the case.
+     */
+    public final String name;
+    /**
+     * Root mean square error between the commanded and true field relative velocity in meters per second.
+     */
+    public final double rmsVelocityError;
+    /**
+     * Root mean square error between the target and true heading in degrees.
+     */
+    public final double rmsHeadingError;
+    /**
+     * Longest time taken to settle within tolerance after an input change in seconds.
+     */
+    public final double settlingTime;
+    /**
+     * Highest current drawn by any motor in amps.
+     */
+    public final double peakCurrent;
+    /**
+     * Time the wheels spent slipping in seconds.
+     */
+    public final double slipTime;
+    /**
+     * Distance between the odometry and true position at the end of the run in meters.
+     */
+    public final double odometryError;
+
+    /**
+     * Create a result.
+     *
+     * @param name             Name of the case.
+     * @param rmsVelocityError Root mean square velocity error in meters per second.
+     * @param rmsHeadingError  Root mean square heading error in degrees.
+     * @param settlingTime     Longest settling time in seconds.
+     * @param peakCurrent      Highest motor current in amps.
+     * @param slipTime         Time the wheels spent slipping in seconds.
+     * @param odometryError    Final odometry position error in meters.
+     */
+    public Result(String name, double rmsVelocityError, double rmsHeadingError, double settlingTime,
+                  double peakCurrent, double slipTime, double odometryError)
+    {
+      this.name = name;
+      this.rmsVelocityError = rmsVelocityError;
+      this.rmsHeadingError = rmsHeadingError;
+      this.settlingTime = settlingTime;
+      this.peakCurrent = peakCurrent;
+      this.slipTime = slipTime;
+      this.odometryError = odometryError;
+    }
+  }
+}
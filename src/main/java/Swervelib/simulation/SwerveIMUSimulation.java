@@ -50,6 +50,16 @@ public class SwerveIMUSimulation
     return new Rotation2d(angle);
   }
 
+  /**
+   * Get the estimated angle of the robot without allocating.
+   *
+   * @return Yaw in radians, not wrapped.
+   */
+  public double getYawRadians()
+  {
+    return angle;
+  }
+
   /**
    * Pitch is not simulated currently, always returns 0.
    *
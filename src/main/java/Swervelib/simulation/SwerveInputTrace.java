@@ -0,0 +1,188 @@
+package Swervelib.simulation;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scripted driver input for a simulation run, field relative velocity and target heading samples held until the next
+ * sample. Read from CSV lines of "time,vx,vy,heading" in seconds, meters per second and degrees, skipping blank lines,
+ * lines starting with '#' and a header line.
+ */
+public class SwerveInputTrace
+{
+
+  /**
+   * Sample times in seconds, ascending.
+   */
+  private final double[] times;
+  /**
+   * Field relative X velocity of every sample in meters per second.
+   */
+  private final double[] vx;
+  /**
+   * Field relative Y velocity of every sample in meters per second.
+   */
+  private final double[] vy;
+  /**
+   * Target heading of every sample in degrees.
+   */
+  private final double[] headings;
+  /**
+   * Time the trace ends in seconds.
+   */
+  private final double   duration;
+
+  /**
+   * Create an input trace.
+   *
+   * @param times    Sample times in seconds, ascending.
+   * @param vx       Field relative X velocity of every sample in meters per second.
+   * @param vy       Field relative Y velocity of every sample in meters per second.
+   * @param headings Target heading of every sample in degrees.
+   * @param duration Time the trace ends in seconds, at or after the last sample.
+   */
+  public SwerveInputTrace(double[] times, double[] vx, double[] vy, double[] headings, double duration)
+  {
+    if (times.length == 0 || vx.length != times.length || vy.length != times.length ||
+        headings.length != times.length)
+    {
+      throw new IllegalArgumentException("Input trace needs at least one sample and the same number of every value");
+    }
+    for (int i = 1; i < times.length; i++)
+    {
+      if (times[i] < times[i - 1])
+      {
+        throw new IllegalArgumentException("Input trace sample " + i + " is before the sample ahead of it");
+      }
+    }
+    if (duration < times[times.length - 1])
+    {
+      throw new IllegalArgumentException("Input trace ends before its last sample");
+    }
+    this.times = times;
+    this.vx = vx;
+    this.vy = vy;
+    this.headings = headings;
+    this.duration = duration;
+  }
+
+  /**
+   * Read an input trace from a CSV file. The trace ends one second after the last sample, so the response to it can
+   * settle.
+   *
+   * @param file CSV file of "time,vx,vy,heading" lines.
+   * @return {@link SwerveInputTrace} read.
+   * @throws IOException if the file can't be read.
+   */
+  public static SwerveInputTrace fromCsv(File file) throws IOException
+  {
+    List<double[]> samples = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(file)))
+    {
+      String line;
+      int    lineNumber = 0;
+      while ((line = reader.readLine()) != null)
+      {
+        lineNumber++;
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#") || (samples.isEmpty() && line.startsWith("time")))
+        {
+          continue;
+        }
+        String[] values = line.split(",");
+        if (values.length != 4)
+        {
+          throw new IllegalArgumentException(file + ":" + lineNumber + " should be time,vx,vy,heading");
+        }
+        double[] sample = new double[4];
+        for (int i = 0; i < 4; i++)
+        {
+          sample[i] = Double.parseDouble(values[i].trim());
+        }
+        samples.add(sample);
+      }
+    }
+    double[] times    = new double[samples.size()];
+    double[] vx       = new double[samples.size()];
+    double[] vy       = new double[samples.size()];
+    double[] headings = new double[samples.size()];
+    for (int i = 0; i < times.length; i++)
+    {
+      times[i] = samples.get(i)[0];
+      vx[i] = samples.get(i)[1];
+      vy[i] = samples.get(i)[2];
+      headings[i] = samples.get(i)[3];
+    }
+    return new SwerveInputTrace(times, vx, vy, headings, times.length == 0 ? 0 : times[times.length - 1] + 1);
+  }
+
+  /**
+   * Get the sample held at a time.
+   *
+   * @param time Time in seconds.
+   * @return Index of the last sample at or before the time, 0 before the first sample.
+   */
+  public int getSampleIndex(double time)
+  {
+    int low = 0, high = times.length - 1;
+    while (low < high)
+    {
+      int mid = (low + high + 1) >>> 1;
+      if (times[mid] <= time)
+      {
+        low = mid;
+      } else
+      {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Get the field relative X velocity of a sample.
+   *
+   * @param index Sample index.
+   * @return X velocity in meters per second.
+   */
+  public double getVx(int index)
+  {
+    return vx[index];
+  }
+
+  /**
+   * Get the field relative Y velocity of a sample.
+   *
+   * @param index Sample index.
+   * @return Y velocity in meters per second.
+   */
+  public double getVy(int index)
+  {
+    return vy[index];
+  }
+
+  /**
+   * Get the target heading of a sample.
+   *
+   * @param index Sample index.
+   * @return Heading in degrees.
+   */
+  public double getHeading(int index)
+  {
+    return headings[index];
+  }
+
+  /**
+   * Get the time the trace ends.
+   *
+   * @return Duration in seconds.
+   */
+  public double getDuration()
+  {
+    return duration;
+  }
+}
@@ -0,0 +1,251 @@
+package Swervelib.simulation;
+
+import Swervelib.SwerveDrive;
+import Swervelib.SwerveModule;
+import Swervelib.imu.VirtualIMUSwerve;
+import Swervelib.motors.VirtualMotorSwerve;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+/**
+ * Deterministic fixed step simulation of a {@link SwerveDrive} built from virtual devices. The drive, its kinematics
+ * and every device read time from one {@link SimulatedClock}, so a run is reproducible and runs as fast as the CPU
+ * allows. Each step the module
+ * azimuth and wheel dynamics of the virtual motors are advanced, the chassis velocity follows the velocity the wheels
+ * ask for, limited to the acceleration the wheel grip coefficient of friction allows, and the virtual IMU yaw follows
+ * the chassis. Wheels keep turning at the motor speed while the chassis slips, so odometry drifts from
+ * {@link #getPose()} the way it would on carpet.
+ */
+public class SwerveSimulationEngine
+{
+
+  /**
+   * Acceleration of gravity in meters per second squared.
+   */
+  private static final double               GRAVITY     = 9.81;
+  /**
+   * Swerve drive being simulated.
+   */
+  private final        SwerveDrive          swerveDrive;
+  /**
+   * Clock every device reads time from.
+   */
+  private final        SimulatedClock       clock;
+  /**
+   * Virtual drive motor of every module.
+   */
+  private final        VirtualMotorSwerve[] driveMotors;
+  /**
+   * Virtual angle motor of every module.
+   */
+  private final        VirtualMotorSwerve[] angleMotors;
+  /**
+   * Virtual IMU turned by the chassis.
+   */
+  private final        VirtualIMUSwerve     imu;
+  /**
+   * Wheel speed and azimuth of every module.
+   */
+  private final        SwerveModuleState[]  wheelStates;
+  /**
+   * Chassis velocity the wheels ask for.
+   */
+  private final        ChassisSpeeds        wheelSpeeds = new ChassisSpeeds();
+  /**
+   * Largest acceleration the wheel grip allows, in meters per second squared.
+   */
+  private final        double               maxTractionAcceleration;
+  /**
+   * Distance of the furthest module from the center of rotation in meters.
+   */
+  private final        double               driveRadius;
+  /**
+   * Robot relative chassis velocity in meters per second and radians per second.
+   */
+  private              double               vx, vy, omega;
+  /**
+   * Field relative pose of the chassis.
+   */
+  private              Pose2d               pose        = new Pose2d();
+  /**
+   * Number of steps the wheels slipped.
+   */
+  private              long                 slipSteps   = 0;
+
+  /**
+   * Create a simulation engine for a swerve drive built from virtual devices, and switch every device to the simulated
+   * clock.
+   *
+   * @param swerveDrive {@link SwerveDrive} whose motors are {@link VirtualMotorSwerve} and IMU is
+   *                    {@link VirtualIMUSwerve}.
+   * @param step        Fixed step in seconds, such as 0.005.
+   */
+  public SwerveSimulationEngine(SwerveDrive swerveDrive, double step)
+  {
+    if (swerveDrive.swerveDriveConfiguration.simulated)
+    {
+      throw new IllegalArgumentException(
+          "The simulation engine drives virtual devices, create the SwerveDrive with SwerveParser"
+          + ".createVirtualSwerveDrive() or a SwerveDriveConfiguration which is not simulated.");
+    }
+    if (swerveDrive.isOdometryThreadRunning())
+    {
+      throw new IllegalArgumentException(
+          "The odometry thread runs in real time, stop it so odometry is updated on the simulated clock.");
+    }
+    if (!(swerveDrive.swerveDriveConfiguration.imu instanceof VirtualIMUSwerve))
+    {
+      throw new IllegalArgumentException("The simulation engine requires a virtual IMU.");
+    }
+    this.swerveDrive = swerveDrive;
+    clock = new SimulatedClock(step);
+    imu = (VirtualIMUSwerve) swerveDrive.swerveDriveConfiguration.imu;
+    swerveDrive.setClock(clock);
+
+    SwerveModule[] modules = swerveDrive.getModules();
+    driveMotors = new VirtualMotorSwerve[modules.length];
+    angleMotors = new VirtualMotorSwerve[modules.length];
+    wheelStates = new SwerveModuleState[modules.length];
+    double friction = Double.MAX_VALUE, radius = 0;
+    for (SwerveModule module : modules)
+    {
+      if (!(module.getDriveMotor() instanceof VirtualMotorSwerve) ||
+          !(module.getAngleMotor() instanceof VirtualMotorSwerve))
+      {
+        throw new IllegalArgumentException(
+            "The simulation engine requires virtual motors, module " + module.moduleNumber + " has "
+            + module.getDriveMotor().getClass().getSimpleName() + " and "
+            + module.getAngleMotor().getClass().getSimpleName());
+      }
+      int n = module.moduleNumber;
+      driveMotors[n] = (VirtualMotorSwerve) module.getDriveMotor();
+      angleMotors[n] = (VirtualMotorSwerve) module.getAngleMotor();
+      wheelStates[n] = new SwerveModuleState();
+      friction = Math.min(friction, module.configuration.physicalCharacteristics.wheelGripCoefficientOfFriction);
+      radius = Math.max(radius, module.configuration.moduleLocation.getNorm());
+    }
+    maxTractionAcceleration = friction * GRAVITY;
+    driveRadius = radius;
+  }
+
+  /**
+   * Advance the simulation by one step.
+   */
+  public void step()
+  {
+    double dt = clock.getStep();
+    for (int i = 0; i < wheelStates.length; i++)
+    {
+      wheelStates[i].speedMetersPerSecond = driveMotors[i].getVelocity();
+      wheelStates[i].angle = Rotation2d.fromDegrees(angleMotors[i].getMechanismPosition());
+    }
+    swerveDrive.kinematics.toChassisSpeeds(wheelSpeeds, wheelStates);
+
+    // Accelerate towards the wheel velocity, inside the friction circle shared by every wheel.
+    double ax     = (wheelSpeeds.vxMetersPerSecond - vx) / dt;
+    double ay     = (wheelSpeeds.vyMetersPerSecond - vy) / dt;
+    double alpha  = (wheelSpeeds.omegaRadiansPerSecond - omega) / dt;
+    double demand = Math.hypot(Math.hypot(ax, ay), alpha * driveRadius);
+    double scale  = 1;
+    if (demand > maxTractionAcceleration)
+    {
+      scale = maxTractionAcceleration / demand;
+      slipSteps++;
+    }
+    vx += ax * scale * dt;
+    vy += ay * scale * dt;
+    omega += alpha * scale * dt;
+
+    imu.setYawRate(omega);
+    pose = pose.exp(new Twist2d(vx * dt, vy * dt, omega * dt));
+    clock.advance();
+  }
+
+  /**
+   * Run the simulation, calling a control loop at a fixed period, such as a command scheduler followed by
+   * {@link SwerveDrive#updateOdometry()}.
+   *
+   * @param seconds       Simulated time to run for in seconds.
+   * @param controlPeriod Period of the control loop in seconds, rounded to a whole number of steps.
+   * @param controlLoop   Control loop, called before the first step.
+   */
+  public void run(double seconds, double controlPeriod, Runnable controlLoop)
+  {
+    long steps        = Math.round(seconds / clock.getStep());
+    long controlSteps = Math.max(1, Math.round(controlPeriod / clock.getStep()));
+    for (long i = 0; i < steps; i++)
+    {
+      if (i % controlSteps == 0)
+      {
+        controlLoop.run();
+      }
+      step();
+    }
+  }
+
+  /**
+   * Get the true field relative pose of the chassis, which odometry estimates.
+   *
+   * @return Chassis {@link Pose2d}.
+   */
+  public Pose2d getPose()
+  {
+    return pose;
+  }
+
+  /**
+   * Move the chassis and stop it, such as to the start of an autonomous routine. Reset the odometry separately.
+   *
+   * @param pose Field relative pose to move to.
+   */
+  public void resetPose(Pose2d pose)
+  {
+    this.pose = pose;
+    vx = 0;
+    vy = 0;
+    omega = 0;
+  }
+
+  /**
+   * Get the true robot relative velocity of the chassis.
+   *
+   * @return Chassis velocity as {@link ChassisSpeeds}.
+   */
+  public ChassisSpeeds getRobotVelocity()
+  {
+    return new ChassisSpeeds(vx, vy, omega);
+  }
+
+  /**
+   * Get the simulated clock, to pass to anything else which should follow simulated time.
+   *
+   * @return {@link SimulatedClock} of the simulation.
+   */
+  public SimulatedClock getClock()
+  {
+    return clock;
+  }
+
+  /**
+   * Get the simulated time.
+   *
+   * @return Time in seconds.
+   */
+  public double getTime()
+  {
+    return clock.getTime();
+  }
+
+  /**
+   * Get the simulated time the wheels spent slipping.
+   *
+   * @return Slip time in seconds.
+   */
+  public double getSlipTime()
+  {
+    return slipSteps * clock.getStep();
+  }
+}
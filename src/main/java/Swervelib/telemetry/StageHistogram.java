@@ -0,0 +1,168 @@
+package Swervelib.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size histogram of stage durations with geometric buckets from 1 microsecond to 100 milliseconds, each bucket 5%
+ * wider than the last. Recording does not allocate, percentiles are reported as the upper bound of their bucket.
+ * <p>
+ * Any thread may record, such as the odometry thread and the main loop, while another thread reads the durations with
+ * {@link #moveTo(StageHistogram)}, which hands every recorded duration over without a lock and starts a new window.
+ */
+public class StageHistogram
+{
+
+  /**
+   * Upper bound of the first bucket in nanoseconds.
+   */
+  private static final long            MIN_NANOS     = 1_000L;
+  /**
+   * Upper bound of the last bucket before the overflow bucket in nanoseconds.
+   */
+  private static final long            MAX_NANOS     = 100_000_000L;
+  /**
+   * Ratio between the upper bounds of neighbouring buckets.
+   */
+  private static final double          BUCKET_GROWTH = 1.05;
+  /**
+   * Upper bound of every bucket in nanoseconds, shared by every histogram. The last bucket holds everything longer.
+   */
+  private static final long[]          UPPER_BOUNDS  = createUpperBounds();
+  /**
+   * Number of durations in each bucket.
+   */
+  private final        AtomicLongArray counts        = new AtomicLongArray(UPPER_BOUNDS.length);
+  /**
+   * Number of durations recorded.
+   */
+  private final        AtomicLong      count         = new AtomicLong();
+  /**
+   * Longest duration recorded in nanoseconds.
+   */
+  private final        AtomicLong      max           = new AtomicLong();
+
+  /**
+   * Create the bucket upper bounds.
+   *
+   * @return Upper bound of every bucket in nanoseconds.
+   */
+  private static long[] createUpperBounds()
+  {
+    int    buckets = (int) Math.ceil(Math.log((double) MAX_NANOS / MIN_NANOS) / Math.log(BUCKET_GROWTH)) + 2;
+    long[] bounds  = new long[buckets];
+    double bound   = MIN_NANOS;
+    for (int i = 0; i < buckets - 1; i++)
+    {
+      bounds[i] = (long) Math.ceil(bound);
+      bound *= BUCKET_GROWTH;
+    }
+    bounds[buckets - 1] = Long.MAX_VALUE;
+    return bounds;
+  }
+
+  /**
+   * Record a stage duration.
+   *
+   * @param nanos Duration in nanoseconds.
+   */
+  public void record(long nanos)
+  {
+    int low  = 0;
+    int high = UPPER_BOUNDS.length - 1;
+    while (low < high)
+    {
+      int mid = (low + high) >>> 1;
+      if (UPPER_BOUNDS[mid] < nanos)
+      {
+        low = mid + 1;
+      } else
+      {
+        high = mid;
+      }
+    }
+    // The maximum is raised before the bucket is counted, so a window holding the bucket always holds the maximum.
+    max.accumulateAndGet(nanos, Math::max);
+    counts.incrementAndGet(low);
+    count.incrementAndGet();
+  }
+
+  /**
+   * Move every recorded duration into another histogram, leaving this one empty to record the next window. Durations
+   * recorded at the same time by other threads land in either this window or the next, never in both or neither.
+   *
+   * @param window Histogram to add the recorded durations to, only used by the calling thread.
+   */
+  public void moveTo(StageHistogram window)
+  {
+    long moved = 0;
+    for (int i = 0; i < UPPER_BOUNDS.length; i++)
+    {
+      long bucket = counts.getAndSet(i, 0);
+      if (bucket != 0)
+      {
+        window.counts.addAndGet(i, bucket);
+        moved += bucket;
+      }
+    }
+    // Taken after the buckets for the same reason it is raised before them in record().
+    window.max.accumulateAndGet(max.getAndSet(0), Math::max);
+    count.addAndGet(-moved);
+    window.count.addAndGet(moved);
+  }
+
+  /**
+   * Get a percentile of the recorded durations.
+   *
+   * @param percentile Percentile between 0 and 1, such as 0.99.
+   * @return Upper bound of the bucket holding the percentile in nanoseconds, limited to the longest duration recorded. 0
+   * if nothing has been recorded.
+   */
+  public long getPercentile(double percentile)
+  {
+    long target     = (long) Math.ceil(percentile * count.get());
+    long cumulative = 0;
+    for (int i = 0; i < UPPER_BOUNDS.length; i++)
+    {
+      cumulative += counts.get(i);
+      if (cumulative >= target && cumulative > 0)
+      {
+        return Math.min(UPPER_BOUNDS[i], max.get());
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Get the longest duration recorded.
+   *
+   * @return Longest duration in nanoseconds.
+   */
+  public long getMax()
+  {
+    return max.get();
+  }
+
+  /**
+   * Get the number of durations recorded.
+   *
+   * @return Number of durations.
+   */
+  public long getCount()
+  {
+    return count.get();
+  }
+
+  /**
+   * Remove every recorded duration.
+   */
+  public void reset()
+  {
+    for (int i = 0; i < UPPER_BOUNDS.length; i++)
+    {
+      counts.set(i, 0);
+    }
+    count.set(0);
+    max.set(0);
+  }
+}
@@ -1,7 +1,6 @@
 package Swervelib.telemetry;
 
 import edu.wpi.first.wpilibj.RobotBase;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 /**
  * Telemetry to describe the {@link swervelib.SwerveDrive} following frc-web-components. (Which follows AdvantageKit)
@@ -12,85 +11,150 @@ public class SwerveDriveTelemetry
   /**
    * The current telemetry verbosity level.
    */
-  public static TelemetryVerbosity verbosity             = TelemetryVerbosity.MACHINE;
+  public static  TelemetryVerbosity       verbosity             = TelemetryVerbosity.MACHINE;
   /**
    * State of simulation of the Robot, used to optimize retrieval.
    */
-  public static boolean            isSimulation          = RobotBase.isSimulation();
+  public static  boolean                  isSimulation          = RobotBase.isSimulation();
   /**
    * The number of swerve modules
    */
-  public static int                moduleCount;
+  public static  int                      moduleCount;
   /**
    * The number of swerve modules
    */
-  public static double[]           wheelLocations;
+  public static  double[]                 wheelLocations;
   /**
    * An array of rotation and velocity values describing the measured state of each swerve module
    */
-  public static double[]           measuredStates;
+  public static  double[]                 measuredStates;
   /**
    * An array of rotation and velocity values describing the desired state of each swerve module
    */
-  public static double[]           desiredStates;
+  public static  double[]                 desiredStates;
   /**
    * The robot's current rotation based on odometry or gyro readings
    */
-  public static double             robotRotation         = 0;
+  public static  double                   robotRotation         = 0;
   /**
    * The maximum achievable speed of the modules, used to adjust the size of the vectors.
    */
-  public static double             maxSpeed;
+  public static  double                   maxSpeed;
   /**
    * The units of the module rotations and robot rotation
    */
-  public static String             rotationUnit          = "degrees";
+  public static  String                   rotationUnit          = "degrees";
   /**
    * The distance between the left and right modules.
    */
-  public static double             sizeLeftRight;
+  public static  double                   sizeLeftRight;
   /**
    * The distance between the front and back modules.
    */
-  public static double             sizeFrontBack;
+  public static  double                   sizeFrontBack;
   /**
    * The direction the robot should be facing when the "Robot Rotation" is zero or blank. This option is often useful to
    * align with odometry data or match videos. 'up', 'right', 'down' or 'left'
    */
-  public static String             forwardDirection      = "up";
+  public static  String                   forwardDirection      = "up";
   /**
    * The maximum achievable angular velocity of the robot. This is used to visualize the angular velocity from the
    * chassis speeds properties.
    */
-  public static double             maxAngularVelocity;
+  public static  double                   maxAngularVelocity;
   /**
    * The maximum achievable angular velocity of the robot. This is used to visualize the angular velocity from the
    * chassis speeds properties.
    */
-  public static double[]           measuredChassisSpeeds = new double[3];
+  public static  double[]                 measuredChassisSpeeds = new double[3];
   /**
    * Describes the desired forward, sideways and angular velocity of the robot.
    */
-  public static double[]           desiredChassisSpeeds  = new double[3];
+  public static  double[]                 desiredChassisSpeeds  = new double[3];
+  /**
+   * Center of rotation changes served from the kinematics matrix cache.
+   */
+  public static  long                     kinematicsCacheHits   = 0;
+  /**
+   * Center of rotation changes which had to build new kinematics matrices.
+   */
+  public static  long                     kinematicsCacheMisses = 0;
+  /**
+   * Control frames sent to the swerve motors.
+   */
+  public static  long                     controlFramesSent     = 0;
+  /**
+   * Control frames skipped because they matched the last frame sent.
+   */
+  public static  long                     controlFramesSaved    = 0;
+  /**
+   * Records the flight recorder has written to the log.
+   */
+  public static  long                     flightRecordsWritten  = 0;
+  /**
+   * Records the flight recorder dropped because its ring buffer was full.
+   */
+  public static  long                     flightRecordsDropped  = 0;
+  /**
+   * Optimized speed setpoint of each swerve module in meters per second.
+   */
+  public static  double[]                 optimizedSpeedSetpoints;
+  /**
+   * Optimized angle setpoint of each swerve module in degrees.
+   */
+  public static  double[]                 optimizedAngleSetpoints;
+  /**
+   * Desired angular velocity of each swerve module in degrees per second.
+   */
+  public static  double[]                 moduleOmegas;
+  /**
+   * Angle of each swerve module from the angle motor encoder in degrees.
+   */
+  public static  double[]                 moduleAngles;
+  /**
+   * Relative encoder position of each swerve module angle motor in degrees.
+   */
+  public static  double[]                 relativeEncoders;
+  /**
+   * Absolute encoder position of each swerve module in degrees.
+   */
+  public static  double[]                 absoluteEncoders;
+  /**
+   * Publisher of the telemetry, created on the first update.
+   */
+  private static SwerveTelemetryPublisher publisher;
+
+  /**
+   * Allocate the per module telemetry arrays.
+   *
+   * @param modules The number of swerve modules.
+   */
+  public static void allocate(int modules)
+  {
+    moduleCount = modules;
+    wheelLocations = new double[modules * 2];
+    measuredStates = new double[modules * 2];
+    desiredStates = new double[modules * 2];
+    optimizedSpeedSetpoints = new double[modules];
+    optimizedAngleSetpoints = new double[modules];
+    moduleOmegas = new double[modules];
+    moduleAngles = new double[modules];
+    relativeEncoders = new double[modules];
+    absoluteEncoders = new double[modules];
+    publisher = null;
+  }
 
   /**
-   * Upload data to smartdashboard
+   * Upload data to smartdashboard, through {@link SwerveTelemetryPublisher} once per loop. The per module debug values
+   * are only published with {@link TelemetryVerbosity#HIGH}.
    */
   public static void updateData()
   {
-    SmartDashboard.putNumber("swerve/moduleCount", moduleCount);
-    SmartDashboard.putNumberArray("swerve/wheelLocations", wheelLocations);
-    SmartDashboard.putNumberArray("swerve/measuredStates", measuredStates);
-    SmartDashboard.putNumberArray("swerve/desiredStates", desiredStates);
-    SmartDashboard.putNumber("swerve/robotRotation", robotRotation);
-    SmartDashboard.putNumber("swerve/maxSpeed", maxSpeed);
-    SmartDashboard.putString("swerve/rotationUnit", rotationUnit);
-    SmartDashboard.putNumber("swerve/sizeLeftRight", sizeLeftRight);
-    SmartDashboard.putNumber("swerve/sizeFrontBack", sizeFrontBack);
-    SmartDashboard.putString("swerve/forwardDirection", forwardDirection);
-    SmartDashboard.putNumber("swerve/maxAngularVelocity", maxAngularVelocity);
-    SmartDashboard.putNumberArray("swerve/measuredChassisSpeeds", measuredChassisSpeeds);
-    SmartDashboard.putNumberArray("swerve/desiredChassisSpeeds", desiredChassisSpeeds);
+    if (publisher == null)
+    {
+      publisher = new SwerveTelemetryPublisher(moduleCount);
+    }
+    publisher.flush(verbosity == TelemetryVerbosity.HIGH);
   }
 
   /**
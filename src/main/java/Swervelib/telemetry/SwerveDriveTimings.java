@@ -0,0 +1,202 @@
+package Swervelib.telemetry;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+
+/**
+ * Per stage timing of the swerve drive pipeline. Each stage is timed with {@link System#nanoTime()} into a preallocated
+ * {@link StageHistogram} and published as [p50, p99, max] in microseconds to "SmartDashboard/swerve/timing/stage".
+ * Each publish covers the durations recorded since the last one, moved out of the recording histograms without a lock
+ * so stages timed on the odometry thread are read safely from the main loop. Disabled timers cost a single branch,
+ * enabled timers two nanoTime calls, a bucket search and three atomic updates.
+ */
+public class SwerveDriveTimings
+{
+
+  /**
+   * {@link Swervelib.SwerveController#getTargetSpeeds(double, double, double, double)}.
+   */
+  public static final  int                    TARGET_SPEEDS   = 0;
+  /**
+   * Inverse kinematics from chassis speeds to module states.
+   */
+  public static final  int                    KINEMATICS      = 1;
+  /**
+   * Desaturating the module speeds.
+   */
+  public static final  int                    DESATURATE      = 2;
+  /**
+   * Updating the pose estimator.
+   */
+  public static final  int                    POSE_ESTIMATOR  = 3;
+  /**
+   * Flushing {@link SwerveDriveTelemetry}.
+   */
+  public static final  int                    TELEMETRY       = 4;
+  /**
+   * First module stage, setting the desired state of module n is stage MODULE + n.
+   */
+  public static final  int                    MODULE          = 5;
+  /**
+   * Names of the fixed stages.
+   */
+  private static final String[]               STAGE_NAMES     = {"targetSpeeds", "kinematics", "desaturate",
+                                                                 "poseEstimator", "telemetry"};
+  /**
+   * Number of {@link #update()} calls between publishing the timings.
+   */
+  public static        int                    publishInterval = 50;
+  /**
+   * Whether stages are being timed.
+   */
+  private static       boolean                enabled         = false;
+  /**
+   * Histogram of every stage, null until allocated.
+   */
+  private static       StageHistogram[]       histograms;
+  /**
+   * Durations of every stage since the last publish, only used by the thread calling {@link #update()}.
+   */
+  private static       StageHistogram[]       windows;
+  /**
+   * Publisher of every stage, created on the first publish.
+   */
+  private static       DoubleArrayPublisher[] publishers;
+  /**
+   * Published [p50, p99, max] in microseconds.
+   */
+  private static final double[]               published       = new double[3];
+  /**
+   * {@link #update()} calls since the timings were last published.
+   */
+  private static       int                    updates         = 0;
+
+  /**
+   * Allocate the histograms for a swerve drive.
+   *
+   * @param modules The number of swerve modules.
+   */
+  public static void allocate(int modules)
+  {
+    histograms = new StageHistogram[MODULE + modules];
+    windows = new StageHistogram[histograms.length];
+    for (int i = 0; i < histograms.length; i++)
+    {
+      histograms[i] = new StageHistogram();
+      windows[i] = new StageHistogram();
+    }
+    publishers = null;
+  }
+
+  /**
+   * Enable or disable timing. Can be changed at any time.
+   *
+   * @param enable Whether to time stages.
+   */
+  public static void setEnabled(boolean enable)
+  {
+    enabled = enable;
+  }
+
+  /**
+   * Check if stages are being timed.
+   *
+   * @return True if enabled.
+   */
+  public static boolean isEnabled()
+  {
+    return enabled;
+  }
+
+  /**
+   * Start timing a stage.
+   *
+   * @return Start time to pass to {@link #stop(int, long)}, 0 when disabled.
+   */
+  public static long start()
+  {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /**
+   * Stop timing a stage and record its duration.
+   *
+   * @param stage Stage number, such as {@link #KINEMATICS}.
+   * @param start Start time from {@link #start()}.
+   */
+  public static void stop(int stage, long start)
+  {
+    if (start != 0 && histograms != null && stage < histograms.length)
+    {
+      histograms[stage].record(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Get the histogram a stage is recording into, holding the durations since the last publish.
+   *
+   * @param stage Stage number, such as {@link #KINEMATICS}.
+   * @return {@link StageHistogram} of the stage.
+   */
+  public static StageHistogram getHistogram(int stage)
+  {
+    return histograms[stage];
+  }
+
+  /**
+   * Get the name of a stage.
+   *
+   * @param stage Stage number, such as {@link #KINEMATICS}.
+   * @return Name the stage is published under.
+   */
+  public static String getStageName(int stage)
+  {
+    return stage < MODULE ? STAGE_NAMES[stage] : "module" + (stage - MODULE);
+  }
+
+  /**
+   * Remove every recorded duration.
+   */
+  public static void reset()
+  {
+    if (histograms != null)
+    {
+      for (StageHistogram histogram : histograms)
+      {
+        histogram.reset();
+      }
+    }
+  }
+
+  /**
+   * Call once per loop, publishes the timings recorded over the last {@link #publishInterval} calls while enabled.
+   */
+  public static void update()
+  {
+    if (!enabled || histograms == null || ++updates < publishInterval)
+    {
+      return;
+    }
+    updates = 0;
+    if (publishers == null)
+    {
+      NetworkTable table = NetworkTableInstance.getDefault().getTable("SmartDashboard").getSubTable("swerve")
+                                               .getSubTable("timing");
+      publishers = new DoubleArrayPublisher[histograms.length];
+      for (int i = 0; i < histograms.length; i++)
+      {
+        publishers[i] = table.getDoubleArrayTopic(getStageName(i)).publish();
+      }
+    }
+    for (int i = 0; i < histograms.length; i++)
+    {
+      windows[i].reset();
+      histograms[i].moveTo(windows[i]);
+      published[0] = windows[i].getPercentile(0.5) / 1e3;
+      published[1] = windows[i].getPercentile(0.99) / 1e3;
+      published[2] = windows[i].getMax() / 1e3;
+      publishers[i].set(published);
+    }
+  }
+}
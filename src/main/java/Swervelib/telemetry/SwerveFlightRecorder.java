@@ -0,0 +1,235 @@
+package Swervelib.telemetry;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.RawLogEntry;
+
+/**
+ * Flight recorder writing fixed layout binary records of the swerve drive state to a {@link DataLog}, so the data is
+ * kept on the robot when NetworkTables is congested or disconnected. The control thread copies each record into a
+ * preallocated ring buffer without allocating, a background thread drains the ring buffer into the log. Records are
+ * little endian float32 fields in the order given by {@link #getSchema(int)}, timestamped by the log entry.
+ */
+public class SwerveFlightRecorder
+{
+
+  /**
+   * Fields at the start of every record.
+   */
+  public static final  String[]    HEADER_FIELDS = {"loopPeriod", "updateTime", "poseX", "poseY", "poseTheta",
+                                                    "yaw", "pitch", "roll", "measuredVx", "measuredVy",
+                                                    "measuredOmega", "desiredVx", "desiredVy", "desiredOmega"};
+  /**
+   * Fields of every swerve module following the header.
+   */
+  public static final  String[]    MODULE_FIELDS = {"measuredAngle", "measuredSpeed", "desiredAngle", "desiredSpeed"};
+  /**
+   * Log entry type of the records.
+   */
+  public static final  String      RECORD_TYPE   = "swerve-flight-record";
+  /**
+   * Time the writer thread sleeps when the ring buffer is empty in nanoseconds.
+   */
+  private static final long        WRITER_PERIOD = 20_000_000L;
+  /**
+   * Log entry the records are written to.
+   */
+  private final        RawLogEntry entry;
+  /**
+   * Number of fields in a record.
+   */
+  private final        int         recordLength;
+  /**
+   * Number of records the ring buffer holds.
+   */
+  private final        int         capacity;
+  /**
+   * Ring buffer of record fields, capacity x recordLength.
+   */
+  private final        float[]     ring;
+  /**
+   * Ring buffer of record timestamps in microseconds.
+   */
+  private final        long[]      timestamps;
+  /**
+   * Record serialized by the writer thread.
+   */
+  private final        ByteBuffer  buffer;
+  /**
+   * Background thread draining the ring buffer into the log.
+   */
+  private final        Thread      writer;
+  /**
+   * Number of records added by the control thread.
+   */
+  private volatile     long        added         = 0;
+  /**
+   * Number of records written to the log by the writer thread.
+   */
+  private volatile     long        written       = 0;
+  /**
+   * Number of records dropped because the ring buffer was full.
+   */
+  private volatile     long        dropped       = 0;
+  /**
+   * Whether the writer thread should keep running.
+   */
+  private volatile     boolean     running       = true;
+
+  /**
+   * Create the flight recorder and start its writer thread.
+   *
+   * @param log         {@link DataLog} to write to.
+   * @param name        Name of the log entry.
+   * @param moduleCount Number of swerve modules.
+   * @param capacity    Number of records the ring buffer holds.
+   */
+  public SwerveFlightRecorder(DataLog log, String name, int moduleCount, int capacity)
+  {
+    if (capacity < 1)
+    {
+      throw new IllegalArgumentException("Flight recorder must hold at least 1 record");
+    }
+    this.capacity = capacity;
+    recordLength = getRecordLength(moduleCount);
+    ring = new float[capacity * recordLength];
+    timestamps = new long[capacity];
+    buffer = ByteBuffer.allocate(recordLength * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    entry = new RawLogEntry(log, name, getSchema(moduleCount), RECORD_TYPE);
+
+    writer = new Thread(this::drain, "SwerveFlightRecorder");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Get the number of fields in a record.
+   *
+   * @param moduleCount Number of swerve modules.
+   * @return Number of float32 fields in a record.
+   */
+  public static int getRecordLength(int moduleCount)
+  {
+    return HEADER_FIELDS.length + MODULE_FIELDS.length * moduleCount;
+  }
+
+  /**
+   * Get the schema stored as the log entry metadata, the comma separated field names in record order.
+   *
+   * @param moduleCount Number of swerve modules.
+   * @return Schema of the records.
+   */
+  public static String getSchema(int moduleCount)
+  {
+    StringBuilder schema = new StringBuilder("float32le:");
+    schema.append(String.join(",", HEADER_FIELDS));
+    for (int i = 0; i < moduleCount; i++)
+    {
+      for (String field : MODULE_FIELDS)
+      {
+        schema.append(",module").append(i).append('.').append(field);
+      }
+    }
+    return schema.toString();
+  }
+
+  /**
+   * Copy a record into the ring buffer, dropping it if the writer thread has fallen a full buffer behind. Does not
+   * allocate or block.
+   *
+   * @param timestampMicros Time of the record in microseconds, on the same clock as the log, the FPGA time.
+   * @param values          Record fields in schema order, at least {@link #getRecordLength(int)} long.
+   */
+  public void record(long timestampMicros, double[] values)
+  {
+    long index = added;
+    if (index - written >= capacity)
+    {
+      dropped++;
+      return;
+    }
+    int slot = (int) (index % capacity);
+    int base = slot * recordLength;
+    for (int i = 0; i < recordLength; i++)
+    {
+      ring[base + i] = (float) values[i];
+    }
+    timestamps[slot] = timestampMicros;
+    added = index + 1;
+  }
+
+  /**
+   * Write every record in the ring buffer to the log until stopped.
+   */
+  private void drain()
+  {
+    while (running || written < added)
+    {
+      long index = written;
+      if (index == added)
+      {
+        LockSupport.parkNanos(WRITER_PERIOD);
+        continue;
+      }
+      int slot = (int) (index % capacity);
+      int base = slot * recordLength;
+      buffer.clear();
+      for (int i = 0; i < recordLength; i++)
+      {
+        buffer.putFloat(ring[base + i]);
+      }
+      entry.append(buffer.array(), timestamps[slot]);
+      written = index + 1;
+    }
+  }
+
+  /**
+   * Stop the writer thread once every record in the ring buffer has been written.
+   */
+  public void stop()
+  {
+    running = false;
+    LockSupport.unpark(writer);
+    try
+    {
+      writer.join();
+    } catch (InterruptedException e)
+    {
+      Thread.currentThread().interrupt();
+    }
+    entry.finish();
+  }
+
+  /**
+   * Get the number of records written to the log.
+   *
+   * @return Records written.
+   */
+  public long getWritten()
+  {
+    return written;
+  }
+
+  /**
+   * Get the number of records dropped because the ring buffer was full.
+   *
+   * @return Records dropped.
+   */
+  public long getDropped()
+  {
+    return dropped;
+  }
+
+  /**
+   * Get the size of a record.
+   *
+   * @return Record size in bytes, excluding the log entry header.
+   */
+  public int getRecordBytes()
+  {
+    return recordLength * Float.BYTES;
+  }
+}
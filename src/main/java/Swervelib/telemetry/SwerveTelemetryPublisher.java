@@ -0,0 +1,384 @@
+package Swervelib.telemetry;
+
+import java.util.Arrays;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringPublisher;
+
+/**
+ * Publishes {@link SwerveDriveTelemetry} to NetworkTables through publishers created once, under the same SmartDashboard
+ * keys as before. The values written during a loop are copied into buffers owned by the publisher at the start of a
+ * flush and published together once per loop, constants are only published when they change. Nothing is allocated per
+ * loop unless a constant changes.
+ */
+public class SwerveTelemetryPublisher
+{
+
+  /**
+   * Number of swerve modules the buffers are sized for.
+   */
+  private final int                  moduleCount;
+  /**
+   * SmartDashboard table the per module debug values are published to.
+   */
+  private final NetworkTable         dashboard;
+  /**
+   * Publisher of the measured module states.
+   */
+  private final DoubleArrayPublisher measuredStates;
+  /**
+   * Publisher of the desired module states.
+   */
+  private final DoubleArrayPublisher desiredStates;
+  /**
+   * Publisher of the measured chassis speeds.
+   */
+  private final DoubleArrayPublisher measuredChassisSpeeds;
+  /**
+   * Publisher of the desired chassis speeds.
+   */
+  private final DoubleArrayPublisher desiredChassisSpeeds;
+  /**
+   * Publisher of the robot rotation.
+   */
+  private final DoublePublisher      robotRotation;
+  /**
+   * Publisher of the kinematics matrix cache hits.
+   */
+  private final DoublePublisher      kinematicsCacheHits;
+  /**
+   * Publisher of the kinematics matrix cache misses.
+   */
+  private final DoublePublisher      kinematicsCacheMisses;
+  /**
+   * Publisher of the motor control frames sent.
+   */
+  private final DoublePublisher      controlFramesSent;
+  /**
+   * Publisher of the motor control frames skipped as unchanged.
+   */
+  private final DoublePublisher      controlFramesSaved;
+  /**
+   * Publisher of the records written by the flight recorder.
+   */
+  private final DoublePublisher      flightRecordsWritten;
+  /**
+   * Publisher of the records dropped by the flight recorder.
+   */
+  private final DoublePublisher      flightRecordsDropped;
+  /**
+   * Publisher of the number of modules, which rarely changes.
+   */
+  private final DoublePublisher      moduleCountPublisher;
+  /**
+   * Publisher of the maximum speed, which rarely changes.
+   */
+  private final DoublePublisher      maxSpeed;
+  /**
+   * Publisher of the left to right size, which rarely changes.
+   */
+  private final DoublePublisher      sizeLeftRight;
+  /**
+   * Publisher of the front to back size, which rarely changes.
+   */
+  private final DoublePublisher      sizeFrontBack;
+  /**
+   * Publisher of the maximum angular velocity, which rarely changes.
+   */
+  private final DoublePublisher      maxAngularVelocity;
+  /**
+   * Publisher of the wheel locations, which rarely change.
+   */
+  private final DoubleArrayPublisher wheelLocations;
+  /**
+   * Publisher of the rotation unit, which rarely changes.
+   */
+  private final StringPublisher      rotationUnit;
+  /**
+   * Publisher of the forward direction, which rarely changes.
+   */
+  private final StringPublisher      forwardDirection;
+  /**
+   * Per module speed setpoint publishers, created the first time {@link SwerveDriveTelemetry.TelemetryVerbosity#HIGH}
+   * data is published.
+   */
+  private       DoublePublisher[]    speedSetpoints;
+  /**
+   * Per module angle setpoint publishers, created with {@link #speedSetpoints}.
+   */
+  private       DoublePublisher[]    angleSetpoints;
+  /**
+   * Per module optimized speed setpoint publishers, created with {@link #speedSetpoints}.
+   */
+  private       DoublePublisher[]    optimizedSpeedSetpoints;
+  /**
+   * Per module optimized angle setpoint publishers, created with {@link #speedSetpoints}.
+   */
+  private       DoublePublisher[]    optimizedAngleSetpoints;
+  /**
+   * Per module angular velocity publishers, created with {@link #speedSetpoints}.
+   */
+  private       DoublePublisher[]    moduleOmegas;
+  /**
+   * Per module angle publishers, created with {@link #speedSetpoints}.
+   */
+  private       DoublePublisher[]    moduleAngles;
+  /**
+   * Per module relative encoder publishers, created with {@link #speedSetpoints}.
+   */
+  private       DoublePublisher[]    relativeEncoders;
+  /**
+   * Per module absolute encoder publishers, created with {@link #speedSetpoints}.
+   */
+  private       DoublePublisher[]    absoluteEncoders;
+  /**
+   * Copy of {@link SwerveDriveTelemetry#measuredStates} taken at the start of a flush.
+   */
+  private final double[]             measuredStatesBuffer;
+  /**
+   * Copy of {@link SwerveDriveTelemetry#desiredStates} taken at the start of a flush.
+   */
+  private final double[]             desiredStatesBuffer;
+  /**
+   * Copy of {@link SwerveDriveTelemetry#measuredChassisSpeeds} taken at the start of a flush.
+   */
+  private final double[]             measuredChassisSpeedsBuffer = new double[3];
+  /**
+   * Copy of {@link SwerveDriveTelemetry#desiredChassisSpeeds} taken at the start of a flush.
+   */
+  private final double[]             desiredChassisSpeedsBuffer  = new double[3];
+  /**
+   * Copy of {@link SwerveDriveTelemetry#optimizedSpeedSetpoints}.
+   */
+  private final double[]             optimizedSpeedBuffer;
+  /**
+   * Copy of {@link SwerveDriveTelemetry#optimizedAngleSetpoints}.
+   */
+  private final double[]             optimizedAngleBuffer;
+  /**
+   * Copy of {@link SwerveDriveTelemetry#moduleOmegas}.
+   */
+  private final double[]             moduleOmegaBuffer;
+  /**
+   * Copy of {@link SwerveDriveTelemetry#moduleAngles}.
+   */
+  private final double[]             moduleAngleBuffer;
+  /**
+   * Copy of {@link SwerveDriveTelemetry#relativeEncoders}.
+   */
+  private final double[]             relativeEncoderBuffer;
+  /**
+   * Copy of {@link SwerveDriveTelemetry#absoluteEncoders}.
+   */
+  private final double[]             absoluteEncoderBuffer;
+  /**
+   * Last published number of modules, NaN before it is first published.
+   */
+  private       double               lastModuleCount             = Double.NaN;
+  /**
+   * Last published maximum speed, NaN before it is first published.
+   */
+  private       double               lastMaxSpeed                = Double.NaN;
+  /**
+   * Last published left to right size, NaN before it is first published.
+   */
+  private       double               lastSizeLeftRight           = Double.NaN;
+  /**
+   * Last published front to back size, NaN before it is first published.
+   */
+  private       double               lastSizeFrontBack           = Double.NaN;
+  /**
+   * Last published maximum angular velocity, NaN before it is first published.
+   */
+  private       double               lastMaxAngularVelocity      = Double.NaN;
+  /**
+   * Last published wheel locations, null before they are first published.
+   */
+  private       double[]             lastWheelLocations          = null;
+  /**
+   * Last published rotation unit, null before it is first published.
+   */
+  private       String               lastRotationUnit            = null;
+  /**
+   * Last published forward direction, null before it is first published.
+   */
+  private       String               lastForwardDirection        = null;
+
+  /**
+   * Create the publishers and buffers for a swerve drive.
+   *
+   * @param moduleCount Number of swerve modules.
+   */
+  public SwerveTelemetryPublisher(int moduleCount)
+  {
+    this.moduleCount = moduleCount;
+    dashboard = NetworkTableInstance.getDefault().getTable("SmartDashboard");
+    NetworkTable swerve = dashboard.getSubTable("swerve");
+
+    measuredStates = swerve.getDoubleArrayTopic("measuredStates").publish();
+    desiredStates = swerve.getDoubleArrayTopic("desiredStates").publish();
+    measuredChassisSpeeds = swerve.getDoubleArrayTopic("measuredChassisSpeeds").publish();
+    desiredChassisSpeeds = swerve.getDoubleArrayTopic("desiredChassisSpeeds").publish();
+    robotRotation = swerve.getDoubleTopic("robotRotation").publish();
+    kinematicsCacheHits = swerve.getDoubleTopic("kinematicsCacheHits").publish();
+    kinematicsCacheMisses = swerve.getDoubleTopic("kinematicsCacheMisses").publish();
+    controlFramesSent = swerve.getDoubleTopic("controlFramesSent").publish();
+    controlFramesSaved = swerve.getDoubleTopic("controlFramesSaved").publish();
+    flightRecordsWritten = swerve.getDoubleTopic("flightRecordsWritten").publish();
+    flightRecordsDropped = swerve.getDoubleTopic("flightRecordsDropped").publish();
+
+    moduleCountPublisher = swerve.getDoubleTopic("moduleCount").publish();
+    maxSpeed = swerve.getDoubleTopic("maxSpeed").publish();
+    sizeLeftRight = swerve.getDoubleTopic("sizeLeftRight").publish();
+    sizeFrontBack = swerve.getDoubleTopic("sizeFrontBack").publish();
+    maxAngularVelocity = swerve.getDoubleTopic("maxAngularVelocity").publish();
+    wheelLocations = swerve.getDoubleArrayTopic("wheelLocations").publish();
+    rotationUnit = swerve.getStringTopic("rotationUnit").publish();
+    forwardDirection = swerve.getStringTopic("forwardDirection").publish();
+
+    measuredStatesBuffer = new double[moduleCount * 2];
+    desiredStatesBuffer = new double[moduleCount * 2];
+    optimizedSpeedBuffer = new double[moduleCount];
+    optimizedAngleBuffer = new double[moduleCount];
+    moduleOmegaBuffer = new double[moduleCount];
+    moduleAngleBuffer = new double[moduleCount];
+    relativeEncoderBuffer = new double[moduleCount];
+    absoluteEncoderBuffer = new double[moduleCount];
+  }
+
+  /**
+   * Copy the values written to {@link SwerveDriveTelemetry} during this loop into the buffers and publish them,
+   * along with any constant which changed since it was last published.
+   *
+   * @param debug Publish the per module debug values as well.
+   */
+  public void flush(boolean debug)
+  {
+    System.arraycopy(SwerveDriveTelemetry.measuredStates, 0, measuredStatesBuffer, 0, measuredStatesBuffer.length);
+    System.arraycopy(SwerveDriveTelemetry.desiredStates, 0, desiredStatesBuffer, 0, desiredStatesBuffer.length);
+    System.arraycopy(SwerveDriveTelemetry.measuredChassisSpeeds, 0, measuredChassisSpeedsBuffer, 0, 3);
+    System.arraycopy(SwerveDriveTelemetry.desiredChassisSpeeds, 0, desiredChassisSpeedsBuffer, 0, 3);
+    double rotation    = SwerveDriveTelemetry.robotRotation;
+    double cacheHits   = SwerveDriveTelemetry.kinematicsCacheHits;
+    double cacheMisses = SwerveDriveTelemetry.kinematicsCacheMisses;
+    double framesSent  = SwerveDriveTelemetry.controlFramesSent;
+    double framesSaved = SwerveDriveTelemetry.controlFramesSaved;
+    double written     = SwerveDriveTelemetry.flightRecordsWritten;
+    double dropped     = SwerveDriveTelemetry.flightRecordsDropped;
+    if (debug)
+    {
+      System.arraycopy(SwerveDriveTelemetry.optimizedSpeedSetpoints, 0, optimizedSpeedBuffer, 0, moduleCount);
+      System.arraycopy(SwerveDriveTelemetry.optimizedAngleSetpoints, 0, optimizedAngleBuffer, 0, moduleCount);
+      System.arraycopy(SwerveDriveTelemetry.moduleOmegas, 0, moduleOmegaBuffer, 0, moduleCount);
+      System.arraycopy(SwerveDriveTelemetry.moduleAngles, 0, moduleAngleBuffer, 0, moduleCount);
+      System.arraycopy(SwerveDriveTelemetry.relativeEncoders, 0, relativeEncoderBuffer, 0, moduleCount);
+      System.arraycopy(SwerveDriveTelemetry.absoluteEncoders, 0, absoluteEncoderBuffer, 0, moduleCount);
+    }
+
+    measuredStates.set(measuredStatesBuffer);
+    desiredStates.set(desiredStatesBuffer);
+    measuredChassisSpeeds.set(measuredChassisSpeedsBuffer);
+    desiredChassisSpeeds.set(desiredChassisSpeedsBuffer);
+    robotRotation.set(rotation);
+    kinematicsCacheHits.set(cacheHits);
+    kinematicsCacheMisses.set(cacheMisses);
+    controlFramesSent.set(framesSent);
+    controlFramesSaved.set(framesSaved);
+    flightRecordsWritten.set(written);
+    flightRecordsDropped.set(dropped);
+    publishConstants();
+    if (debug)
+    {
+      publishDebug();
+    }
+  }
+
+  /**
+   * Publish the constants which changed since they were last published.
+   */
+  private void publishConstants()
+  {
+    lastModuleCount = publishIfChanged(moduleCountPublisher, lastModuleCount, SwerveDriveTelemetry.moduleCount);
+    lastMaxSpeed = publishIfChanged(maxSpeed, lastMaxSpeed, SwerveDriveTelemetry.maxSpeed);
+    lastSizeLeftRight = publishIfChanged(sizeLeftRight, lastSizeLeftRight, SwerveDriveTelemetry.sizeLeftRight);
+    lastSizeFrontBack = publishIfChanged(sizeFrontBack, lastSizeFrontBack, SwerveDriveTelemetry.sizeFrontBack);
+    lastMaxAngularVelocity = publishIfChanged(maxAngularVelocity, lastMaxAngularVelocity,
+                                              SwerveDriveTelemetry.maxAngularVelocity);
+    if (SwerveDriveTelemetry.wheelLocations != null &&
+        !Arrays.equals(lastWheelLocations, SwerveDriveTelemetry.wheelLocations))
+    {
+      lastWheelLocations = SwerveDriveTelemetry.wheelLocations.clone();
+      wheelLocations.set(lastWheelLocations);
+    }
+    if (!SwerveDriveTelemetry.rotationUnit.equals(lastRotationUnit))
+    {
+      lastRotationUnit = SwerveDriveTelemetry.rotationUnit;
+      rotationUnit.set(lastRotationUnit);
+    }
+    if (!SwerveDriveTelemetry.forwardDirection.equals(lastForwardDirection))
+    {
+      lastForwardDirection = SwerveDriveTelemetry.forwardDirection;
+      forwardDirection.set(lastForwardDirection);
+    }
+  }
+
+  /**
+   * Publish a value if it differs from the last value published.
+   *
+   * @param publisher Publisher of the value.
+   * @param last      Last value published, NaN if never published.
+   * @param value     Current value.
+   * @return Value now published.
+   */
+  private static double publishIfChanged(DoublePublisher publisher, double last, double value)
+  {
+    if (Double.doubleToLongBits(last) != Double.doubleToLongBits(value))
+    {
+      publisher.set(value);
+    }
+    return value;
+  }
+
+  /**
+   * Publish the per module debug values under their SmartDashboard keys, creating the publishers the first time.
+   */
+  private void publishDebug()
+  {
+    if (speedSetpoints == null)
+    {
+      speedSetpoints = new DoublePublisher[moduleCount];
+      angleSetpoints = new DoublePublisher[moduleCount];
+      optimizedSpeedSetpoints = new DoublePublisher[moduleCount];
+      optimizedAngleSetpoints = new DoublePublisher[moduleCount];
+      moduleOmegas = new DoublePublisher[moduleCount];
+      moduleAngles = new DoublePublisher[moduleCount];
+      relativeEncoders = new DoublePublisher[moduleCount];
+      absoluteEncoders = new DoublePublisher[moduleCount];
+      for (int i = 0; i < moduleCount; i++)
+      {
+        speedSetpoints[i] = dashboard.getDoubleTopic("Module[" + i + "] Speed Setpoint: ").publish();
+        angleSetpoints[i] = dashboard.getDoubleTopic("Module[" + i + "] Angle Setpoint: ").publish();
+        optimizedSpeedSetpoints[i] = dashboard.getDoubleTopic("Optimized " + i + " Speed Setpoint: ").publish();
+        optimizedAngleSetpoints[i] = dashboard.getDoubleTopic("Optimized " + i + " Angle Setpoint: ").publish();
+        moduleOmegas[i] = dashboard.getDoubleTopic("Module " + i + " Omega: ").publish();
+        moduleAngles[i] = dashboard.getDoubleTopic("Module " + i + "Angle").publish();
+        relativeEncoders[i] = dashboard.getDoubleTopic("Module" + i + "Relative Encoder").publish();
+        absoluteEncoders[i] = dashboard.getDoubleTopic("Module" + i + "Absolute Encoder").publish();
+      }
+    }
+    for (int i = 0; i < moduleCount; i++)
+    {
+      speedSetpoints[i].set(desiredStatesBuffer[(i * 2) + 1]);
+      angleSetpoints[i].set(desiredStatesBuffer[i * 2]);
+      optimizedSpeedSetpoints[i].set(optimizedSpeedBuffer[i]);
+      optimizedAngleSetpoints[i].set(optimizedAngleBuffer[i]);
+      moduleOmegas[i].set(moduleOmegaBuffer[i]);
+      moduleAngles[i].set(moduleAngleBuffer[i]);
+      relativeEncoders[i].set(relativeEncoderBuffer[i]);
+      absoluteEncoders[i].set(absoluteEncoderBuffer[i]);
+    }
+  }
+}
@@ -5,7 +5,10 @@
 package frc.robot;
 
 
+import Swervelib.math.Matter;
 import Swervelib.parser.PIDFConfig;
+import edu.wpi.first.math.geometry.Translation3d;
+import edu.wpi.first.math.util.Units;
 
 /**
  * The Constants class provides a convenient place for teams to hold robot-wide numerical or boolean constants. This
@@ -164,6 +167,33 @@ public final class Constants
     public static final double THROTTLE_MIN    = 0.4; // possibly up the min
     public static final double THROTTLE_MAX    = 1.0;
     // min, max
+
+    // Run odometry on its own thread instead of in the 50 Hz main loop
+    public static final boolean ODOMETRY_THREAD    = false;
+    public static final double  ODOMETRY_FREQUENCY = 250; // hertz
+
+    // Configure the swerve motors and encoders concurrently at startup
+    public static final boolean PARALLEL_DEVICE_CONFIGURATION = true;
+
+    // Record the swerve drive state to the on-robot DataLog
+    public static final boolean FLIGHT_RECORDER = true;
+
+    // Time each stage of the drive pipeline, published to swerve/timing
+    public static final boolean STAGE_TIMING = false;
+
+    // Poll the Pigeon on its own thread instead of reading it on every call
+    public static final boolean IMU_SAMPLER          = true;
+    public static final double  IMU_SAMPLE_FREQUENCY = 200; // hertz
+
+    // Time from reading the sensors to the new module states acting, heading control looks this far ahead
+    public static final double ACTUATION_LATENCY = 0.02; // seconds
+
+    // Limit acceleration in teleop to what the robot can take without tipping over. Off until ROBOT_MASS and the CHASSIS
+    // center of gravity height, both placeholders, are measured on the robot.
+    public static final boolean ANTI_TIP   = false;
+    public static final double  LOOP_TIME  = 0.13; // seconds, 20ms + 110ms Spark MAX velocity lag
+    public static final double  ROBOT_MASS = (148 - 20.3) * 0.453592; // 127.7lbs * kg per pound, placeholder until weighed
+    public static final Matter  CHASSIS    = new Matter(new Translation3d(0, 0, Units.inchesToMeters(8)), ROBOT_MASS);
   }
 
 }
@@ -6,9 +6,11 @@ package frc.robot;
 
 import com.revrobotics.REVPhysicsSim;
 
+import Swervelib.motors.StatusFrameProfile;
 import edu.wpi.first.wpilibj.TimedRobot;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.robot.Constants.Drivebase;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to each mode, as
@@ -58,6 +60,7 @@ public class Robot extends TimedRobot
   @Override
   public void disabledInit()
   {
+    m_robotContainer.setStatusFrameProfile(StatusFrameProfile.DISABLED_LOW_BUS);
   }
 
   @Override
@@ -71,6 +74,7 @@ public class Robot extends TimedRobot
   @Override
   public void autonomousInit()
   {
+    m_robotContainer.setStatusFrameProfile(getDrivingStatusFrameProfile());
    m_autonomousCommand = m_robotContainer.getAutonomousCommand();
 
     // schedule the autonomous command (example)
@@ -91,6 +95,7 @@ public class Robot extends TimedRobot
   @Override
   public void teleopInit()
   {
+    m_robotContainer.setStatusFrameProfile(getDrivingStatusFrameProfile());
     // This makes sure that the autonomous stops running when
     // teleop starts running. If you want the autonomous to
     // continue until interrupted by another command, remove
@@ -119,6 +124,7 @@ public class Robot extends TimedRobot
   {
     // Cancels all running commands at the start of test mode.
     CommandScheduler.getInstance().cancelAll();
+    m_robotContainer.setStatusFrameProfile(StatusFrameProfile.CHARACTERIZATION);
   }
 
   /**
@@ -129,6 +135,16 @@ public class Robot extends TimedRobot
   {
   }
 
+  /**
+   * Get the status frame profile used while driving, faster feedback when odometry runs on its own thread.
+   *
+   * @return {@link StatusFrameProfile} for autonomous and teleop.
+   */
+  private StatusFrameProfile getDrivingStatusFrameProfile()
+  {
+    return Drivebase.ODOMETRY_THREAD ? StatusFrameProfile.ODOMETRY_HI_RATE : StatusFrameProfile.MATCH;
+  }
+
   /**
    * This function is called once when the robot is first started up.
    */
@@ -6,6 +6,7 @@ package frc.robot;
 
 import java.io.File;
 
+import Swervelib.motors.StatusFrameProfile;
 import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.RepeatCommand;
@@ -284,6 +285,16 @@ new Trigger(
 
   }
 
+  /**
+   * Switch the CAN status frame periods of the drivebase motors for the current robot mode.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  public void setStatusFrameProfile(StatusFrameProfile profile)
+  {
+    drivebase.setStatusFrameProfile(profile);
+  }
+
   /**
    * Use this to pass the autonomous command to the main {@link Robot} class.
    *
@@ -11,6 +11,7 @@ import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.Constants.Drivebase;
 import frc.robot.subsystems.Swerve.SwerveSubsystem;
 
 /**
@@ -67,18 +68,19 @@ public class AbsoluteDrive extends CommandBase
   public void execute()
   {
 
-    // Get the desired chassis speeds based on a 2 joystick module.
+    // Get the desired chassis speeds based on a 2 joystick module, holding the heading the robot will be at when they
+    // act.
     ChassisSpeeds desiredSpeeds = swerve.getTargetSpeeds(vX.getAsDouble(), vY.getAsDouble(),
                                                          headingHorizontal.getAsDouble(),
                                                          headingVertical.getAsDouble(),
-                                                         swerve.getYaw().getRadians());
+                                                         swerve.getPredictedYaw().getRadians());
 
     // Limit velocity to prevent tippy
     Translation2d translation = SwerveController.getTranslation2d(desiredSpeeds);
-//    translation = SwerveMath.limitVelocity(translation, swerve.getFieldVelocity(), swerve.getPose(),
-//                                           Constants.LOOP_TIME,
-//                                           Constants.CHASSIS_MASS, Constants.ROBOT_MASS, Constants.CHASSIS_CG,
-//                                           swerve.getSwerveDriveConfiguration());
+    if (Drivebase.ANTI_TIP)
+    {
+      translation = swerve.limitVelocity(translation, true);
+    }
     SmartDashboard.putNumber("LimitedTranslation", translation.getX());
     SmartDashboard.putString("Translation", translation.toString());
 
@@ -11,6 +11,7 @@ import Swervelib.SwerveController;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.CommandBase;
+import frc.robot.Constants.Drivebase;
 import frc.robot.subsystems.Swerve.SwerveSubsystem;
 
 /**
@@ -69,12 +70,16 @@ public class TeleopDrive extends CommandBase
     SmartDashboard.putNumber("vY", yVelocity);
     SmartDashboard.putNumber("omega", angVelocity);
     // SmartDashboard.putNumber("negOmega", angVelocity);
+    boolean       fieldRelative = driveMode.getAsBoolean();
+    Translation2d translation   = new Translation2d(xVelocity, yVelocity);
+    if (Drivebase.ANTI_TIP)
+    {
+      translation = swerve.limitVelocity(translation, fieldRelative);
+    }
     swerve.drive(
-        new Translation2d(
-            xVelocity,
-            yVelocity),
+        translation,
         angVelocity,
-        driveMode.getAsBoolean(),
+        fieldRelative,
         isOpenLoop);
   }
 
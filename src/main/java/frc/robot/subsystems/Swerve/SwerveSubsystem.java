@@ -1,10 +1,17 @@
 package frc.robot.subsystems.Swerve;
 import java.io.File;
+import java.util.function.Supplier;
 
+import Swervelib.DriveStateSnapshot;
 import Swervelib.SwerveController;
 import Swervelib.SwerveDrive;
+import Swervelib.imu.PigeonSwerve;
+import Swervelib.math.CenterOfGravityModel;
 import Swervelib.math.SwerveKinematics2;
+import Swervelib.math.TipOverLimiter;
+import Swervelib.motors.StatusFrameProfile;
 import Swervelib.parser.SwerveControllerConfiguration;
+import Swervelib.parser.SwerveDeviceConfigurator;
 import Swervelib.parser.SwerveDriveConfiguration;
 import Swervelib.parser.SwerveParser;
 import Swervelib.telemetry.SwerveDriveTelemetry;
@@ -12,8 +19,10 @@ import Swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Translation3d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants.Drivebase;
 
 public class SwerveSubsystem extends SubsystemBase
 {
@@ -21,7 +30,15 @@ public class SwerveSubsystem extends SubsystemBase
   /**
    * Swerve drive object.
    */
-  private final SwerveDrive swerveDrive;
+  private final SwerveDrive          swerveDrive;
+  /**
+   * Live center of gravity of the robot, mechanisms register with it.
+   */
+  private final CenterOfGravityModel centerOfGravity = new CenterOfGravityModel();
+  /**
+   * Anti tip-over limiter for teleop velocities, following the center of gravity.
+   */
+  private final TipOverLimiter       tipOverLimiter;
 
   /**
    * Initialize {@link SwerveDrive} with the directory provided.
@@ -31,6 +48,7 @@ public class SwerveSubsystem extends SubsystemBase
   public SwerveSubsystem(File directory)
   {
     SwerveDriveTelemetry.verbosity = TelemetryVerbosity.HIGH;
+    SwerveDeviceConfigurator.parallel = Drivebase.PARALLEL_DEVICE_CONFIGURATION;
     try
     {
       swerveDrive = new SwerveParser(directory).createSwerveDrive();
@@ -38,6 +56,22 @@ public class SwerveSubsystem extends SubsystemBase
     {
       throw new RuntimeException(e);
     }
+    if (Drivebase.ODOMETRY_THREAD)
+    {
+      swerveDrive.startOdometryThread(Drivebase.ODOMETRY_FREQUENCY);
+    }
+    if (Drivebase.IMU_SAMPLER && !swerveDrive.swerveDriveConfiguration.simulated &&
+        swerveDrive.swerveDriveConfiguration.imu instanceof PigeonSwerve)
+    {
+      ((PigeonSwerve) swerveDrive.swerveDriveConfiguration.imu).startSampling(Drivebase.IMU_SAMPLE_FREQUENCY);
+    }
+    if (Drivebase.FLIGHT_RECORDER)
+    {
+      swerveDrive.startFlightRecorder();
+    }
+    swerveDrive.setStageTimingEnabled(Drivebase.STAGE_TIMING);
+    centerOfGravity.register("chassis", Drivebase.CHASSIS);
+    tipOverLimiter = new TipOverLimiter(centerOfGravity.getCenterOfGravity(), swerveDrive.swerveDriveConfiguration);
   }
 
   /**
@@ -49,6 +83,8 @@ public class SwerveSubsystem extends SubsystemBase
   public SwerveSubsystem(SwerveDriveConfiguration driveCfg, SwerveControllerConfiguration controllerCfg)
   {
     swerveDrive = new SwerveDrive(driveCfg, controllerCfg);
+    centerOfGravity.register("chassis", Drivebase.CHASSIS);
+    tipOverLimiter = new TipOverLimiter(centerOfGravity.getCenterOfGravity(), driveCfg);
   }
   /**
    * The primary method for controlling the drivebase.  Takes a {@link Translation2d} and a rotation rate, and
@@ -75,6 +111,10 @@ public class SwerveSubsystem extends SubsystemBase
   public void periodic()
   {
     swerveDrive.updateOdometry();
+    if (centerOfGravity.update())
+    {
+      tipOverLimiter.setCenterOfGravity(centerOfGravity.getCenterOfGravity());
+    }
   }
 
   @Override
@@ -142,6 +182,16 @@ public class SwerveSubsystem extends SubsystemBase
     swerveDrive.setMotorIdleMode(brake);
   }
 
+  /**
+   * Switch the CAN status frame periods of the swerve motors.
+   *
+   * @param profile {@link StatusFrameProfile} to apply.
+   */
+  public void setStatusFrameProfile(StatusFrameProfile profile)
+  {
+    swerveDrive.setStatusFrameProfile(profile);
+  }
+
   /**
    * Gets the current yaw angle of the robot, as reported by the imu.  CCW positive, not wrapped.
    *
@@ -152,6 +202,26 @@ public class SwerveSubsystem extends SubsystemBase
     return swerveDrive.getYaw();
   }
 
+  /**
+   * Gets the yaw angle of the robot at the time new module states act, extrapolated with the imu yaw rate.
+   *
+   * @return The predicted yaw angle
+   */
+  public Rotation2d getPredictedYaw()
+  {
+    return swerveDrive.getPredictedYaw(Drivebase.ACTUATION_LATENCY);
+  }
+
+  /**
+   * Gets the pose of the robot at the time new module states act, extrapolated from the last odometry update.
+   *
+   * @return The predicted pose
+   */
+  public Pose2d getPredictedPose()
+  {
+    return swerveDrive.getPredictedPose(Drivebase.ACTUATION_LATENCY);
+  }
+
   /**
    * Get the chassis speeds based on controller input of 2 joysticks. One for speeds in which direction. The other for
    * the angle of the robot.
@@ -178,6 +248,16 @@ public class SwerveSubsystem extends SubsystemBase
     return swerveDrive.getFieldVelocity();
   }
 
+  /**
+   * Get the drive state published by the last odometry update, safe to read from any thread.
+   *
+   * @return Latest {@link DriveStateSnapshot}.
+   */
+  public DriveStateSnapshot getStateSnapshot()
+  {
+    return swerveDrive.getStateSnapshot();
+  }
+
   /**
    * Get the {@link SwerveController} in the swerve drive.
    *
@@ -198,6 +278,48 @@ public class SwerveSubsystem extends SubsystemBase
     return swerveDrive.swerveDriveConfiguration;
   }
 
+  /**
+   * Limit a commanded velocity to the acceleration the robot can take without tipping over.
+   *
+   * @param translation   Commanded linear velocity of the robot in meters per second.
+   * @param fieldRelative Whether the translation is field-relative, otherwise robot-relative.
+   * @return The limited velocity, in the same frame as the translation.
+   */
+  public Translation2d limitVelocity(Translation2d translation, boolean fieldRelative)
+  {
+    Rotation2d yaw = swerveDrive.getYaw();
+    if (fieldRelative)
+    {
+      return tipOverLimiter.limitVelocity(translation, swerveDrive.getFieldVelocity(), yaw, Drivebase.LOOP_TIME);
+    }
+    return tipOverLimiter.limitVelocity(translation.rotateBy(yaw), swerveDrive.getFieldVelocity(), yaw,
+                                        Drivebase.LOOP_TIME).rotateBy(yaw.unaryMinus());
+  }
+
+  /**
+   * Register a mechanism which moves the center of gravity, such as an elevator, so the anti tip-over limit follows
+   * it.
+   *
+   * @param name     Name of the mechanism.
+   * @param mass     Mass of the mechanism in kg.
+   * @param position Supplier of the position of the mechanism center of mass in meters from robot center, using the
+   *                 floor as the vertical datum.
+   */
+  public void registerMechanism(String name, double mass, Supplier<Translation3d> position)
+  {
+    centerOfGravity.register(name, mass, position);
+  }
+
+  /**
+   * Get the anti tip-over limiter.
+   *
+   * @return {@link TipOverLimiter} of the drivebase.
+   */
+  public TipOverLimiter getTipOverLimiter()
+  {
+    return tipOverLimiter;
+  }
+
   /**
    * Lock the swerve.
    */
@@ -0,0 +1,152 @@
+package Swervelib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import Swervelib.math.SwerveKinematicsEngine;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import org.junit.jupiter.api.Test;
+
+class OdometrySampleBufferTest
+{
+
+  /**
+   * Allowed error of replayed and rebased poses.
+   */
+  private static final double                 EPSILON    = 1e-9;
+  /**
+   * Kinematics of a square drive with 0.6 meters between wheels.
+   */
+  private static final SwerveKinematicsEngine KINEMATICS = new SwerveKinematicsEngine(
+      new double[]{0.3, 0.3, -0.3, -0.3}, new double[]{0.3, -0.3, 0.3, -0.3});
+
+  /**
+   * Create module positions with every module at the same distance and angle.
+   *
+   * @param distance Module distance in meters.
+   * @param angle    Module angle in radians.
+   * @return Positions of the four modules.
+   */
+  private static SwerveModulePosition[] positions(double distance, double angle)
+  {
+    SwerveModulePosition[] positions = new SwerveModulePosition[4];
+    for (int i = 0; i < positions.length; i++)
+    {
+      positions[i] = new SwerveModulePosition(distance, new Rotation2d(angle));
+    }
+    return positions;
+  }
+
+  /**
+   * Create a buffer of samples 10 milliseconds apart of the robot driving forward 0.1 meters per sample along X.
+   *
+   * @param capacity Buffer capacity.
+   * @param samples  Number of samples to add.
+   * @return The filled buffer.
+   */
+  private static OdometrySampleBuffer driveForward(int capacity, int samples)
+  {
+    OdometrySampleBuffer buffer = new OdometrySampleBuffer(capacity, 4);
+    for (int i = 0; i < samples; i++)
+    {
+      buffer.add(i * 0.01, 0, positions(i * 0.1, 0), i * 0.1, 0, 0);
+    }
+    return buffer;
+  }
+
+  @Test
+  void findNearestPicksTheClosestSample()
+  {
+    assertEquals(-1, new OdometrySampleBuffer(4, 4).findNearest(1));
+
+    OdometrySampleBuffer buffer = driveForward(10, 5);
+    assertEquals(0, buffer.findNearest(-1));
+    assertEquals(0, buffer.findNearest(0.004));
+    assertEquals(1, buffer.findNearest(0.006));
+    assertEquals(2, buffer.findNearest(0.02));
+    assertEquals(4, buffer.findNearest(0.039));
+    assertEquals(4, buffer.findNearest(10));
+  }
+
+  @Test
+  void findNearestUsesLogicalIndicesAfterWrapping()
+  {
+    // Seven samples into a buffer of four leaves the samples at 0.03 to 0.06.
+    OdometrySampleBuffer buffer = driveForward(4, 7);
+    assertEquals(4, buffer.size());
+    assertEquals(0.03, buffer.getTimestamp(0), EPSILON);
+    assertEquals(0.06, buffer.getTimestamp(3), EPSILON);
+    assertEquals(0, buffer.findNearest(0));
+    assertEquals(1, buffer.findNearest(0.041));
+    assertEquals(3, buffer.findNearest(0.059));
+    assertEquals(0.4, buffer.getDistance(1, 2), EPSILON);
+  }
+
+  @Test
+  void replayFromMovesEveryNewerSample()
+  {
+    OdometrySampleBuffer buffer = driveForward(10, 6);
+    buffer.replayFrom(2, 1, 2, Math.PI / 2, KINEMATICS);
+
+    // Older samples are untouched.
+    assertEquals(0.1, buffer.getPoseX(1), EPSILON);
+    assertEquals(0, buffer.getPoseY(1), EPSILON);
+    // Driving forward while facing +Y now moves along +Y from the corrected pose.
+    for (int i = 2; i < buffer.size(); i++)
+    {
+      assertEquals(1, buffer.getPoseX(i), EPSILON);
+      assertEquals(2 + (i - 2) * 0.1, buffer.getPoseY(i), EPSILON);
+      assertEquals(Math.PI / 2, buffer.getPoseTheta(i), EPSILON);
+    }
+  }
+
+  @Test
+  void replayFromTakesTheHeadingFromTheImu()
+  {
+    OdometrySampleBuffer buffer = new OdometrySampleBuffer(10, 4);
+    // Wheels slipping while turning in place: the modules report no distance, the IMU a quarter turn per sample.
+    for (int i = 0; i < 3; i++)
+    {
+      buffer.add(i * 0.01, i * Math.PI / 2, positions(0, 0), 0, 0, 0);
+    }
+    buffer.replayFrom(0, 0, 0, 0, KINEMATICS);
+    assertEquals(Math.PI / 2, buffer.getPoseTheta(1), EPSILON);
+    assertEquals(Math.PI, buffer.getPoseTheta(2), EPSILON);
+    assertEquals(0, buffer.getPoseX(2), EPSILON);
+    assertEquals(0, buffer.getPoseY(2), EPSILON);
+  }
+
+  @Test
+  void rebaseMovesEverySampleRigidly()
+  {
+    OdometrySampleBuffer buffer = driveForward(10, 3);
+    // Rotate a quarter turn about the origin: (x, 0) becomes (0, x).
+    buffer.rebase(0, 0, 0, 0, 0, Math.PI / 2);
+    for (int i = 0; i < buffer.size(); i++)
+    {
+      assertEquals(0, buffer.getPoseX(i), EPSILON);
+      assertEquals(i * 0.1, buffer.getPoseY(i), EPSILON);
+      assertEquals(Math.PI / 2, buffer.getPoseTheta(i), EPSILON);
+    }
+
+    // Moving the newest pose back onto the origin keeps the samples 0.1 meters apart.
+    buffer.rebase(0, 0.2, Math.PI / 2, 0, 0, Math.PI / 2);
+    assertEquals(-0.2, buffer.getPoseY(0), EPSILON);
+    assertEquals(0, buffer.getPoseY(2), EPSILON);
+    assertEquals(0, buffer.getPoseX(2), EPSILON);
+  }
+
+  @Test
+  void capacityCoversTheHistory()
+  {
+    assertEquals(51, OdometrySampleBuffer.capacityFor(0.5, 100));
+    assertEquals(2, OdometrySampleBuffer.capacityFor(0, 100));
+    assertThrows(IllegalArgumentException.class, () -> new OdometrySampleBuffer(1, 4));
+
+    OdometrySampleBuffer buffer = driveForward(4, 3);
+    buffer.clear();
+    assertEquals(0, buffer.size());
+    assertEquals(-1, buffer.findNearest(0));
+  }
+}
@@ -0,0 +1,166 @@
+package Swervelib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+
+import Swervelib.encoders.VirtualEncoderSwerve;
+import Swervelib.motors.VirtualMotorSwerve;
+import Swervelib.parser.ConfigurationFingerprints;
+import Swervelib.parser.PIDFConfig;
+import Swervelib.parser.SwerveModuleConfiguration;
+import Swervelib.parser.SwerveModulePhysicalCharacter;
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.util.Units;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SwerveModuleFlashTest
+{
+
+  /**
+   * Directory the fingerprints are stored in instead of the operating directory.
+   */
+  @TempDir
+  static File directory;
+
+  /**
+   * Virtual motor which keeps its configuration marker in a modelled flash, and counts factory resets and flash writes.
+   */
+  private static class FlashMotor extends VirtualMotorSwerve
+  {
+
+    /**
+     * Marker in the controller's RAM, loaded from flash at power on.
+     */
+    int ramMarker   = 0;
+    /**
+     * Marker in the controller's flash.
+     */
+    int flashMarker = 0;
+    /**
+     * Number of factory resets.
+     */
+    int resets      = 0;
+    /**
+     * Number of flash writes.
+     */
+    int burns       = 0;
+
+    /**
+     * Create a drive motor with an empty flash.
+     */
+    FlashMotor()
+    {
+      super(true);
+    }
+
+    /**
+     * Power cycle the controller, reloading its RAM from flash, and clear the counters.
+     */
+    void powerCycle()
+    {
+      ramMarker = flashMarker;
+      resets = 0;
+      burns = 0;
+    }
+
+    @Override
+    public void factoryDefaults()
+    {
+      resets++;
+      ramMarker = 0;
+    }
+
+    @Override
+    public void setConfigurationMarker(int marker)
+    {
+      ramMarker = marker;
+    }
+
+    @Override
+    public int getConfigurationMarker()
+    {
+      return ramMarker;
+    }
+
+    @Override
+    public void burnFlash()
+    {
+      burns++;
+      flashMarker = ramMarker;
+    }
+  }
+
+  @BeforeAll
+  static void initialize()
+  {
+    HAL.initialize(500, 0);
+    ConfigurationFingerprints.file = new File(directory, "swerve-fingerprints.properties");
+  }
+
+  /**
+   * Create a module whose devices are configured by the test, with the drive motor stored under a fingerprint key.
+   *
+   * @param driveMotor Drive motor of the module.
+   * @param key        Fingerprint key of the drive motor.
+   * @return Swerve module with unconfigured devices.
+   */
+  private static SwerveModule createModule(FlashMotor driveMotor, String key)
+  {
+    SwerveModulePhysicalCharacter physical   = new SwerveModulePhysicalCharacter(6.75, 21.42, 0,
+                                                                                 Units.inchesToMeters(4), 1.19, 12,
+                                                                                 40, 20, 0.25, 0.25, 1, 1, 0);
+    VirtualMotorSwerve            angleMotor = new VirtualMotorSwerve(false);
+    VirtualEncoderSwerve          encoder    = new VirtualEncoderSwerve(0, 0);
+    encoder.follow(angleMotor, 0);
+    SwerveModuleConfiguration configuration = new SwerveModuleConfiguration(driveMotor, angleMotor, encoder, 0, 0.3,
+                                                                            0.3, new PIDFConfig(0.01, 0, 0, 0),
+                                                                            new PIDFConfig(0.1, 0, 0, 0), 4.5,
+                                                                            physical, false, false, false, 1, 0);
+    configuration.driveFingerprintKey = key;
+    return new SwerveModule(0, configuration, false);
+  }
+
+  @Test
+  void unchangedControllerIsNotWrittenAgain()
+  {
+    FlashMotor motor = new FlashMotor();
+    createModule(motor, "rio.1").configureDriveMotor();
+    assertEquals(1, motor.resets);
+    assertEquals(1, motor.burns);
+
+    motor.powerCycle();
+    createModule(motor, "rio.1").configureDriveMotor();
+    assertEquals(0, motor.resets);
+    assertEquals(0, motor.burns);
+  }
+
+  @Test
+  void replacementControllerWithTheSameIdIsWritten()
+  {
+    createModule(new FlashMotor(), "rio.2").configureDriveMotor();
+
+    // The roboRIO still holds the fingerprint, but the new controller has no marker in its flash.
+    FlashMotor replacement = new FlashMotor();
+    createModule(replacement, "rio.2").configureDriveMotor();
+    assertEquals(1, replacement.resets);
+    assertEquals(1, replacement.burns);
+    assertEquals(replacement.flashMarker, replacement.ramMarker);
+  }
+
+  @Test
+  void factoryResetControllerIsWritten()
+  {
+    FlashMotor motor = new FlashMotor();
+    createModule(motor, "rio.3").configureDriveMotor();
+
+    // A used controller reset by hand keeps the ID but loses its configuration.
+    motor.flashMarker = 0;
+    motor.powerCycle();
+    createModule(motor, "rio.3").configureDriveMotor();
+    assertEquals(1, motor.resets);
+    assertEquals(1, motor.burns);
+  }
+}
@@ -0,0 +1,85 @@
+package Swervelib.math;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+class KinematicsMatrixCacheTest
+{
+
+  /**
+   * X location of each module in meters.
+   */
+  private static final double[] MODULE_X   = {0.3, 0.3, -0.25, -0.25};
+  /**
+   * Y location of each module in meters.
+   */
+  private static final double[] MODULE_Y   = {0.28, -0.28, 0.28, -0.28};
+  /**
+   * Quantization of the center of rotation in meters.
+   */
+  private static final double   RESOLUTION = 0.001;
+
+  @Test
+  void matricesMatchFreshlyBuiltOnes()
+  {
+    KinematicsMatrixCache cache   = new KinematicsMatrixCache(MODULE_X, MODULE_Y, 2, RESOLUTION);
+    double[]              inverse = new double[MODULE_X.length * 6];
+    double[]              big     = new double[MODULE_X.length * 8];
+    double[]              forward = new double[MODULE_X.length * 6];
+    SwerveKinematicsEngine.buildInverseKinematics(MODULE_X, MODULE_Y, 0.5, -0.2, inverse, big);
+    SwerveKinematicsEngine.buildForwardKinematics(MODULE_X, MODULE_Y, 0.5, -0.2, forward);
+
+    // Quantized to the same millimeter as (0.5, -0.2).
+    int slot = cache.lookup(0.5002, -0.1998);
+    assertArrayEquals(inverse, cache.getInverseKinematics(slot), 1e-12);
+    assertArrayEquals(big, cache.getBigInverseKinematics(slot), 1e-12);
+    assertArrayEquals(forward, cache.getForwardKinematics(slot), 1e-12);
+  }
+
+  @Test
+  void nearbyCentersOfRotationShareASlot()
+  {
+    KinematicsMatrixCache cache = new KinematicsMatrixCache(MODULE_X, MODULE_Y, 4, RESOLUTION);
+    int                   slot  = cache.lookup(0, 0);
+    assertEquals(slot, cache.lookup(0.0004, -0.0004));
+    assertNotEquals(slot, cache.lookup(0.002, 0));
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test
+  void leastRecentlyUsedSlotIsEvicted()
+  {
+    KinematicsMatrixCache cache = new KinematicsMatrixCache(MODULE_X, MODULE_Y, 2, RESOLUTION);
+    int                   a     = cache.lookup(0, 0);
+    int                   b     = cache.lookup(1, 0);
+    assertEquals(a, cache.lookup(0, 0));
+    // b is now the least recently used, so c takes its slot and a stays cached.
+    assertEquals(b, cache.lookup(0, 1));
+    assertEquals(a, cache.lookup(0, 0));
+    assertEquals(2, cache.getHits());
+    assertEquals(3, cache.getMisses());
+    assertEquals(1, cache.getEvictions());
+
+    cache.lookup(1, 0);
+    assertEquals(4, cache.getMisses());
+    assertEquals(2, cache.getEvictions());
+
+    cache.resetCounters();
+    assertEquals(0, cache.getHits());
+    assertEquals(0, cache.getMisses());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  @Test
+  void invalidSizesAreRejected()
+  {
+    assertThrows(IllegalArgumentException.class, () -> new KinematicsMatrixCache(MODULE_X, MODULE_Y, 0, RESOLUTION));
+    assertThrows(IllegalArgumentException.class, () -> new KinematicsMatrixCache(MODULE_X, MODULE_Y, 2, 0));
+  }
+}
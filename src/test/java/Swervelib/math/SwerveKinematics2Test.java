@@ -0,0 +1,256 @@
+package Swervelib.math;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Random;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import org.junit.jupiter.api.Test;
+
+class SwerveKinematics2Test
+{
+
+  /**
+   * Allowed difference from WPILib.
+   */
+  private static final double EPSILON = 1e-9;
+  /**
+   * Random drive geometries and inputs compared per test.
+   */
+  private static final int    TRIALS  = 200;
+
+  /**
+   * Create random module locations around the robot center, not symmetric so transposed or mirrored matrices show up,
+   * but spread out enough to keep the forward kinematics well conditioned.
+   *
+   * @param random Random number generator.
+   * @return Between 2 and 6 module locations from 0.2 to 0.5 meters from the robot center.
+   */
+  private static Translation2d[] randomModules(Random random)
+  {
+    Translation2d[] modules = new Translation2d[2 + random.nextInt(5)];
+    for (int i = 0; i < modules.length; i++)
+    {
+      double angle = 2 * Math.PI * (i + 0.5 * random.nextDouble()) / modules.length;
+      modules[i] = new Translation2d(0.2 + 0.3 * random.nextDouble(), new Rotation2d(angle));
+    }
+    return modules;
+  }
+
+  /**
+   * Create the kinematics under test on a clock which never moves, so no acceleration is derived and nothing reads the
+   * FPGA time.
+   *
+   * @param modules Module locations.
+   * @return {@link SwerveKinematics2} of the modules.
+   */
+  private static SwerveKinematics2 create(Translation2d[] modules)
+  {
+    SwerveKinematics2 kinematics = new SwerveKinematics2(modules);
+    kinematics.setClock(() -> 0);
+    return kinematics;
+  }
+
+  /**
+   * Create random non-zero chassis speeds.
+   *
+   * @param random Random number generator.
+   * @return Chassis speeds up to 5 meters per second and 2 pi radians per second.
+   */
+  private static ChassisSpeeds randomSpeeds(Random random)
+  {
+    return new ChassisSpeeds(10 * random.nextDouble() - 5,
+                             10 * random.nextDouble() - 5,
+                             4 * Math.PI * random.nextDouble() - 2 * Math.PI);
+  }
+
+  /**
+   * Check module states match WPILib's, comparing angles only for moving modules.
+   *
+   * @param expected States from {@link SwerveDriveKinematics}.
+   * @param actual   States from {@link SwerveKinematics2}.
+   */
+  private static void assertStates(SwerveModuleState[] expected, SwerveModuleState[] actual)
+  {
+    assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; i++)
+    {
+      assertEquals(expected[i].speedMetersPerSecond, actual[i].speedMetersPerSecond, EPSILON);
+      // The heading of a module at the center of rotation is only rounding error.
+      if (expected[i].speedMetersPerSecond > 1e-6)
+      {
+        assertEquals(expected[i].angle.getCos(), actual[i].angle.getCos(), EPSILON);
+        assertEquals(expected[i].angle.getSin(), actual[i].angle.getSin(), EPSILON);
+      }
+    }
+  }
+
+  /**
+   * Check chassis speeds match.
+   *
+   * @param expected Chassis speeds from {@link SwerveDriveKinematics}.
+   * @param actual   Chassis speeds from {@link SwerveKinematics2}.
+   */
+  private static void assertSpeeds(ChassisSpeeds expected, ChassisSpeeds actual)
+  {
+    assertEquals(expected.vxMetersPerSecond, actual.vxMetersPerSecond, EPSILON);
+    assertEquals(expected.vyMetersPerSecond, actual.vyMetersPerSecond, EPSILON);
+    assertEquals(expected.omegaRadiansPerSecond, actual.omegaRadiansPerSecond, EPSILON);
+  }
+
+  @Test
+  void moduleStatesMatchWpilib()
+  {
+    Random random = new Random(5458);
+    for (int trial = 0; trial < TRIALS; trial++)
+    {
+      Translation2d[]       modules   = randomModules(random);
+      SwerveDriveKinematics reference = new SwerveDriveKinematics(modules);
+      SwerveKinematics2     tested    = create(modules);
+      ChassisSpeeds         speeds    = randomSpeeds(random);
+      assertStates(reference.toSwerveModuleStates(speeds), tested.toSwerveModuleStates(speeds));
+    }
+  }
+
+  @Test
+  void moduleStatesAboutACenterOfRotationMatchWpilib()
+  {
+    Random                random    = new Random(2023);
+    Translation2d[]       modules   = randomModules(random);
+    SwerveDriveKinematics reference = new SwerveDriveKinematics(modules);
+    SwerveKinematics2     tested    = create(modules);
+    // More centers of rotation than the matrix cache holds, revisiting some, so hits and evictions are both compared.
+    Translation2d[]       centers   = new Translation2d[SwerveKinematics2.COR_CACHE_CAPACITY * 2];
+    for (int i = 0; i < centers.length; i++)
+    {
+      // Whole millimeters so the cache quantization does not move the center of rotation.
+      centers[i] = new Translation2d(Math.round(2000 * random.nextDouble() - 1000) / 1000.0,
+                                     Math.round(2000 * random.nextDouble() - 1000) / 1000.0);
+    }
+    for (int trial = 0; trial < TRIALS; trial++)
+    {
+      ChassisSpeeds speeds = randomSpeeds(random);
+      Translation2d center = centers[random.nextInt(trial < TRIALS / 2 ? 4 : centers.length)];
+      assertStates(reference.toSwerveModuleStates(speeds, center), tested.toSwerveModuleStates(speeds, center));
+    }
+  }
+
+  @Test
+  void desaturatedStatesMatchWpilib()
+  {
+    Random random = new Random(42);
+    for (int trial = 0; trial < TRIALS; trial++)
+    {
+      Translation2d[]       modules   = randomModules(random);
+      SwerveDriveKinematics reference = new SwerveDriveKinematics(modules);
+      SwerveKinematics2     tested    = create(modules);
+      ChassisSpeeds         speeds    = randomSpeeds(random);
+      double                maxSpeed  = 1 + 3 * random.nextDouble();
+
+      SwerveModuleState[]  expected = reference.toSwerveModuleStates(speeds);
+      SwerveModuleState2[] actual   = tested.toSwerveModuleStates(speeds);
+      SwerveDriveKinematics.desaturateWheelSpeeds(expected, maxSpeed);
+      SwerveKinematics2.desaturateWheelSpeeds(actual, maxSpeed);
+      assertStates(expected, actual);
+
+      expected = reference.toSwerveModuleStates(speeds);
+      actual = tested.toSwerveModuleStates(speeds);
+      SwerveDriveKinematics.desaturateWheelSpeeds(expected, speeds, maxSpeed, 4, 2 * Math.PI);
+      SwerveKinematics2.desaturateWheelSpeeds(actual, speeds, maxSpeed, 4, 2 * Math.PI);
+      assertStates(expected, actual);
+
+      // The engine scales its own buffers the same way.
+      expected = reference.toSwerveModuleStates(speeds);
+      SwerveDriveKinematics.desaturateWheelSpeeds(expected, maxSpeed);
+      tested.toSwerveModuleStates(speeds);
+      tested.getEngine().desaturate(maxSpeed);
+      for (int i = 0; i < modules.length; i++)
+      {
+        assertEquals(expected[i].speedMetersPerSecond, tested.getEngine().getModuleSpeed(i), EPSILON);
+      }
+    }
+  }
+
+  @Test
+  void chassisSpeedsMatchWpilib()
+  {
+    Random random = new Random(7);
+    for (int trial = 0; trial < TRIALS; trial++)
+    {
+      Translation2d[]       modules   = randomModules(random);
+      SwerveDriveKinematics reference = new SwerveDriveKinematics(modules);
+      SwerveKinematics2     tested    = create(modules);
+      // Independent random states are not consistent with any rigid motion, so this checks the least squares fit.
+      SwerveModuleState[]   states    = new SwerveModuleState[modules.length];
+      for (int i = 0; i < states.length; i++)
+      {
+        states[i] = new SwerveModuleState(10 * random.nextDouble() - 5,
+                                          new Rotation2d(2 * Math.PI * random.nextDouble()));
+      }
+      ChassisSpeeds expected = reference.toChassisSpeeds(states);
+      assertSpeeds(expected, tested.toChassisSpeeds(states));
+      ChassisSpeeds into = new ChassisSpeeds();
+      tested.toChassisSpeeds(into, states);
+      assertSpeeds(expected, into);
+    }
+  }
+
+  @Test
+  void twistsMatchWpilib()
+  {
+    Random random = new Random(11);
+    for (int trial = 0; trial < TRIALS; trial++)
+    {
+      Translation2d[]        modules   = randomModules(random);
+      SwerveDriveKinematics  reference = new SwerveDriveKinematics(modules);
+      SwerveKinematics2      tested    = create(modules);
+      SwerveModulePosition[] deltas    = new SwerveModulePosition[modules.length];
+      double[]               distances = new double[modules.length];
+      double[]               angles    = new double[modules.length];
+      for (int i = 0; i < deltas.length; i++)
+      {
+        distances[i] = 0.2 * random.nextDouble() - 0.1;
+        angles[i] = 2 * Math.PI * random.nextDouble();
+        deltas[i] = new SwerveModulePosition(distances[i], new Rotation2d(angles[i]));
+      }
+      Twist2d expected = reference.toTwist2d(deltas);
+      Twist2d actual   = tested.toTwist2d(deltas);
+      assertEquals(expected.dx, actual.dx, EPSILON);
+      assertEquals(expected.dy, actual.dy, EPSILON);
+      assertEquals(expected.dtheta, actual.dtheta, EPSILON);
+
+      double[] twist = new double[3];
+      tested.getEngine().toTwist(distances, angles, twist);
+      assertEquals(expected.dx, twist[0], EPSILON);
+      assertEquals(expected.dy, twist[1], EPSILON);
+      assertEquals(expected.dtheta, twist[2], EPSILON);
+    }
+  }
+
+  @Test
+  void stoppingKeepsTheModuleAngles()
+  {
+    Translation2d[]      modules = {new Translation2d(0.3, 0.3), new Translation2d(0.3, -0.3),
+                                    new Translation2d(-0.3, 0.3), new Translation2d(-0.3, -0.3)};
+    SwerveKinematics2    tested  = create(modules);
+    SwerveModuleState2[] moving  = tested.toSwerveModuleStates(new ChassisSpeeds(0, 1, 0));
+    double               sin     = moving[0].angle.getSin();
+    SwerveModuleState2[] stopped = tested.toSwerveModuleStates(new ChassisSpeeds());
+
+    // The states are reused between calls.
+    assertSame(moving, stopped);
+    assertEquals(1, sin, EPSILON);
+    for (SwerveModuleState2 state : stopped)
+    {
+      assertEquals(0, state.speedMetersPerSecond);
+      assertEquals(1, state.angle.getSin(), EPSILON);
+    }
+  }
+}
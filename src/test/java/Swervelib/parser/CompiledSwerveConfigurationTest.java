@@ -0,0 +1,126 @@
+package Swervelib.parser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import edu.wpi.first.hal.HAL;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CompiledSwerveConfigurationTest
+{
+
+  /**
+   * Swerve configuration of the robot.
+   */
+  private static final Path SOURCE = Path.of("src/main/deploy/swerve");
+
+  /**
+   * Copy of the swerve configuration the tests may change.
+   */
+  @TempDir
+  File directory;
+  /**
+   * Compiled configuration file in {@link #directory}.
+   */
+  File compiled;
+
+  @BeforeAll
+  static void initialize()
+  {
+    HAL.initialize(500, 0);
+  }
+
+  @BeforeEach
+  void copyConfiguration() throws IOException
+  {
+    try (Stream<Path> files = Files.walk(SOURCE))
+    {
+      for (Path file : (Iterable<Path>) files::iterator)
+      {
+        Path copy = directory.toPath().resolve(SOURCE.relativize(file).toString());
+        if (Files.isDirectory(file))
+        {
+          Files.createDirectories(copy);
+        } else
+        {
+          Files.copy(file, copy);
+        }
+      }
+    }
+    compiled = new File(directory, SwerveParser.COMPILED_FILE);
+  }
+
+  @Test
+  void compiledConfigurationRoundTrips() throws IOException
+  {
+    SwerveParser.compile(directory, compiled);
+    CompiledSwerveConfiguration loaded = SwerveParser.load(directory, compiled);
+    assertNotNull(loaded);
+
+    // Parse the JSON with the compiled file out of the way and resolve it again to compare against.
+    Files.delete(compiled.toPath());
+    new SwerveParser(directory);
+    CompiledSwerveConfiguration parsed = new CompiledSwerveConfiguration(loaded.fingerprint,
+                                                                         SwerveParser.swerveDriveJson,
+                                                                         SwerveParser.controllerPropertiesJson,
+                                                                         SwerveParser.pidfPropertiesJson,
+                                                                         SwerveParser.physicalPropertiesJson,
+                                                                         SwerveParser.moduleJsons);
+    assertArrayEquals(parsed.swerveDriveJson.modules, loaded.swerveDriveJson.modules);
+    assertEquals(parsed.swerveDriveJson.imu.type, loaded.swerveDriveJson.imu.type);
+    assertEquals(parsed.maxSpeed, loaded.maxSpeed);
+    assertEquals(parsed.maxAngularVelocity, loaded.maxAngularVelocity);
+    assertEquals(parsed.modules.length, loaded.modules.length);
+    for (int i = 0; i < loaded.modules.length; i++)
+    {
+      assertEquals(parsed.moduleJsons[i].drive.id, loaded.moduleJsons[i].drive.id);
+      assertEquals(parsed.moduleJsons[i].drive.type, loaded.moduleJsons[i].drive.type);
+      assertEquals(parsed.modules[i].xMeters, loaded.modules[i].xMeters);
+      assertEquals(parsed.modules[i].yMeters, loaded.modules[i].yMeters);
+      assertEquals(parsed.modules[i].angleKV, loaded.modules[i].angleKV);
+      assertEquals(parsed.modules[i].drivePositionConversion, loaded.modules[i].drivePositionConversion);
+      assertEquals(parsed.modules[i].anglePositionConversion, loaded.modules[i].anglePositionConversion);
+      assertEquals(parsed.modules[i].driveKA, loaded.modules[i].driveKA);
+    }
+
+    // Compiling the same JSON again gives the same fingerprint, so a rebuild does not make the robot reparse.
+    SwerveParser.compile(directory, compiled);
+    assertEquals(loaded.fingerprint, SwerveParser.load(directory, compiled).fingerprint);
+  }
+
+  @Test
+  void changedJsonMakesTheCompiledConfigurationStale() throws IOException
+  {
+    SwerveParser.compile(directory, compiled);
+    assertNotNull(SwerveParser.load(directory, compiled));
+
+    // Whitespace leaves the parsed values alone but still changes the fingerprint.
+    Files.write(new File(directory, "modules/frontleft.json").toPath(), "\n".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+    assertNull(SwerveParser.load(directory, compiled));
+  }
+
+  @Test
+  void unreadableCompiledConfigurationIsIgnored() throws IOException
+  {
+    assertNull(SwerveParser.load(directory, compiled));
+    Files.write(compiled.toPath(), "not serialized".getBytes(StandardCharsets.UTF_8));
+    assertNull(SwerveParser.load(directory, compiled));
+    // The parser falls back to the JSON.
+    assertDoesNotThrow(() -> new SwerveParser(directory));
+  }
+}
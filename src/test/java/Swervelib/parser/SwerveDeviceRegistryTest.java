@@ -0,0 +1,66 @@
+package Swervelib.parser;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import Swervelib.motors.VirtualMotorSwerve;
+import Swervelib.parser.TestDeviceProvider.TestIMU;
+import Swervelib.parser.json.DeviceJson;
+import org.junit.jupiter.api.Test;
+
+class SwerveDeviceRegistryTest
+{
+
+  /**
+   * Create the JSON of a device.
+   *
+   * @param type Device type.
+   * @return Device JSON of the type with ID 0 on the roboRIO CAN bus.
+   */
+  private static DeviceJson device(String type)
+  {
+    DeviceJson device = new DeviceJson();
+    device.type = type;
+    return device;
+  }
+
+  @Test
+  void providerOverridesBuiltInTypes()
+  {
+    SwerveDeviceRegistry registry = SwerveDeviceRegistry.getInstance();
+    // The provider runs after the built in devices are registered, so its analog IMU replaces the analog gyro and no
+    // gyro is opened on the analog port.
+    assertInstanceOf(TestIMU.class, registry.createIMU(device("analog")));
+    assertInstanceOf(TestIMU.class, registry.createIMU(device("testimu")));
+    // Types the provider does not register keep their built in factory.
+    assertFalse(registry.createIMU(device("virtual")) instanceof TestIMU);
+  }
+
+  @Test
+  void registeringReplacesTheFactory()
+  {
+    SwerveDeviceRegistry registry = SwerveDeviceRegistry.getInstance();
+    assertFalse(registry.hasMotor("testmotor"));
+    registry.registerMotor((device, isDriveMotor) -> new VirtualMotorSwerve(isDriveMotor), "testmotor");
+    assertTrue(registry.hasMotor("testmotor"));
+    assertInstanceOf(VirtualMotorSwerve.class, registry.createMotor(device("testmotor"), true));
+
+    // Registering an existing type again replaces its factory.
+    VirtualMotorSwerve motor = new VirtualMotorSwerve(false);
+    registry.registerMotor((device, isDriveMotor) -> motor, "testmotor");
+    assertSame(motor, registry.createMotor(device("testmotor"), false));
+  }
+
+  @Test
+  void unknownTypesAreRejected()
+  {
+    SwerveDeviceRegistry registry = SwerveDeviceRegistry.getInstance();
+    assertFalse(registry.hasIMU("unknown"));
+    assertThrows(RuntimeException.class, () -> registry.createIMU(device("unknown")));
+    assertThrows(RuntimeException.class, () -> registry.createMotor(device("unknown"), false));
+    assertThrows(RuntimeException.class, () -> registry.createAbsoluteEncoder(device("unknown")));
+  }
+}
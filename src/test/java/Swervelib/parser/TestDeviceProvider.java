@@ -0,0 +1,30 @@
+package Swervelib.parser;
+
+import Swervelib.imu.VirtualIMUSwerve;
+
+/**
+ * Device provider found through {@code META-INF/services} in the test resources, which replaces the built in "analog"
+ * IMU and adds a "testimu" type.
+ */
+public class TestDeviceProvider implements SwerveDeviceProvider
+{
+
+  /**
+   * Virtual IMU the provider creates, to tell it apart from the built in devices.
+   */
+  public static class TestIMU extends VirtualIMUSwerve
+  {
+
+  }
+
+  /**
+   * Register the test IMU for the "analog" and "testimu" types.
+   *
+   * @param registry Registry to register the factories with.
+   */
+  @Override
+  public void register(SwerveDeviceRegistry registry)
+  {
+    registry.registerIMU(device -> new TestIMU(), "analog", "testimu");
+  }
+}
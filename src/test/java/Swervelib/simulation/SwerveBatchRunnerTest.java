@@ -0,0 +1,83 @@
+package Swervelib.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import Swervelib.SwerveDrive;
+import Swervelib.parser.SwerveParser;
+import Swervelib.simulation.SwerveBatchRunner.Case;
+import Swervelib.simulation.SwerveBatchRunner.Result;
+import Swervelib.telemetry.SwerveDriveTelemetry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SwerveBatchRunnerTest
+{
+
+  /**
+   * Swerve configuration of the robot.
+   */
+  private static final File             DIRECTORY = new File("src/main/deploy/swerve");
+  /**
+   * Trace of a drive forward and a turn.
+   */
+  private static final SwerveInputTrace TRACE     = new SwerveInputTrace(new double[]{0, 1},
+                                                                         new double[]{2, 0},
+                                                                         new double[]{0, 0},
+                                                                         new double[]{0, 90},
+                                                                         2);
+
+  @BeforeAll
+  static void initialize()
+  {
+    VirtualSwerveDrives.initialize();
+  }
+
+  @Test
+  void parallelCasesScoreTheSameAsSerialOnes() throws IOException
+  {
+    SwerveBatchRunner runner = new SwerveBatchRunner(DIRECTORY, TRACE);
+    List<Case>        cases  = new ArrayList<>();
+    for (double p : new double[]{0.2, 0.4, 0.8})
+    {
+      cases.add(new Case("heading.p=" + p, SwerveBatchRunner.parameter("heading.p", p)));
+      cases.add(new Case("drive.p=" + p, SwerveBatchRunner.parameter("drive.p", p / 10)));
+    }
+
+    runner.parallelism = 1;
+    List<Result> serial = runner.run(cases);
+    runner.parallelism = 4;
+    List<Result> parallel = runner.run(cases);
+    for (int i = 0; i < cases.size(); i++)
+    {
+      assertEquals(serial.get(i).name, parallel.get(i).name);
+      assertEquals(serial.get(i).rmsVelocityError, parallel.get(i).rmsVelocityError, 0);
+      assertEquals(serial.get(i).rmsHeadingError, parallel.get(i).rmsHeadingError, 0);
+      assertEquals(serial.get(i).settlingTime, parallel.get(i).settlingTime, 0);
+      assertEquals(serial.get(i).peakCurrent, parallel.get(i).peakCurrent, 0);
+      assertEquals(serial.get(i).odometryError, parallel.get(i).odometryError, 0);
+    }
+  }
+
+  @Test
+  void virtualDrivesLeaveTheParsedConfigurationAlone() throws IOException
+  {
+    boolean      simulation  = SwerveDriveTelemetry.isSimulation;
+    SwerveParser parser      = new SwerveParser(DIRECTORY);
+    String       imuType     = SwerveParser.swerveDriveJson.imu.type;
+    String       driveType   = SwerveParser.moduleJsons[0].drive.type;
+    SwerveDrive  swerveDrive = parser.createVirtualSwerveDrive();
+
+    assertFalse(swerveDrive.swerveDriveConfiguration.simulated);
+    assertEquals(simulation, SwerveDriveTelemetry.isSimulation);
+    assertEquals(imuType, SwerveParser.swerveDriveJson.imu.type);
+    assertEquals(driveType, SwerveParser.moduleJsons[0].drive.type);
+    assertNotEquals("virtual", imuType);
+  }
+}
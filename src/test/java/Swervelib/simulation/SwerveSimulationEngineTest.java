@@ -0,0 +1,89 @@
+package Swervelib.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import Swervelib.SwerveDrive;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class SwerveSimulationEngineTest
+{
+
+  /**
+   * Trace of a drive forward, a strafe while turning and a stop.
+   */
+  private static final SwerveInputTrace TRACE = new SwerveInputTrace(new double[]{0, 1, 2},
+                                                                     new double[]{1.5, 0.5, 0},
+                                                                     new double[]{0, 1, 0},
+                                                                     new double[]{0, 90, -45},
+                                                                     3);
+
+  @BeforeAll
+  static void initialize()
+  {
+    VirtualSwerveDrives.initialize();
+  }
+
+  /**
+   * Follow {@link #TRACE} with a new drive.
+   *
+   * @param stallEvery Sleep for a millisecond every this many control loops, 0 to never sleep, so the wall clock moves
+   *                   differently between runs.
+   * @return Odometry pose followed by the true pose, as x, y and heading in radians.
+   * @throws InterruptedException if interrupted while sleeping.
+   * @throws IOException          if the swerve configuration can't be read.
+   */
+  private static double[] follow(int stallEvery) throws InterruptedException, IOException
+  {
+    SwerveDrive            drive  = VirtualSwerveDrives.create();
+    SwerveSimulationEngine engine = new SwerveSimulationEngine(drive, 0.005);
+    int                    loops  = 0;
+    long                   steps  = Math.round(TRACE.getDuration() / 0.005);
+    for (long i = 0; i < steps; i++)
+    {
+      if (i % 4 == 0)
+      {
+        int    sample = TRACE.getSampleIndex(engine.getTime());
+        double omega  = drive.swerveController.headingCalculate(drive.getYaw().getRadians(),
+                                                                Math.toRadians(TRACE.getHeading(sample)));
+        drive.drive(new Translation2d(TRACE.getVx(sample), TRACE.getVy(sample)), omega, true, false);
+        drive.updateOdometry();
+        if (stallEvery > 0 && ++loops % stallEvery == 0)
+        {
+          Thread.sleep(1);
+        }
+      }
+      engine.step();
+    }
+    Pose2d odometry = drive.getPose();
+    Pose2d truth    = engine.getPose();
+    return new double[]{odometry.getX(), odometry.getY(), odometry.getRotation().getRadians(),
+                        truth.getX(), truth.getY(), truth.getRotation().getRadians()};
+  }
+
+  @Test
+  void sameTraceGivesIdenticalPoses() throws InterruptedException, IOException
+  {
+    double[] first  = follow(0);
+    double[] second = follow(7);
+    assertArrayEquals(first, second, 0);
+    // The drive went somewhere, so identical poses are not both the origin.
+    assertTrue(Math.hypot(first[3], first[4]) > 0.5);
+  }
+
+  @Test
+  void clockOnlyMovesWithSteps() throws IOException
+  {
+    SwerveDrive            drive  = VirtualSwerveDrives.create();
+    SwerveSimulationEngine engine = new SwerveSimulationEngine(drive, 0.005);
+    assertEquals(0, drive.getTimestamp());
+    engine.run(0.5, 0.02, drive::updateOdometry);
+    assertEquals(0.5, drive.getTimestamp(), 1e-9);
+  }
+}
@@ -0,0 +1,50 @@
+package Swervelib.simulation;
+
+import java.io.File;
+import java.io.IOException;
+
+import Swervelib.SwerveDrive;
+import Swervelib.parser.SwerveParser;
+import Swervelib.telemetry.SwerveDriveTelemetry;
+import Swervelib.telemetry.SwerveDriveTelemetry.TelemetryVerbosity;
+import edu.wpi.first.hal.HAL;
+
+/**
+ * Swerve drives of the robot's configuration built from virtual devices for tests, the same drives the benchmarks and
+ * {@link SwerveBatchRunner} run.
+ */
+final class VirtualSwerveDrives
+{
+
+  /**
+   * Swerve configuration of the robot.
+   */
+  static final File DIRECTORY = new File("src/main/deploy/swerve");
+
+  /**
+   * Utility class.
+   */
+  private VirtualSwerveDrives()
+  {
+  }
+
+  /**
+   * Start the HAL and stop telemetry publishing.
+   */
+  static void initialize()
+  {
+    HAL.initialize(500, 0);
+    SwerveDriveTelemetry.verbosity = TelemetryVerbosity.NONE;
+  }
+
+  /**
+   * Create a swerve drive of the robot's configuration with every device replaced by a virtual one.
+   *
+   * @return {@link SwerveDrive} from {@link SwerveParser#createVirtualSwerveDrive()}.
+   * @throws IOException if the configuration can't be read.
+   */
+  static SwerveDrive create() throws IOException
+  {
+    return new SwerveParser(DIRECTORY).createVirtualSwerveDrive();
+  }
+}
@@ -0,0 +1,131 @@
+package Swervelib.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class StageHistogramTest
+{
+
+  /**
+   * Relative error of a percentile, one bucket is 5% wide.
+   */
+  private static final double BUCKET_ERROR = 0.05;
+
+  /**
+   * Record every whole number of microseconds from 1 to 1000.
+   *
+   * @param histogram Histogram to record into.
+   */
+  private static void recordMicroseconds(StageHistogram histogram)
+  {
+    for (long micros = 1; micros <= 1000; micros++)
+    {
+      histogram.record(micros * 1_000);
+    }
+  }
+
+  /**
+   * Check a percentile is the upper bound of the bucket holding the expected duration.
+   *
+   * @param expected Expected duration in nanoseconds.
+   * @param reported Reported percentile in nanoseconds.
+   */
+  private static void assertBucketOf(long expected, long reported)
+  {
+    assertTrue(reported >= expected, reported + " is below " + expected);
+    assertTrue(reported <= expected * (1 + BUCKET_ERROR), reported + " is more than a bucket above " + expected);
+  }
+
+  @Test
+  void percentilesOfUniformDurations()
+  {
+    StageHistogram histogram = new StageHistogram();
+    recordMicroseconds(histogram);
+
+    assertEquals(1000, histogram.getCount());
+    assertEquals(1_000_000, histogram.getMax());
+    assertBucketOf(500_000, histogram.getPercentile(0.5));
+    assertBucketOf(990_000, histogram.getPercentile(0.99));
+    assertEquals(1_000_000, histogram.getPercentile(1));
+    assertEquals(1_000, histogram.getPercentile(0));
+  }
+
+  @Test
+  void percentilesAreLimitedToTheMax()
+  {
+    StageHistogram histogram = new StageHistogram();
+    histogram.record(1_234_567);
+    histogram.record(200_000_000);
+
+    assertBucketOf(1_234_567, histogram.getPercentile(0.5));
+    assertEquals(200_000_000, histogram.getPercentile(0.99));
+  }
+
+  @Test
+  void emptyHistogramReportsZero()
+  {
+    StageHistogram histogram = new StageHistogram();
+    assertEquals(0, histogram.getPercentile(0.5));
+    assertEquals(0, histogram.getMax());
+    recordMicroseconds(histogram);
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getPercentile(0.99));
+  }
+
+  @Test
+  void moveToStartsANewWindow()
+  {
+    StageHistogram histogram = new StageHistogram();
+    StageHistogram window    = new StageHistogram();
+    recordMicroseconds(histogram);
+    histogram.moveTo(window);
+
+    assertEquals(0, histogram.getCount());
+    assertEquals(0, histogram.getMax());
+    assertEquals(0, histogram.getPercentile(0.99));
+    assertEquals(1000, window.getCount());
+    assertEquals(1_000_000, window.getMax());
+    assertBucketOf(990_000, window.getPercentile(0.99));
+
+    histogram.record(5_000);
+    window.reset();
+    histogram.moveTo(window);
+    assertEquals(1, window.getCount());
+    assertEquals(5_000, window.getMax());
+  }
+
+  @Test
+  void concurrentRecordsAreNeverLost() throws InterruptedException
+  {
+    StageHistogram histogram = new StageHistogram();
+    StageHistogram window    = new StageHistogram();
+    Thread[]       writers   = new Thread[2];
+    for (int i = 0; i < writers.length; i++)
+    {
+      writers[i] = new Thread(() -> {
+        for (int j = 0; j < 100_000; j++)
+        {
+          histogram.record(2_000 + j % 1_000);
+        }
+      });
+      writers[i].start();
+    }
+    // Hand windows over while the writers record, as the main loop does with the odometry thread.
+    while (writers[0].isAlive() || writers[1].isAlive())
+    {
+      histogram.moveTo(window);
+    }
+    for (Thread writer : writers)
+    {
+      writer.join();
+    }
+    histogram.moveTo(window);
+
+    assertEquals(200_000, window.getCount());
+    assertEquals(0, histogram.getCount());
+    assertEquals(2_999, window.getMax());
+  }
+}
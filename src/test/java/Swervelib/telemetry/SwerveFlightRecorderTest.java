@@ -0,0 +1,136 @@
+package Swervelib.telemetry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SwerveFlightRecorderTest
+{
+
+  /**
+   * Name of the log entry the records are written to.
+   */
+  private static final String ENTRY = "swerve/flightRecord";
+
+  /**
+   * Directory the logs are written to.
+   */
+  @TempDir
+  File directory;
+
+  /**
+   * Record a sequence of records from this thread, each field of record n holding n, then stop the recorder and close
+   * the log.
+   *
+   * @param file     Log file name.
+   * @param capacity Ring buffer capacity.
+   * @param count    Number of records to record.
+   * @return The stopped flight recorder.
+   */
+  private SwerveFlightRecorder recordSequence(String file, int capacity, int count)
+  {
+    DataLog              log      = new DataLog(directory.getPath(), file);
+    SwerveFlightRecorder recorder = new SwerveFlightRecorder(log, ENTRY, 1, capacity);
+    double[]             record   = new double[SwerveFlightRecorder.getRecordLength(1)];
+    for (int n = 1; n <= count; n++)
+    {
+      Arrays.fill(record, n);
+      recorder.record(n, record);
+    }
+    recorder.stop();
+    log.close();
+    return recorder;
+  }
+
+  /**
+   * Read the records of the flight record entry back from a log.
+   *
+   * @param file Log file name.
+   * @return Fields of every record in the order they were written.
+   * @throws IOException if the log can't be read.
+   */
+  private List<float[]> readRecords(String file) throws IOException
+  {
+    DataLogReader reader  = new DataLogReader(new File(directory, file).getPath());
+    List<float[]> records = new ArrayList<>();
+    int           entry   = -1;
+    assertTrue(reader.isValid());
+    for (DataLogRecord record : reader)
+    {
+      if (record.isStart())
+      {
+        if (record.getStartData().name.equals(ENTRY))
+        {
+          entry = record.getStartData().entry;
+        }
+      } else if (!record.isControl() && record.getEntry() == entry)
+      {
+        ByteBuffer buffer = ByteBuffer.wrap(record.getRaw()).order(ByteOrder.LITTLE_ENDIAN);
+        float[]    fields = new float[buffer.remaining() / Float.BYTES];
+        for (int i = 0; i < fields.length; i++)
+        {
+          fields[i] = buffer.getFloat();
+        }
+        // The timestamp of record n is n microseconds.
+        assertEquals(fields[0], record.getTimestamp(), 0);
+        records.add(fields);
+      }
+    }
+    return records;
+  }
+
+  @Test
+  void everyRecordIsWrittenInOrder() throws IOException
+  {
+    // Larger than the number of records, so nothing can be dropped.
+    SwerveFlightRecorder recorder = recordSequence("ordered.wpilog", 1024, 1000);
+    assertEquals(0, recorder.getDropped());
+    assertEquals(1000, recorder.getWritten());
+
+    List<float[]> records = readRecords("ordered.wpilog");
+    assertEquals(1000, records.size());
+    for (int n = 0; n < records.size(); n++)
+    {
+      for (float field : records.get(n))
+      {
+        assertEquals(n + 1, field, 0);
+      }
+    }
+  }
+
+  @Test
+  void fullRingDropsWholeRecords() throws IOException
+  {
+    // The writer sleeps between drains, so recording far faster than that overruns a small ring.
+    SwerveFlightRecorder recorder = recordSequence("dropped.wpilog", 4, 100_000);
+    assertTrue(recorder.getDropped() > 0);
+    assertEquals(100_000, recorder.getWritten() + recorder.getDropped());
+
+    List<float[]> records = readRecords("dropped.wpilog");
+    assertEquals(recorder.getWritten(), records.size());
+    float previous = 0;
+    for (float[] fields : records)
+    {
+      // A record the writer read while it was being overwritten would mix two sequence numbers.
+      for (float field : fields)
+      {
+        assertEquals(fields[0], field, 0);
+      }
+      assertTrue(fields[0] > previous);
+      previous = fields[0];
+    }
+  }
+}